@@ -0,0 +1,100 @@
+package io.github.jessez332623.reactive_email_sender.testsupport;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * <p>
+ *     压测使用的延迟分布（单位：微秒），内存占用固定，不随样本数增长，
+ *     不会干扰对堆增长的测量。
+ * </p>
+ *
+ * <p>
+ *     128 微秒以内每微秒一个桶，之后每个 2 的幂区间分成 64 个桶，
+ *     分位点的相对误差不超过 1/64（约 1.6%），可以区分 p99 与 p999 的细微差别。
+ * </p>
+ */
+final class LatencyRecorder
+{
+    /** 每个 2 的幂区间的桶数（以 2 为底的对数）*/
+    private static final int SUB_BUCKET_BITS = 6;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /** 可以区分的最大延迟约为 2^40 微秒（约 12 天），更大的值计入最后一个桶 */
+    private static final int MAX_SHIFT = 34;
+
+    private static final int BUCKETS = (MAX_SHIFT + 2) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+    void record(long micros)
+    {
+        final long value = Math.max(0L, micros);
+
+        this.counts.incrementAndGet(bucketOf(value));
+        this.max.accumulate(value);
+    }
+
+    long getCount()
+    {
+        long count = 0L;
+
+        for (int index = 0; index < BUCKETS; ++index) {
+            count += this.counts.get(index);
+        }
+
+        return count;
+    }
+
+    long getMax() { return this.max.get(); }
+
+    /** 分位点 quantile（0 ~ 1）对应的延迟（所在桶的上界，不超过最大值）。*/
+    long valueAt(double quantile)
+    {
+        final long count = this.getCount();
+
+        if (count == 0L) { return 0L; }
+
+        final long rank = Math.max(1L, (long) Math.ceil(quantile * count));
+
+        long seen = 0L;
+
+        for (int index = 0; index < BUCKETS; ++index)
+        {
+            seen += this.counts.get(index);
+
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(index), this.getMax());
+            }
+        }
+
+        return this.getMax();
+    }
+
+    static int bucketOf(long value)
+    {
+        if (value < 2L * SUB_BUCKETS) { return (int) value; }
+
+        final int shift
+            = (63 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+
+        if (shift > MAX_SHIFT) { return BUCKETS - 1; }
+
+        return
+        shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    static long upperBoundOf(int index)
+    {
+        if (index < 2 * SUB_BUCKETS) { return index; }
+
+        final int  shift = index / SUB_BUCKETS - 1;
+        final long sub   = index % SUB_BUCKETS + SUB_BUCKETS;
+
+        return
+        ((sub + 1L) << shift) - 1L;
+    }
+}
@@ -0,0 +1,202 @@
+package io.github.jessez332623.reactive_email_sender.testsupport;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * <p>{@link SmtpSimulator} 注入的故障（不可变，运行中可以整体替换）。</p>
+ *
+ * <ul>
+ *     <li>latency：每条应答前随机等待 [minLatency, maxLatency] 毫秒；</li>
+ *     <li>transientFailureRate：DATA 结束后以 451 拒收（临时失败，发送器应当重试）；</li>
+ *     <li>permanentFailureRate：RCPT TO 以 550 拒收（永久失败）；</li>
+ *     <li>dropRate：DATA 结束后不应答，直接断开连接；</li>
+ *     <li>readBytesPerSecond：限速读取邮件数据（慢读，让客户端的写出阻塞）；</li>
+ *     <li>maxMessagesPerSecond：每秒接收的邮件数上限，超出的 MAIL FROM 以 451 拒收；</li>
+ *     <li>maxConnections：并发连接数上限，超出的连接在问候时以 421 拒绝并断开。</li>
+ * </ul>
+ *
+ * <p>比例的取值范围为 [0, 1]，数量与速率为 0 表示不限制。</p>
+ */
+public final class SmtpFaults
+{
+    private static final SmtpFaults NONE = builder().build();
+
+    private final long   minLatency;
+    private final long   maxLatency;
+    private final double transientFailureRate;
+    private final double permanentFailureRate;
+    private final double dropRate;
+    private final long   readBytesPerSecond;
+    private final int    maxMessagesPerSecond;
+    private final int    maxConnections;
+
+    private SmtpFaults(@NotNull Builder builder)
+    {
+        this.minLatency           = builder.minLatency;
+        this.maxLatency           = builder.maxLatency;
+        this.transientFailureRate = builder.transientFailureRate;
+        this.permanentFailureRate = builder.permanentFailureRate;
+        this.dropRate             = builder.dropRate;
+        this.readBytesPerSecond   = builder.readBytesPerSecond;
+        this.maxMessagesPerSecond = builder.maxMessagesPerSecond;
+        this.maxConnections       = builder.maxConnections;
+    }
+
+    /** 不注入任何故障。*/
+    public static @NotNull SmtpFaults none() { return NONE; }
+
+    @Contract(" -> new")
+    public static @NotNull Builder builder() { return new Builder(); }
+
+    /** 以当前故障为基础修改（用于运行中调整某一项故障）。*/
+    public @NotNull Builder
+    toBuilder()
+    {
+        return
+        builder().latency(this.minLatency, this.maxLatency)
+                 .transientFailureRate(this.transientFailureRate)
+                 .permanentFailureRate(this.permanentFailureRate)
+                 .dropRate(this.dropRate)
+                 .readBytesPerSecond(this.readBytesPerSecond)
+                 .maxMessagesPerSecond(this.maxMessagesPerSecond)
+                 .maxConnections(this.maxConnections);
+    }
+
+    public long getMinLatency() { return this.minLatency; }
+
+    public long getMaxLatency() { return this.maxLatency; }
+
+    public double getTransientFailureRate() { return this.transientFailureRate; }
+
+    public double getPermanentFailureRate() { return this.permanentFailureRate; }
+
+    public double getDropRate() { return this.dropRate; }
+
+    public long getReadBytesPerSecond() { return this.readBytesPerSecond; }
+
+    public int getMaxMessagesPerSecond() { return this.maxMessagesPerSecond; }
+
+    public int getMaxConnections() { return this.maxConnections; }
+
+    /** 本条应答前需要等待的时间（单位：毫秒）。*/
+    long nextLatency()
+    {
+        if (this.maxLatency <= 0L) { return 0L; }
+
+        return
+        (this.maxLatency > this.minLatency)
+            ? ThreadLocalRandom.current().nextLong(this.minLatency, this.maxLatency + 1L)
+            : this.maxLatency;
+    }
+
+    /** 按照概率 rate 判定是否注入故障。*/
+    static boolean roll(double rate)
+    {
+        return
+        rate > 0.0 && ThreadLocalRandom.current().nextDouble() < rate;
+    }
+
+    @Override
+    public String toString()
+    {
+        return
+        String.format(
+            "SmtpFaults[latency=%d-%dms, transient=%.4f, permanent=%.4f, drop=%.4f, " +
+            "readBytesPerSecond=%d, maxMessagesPerSecond=%d, maxConnections=%d]",
+            this.minLatency, this.maxLatency,
+            this.transientFailureRate, this.permanentFailureRate, this.dropRate,
+            this.readBytesPerSecond, this.maxMessagesPerSecond, this.maxConnections
+        );
+    }
+
+    /** {@link SmtpFaults} 的构建器。*/
+    public static class Builder
+    {
+        private long   minLatency;
+        private long   maxLatency;
+        private double transientFailureRate;
+        private double permanentFailureRate;
+        private double dropRate;
+        private long   readBytesPerSecond;
+        private int    maxMessagesPerSecond;
+        private int    maxConnections;
+
+        /** 每条应答前的随机延迟范围（单位：毫秒）。*/
+        public Builder
+        latency(long min, long max)
+        {
+            if (min < 0L || max < min)
+            {
+                throw new
+                IllegalArgumentException(
+                    String.format("Invalid latency range: [%d, %d]", min, max)
+                );
+            }
+
+            this.minLatency = min;
+            this.maxLatency = max;
+            return this;
+        }
+
+        public Builder
+        transientFailureRate(double rate)
+        {
+            this.transientFailureRate = checkRate("transientFailureRate", rate);
+            return this;
+        }
+
+        public Builder
+        permanentFailureRate(double rate)
+        {
+            this.permanentFailureRate = checkRate("permanentFailureRate", rate);
+            return this;
+        }
+
+        public Builder
+        dropRate(double rate)
+        {
+            this.dropRate = checkRate("dropRate", rate);
+            return this;
+        }
+
+        public Builder
+        readBytesPerSecond(long bytesPerSecond)
+        {
+            this.readBytesPerSecond = Math.max(0L, bytesPerSecond);
+            return this;
+        }
+
+        public Builder
+        maxMessagesPerSecond(int messagesPerSecond)
+        {
+            this.maxMessagesPerSecond = Math.max(0, messagesPerSecond);
+            return this;
+        }
+
+        public Builder
+        maxConnections(int connections)
+        {
+            this.maxConnections = Math.max(0, connections);
+            return this;
+        }
+
+        public SmtpFaults build() { return new SmtpFaults(this); }
+
+        private static double
+        checkRate(String name, double rate)
+        {
+            if (rate < 0.0 || rate > 1.0)
+            {
+                throw new
+                IllegalArgumentException(
+                    String.format("%s must be in [0, 1], but got %s", name, rate)
+                );
+            }
+
+            return rate;
+        }
+    }
+}
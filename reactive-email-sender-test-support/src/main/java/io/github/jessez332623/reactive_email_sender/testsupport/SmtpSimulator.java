@@ -0,0 +1,598 @@
+package io.github.jessez332623.reactive_email_sender.testsupport;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * <p>
+ *     可嵌入测试与压测的本地 SMTP 模拟服务器，只监听回环地址，
+ *     每条连接由一个虚拟线程处理，可以承受压测时的大量连接。
+ * </p>
+ *
+ * <p>
+ *     支持 EHLO / HELO、AUTH PLAIN / LOGIN（接受任何凭据）、MAIL、RCPT、DATA、
+ *     RSET、NOOP 与 QUIT，不支持 STARTTLS（不宣告，发送器不会启用）。
+ *     按照 {@link SmtpFaults} 注入延迟、4xx / 5xx 应答、断开连接、慢读与限流，
+ *     故障可以在运行中通过 {@link #setFaults(SmtpFaults)} 替换。
+ * </p>
+ *
+ * <pre>{@code
+ * try (SmtpSimulator simulator = SmtpSimulator.start(0, SmtpFaults.builder()
+ *         .latency(5L, 20L)
+ *         .transientFailureRate(0.01)
+ *         .build()))
+ * {
+ *     DefaultReactiveEmailSenderImpl sender
+ *         = DefaultReactiveEmailSenderImpl.builder()
+ *             .smtpHost("localhost")
+ *             .smtpPort(simulator.getPort())
+ *             ...
+ *             .build();
+ * }
+ * }</pre>
+ */
+@Slf4j
+public class SmtpSimulator implements AutoCloseable
+{
+    private static final String HOST_NAME = "smtp-simulator";
+
+    /** 单行的最大长度（超出的部分丢弃），RFC 5321 规定为 1000 字节 */
+    private static final int MAX_LINE_LENGTH = 64 * 1024;
+
+    private final ServerSocket serverSocket;
+
+    private final ExecutorService connectionExecutor
+        = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Set<Socket> openSockets = ConcurrentHashMap.newKeySet();
+
+    private volatile SmtpFaults faults;
+
+    private volatile @Nullable Consumer<ReceivedMessage> messageListener;
+
+    private volatile boolean closed = false;
+
+    private final AtomicInteger activeConnections = new AtomicInteger();
+
+    private final LongAdder connections         = new LongAdder();
+    private final LongAdder rejectedConnections = new LongAdder();
+    private final LongAdder messagesAccepted    = new LongAdder();
+    private final LongAdder transientFailures   = new LongAdder();
+    private final LongAdder permanentFailures   = new LongAdder();
+    private final LongAdder droppedConnections  = new LongAdder();
+    private final LongAdder throttled           = new LongAdder();
+    private final LongAdder bytesReceived       = new LongAdder();
+
+    /** 限流窗口（当前秒及其中已接收的邮件数）*/
+    private long rateWindowSecond = 0L;
+    private int  rateWindowCount  = 0;
+
+    /**
+     * 模拟服务器接收到的一封邮件。
+     *
+     * @param from       MAIL FROM 的地址
+     * @param recipients RCPT TO 的地址
+     * @param data       邮件数据（已去除透明点）
+     */
+    public record ReceivedMessage(String from, List<String> recipients, byte[] data) {}
+
+    /**
+     * 模拟服务器的统计（自启动以来累计）。
+     *
+     * @param connections         接受的连接数
+     * @param activeConnections   当前打开的连接数
+     * @param rejectedConnections 超出 maxConnections 而拒绝的连接数
+     * @param messagesAccepted    接收成功（应答 250）的邮件数
+     * @param transientFailures   以 451 拒收的邮件数
+     * @param permanentFailures   以 550 拒收的收件人数
+     * @param droppedConnections  邮件数据读完后直接断开的连接数
+     * @param throttled           超出 maxMessagesPerSecond 而拒收的 MAIL FROM 数
+     * @param bytesReceived       接收的邮件数据字节数
+     */
+    public record Stats(
+        long connections, int activeConnections, long rejectedConnections,
+        long messagesAccepted, long transientFailures, long permanentFailures,
+        long droppedConnections, long throttled, long bytesReceived) {}
+
+    private SmtpSimulator(@NotNull ServerSocket serverSocket, @NotNull SmtpFaults faults)
+    {
+        this.serverSocket = serverSocket;
+        this.faults       = faults;
+    }
+
+    /**
+     * 在回环地址的指定端口上启动模拟服务器。
+     *
+     * @param port   监听端口，0 表示由系统分配（通过 {@link #getPort()} 获取）
+     * @param faults 注入的故障
+     */
+    public static @NotNull SmtpSimulator
+    start(int port, @NotNull SmtpFaults faults) throws IOException
+    {
+        final ServerSocket serverSocket = new ServerSocket();
+
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(
+            new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024
+        );
+
+        final SmtpSimulator simulator
+            = new SmtpSimulator(serverSocket, Objects.requireNonNull(faults));
+
+        Thread.ofVirtual()
+              .name("smtp-simulator-acceptor")
+              .start(simulator::acceptLoop);
+
+        log.info("SMTP simulator listening on port {} with {}.", simulator.getPort(), faults);
+
+        return simulator;
+    }
+
+    /** 在回环地址的指定端口上启动不注入故障的模拟服务器。*/
+    public static @NotNull SmtpSimulator
+    start(int port) throws IOException {
+        return start(port, SmtpFaults.none());
+    }
+
+    public int getPort() { return this.serverSocket.getLocalPort(); }
+
+    public @NotNull SmtpFaults getFaults() { return this.faults; }
+
+    /** 替换注入的故障，对之后的应答立即生效。*/
+    public void setFaults(@NotNull SmtpFaults faults) {
+        this.faults = Objects.requireNonNull(faults);
+    }
+
+    /** 设置接收到邮件时的回调（在连接的虚拟线程上调用，不应阻塞太久）。*/
+    public void onMessage(@Nullable Consumer<ReceivedMessage> listener) {
+        this.messageListener = listener;
+    }
+
+    public @NotNull Stats
+    getStats()
+    {
+        return new
+        Stats(
+            this.connections.sum(), this.activeConnections.get(),
+            this.rejectedConnections.sum(), this.messagesAccepted.sum(),
+            this.transientFailures.sum(), this.permanentFailures.sum(),
+            this.droppedConnections.sum(), this.throttled.sum(),
+            this.bytesReceived.sum()
+        );
+    }
+
+    /** 停止监听并断开所有连接。*/
+    @Override
+    public void close()
+    {
+        this.closed = true;
+
+        try {
+            this.serverSocket.close();
+        }
+        catch (IOException exception) {
+            log.debug("Close server socket failed: {}", exception.getMessage());
+        }
+
+        this.openSockets.forEach(SmtpSimulator::closeQuietly);
+        this.connectionExecutor.shutdownNow();
+
+        try {
+            this.connectionExecutor.awaitTermination(5L, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void acceptLoop()
+    {
+        while (!this.closed)
+        {
+            try
+            {
+                final Socket socket = this.serverSocket.accept();
+
+                this.connections.increment();
+                this.openSockets.add(socket);
+                this.connectionExecutor.execute(() -> this.serve(socket));
+            }
+            catch (IOException exception)
+            {
+                if (!this.closed) {
+                    log.warn("Accept connection failed: {}", exception.getMessage());
+                }
+            }
+            catch (RuntimeException exception)
+            {
+                // 关闭期间执行器拒绝新的任务
+                if (!this.closed) { throw exception; }
+            }
+        }
+    }
+
+    private void serve(@NotNull Socket socket)
+    {
+        final int maxConnections = this.faults.getMaxConnections();
+        final int active         = this.activeConnections.incrementAndGet();
+
+        try (socket)
+        {
+            final InputStream  input  = new BufferedInputStream(socket.getInputStream());
+            final OutputStream output = socket.getOutputStream();
+
+            if (maxConnections > 0 && active > maxConnections)
+            {
+                this.rejectedConnections.increment();
+                this.reply(output, "421 4.3.2 Too many connections, try again later");
+                return;
+            }
+
+            this.reply(output, "220 " + HOST_NAME + " ESMTP ready");
+            this.session(input, output);
+        }
+        catch (IOException exception) {
+            log.debug("Connection closed: {}", exception.getMessage());
+        }
+        catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        finally
+        {
+            this.activeConnections.decrementAndGet();
+            this.openSockets.remove(socket);
+        }
+    }
+
+    /** 处理一条连接上的命令，直到 QUIT、断开或注入断开故障。*/
+    private void
+    session(@NotNull InputStream input, @NotNull OutputStream output)
+        throws IOException, InterruptedException
+    {
+        final ByteArrayOutputStream lineBuffer = new ByteArrayOutputStream(256);
+
+        String       from       = null;
+        List<String> recipients = new ArrayList<>();
+        String       line;
+
+        while ((line = readLine(input, lineBuffer)) != null)
+        {
+            final String command = line.length() >= 4
+                ? line.substring(0, 4).toUpperCase(Locale.ROOT)
+                : line.toUpperCase(Locale.ROOT);
+
+            switch (command)
+            {
+                case "EHLO" ->
+                    this.reply(output,
+                        "250-" + HOST_NAME + "\r\n" +
+                        "250-PIPELINING\r\n"        +
+                        "250-8BITMIME\r\n"          +
+                        "250-SMTPUTF8\r\n"          +
+                        "250-SIZE 52428800\r\n"     +
+                        "250 AUTH PLAIN LOGIN");
+
+                case "HELO" -> this.reply(output, "250 " + HOST_NAME);
+
+                case "AUTH" ->
+                {
+                    if (!this.authenticate(line, input, output, lineBuffer)) { return; }
+                }
+
+                case "MAIL" ->
+                {
+                    if (this.tryAcquireMessage(this.faults.getMaxMessagesPerSecond()))
+                    {
+                        from       = addressOf(line);
+                        recipients = new ArrayList<>();
+                        this.reply(output, "250 2.1.0 Ok");
+                    }
+                    else
+                    {
+                        this.throttled.increment();
+                        this.reply(output, "451 4.7.1 Rate limit exceeded, try again later");
+                    }
+                }
+
+                case "RCPT" ->
+                {
+                    if (Objects.isNull(from)) {
+                        this.reply(output, "503 5.5.1 Need MAIL command");
+                    }
+                    else if (SmtpFaults.roll(this.faults.getPermanentFailureRate()))
+                    {
+                        this.permanentFailures.increment();
+                        this.reply(output, "550 5.1.1 Mailbox unavailable");
+                    }
+                    else
+                    {
+                        recipients.add(addressOf(line));
+                        this.reply(output, "250 2.1.5 Ok");
+                    }
+                }
+
+                case "DATA" ->
+                {
+                    if (recipients.isEmpty())
+                    {
+                        this.reply(output, "554 5.5.1 No valid recipients");
+                        continue;
+                    }
+
+                    this.reply(output, "354 End data with <CR><LF>.<CR><LF>");
+
+                    final byte[] data = this.readData(input, lineBuffer);
+
+                    if (Objects.isNull(data)) { return; }
+
+                    final SmtpFaults current = this.faults;
+
+                    if (SmtpFaults.roll(current.getDropRate()))
+                    {
+                        // 不应答直接断开，客户端无法确定邮件是否已被接收
+                        this.droppedConnections.increment();
+                        return;
+                    }
+
+                    if (SmtpFaults.roll(current.getTransientFailureRate()))
+                    {
+                        this.transientFailures.increment();
+                        this.reply(output, "451 4.3.0 Temporary local problem, try again later");
+                    }
+                    else
+                    {
+                        this.messagesAccepted.increment();
+                        this.notifyListener(from, recipients, data);
+                        this.reply(output, "250 2.0.0 Ok: queued");
+                    }
+
+                    from       = null;
+                    recipients = new ArrayList<>();
+                }
+
+                case "RSET" ->
+                {
+                    from       = null;
+                    recipients = new ArrayList<>();
+                    this.reply(output, "250 2.0.0 Ok");
+                }
+
+                case "NOOP" -> this.reply(output, "250 2.0.0 Ok");
+
+                case "QUIT" ->
+                {
+                    this.reply(output, "221 2.0.0 Bye");
+                    return;
+                }
+
+                default -> this.reply(output, "502 5.5.2 Command not recognized");
+            }
+        }
+    }
+
+    /** 处理 AUTH PLAIN / LOGIN，接受任何凭据（客户端中途断开时返回 false）。*/
+    private boolean
+    authenticate(
+        @NotNull String line, @NotNull InputStream input,
+        @NotNull OutputStream output, @NotNull ByteArrayOutputStream lineBuffer)
+        throws IOException, InterruptedException
+    {
+        final String[] parts = line.trim().split("\\s+");
+        final String mechanism
+            = (parts.length > 1) ? parts[1].toUpperCase(Locale.ROOT) : "";
+
+        switch (mechanism)
+        {
+            case "PLAIN" ->
+            {
+                // 没有初始应答时再读一行凭据
+                if (parts.length < 3)
+                {
+                    this.reply(output, "334 ");
+
+                    if (Objects.isNull(readLine(input, lineBuffer))) { return false; }
+                }
+            }
+
+            case "LOGIN" ->
+            {
+                if (parts.length < 3)
+                {
+                    this.reply(output, "334 VXNlcm5hbWU6");
+
+                    if (Objects.isNull(readLine(input, lineBuffer))) { return false; }
+                }
+
+                this.reply(output, "334 UGFzc3dvcmQ6");
+
+                if (Objects.isNull(readLine(input, lineBuffer))) { return false; }
+            }
+
+            default ->
+            {
+                this.reply(output, "504 5.5.4 Unrecognized authentication type");
+                return true;
+            }
+        }
+
+        this.reply(output, "235 2.7.0 Authentication successful");
+
+        return true;
+    }
+
+    /**
+     * 读取邮件数据直到单独一行的 "."，
+     * 配置了 readBytesPerSecond 时按速率放慢读取（客户端的写出随之阻塞）。
+     *
+     * @return 去除透明点的邮件数据，客户端中途断开时返回 null
+     */
+    private byte @Nullable []
+    readData(@NotNull InputStream input, @NotNull ByteArrayOutputStream lineBuffer)
+        throws IOException, InterruptedException
+    {
+        final long bytesPerSecond = this.faults.getReadBytesPerSecond();
+        final long startNanos     = System.nanoTime();
+        final boolean keepData    = Objects.nonNull(this.messageListener);
+        final ByteArrayOutputStream data = new ByteArrayOutputStream();
+
+        long   bytesRead = 0L;
+        String line;
+
+        while ((line = readLine(input, lineBuffer)) != null)
+        {
+            if (line.equals(".")) { return data.toByteArray(); }
+
+            bytesRead += line.length() + 2L;
+            this.bytesReceived.add(line.length() + 2L);
+
+            if (keepData)
+            {
+                final String unstuffed = line.startsWith(".") ? line.substring(1) : line;
+
+                data.writeBytes(unstuffed.getBytes(StandardCharsets.ISO_8859_1));
+                data.writeBytes(new byte[] {'\r', '\n'});
+            }
+
+            if (bytesPerSecond > 0L)
+            {
+                final long dueNanos  = bytesRead * 1_000_000_000L / bytesPerSecond;
+                final long aheadNanos = dueNanos - (System.nanoTime() - startNanos);
+
+                if (aheadNanos > 1_000_000L) {
+                    TimeUnit.NANOSECONDS.sleep(aheadNanos);
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /** 按照 maxMessagesPerSecond 判定本封邮件是否可以接收（固定的一秒窗口）。*/
+    private synchronized boolean
+    tryAcquireMessage(int maxMessagesPerSecond)
+    {
+        if (maxMessagesPerSecond <= 0) { return true; }
+
+        final long second = System.currentTimeMillis() / 1000L;
+
+        if (second != this.rateWindowSecond)
+        {
+            this.rateWindowSecond = second;
+            this.rateWindowCount  = 0;
+        }
+
+        if (this.rateWindowCount >= maxMessagesPerSecond) { return false; }
+
+        ++this.rateWindowCount;
+
+        return true;
+    }
+
+    private void
+    notifyListener(String from, List<String> recipients, byte[] data)
+    {
+        final Consumer<ReceivedMessage> listener = this.messageListener;
+
+        if (Objects.isNull(listener)) { return; }
+
+        try {
+            listener.accept(new ReceivedMessage(from, List.copyOf(recipients), data));
+        }
+        catch (RuntimeException exception) {
+            log.warn("Message listener failed: {}", exception.getMessage());
+        }
+    }
+
+    /** 按照注入的延迟等待后写出应答。*/
+    private void
+    reply(@NotNull OutputStream output, @NotNull String reply)
+        throws IOException, InterruptedException
+    {
+        final long latency = this.faults.nextLatency();
+
+        if (latency > 0L) {
+            TimeUnit.MILLISECONDS.sleep(latency);
+        }
+
+        output.write((reply + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        output.flush();
+    }
+
+    /** 读取以 CRLF（或 LF）结尾的一行（不含行尾），连接关闭时返回 null。*/
+    private static @Nullable String
+    readLine(@NotNull InputStream input, @NotNull ByteArrayOutputStream lineBuffer)
+        throws IOException
+    {
+        lineBuffer.reset();
+
+        int current;
+
+        while ((current = input.read()) != -1)
+        {
+            if (current == '\n')
+            {
+                final byte[] bytes  = lineBuffer.toByteArray();
+                final int    length = (bytes.length > 0 && bytes[bytes.length - 1] == '\r')
+                    ? bytes.length - 1 : bytes.length;
+
+                return new String(bytes, 0, length, StandardCharsets.ISO_8859_1);
+            }
+
+            if (lineBuffer.size() < MAX_LINE_LENGTH) {
+                lineBuffer.write(current);
+            }
+        }
+
+        return null;
+    }
+
+    /** 取出 MAIL FROM:&lt;a@b&gt; 或 RCPT TO:&lt;a@b&gt; 中的地址。*/
+    private static @NotNull String
+    addressOf(@NotNull String line)
+    {
+        final int start = line.indexOf('<');
+        final int end   = line.indexOf('>', start + 1);
+
+        if (start >= 0 && end > start) {
+            return line.substring(start + 1, end);
+        }
+
+        final int colon = line.indexOf(':');
+
+        return
+        (colon >= 0) ? line.substring(colon + 1).trim() : "";
+    }
+
+    private static void
+    closeQuietly(@NotNull Socket socket)
+    {
+        try {
+            socket.close();
+        }
+        catch (IOException ignored) {}
+    }
+}
@@ -0,0 +1,108 @@
+package io.github.jessez332623.reactive_email_sender.testsupport;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 一次压测的结果（只统计预热之后的测量阶段）。
+ *
+ * @param elapsed     测量阶段的时长（从开始发送到在途发送全部结束）
+ * @param targetRate  目标速率（单位：封 / 秒）
+ * @param offered     按照目标速率应当发起的发送数
+ * @param succeeded   发送成功的邮件数
+ * @param failed      最终发送失败的邮件数
+ * @param skipped     因在途发送数达到上限而没有发起的发送数（说明发送器跟不上目标速率）
+ * @param errors      失败按错误类型的计数
+ * @param throughput  实际吞吐量（单位：成功封 / 秒）
+ * @param latency     从发起到完成的延迟分布（包括重试）
+ * @param threads     线程数
+ * @param heap        堆内存
+ * @param server      模拟服务器的统计（压测外部服务器时为 null）
+ */
+public record SoakReport(
+    Duration elapsed, double targetRate,
+    long offered, long succeeded, long failed, long skipped,
+    Map<String, Long> errors, double throughput,
+    Latency latency, Threads threads, Heap heap,
+    @Nullable SmtpSimulator.Stats server)
+{
+    /**
+     * 延迟分布（单位：毫秒，相对误差约 1.6%）。
+     *
+     * @param count 样本数（成功与失败的发送）
+     * @param p50   中位数
+     * @param p99   99 分位
+     * @param p999  99.9 分位
+     * @param max   最大值
+     */
+    public record Latency(long count, double p50, double p99, double p999, double max) {}
+
+    /**
+     * 线程数（JVM 内所有存活的平台线程）。
+     *
+     * @param atStart 测量开始时
+     * @param atEnd   在途发送全部结束后
+     * @param peak    测量期间的峰值
+     */
+    public record Threads(int atStart, int atEnd, int peak) {}
+
+    /**
+     * 堆内存（单位：字节），开始与结束时都先触发一次完整 GC 再读取。
+     *
+     * @param atStart 测量开始时 GC 后的已用堆内存
+     * @param atEnd   在途发送全部结束、GC 后的已用堆内存
+     * @param peak    测量期间采样到的已用堆内存峰值（含未回收的垃圾）
+     */
+    public record Heap(long atStart, long atEnd, long peak)
+    {
+        /** 测量前后 GC 后已用堆内存的增长，持续增长通常意味着泄漏。*/
+        public long growth() { return this.atEnd - this.atStart; }
+    }
+
+    /** 失败数占已完成的发送数的比例。*/
+    public double errorRate()
+    {
+        final long completed = this.succeeded + this.failed;
+
+        return
+        (completed == 0L) ? 0.0 : (double) this.failed / completed;
+    }
+
+    /** 多行文本格式的报告（便于在升级前后对比）。*/
+    public @NotNull String
+    format()
+    {
+        final StringBuilder report = new StringBuilder();
+
+        report.append(String.format("Soak test report (%ds at %.1f msg/s)%n",
+                  this.elapsed.toSeconds(), this.targetRate))
+              .append(String.format("  messages   : offered=%d succeeded=%d failed=%d skipped=%d error-rate=%.4f%n",
+                  this.offered, this.succeeded, this.failed, this.skipped, this.errorRate()))
+              .append(String.format("  throughput : %.1f msg/s%n", this.throughput))
+              .append(String.format("  latency ms : p50=%.3f p99=%.3f p999=%.3f max=%.3f (n=%d)%n",
+                  this.latency.p50(), this.latency.p99(), this.latency.p999(),
+                  this.latency.max(), this.latency.count()))
+              .append(String.format("  threads    : start=%d end=%d peak=%d%n",
+                  this.threads.atStart(), this.threads.atEnd(), this.threads.peak()))
+              .append(String.format("  heap MiB   : start=%.1f end=%.1f growth=%+.1f peak=%.1f%n",
+                  mebibytes(this.heap.atStart()), mebibytes(this.heap.atEnd()),
+                  mebibytes(this.heap.growth()), mebibytes(this.heap.peak())));
+
+        if (!this.errors.isEmpty()) {
+            report.append(String.format("  errors     : %s%n", this.errors));
+        }
+
+        if (Objects.nonNull(this.server)) {
+            report.append(String.format("  server     : %s%n", this.server));
+        }
+
+        return report.toString();
+    }
+
+    private static double
+    mebibytes(long bytes) { return bytes / (1024.0 * 1024.0); }
+}
@@ -0,0 +1,564 @@
+package io.github.jessez332623.reactive_email_sender.testsupport;
+
+import io.github.jessez332623.reactive_email_sender.ReactiveEmailSender;
+import io.github.jessez332623.reactive_email_sender.dto.EmailContent;
+import io.github.jessez332623.reactive_email_sender.exception.EmailException;
+import io.github.jessez332623.reactive_email_sender.impl.DefaultReactiveEmailSenderImpl;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * <p>
+ *     长时间压测：以目标速率持续调用 {@link ReactiveEmailSender#sendEmail(EmailContent)}，
+ *     结束后报告吞吐量、p50 / p99 / p999 延迟、线程数与堆增长，用于升级前后对比回归。
+ * </p>
+ *
+ * <ol>
+ *     <li>预热阶段按目标速率发送，但不计入统计（让连接池、JIT 与各个缓存进入稳定状态）；</li>
+ *     <li>测量开始前触发 GC 记录基线，之后按照经过的时间计算应当发起的发送数，不因发送变慢而降速；</li>
+ *     <li>在途发送数达到 maxInFlight 时不再发起，记为 skipped（说明发送器跟不上目标速率）；</li>
+ *     <li>时间到达后等待在途发送结束（最多 drainTimeout），再次 GC 后记录堆与线程。</li>
+ * </ol>
+ *
+ * <p>
+ *     也可以直接运行 {@link #main(String[])}：启动一个 {@link SmtpSimulator}（或指定 --host 压测外部服务器），
+ *     按照命令行参数注入故障并压测，超出 --max-p99 等阈值时以退出码 1 结束，便于放进发布前的检查。
+ * </p>
+ */
+public final class SoakTestRunner
+{
+    /** 发起发送的时间粒度 */
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1L);
+
+    /** 堆内存峰值的采样间隔 */
+    private static final long HEAP_SAMPLE_NANOS = TimeUnit.MILLISECONDS.toNanos(100L);
+
+    private final ReactiveEmailSender sender;
+    private final EmailContent        content;
+    private final double              ratePerSecond;
+    private final Duration            duration;
+    private final Duration            warmup;
+    private final int                 maxInFlight;
+    private final Duration            reportInterval;
+    private final Duration            drainTimeout;
+    private final @Nullable SmtpSimulator simulator;
+    private final Consumer<String>    progress;
+
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    private final MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
+
+    private final AtomicLong inFlight  = new AtomicLong();
+    private final LongAdder  offered   = new LongAdder();
+    private final LongAdder  succeeded = new LongAdder();
+    private final LongAdder  failed    = new LongAdder();
+    private final LongAdder  skipped   = new LongAdder();
+
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    private final LatencyRecorder latency = new LatencyRecorder();
+
+    private long heapPeak = 0L;
+
+    private SoakTestRunner(@NotNull Builder builder)
+    {
+        this.sender         = Objects.requireNonNull(builder.sender, "sender");
+        this.content        = Objects.requireNonNull(builder.content, "content");
+        this.ratePerSecond  = builder.ratePerSecond;
+        this.duration       = builder.duration;
+        this.warmup         = builder.warmup;
+        this.maxInFlight    = builder.maxInFlight;
+        this.reportInterval = builder.reportInterval;
+        this.drainTimeout   = builder.drainTimeout;
+        this.simulator      = builder.simulator;
+        this.progress       = builder.progress;
+
+        if (this.ratePerSecond <= 0.0)
+        {
+            throw new
+            IllegalArgumentException("ratePerSecond must be positive, but got " + this.ratePerSecond);
+        }
+    }
+
+    @Contract(" -> new")
+    public static @NotNull Builder builder() { return new Builder(); }
+
+    /** 执行压测（阻塞直到结束）并返回报告，每个实例只能执行一次。*/
+    public @NotNull SoakReport
+    run()
+    {
+        if (!this.warmup.isZero())
+        {
+            this.progress.accept(String.format("Warming up for %ds ...", this.warmup.toSeconds()));
+            this.drive(this.warmup, false);
+        }
+
+        final long heapAtStart = this.usedHeapAfterGc();
+
+        this.heapPeak = heapAtStart;
+        this.threadMXBean.resetPeakThreadCount();
+
+        final int threadsAtStart = this.threadMXBean.getThreadCount();
+
+        this.progress.accept(
+            String.format(
+                "Measuring for %ds at %.1f msg/s (max in-flight %d) ...",
+                this.duration.toSeconds(), this.ratePerSecond, this.maxInFlight
+            )
+        );
+
+        final long startNanos = System.nanoTime();
+
+        this.drive(this.duration, true);
+
+        if (!this.awaitDrained())
+        {
+            this.progress.accept(
+                String.format(
+                    "%d sends still in flight after %ds, reporting without them.",
+                    this.inFlight.get(), this.drainTimeout.toSeconds()
+                )
+            );
+        }
+
+        final long elapsedNanos = System.nanoTime() - startNanos;
+        final int  threadsAtEnd = this.threadMXBean.getThreadCount();
+        final int  peakThreads  = this.threadMXBean.getPeakThreadCount();
+        final long heapAtEnd    = this.usedHeapAfterGc();
+
+        final Map<String, Long> errorCounts = new TreeMap<>();
+
+        this.errors.forEach((type, count) -> errorCounts.put(type, count.sum()));
+
+        return new
+        SoakReport(
+            Duration.ofNanos(elapsedNanos), this.ratePerSecond,
+            this.offered.sum(), this.succeeded.sum(), this.failed.sum(), this.skipped.sum(),
+            errorCounts, this.succeeded.sum() * 1e9 / elapsedNanos,
+            new SoakReport.Latency(
+                this.latency.getCount(),
+                millis(this.latency.valueAt(0.50)),
+                millis(this.latency.valueAt(0.99)),
+                millis(this.latency.valueAt(0.999)),
+                millis(this.latency.getMax())
+            ),
+            new SoakReport.Threads(threadsAtStart, threadsAtEnd, peakThreads),
+            new SoakReport.Heap(heapAtStart, heapAtEnd, Math.max(this.heapPeak, heapAtEnd)),
+            Objects.nonNull(this.simulator) ? this.simulator.getStats() : null
+        );
+    }
+
+    /** 在 period 内按照目标速率发起发送（按经过的时间计算，落后时补发）。*/
+    private void
+    drive(@NotNull Duration period, boolean measured)
+    {
+        final long startNanos    = System.nanoTime();
+        final long endNanos      = startNanos + period.toNanos();
+        final long intervalNanos = this.reportInterval.toNanos();
+
+        long issued          = 0L;
+        long nextReport      = startNanos + intervalNanos;
+        long nextHeapSample  = startNanos;
+        long reportedSuccess = 0L;
+        long now;
+
+        while ((now = System.nanoTime()) < endNanos)
+        {
+            final long due
+                = (long) ((now - startNanos) / 1e9 * this.ratePerSecond) - issued;
+
+            for (long index = 0L; index < due; ++index) {
+                this.issue(measured);
+            }
+
+            issued += Math.max(0L, due);
+
+            if (measured && now >= nextHeapSample)
+            {
+                this.heapPeak
+                    = Math.max(this.heapPeak, this.memoryMXBean.getHeapMemoryUsage().getUsed());
+                nextHeapSample = now + HEAP_SAMPLE_NANOS;
+            }
+
+            if (measured && now >= nextReport)
+            {
+                final long success = this.succeeded.sum();
+
+                this.progress.accept(
+                    String.format(
+                        "[%5ds] throughput=%.1f/s in-flight=%d succeeded=%d failed=%d skipped=%d " +
+                        "p99=%.3fms threads=%d heap=%.1fMiB",
+                        TimeUnit.NANOSECONDS.toSeconds(now - startNanos),
+                        (success - reportedSuccess) * 1e9 / intervalNanos,
+                        this.inFlight.get(), success, this.failed.sum(), this.skipped.sum(),
+                        millis(this.latency.valueAt(0.99)),
+                        this.threadMXBean.getThreadCount(),
+                        this.memoryMXBean.getHeapMemoryUsage().getUsed() / (1024.0 * 1024.0)
+                    )
+                );
+
+                reportedSuccess = success;
+                nextReport += intervalNanos;
+            }
+
+            LockSupport.parkNanos(TICK_NANOS);
+        }
+    }
+
+    /** 发起一次发送，在途发送数达到上限时跳过。*/
+    private void issue(boolean measured)
+    {
+        if (measured) { this.offered.increment(); }
+
+        if (this.inFlight.get() >= this.maxInFlight)
+        {
+            if (measured) { this.skipped.increment(); }
+            return;
+        }
+
+        this.inFlight.incrementAndGet();
+
+        final long startNanos = System.nanoTime();
+
+        try
+        {
+            this.sender.sendEmail(this.content)
+                .subscribe(
+                    null,
+                    (exception) -> this.complete(startNanos, exception, measured),
+                    () -> this.complete(startNanos, null, measured)
+                );
+        }
+        catch (RuntimeException exception) {
+            this.complete(startNanos, exception, measured);
+        }
+    }
+
+    private void
+    complete(long startNanos, @Nullable Throwable failure, boolean measured)
+    {
+        this.inFlight.decrementAndGet();
+
+        if (!measured) { return; }
+
+        this.latency.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
+
+        if (Objects.isNull(failure))
+        {
+            this.succeeded.increment();
+            return;
+        }
+
+        this.failed.increment();
+
+        final String type
+            = (failure instanceof EmailException exception)
+                ? exception.getErrorType().name()
+                : failure.getClass().getSimpleName();
+
+        this.errors.computeIfAbsent(type, (ignored) -> new LongAdder()).increment();
+    }
+
+    private boolean awaitDrained()
+    {
+        final long deadline = System.nanoTime() + this.drainTimeout.toNanos();
+
+        while (this.inFlight.get() > 0L)
+        {
+            if (System.nanoTime() >= deadline) { return false; }
+
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10L));
+        }
+
+        return true;
+    }
+
+    /** 触发完整 GC 后读取已用堆内存（两次 GC，尽量回收带终结逻辑的对象）。*/
+    private long usedHeapAfterGc()
+    {
+        System.gc();
+        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100L));
+        System.gc();
+
+        return
+        this.memoryMXBean.getHeapMemoryUsage().getUsed();
+    }
+
+    private static double
+    millis(long micros) { return micros / 1000.0; }
+
+    /** {@link SoakTestRunner} 的构建器。*/
+    public static class Builder
+    {
+        private ReactiveEmailSender sender;
+        private EmailContent        content;
+        private double              ratePerSecond  = 100.0;
+        private Duration            duration       = Duration.ofMinutes(1L);
+        private Duration            warmup         = Duration.ofSeconds(10L);
+        private int                 maxInFlight    = 1000;
+        private Duration            reportInterval = Duration.ofSeconds(10L);
+        private Duration            drainTimeout   = Duration.ofSeconds(60L);
+        private SmtpSimulator       simulator;
+        private Consumer<String>    progress       = System.out::println;
+
+        /** 被压测的发送器。*/
+        public Builder
+        sender(@NotNull ReactiveEmailSender sender) {
+            this.sender = sender; return this;
+        }
+
+        /** 每次发送的邮件内容。*/
+        public Builder
+        content(@NotNull EmailContent content) {
+            this.content = content; return this;
+        }
+
+        /** 目标速率（单位：封 / 秒）。*/
+        public Builder
+        ratePerSecond(double rate) {
+            this.ratePerSecond = rate; return this;
+        }
+
+        /** 测量阶段的时长。*/
+        public Builder
+        duration(@NotNull Duration duration) {
+            this.duration = duration; return this;
+        }
+
+        /** 预热阶段的时长（不计入统计，默认 10 秒）。*/
+        public Builder
+        warmup(@NotNull Duration warmup) {
+            this.warmup = warmup; return this;
+        }
+
+        /** 在途发送数的上限（默认 1000）。*/
+        public Builder
+        maxInFlight(int maxInFlight) {
+            this.maxInFlight = Math.max(1, maxInFlight); return this;
+        }
+
+        /** 输出进度的间隔（默认 10 秒）。*/
+        public Builder
+        reportInterval(@NotNull Duration interval) {
+            this.reportInterval = interval; return this;
+        }
+
+        /** 时间到达后等待在途发送结束的最长时间（默认 60 秒）。*/
+        public Builder
+        drainTimeout(@NotNull Duration timeout) {
+            this.drainTimeout = timeout; return this;
+        }
+
+        /** 压测的模拟服务器（可选，用于在报告中附上服务器一侧的统计）。*/
+        public Builder
+        simulator(@Nullable SmtpSimulator simulator) {
+            this.simulator = simulator; return this;
+        }
+
+        /** 进度输出（默认输出到标准输出）。*/
+        public Builder
+        progress(@NotNull Consumer<String> progress) {
+            this.progress = progress; return this;
+        }
+
+        public SoakTestRunner build() { return new SoakTestRunner(this); }
+    }
+
+    /**
+     * <p>命令行入口，参数的格式为 --name=value：</p>
+     *
+     * <ul>
+     *     <li>--rate、--duration、--warmup、--max-in-flight、--report-interval：压测参数（时间单位：秒）；</li>
+     *     <li>--message-size：正文字节数；--pool-size、--max-attempts：发送器参数；</li>
+     *     <li>--host、--port、--from、--auth-code、--to：压测外部服务器（不指定 --host 时启动模拟服务器）；</li>
+     *     <li>
+     *         --latency=min-max（毫秒）、--transient-rate、--permanent-rate、--drop-rate、
+     *         --read-bytes-per-second、--max-messages-per-second、--max-connections：模拟服务器注入的故障；
+     *     </li>
+     *     <li>--max-p99（毫秒）、--max-error-rate、--max-heap-growth（MiB）：回归阈值，超出时退出码为 1。</li>
+     * </ul>
+     */
+    public static void main(String[] args) throws Exception
+    {
+        final Map<String, String> options = parseOptions(args);
+
+        final String host = options.get("host");
+
+        final SmtpSimulator simulator
+            = Objects.isNull(host)
+                ? SmtpSimulator.start(intOption(options, "port", 0), faultsOf(options))
+                : null;
+
+        final DefaultReactiveEmailSenderImpl sender
+            = DefaultReactiveEmailSenderImpl.builder()
+                .smtpHost(Objects.isNull(host) ? "localhost" : host)
+                .smtpPort(Objects.isNull(simulator) ? intOption(options, "port", 25) : simulator.getPort())
+                .maxAttemptTimes(intOption(options, "max-attempts", 3))
+                .startBackoffInterval(1L)
+                .maxBackoffInterval(5L)
+                .maxAttachmentSize(8)
+                .enterPriceEmailAddress(options.getOrDefault("from", "soak-test@example.com"))
+                .serviceAuthCode(options.getOrDefault("auth-code", "soak-test"))
+                .setDefaultSessionProperties()
+                .addProperty("mail.smtp.connectionpoolsize", String.valueOf(intOption(options, "pool-size", 10)))
+                .build();
+
+        final EmailContent content
+            = EmailContent.fromJustText(
+                options.getOrDefault("to", "soak-test@example.com"),
+                "Soak test message",
+                bodyOf(intOption(options, "message-size", 1024))
+            ).block();
+
+        final SoakReport report;
+
+        try
+        {
+            report
+                = builder()
+                    .sender(sender)
+                    .content(Objects.requireNonNull(content))
+                    .ratePerSecond(doubleOption(options, "rate", 100.0))
+                    .duration(Duration.ofSeconds(intOption(options, "duration", 60)))
+                    .warmup(Duration.ofSeconds(intOption(options, "warmup", 10)))
+                    .maxInFlight(intOption(options, "max-in-flight", 1000))
+                    .reportInterval(Duration.ofSeconds(intOption(options, "report-interval", 10)))
+                    .simulator(simulator)
+                    .build()
+                    .run();
+        }
+        finally
+        {
+            sender.shutdown(Duration.ofSeconds(10L)).block();
+
+            if (Objects.nonNull(simulator)) {
+                simulator.close();
+            }
+        }
+
+        System.out.print(report.format());
+
+        final List<String> violations = new ArrayList<>();
+
+        if (options.containsKey("max-p99") &&
+            report.latency().p99() > doubleOption(options, "max-p99", 0.0))
+        {
+            violations.add(String.format("p99 %.3fms > %sms", report.latency().p99(), options.get("max-p99")));
+        }
+
+        if (options.containsKey("max-error-rate") &&
+            report.errorRate() > doubleOption(options, "max-error-rate", 0.0))
+        {
+            violations.add(String.format("error rate %.4f > %s", report.errorRate(), options.get("max-error-rate")));
+        }
+
+        if (options.containsKey("max-heap-growth") &&
+            report.heap().growth() / (1024.0 * 1024.0) > doubleOption(options, "max-heap-growth", 0.0))
+        {
+            violations.add(
+                String.format("heap growth %.1fMiB > %sMiB",
+                    report.heap().growth() / (1024.0 * 1024.0), options.get("max-heap-growth"))
+            );
+        }
+
+        if (!violations.isEmpty())
+        {
+            System.out.println("FAILED: " + String.join(", ", violations));
+            System.exit(1);
+        }
+    }
+
+    private static @NotNull SmtpFaults
+    faultsOf(@NotNull Map<String, String> options)
+    {
+        final SmtpFaults.Builder faults = SmtpFaults.builder();
+        final String latency = options.get("latency");
+
+        if (Objects.nonNull(latency))
+        {
+            final String[] range = latency.split("-", 2);
+            final long min = Long.parseLong(range[0].trim());
+
+            faults.latency(min, (range.length > 1) ? Long.parseLong(range[1].trim()) : min);
+        }
+
+        return
+        faults.transientFailureRate(doubleOption(options, "transient-rate", 0.0))
+              .permanentFailureRate(doubleOption(options, "permanent-rate", 0.0))
+              .dropRate(doubleOption(options, "drop-rate", 0.0))
+              .readBytesPerSecond(intOption(options, "read-bytes-per-second", 0))
+              .maxMessagesPerSecond(intOption(options, "max-messages-per-second", 0))
+              .maxConnections(intOption(options, "max-connections", 0))
+              .build();
+    }
+
+    private static @NotNull Map<String, String>
+    parseOptions(String @NotNull [] args)
+    {
+        final Map<String, String> options = new LinkedHashMap<>();
+
+        for (String arg : args)
+        {
+            if (!arg.startsWith("--") || !arg.contains("="))
+            {
+                throw new
+                IllegalArgumentException("Expect --name=value, but got: " + arg);
+            }
+
+            final int separator = arg.indexOf('=');
+
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        return options;
+    }
+
+    private static int
+    intOption(@NotNull Map<String, String> options, String name, int defaultValue)
+    {
+        final String value = options.get(name);
+
+        return
+        Objects.isNull(value) ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    private static double
+    doubleOption(@NotNull Map<String, String> options, String name, double defaultValue)
+    {
+        final String value = options.get(name);
+
+        return
+        Objects.isNull(value) ? defaultValue : Double.parseDouble(value.trim());
+    }
+
+    /** 生成大约 size 字节的纯文本正文。*/
+    private static @NotNull String
+    bodyOf(int size)
+    {
+        final String line = "The quick brown fox jumps over the lazy dog. 0123456789\n";
+        final StringBuilder body = new StringBuilder(Math.max(size, 0) + line.length());
+
+        while (body.length() < size) {
+            body.append(line);
+        }
+
+        return body.toString();
+    }
+}
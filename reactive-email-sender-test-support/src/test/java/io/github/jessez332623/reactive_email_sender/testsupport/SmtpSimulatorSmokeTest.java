@@ -0,0 +1,159 @@
+package io.github.jessez332623.reactive_email_sender.testsupport;
+
+import io.github.jessez332623.reactive_email_sender.dto.EmailContent;
+import io.github.jessez332623.reactive_email_sender.exception.EmailException;
+import io.github.jessez332623.reactive_email_sender.impl.DefaultReactiveEmailSenderImpl;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static io.github.jessez332623.reactive_email_sender.exception.EmailException.ErrorType.REJECTED;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * <p>发送器对着注入故障的 {@link SmtpSimulator} 的冒烟测试。</p>
+ *
+ * <p>
+ *     覆盖发送器的重试约定：4xx 应答（临时失败）退避后重试，
+ *     5xx 应答（永久失败）不重试，直接以 REJECTED 结束。
+ *     运行方式见 README 的「测试用例」一节。
+ * </p>
+ */
+class SmtpSimulatorSmokeTest
+{
+    /** 发送器的最大重试次数（首次尝试之外）*/
+    private static final int MAX_RETRIES = 2;
+
+    private SmtpSimulator simulator;
+
+    private DefaultReactiveEmailSenderImpl sender;
+
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        this.simulator = SmtpSimulator.start(0);
+
+        this.sender
+            = DefaultReactiveEmailSenderImpl.builder()
+                .smtpHost("localhost")
+                .smtpPort(this.simulator.getPort())
+                .maxAttemptTimes(MAX_RETRIES)
+                .startBackoffInterval(1L)
+                .maxBackoffInterval(1L)
+                .maxAttachmentSize(8)
+                .enterPriceEmailAddress("smoke-test@example.com")
+                .serviceAuthCode("smoke-test")
+                .setDefaultSessionProperties()
+                .build();
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        this.sender.shutdown(Duration.ofSeconds(5L)).block();
+        this.simulator.close();
+    }
+
+    /** 有延迟但没有失败时，所有邮件都送达。*/
+    @Test
+    void deliversAllEmailsUnderLatency()
+    {
+        this.simulator.setFaults(SmtpFaults.builder().latency(5L, 20L).build());
+
+        Flux.range(0, 20)
+            .flatMap((index) -> this.sender.sendEmail(email("user" + index + "@example.com")))
+            .blockLast(Duration.ofSeconds(30L));
+
+        assertEquals(20L, this.simulator.getStats().messagesAccepted());
+    }
+
+    /** 451 应答之后退避重试，服务器恢复后邮件送达。*/
+    @Test
+    void retriesTransientFailureUntilDelivered() throws Exception
+    {
+        this.simulator.setFaults(SmtpFaults.builder().transientFailureRate(1.0).build());
+
+        final CompletableFuture<Void> sent
+            = this.sender.sendEmail(email("user@example.com")).toFuture();
+
+        this.awaitTransientFailures(1L);
+        this.simulator.setFaults(SmtpFaults.none());
+
+        sent.get(30L, TimeUnit.SECONDS);
+
+        final SmtpSimulator.Stats stats = this.simulator.getStats();
+
+        assertEquals(1L, stats.transientFailures());
+        assertEquals(1L, stats.messagesAccepted());
+    }
+
+    /** 一直收到 451 应答时，重试次数用尽后失败。*/
+    @Test
+    void givesUpAfterRetriesExhausted()
+    {
+        this.simulator.setFaults(SmtpFaults.builder().transientFailureRate(1.0).build());
+
+        assertThrows(
+            RuntimeException.class,
+            () -> this.sender.sendEmail(email("user@example.com")).block(Duration.ofSeconds(30L))
+        );
+
+        final SmtpSimulator.Stats stats = this.simulator.getStats();
+
+        assertEquals(MAX_RETRIES + 1L, stats.transientFailures());
+        assertEquals(0L, stats.messagesAccepted());
+    }
+
+    /** 550 应答是永久失败，只尝试一次，以 REJECTED 结束。*/
+    @Test
+    void doesNotRetryPermanentFailure()
+    {
+        this.simulator.setFaults(SmtpFaults.builder().permanentFailureRate(1.0).build());
+
+        final RuntimeException exception
+            = assertThrows(
+                RuntimeException.class,
+                () -> this.sender.sendEmail(email("user@example.com")).block(Duration.ofSeconds(30L))
+            );
+
+        final EmailException emailException
+            = assertInstanceOf(EmailException.class, exception);
+
+        assertEquals(REJECTED, emailException.getErrorType());
+        assertEquals(1L, this.simulator.getStats().permanentFailures());
+        assertEquals(0L, this.simulator.getStats().messagesAccepted());
+    }
+
+    private void awaitTransientFailures(long expected) throws InterruptedException
+    {
+        final long deadline = System.currentTimeMillis() + 10_000L;
+
+        while (this.simulator.getStats().transientFailures() < expected)
+        {
+            assertTrue(
+                System.currentTimeMillis() < deadline,
+                "Simulator did not reply 451 in time."
+            );
+
+            Thread.sleep(10L);
+        }
+    }
+
+    private static @NotNull EmailContent
+    email(@NotNull String to)
+    {
+        return
+        EmailContent.fromJustText(to, "Smoke test", "Hello from the SMTP simulator smoke test.")
+            .block();
+    }
+}
@@ -0,0 +1,42 @@
+package io.github.jessez332623.reactive_email_sender;
+
+import io.github.jessez332623.reactive_email_sender.dto.EmailContent;
+import io.github.jessez332623.reactive_email_sender.dto.ShutdownReport;
+import io.github.jessez332623.reactive_email_sender.exception.EmailException;
+import org.jetbrains.annotations.NotNull;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/** 响应式邮件发送器接口。*/
+public interface ReactiveEmailSender
+{
+    /**
+     * 外部可调用的发送邮件的方法。
+     *
+     * @param emailContent 邮件内容
+     *
+     * @throws EmailException 当发送邮件失败时抛出
+     *
+     * @return 表示操作是否正确完成的 {@link Mono}
+     */
+    Mono<Void>
+    sendEmail(@NotNull EmailContent emailContent);
+
+    /**
+     * <p>关闭邮件发送器：立即停止接受新的发送，
+     * 在 timeout 内等待在途（包括正在退避等待重试）的发送结束，
+     * 期限到达后中止剩余的发送，并关闭所有 SMTP 连接。</p>
+     *
+     * <p>默认实现没有任何在途状态，直接返回空报告。</p>
+     *
+     * @param timeout 等待在途发送结束的期限
+     *
+     * @return 发布关闭报告的 {@link Mono}
+     */
+    default Mono<ShutdownReport>
+    shutdown(@NotNull Duration timeout) {
+        return Mono.just(new ShutdownReport(true, 0L, List.of()));
+    }
+}
@@ -0,0 +1,31 @@
+package io.github.jessez332623.reactive_email_sender.actuator;
+
+import io.github.jessez332623.reactive_email_sender.dto.SenderStats;
+import io.github.jessez332623.reactive_email_sender.impl.DefaultReactiveEmailSenderImpl;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+/**
+ * <p>
+ *     邮件发送器运行时统计的 Actuator 端点（/actuator/emailsender），
+ *     需要在 management.endpoints.web.exposure.include 中加入 emailsender 才会通过 HTTP 暴露。
+ * </p>
+ *
+ * <p>
+ *     统计来自发送器内部的分段计数器，读取端点时才汇总，不影响发送线程。
+ * </p>
+ */
+@Endpoint(id = "emailsender")
+public class ReactiveEmailSenderEndpoint
+{
+    private final DefaultReactiveEmailSenderImpl sender;
+
+    public ReactiveEmailSenderEndpoint(@NotNull DefaultReactiveEmailSenderImpl sender) {
+        this.sender = sender;
+    }
+
+    /** 在途发送、成功与失败数、按错误类型的失败数、连接池使用情况、最近的延迟分布与传输编码统计。*/
+    @ReadOperation
+    public SenderStats stats() { return this.sender.getStats(); }
+}
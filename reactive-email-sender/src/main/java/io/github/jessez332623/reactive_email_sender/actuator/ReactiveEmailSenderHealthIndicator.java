@@ -0,0 +1,140 @@
+package io.github.jessez332623.reactive_email_sender.actuator;
+
+import io.github.jessez332623.reactive_email_sender.dto.SenderStats;
+import io.github.jessez332623.reactive_email_sender.impl.DefaultReactiveEmailSenderImpl;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.ReactiveHealthIndicator;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * <p>邮件发送器的健康检查。</p>
+ *
+ * <ul>
+ *     <li>发送器已关闭时为 OUT_OF_SERVICE；</li>
+ *     <li>
+ *         最近一个检查周期内有邮件发送成功时直接为 UP，不必再连接服务器；
+ *     </li>
+ *     <li>
+ *         否则向中继服务器建立一条不入池的连接（EHLO、AUTH 与 NOOP），
+ *         成功为 UP，失败或超时为 DOWN；
+ *     </li>
+ *     <li>直连 MX 投递时没有固定的服务器，只根据统计报告状态。</li>
+ * </ul>
+ *
+ * <p>
+ *     检查结果缓存 cacheTtl，期间的健康检查请求（以及并发的请求）共用同一次检查，
+ *     频繁轮询健康端点也不会频繁连接 SMTP 服务器。
+ * </p>
+ */
+public class ReactiveEmailSenderHealthIndicator implements ReactiveHealthIndicator
+{
+    private final DefaultReactiveEmailSenderImpl sender;
+
+    private final Duration cacheTtl;
+
+    private final Duration probeTimeout;
+
+    /** 缓存的检查结果（过期后由下一个订阅者重新检查）*/
+    private final Mono<Health> cachedHealth;
+
+    /**
+     * @param sender       邮件发送器
+     * @param cacheTtl     检查结果的缓存时长
+     * @param probeTimeout 连接服务器检查的超时时间
+     */
+    public ReactiveEmailSenderHealthIndicator(
+        @NotNull DefaultReactiveEmailSenderImpl sender,
+        @NotNull Duration cacheTtl, @NotNull Duration probeTimeout)
+    {
+        this.sender       = sender;
+        this.cacheTtl     = cacheTtl;
+        this.probeTimeout = probeTimeout;
+        this.cachedHealth
+            = Mono.defer(this::check)
+                  .cache(
+                      (health)    -> this.cacheTtl,
+                      (exception) -> Duration.ZERO,
+                      ()          -> Duration.ZERO
+                  );
+    }
+
+    @Override
+    public Mono<Health> health()
+    {
+        final SenderStats stats = this.sender.getStats();
+
+        // 关闭状态不缓存，关闭后立即反映出来
+        if (!stats.accepting())
+        {
+            return
+            Mono.just(
+                this.details(Health.outOfService(), stats)
+                    .withDetail("reason", "Sender is shutting down")
+                    .build()
+            );
+        }
+
+        return this.cachedHealth;
+    }
+
+    private @NotNull Mono<Health> check()
+    {
+        final SenderStats stats = this.sender.getStats();
+
+        if (this.sender.isDirectToMx())
+        {
+            return
+            Mono.just(
+                this.details(Health.up(), stats)
+                    .withDetail("mode", "direct-mx")
+                    .withDetail("destinations", stats.destinations())
+                    .build()
+            );
+        }
+
+        if (stats.lastSuccessAt() > 0L &&
+            System.currentTimeMillis() - stats.lastSuccessAt() < this.cacheTtl.toMillis())
+        {
+            return
+            Mono.just(
+                this.details(Health.up(), stats)
+                    .withDetail("checkedBy", "recent-send")
+                    .build()
+            );
+        }
+
+        final long startedAt = System.currentTimeMillis();
+
+        return
+        this.sender.probe()
+            .timeout(this.probeTimeout)
+            .then(Mono.fromSupplier(() ->
+                this.details(Health.up(), stats)
+                    .withDetail("checkedBy", "probe")
+                    .withDetail("probeMillis", System.currentTimeMillis() - startedAt)
+                    .build()))
+            .onErrorResume((exception) ->
+                Mono.just(
+                    this.details(Health.down(exception), stats)
+                        .withDetail("checkedBy", "probe")
+                        .build()
+                ));
+    }
+
+    private @NotNull Health.Builder
+    details(@NotNull Health.Builder builder, @NotNull SenderStats stats)
+    {
+        if (!this.sender.isDirectToMx())
+        {
+            builder.withDetail("host", this.sender.getSmtpHost())
+                   .withDetail("port", this.sender.getSmtpPort());
+        }
+
+        return
+        builder.withDetail("inFlightSends", stats.inFlightSends())
+               .withDetail("pool", stats.pool());
+    }
+}
@@ -0,0 +1,59 @@
+package io.github.jessez332623.reactive_email_sender.autoconfigure;
+
+import io.github.jessez332623.reactive_email_sender.actuator.ReactiveEmailSenderEndpoint;
+import io.github.jessez332623.reactive_email_sender.actuator.ReactiveEmailSenderHealthIndicator;
+import io.github.jessez332623.reactive_email_sender.impl.DefaultReactiveEmailSenderImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.ReactiveHealthIndicator;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+
+import java.time.Duration;
+
+/**
+ * 邮件发送器的 Actuator 自动配置类（健康检查与运行时统计端点），
+ * 只在类路径中存在 spring-boot-actuator 时生效，本依赖不会主动引入它。
+ */
+@AutoConfiguration(after = ReactiveEmailSenderAutoConfiguration.class)
+@ConditionalOnClass(ReactiveHealthIndicator.class)
+@ConditionalOnBean(DefaultReactiveEmailSenderImpl.class)
+public class ReactiveEmailSenderActuatorAutoConfiguration
+{
+    @Autowired
+    private ReactiveEmailSenderProperties properties;
+
+    /** 邮件发送器健康检查自动装配方法（健康端点中的名称为 emailSender）。*/
+    @Bean
+    @ConditionalOnMissingBean(name = "emailSenderHealthIndicator")
+    @ConditionalOnProperty(
+        prefix         = "app.reactive-email-sender.health",
+        name           = "enabled",
+        havingValue    = "true",
+        matchIfMissing = true
+    )
+    public ReactiveEmailSenderHealthIndicator
+    emailSenderHealthIndicator(DefaultReactiveEmailSenderImpl emailSender)
+    {
+        final ReactiveEmailSenderProperties.Health health
+            = this.properties.getHealth();
+
+        return new
+        ReactiveEmailSenderHealthIndicator(
+            emailSender,
+            Duration.ofSeconds(health.getCacheTtl()),
+            Duration.ofSeconds(health.getProbeTimeout())
+        );
+    }
+
+    /** 邮件发送器运行时统计端点自动装配方法。*/
+    @Bean
+    @ConditionalOnMissingBean(value = {ReactiveEmailSenderEndpoint.class})
+    public ReactiveEmailSenderEndpoint
+    emailSenderEndpoint(DefaultReactiveEmailSenderImpl emailSender) {
+        return new ReactiveEmailSenderEndpoint(emailSender);
+    }
+}
@@ -0,0 +1,555 @@
+package io.github.jessez332623.reactive_email_sender.autoconfigure;
+
+import io.github.jessez332623.reactive_email_sender.ReactiveEmailSender;
+import io.github.jessez332623.reactive_email_sender.authorization.EmailServiceAuthCodeGetter;
+import io.github.jessez332623.reactive_email_sender.deadletter.DeadLetterReplayer;
+import io.github.jessez332623.reactive_email_sender.deadletter.DeadLetterSink;
+import io.github.jessez332623.reactive_email_sender.deadletter.DeadLetterStore;
+import io.github.jessez332623.reactive_email_sender.deadletter.FileDeadLetterStore;
+import io.github.jessez332623.reactive_email_sender.dkim.DkimSigner;
+import io.github.jessez332623.reactive_email_sender.event.SendEventBus;
+import io.github.jessez332623.reactive_email_sender.exception.EmailException.ErrorType;
+import io.github.jessez332623.reactive_email_sender.exception.EmailException;
+import io.github.jessez332623.reactive_email_sender.impl.DefaultReactiveEmailSenderImpl;
+import io.github.jessez332623.reactive_email_sender.impl.DefaultVerificationCodeServiceImpl;
+import io.github.jessez332623.reactive_email_sender.mx.JndiMxResolver;
+import io.github.jessez332623.reactive_email_sender.mx.MxResolver;
+import io.github.jessez332623.reactive_email_sender.registry.ReactiveEmailSenderRegistry;
+import io.github.jessez332623.reactive_email_sender.registry.TenantConfigLoader;
+import io.github.jessez332623.reactive_email_sender.retry.RetryBudget;
+import io.github.jessez332623.reactive_email_sender.schedule.EmailScheduler;
+import io.github.jessez332623.reactive_email_sender.schedule.FileScheduledEmailStore;
+import io.github.jessez332623.reactive_email_sender.schedule.InMemoryScheduledEmailStore;
+import io.github.jessez332623.reactive_email_sender.schedule.ScheduledEmailStore;
+import io.github.jessez332623.reactive_email_sender.suppression.HashedSuppressionList;
+import io.github.jessez332623.reactive_email_sender.suppression.SuppressionList;
+import io.github.jessez332623.reactive_email_sender.utils.AttachmentCompressor;
+import io.github.jessez332623.reactive_email_sender.verification.InMemoryVerificationCodeStore;
+import io.github.jessez332623.reactive_email_sender.verification.VerificationCodeService;
+import io.github.jessez332623.reactive_email_sender.verification.VerificationCodeStore;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.core.env.Environment;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/** 响应式邮件发送器 Spring 自动配置类。*/
+@Configuration
+@ConditionalOnProperty(
+    prefix         = "app.reactive-email-sender",
+    name           = "enabled",
+    havingValue    = "true",
+    matchIfMissing = true // 默认启用本依赖
+)
+@EnableConfigurationProperties({ReactiveEmailSenderProperties.class})
+@ImportRuntimeHints({ReactiveEmailSenderRuntimeHints.class})
+public class ReactiveEmailSenderAutoConfiguration
+{
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private EmailServiceAuthCodeGetter authCodeGetter;
+
+    @Autowired
+    private ReactiveEmailSenderProperties properties;
+
+    /**
+     * 手动执行验证，
+     * 如果出现格式问题，收集信息并包装成 {@link EmailException} 异常。
+     */
+    @PostConstruct
+    private void validateConfiguration()
+    {
+        final
+        Set<ConstraintViolation<ReactiveEmailSenderProperties>> violations
+            = validator.validate(this.properties);
+
+        if (!violations.isEmpty())
+        {
+            StringBuilder errorInfo
+                = new StringBuilder("Reactive email sender varify failed:\n");
+
+            for (var violation : violations)
+            {
+                errorInfo.append(
+                    String.format(
+                        "- %s: %s\n",
+                        violation.getPropertyPath(), violation.getMessage()
+                    )
+                );
+            }
+
+            throw new
+            EmailException(ErrorType.CONFIG_MISSING, errorInfo.toString());
+        }
+    }
+
+    /**
+     * 获取邮箱授权码
+     *（优先级：用户 {@link EmailServiceAuthCodeGetter} 接口实现 -> 用户配置文件）
+     *
+     * @throws EmailException 若在所有渠道都拿不到授权码时抛出
+     */
+    private String getAuthCode()
+    {
+        final String authCode
+            = Optional.ofNullable(this.authCodeGetter.get())
+                      .orElse(this.properties.getAuthCode());
+
+        if (Objects.isNull(authCode))
+        {
+            throw new
+            EmailException(
+                ErrorType.CONFIG_MISSING,
+                "Property <auth-code> is missing..."
+            );
+        }
+
+        return authCode;
+    }
+
+    /**
+     * 按配置构建 DKIM 签名器，未启用时返回 null。
+     *
+     * @throws EmailException 启用了签名但缺少域、选择器或私钥，或者私钥无法解析时抛出
+     */
+    private DkimSigner createDkimSigner()
+    {
+        final ReactiveEmailSenderProperties.Dkim dkim
+            = this.properties.getDkim();
+
+        if (!dkim.isEnabled()) { return null; }
+
+        if (Objects.isNull(dkim.getDomain()) || Objects.isNull(dkim.getSelector()))
+        {
+            throw new
+            EmailException(
+                ErrorType.CONFIG_MISSING,
+                "Property <dkim.domain> or <dkim.selector> is missing..."
+            );
+        }
+
+        try
+        {
+            final String encodedKey
+                = Objects.nonNull(dkim.getPrivateKeyFile())
+                    ? Files.readString(Path.of(dkim.getPrivateKeyFile()), StandardCharsets.US_ASCII)
+                    : dkim.getPrivateKey();
+
+            if (Objects.isNull(encodedKey))
+            {
+                throw new
+                EmailException(
+                    ErrorType.CONFIG_MISSING,
+                    "Property <dkim.private-key> or <dkim.private-key-file> is missing..."
+                );
+            }
+
+            return new
+            DkimSigner(
+                dkim.getDomain(), dkim.getSelector(), dkim.getAlgorithm(),
+                DkimSigner.parsePrivateKey(encodedKey, dkim.getAlgorithm()),
+                dkim.getSignedHeaders(),
+                dkim.getBodyCacheCapacity() * 1024L * 1024L
+            );
+        }
+        catch (IOException | IllegalArgumentException exception)
+        {
+            throw new
+            EmailException(
+                ErrorType.CONFIG_MISSING,
+                "Load DKIM private key failed! Caused by: " + exception.getMessage(),
+                exception
+            );
+        }
+    }
+
+    /**
+     * 构建一个填好所有发送器共用策略（重试、死信、抑制列表、附件、超时、传输编码、日志、观测、统计、事件）的生成器，
+     * SMTP 账户、DKIM 与会话属性由调用方继续填写。
+     */
+    private DefaultReactiveEmailSenderImpl.EmailSenderBuilder
+    commonSenderSettings(
+        DeadLetterSink deadLetterSink, SuppressionList suppressionList,
+        ObjectProvider<ObservationRegistry> observationRegistry, SendEventBus eventBus)
+    {
+        final ReactiveEmailSenderProperties.BackOff backoff
+            = this.properties.getBackoff();
+
+        final ReactiveEmailSenderProperties.Compression compression
+            = this.properties.getCompression();
+
+        return
+        DefaultReactiveEmailSenderImpl.builder()
+            .maxAttemptTimes(backoff.getMaxAttemptTimes())
+            .startBackoffInterval(backoff.getStartBackoffInterval())
+            .maxBackoffInterval(backoff.getMaxBackoffInterval())
+            .jitterStrategy(backoff.getJitter())
+            .retryBudget(
+                new RetryBudget(
+                    backoff.getRetryBudgetRatio(),
+                    backoff.getMinRetriesPerSecond(),
+                    backoff.getRetryBudgetWindow()))
+            .deadLetterSink(deadLetterSink)
+            .suppressionList(suppressionList)
+            .maxAttachmentSize(this.properties.getMaxAttachmentSize())
+            .attachmentCompressor(
+                new AttachmentCompressor(
+                    compression.isEnabled(), compression.getFormat(),
+                    compression.getMinSize() * 1024L, compression.getLevel(),
+                    compression.getTypes(), compression.getMaxRatio()))
+            .timeouts(
+                this.properties.getTimeout().getSendTimeout(),
+                this.properties.getTimeout().getAttemptTimeout())
+            .phaseTimeouts(
+                this.properties.getTimeout().getConnectTimeout(),
+                this.properties.getTimeout().getHandshakeTimeout(),
+                this.properties.getTimeout().getDataTimeout())
+            .transferExtensions(
+                this.properties.getEncoding().isEightBitMime(),
+                this.properties.getEncoding().isSmtpUtf8())
+            .retryLogging(
+                this.properties.getLogging().getRetrySummaryInterval(),
+                this.properties.getLogging().getMaxRetryLogsPerInterval(),
+                this.properties.getLogging().isMaskRecipients())
+            .observationRegistry(
+                this.properties.getTracing().isEnabled()
+                    ? observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP)
+                    : ObservationRegistry.NOOP)
+            .statsWindow(this.properties.getStats().getLatencyWindow())
+            .eventBus(eventBus);
+    }
+
+    /**
+     * 响应式邮件发送器自动装配方法，
+     * 容器中存在 {@link DeadLetterSink} 时，最终发送失败的邮件交给它保存；
+     * 容器中存在 {@link SuppressionList} 时，发送前检查收件人是否被抑制；
+     * 启用直连 MX 投递时使用容器中的 {@link MxResolver}（没有时查询 DNS）；
+     * 容器中存在 {@link ObservationRegistry} 时（如引入了 actuator 与 micrometer-tracing）观测发送链路。
+     */
+    @Bean
+    @ConditionalOnMissingBean(value = {DefaultReactiveEmailSenderImpl.class})
+    public DefaultReactiveEmailSenderImpl
+    reactiveEmailSender(
+        ObjectProvider<DeadLetterSink>      deadLetterSink,
+        ObjectProvider<SuppressionList>     suppressionList,
+        ObjectProvider<MxResolver>          mxResolver,
+        ObjectProvider<ObservationRegistry> observationRegistry,
+        SendEventBus                        sendEventBus)
+    {
+        final ReactiveEmailSenderProperties.DirectMx directMx
+            = this.properties.getDirectMx();
+
+        final DefaultReactiveEmailSenderImpl.EmailSenderBuilder builder
+            = this.commonSenderSettings(
+                deadLetterSink.getIfAvailable(DeadLetterSink::discard),
+                suppressionList.getIfAvailable(),
+                observationRegistry, sendEventBus);
+
+        if (directMx.isEnabled())
+        {
+            builder.directToMx(
+                       mxResolver.getIfAvailable(() ->
+                           new JndiMxResolver(Duration.ofSeconds(directMx.getResolverCacheTtl()))))
+                   .destinationLimits(
+                       directMx.getConnectionsPerDestination(),
+                       directMx.getMaxQueuedPerDestination())
+                   .deferralBackoff(
+                       directMx.getDeferStartInterval(),
+                       directMx.getDeferMaxInterval());
+        }
+
+        return
+        builder
+            .smtpHost(this.properties.getSmtpHost())
+            .smtpPort(this.properties.getSmtpPort())
+            .dkimSigner(this.createDkimSigner())
+            .enterPriceEmailAddress(this.properties.getSenderEmail())
+            .serviceAuthCode(this.getAuthCode())
+            .setDefaultSessionProperties()
+            .addProperties(this.properties.getSessionProps())
+            .build();
+    }
+
+    /**
+     * 多租户发送器注册表自动装配方法，容器中存在 {@link TenantConfigLoader} 时生效。
+     * 各租户的发送器共用本配置中的重试、超时、附件压缩与死信策略，
+     * 不使用全局的 DKIM 签名（签名域属于各个租户）。
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnBean(value = {TenantConfigLoader.class})
+    @ConditionalOnMissingBean(value = {ReactiveEmailSenderRegistry.class})
+    public ReactiveEmailSenderRegistry
+    reactiveEmailSenderRegistry(
+        TenantConfigLoader                  tenantConfigLoader,
+        ObjectProvider<DeadLetterSink>      deadLetterSink,
+        ObjectProvider<SuppressionList>     suppressionList,
+        ObjectProvider<ObservationRegistry> observationRegistry,
+        SendEventBus                        sendEventBus)
+    {
+        final ReactiveEmailSenderProperties.Tenants tenants
+            = this.properties.getTenants();
+
+        return new
+        ReactiveEmailSenderRegistry(
+            tenantConfigLoader,
+            () -> this.commonSenderSettings(
+                deadLetterSink.getIfAvailable(DeadLetterSink::discard),
+                suppressionList.getIfAvailable(),
+                observationRegistry, sendEventBus),
+            tenants.getMaxTenants(),
+            Duration.ofSeconds(tenants.getIdleTimeout()),
+            tenants.getMaxTotalConnections(),
+            tenants.getMaxQueuedSends(),
+            Duration.ofSeconds(this.properties.getShutdown().getTimeout())
+        );
+    }
+
+    /**
+     * 发送事件总线自动装配方法，单个发送器与多租户注册表中的各个发送器都向它发布事件，
+     * 注入它并调用 events() 即可订阅（容器关闭时结束事件流）。
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean(value = {SendEventBus.class})
+    public SendEventBus sendEventBus()
+    {
+        final ReactiveEmailSenderProperties.Events events
+            = this.properties.getEvents();
+
+        return new
+        SendEventBus(events.getBufferSize(), events.getOverflowPolicy());
+    }
+
+    /** 凭据刷新器自动装配方法（支持定时刷新与事件触发刷新）。*/
+    @Bean
+    @ConditionalOnBean(value = {DefaultReactiveEmailSenderImpl.class})
+    @ConditionalOnMissingBean(value = {ReactiveEmailSenderRefresher.class})
+    public ReactiveEmailSenderRefresher
+    reactiveEmailSenderRefresher(
+        DefaultReactiveEmailSenderImpl emailSender,
+        Environment                    environment)
+    {
+        return new
+        ReactiveEmailSenderRefresher(
+            emailSender, this.authCodeGetter,
+            environment, this.properties
+        );
+    }
+
+    /**
+     * 启动预热自动装配方法（app.reactive-email-sender.warm-up.enabled=true 时启用），
+     * 应用就绪后在后台预热发送器，让第一封邮件不必承担冷启动的开销。
+     */
+    @Bean
+    @ConditionalOnBean(value = {DefaultReactiveEmailSenderImpl.class})
+    @ConditionalOnMissingBean(value = {ReactiveEmailSenderWarmUp.class})
+    @ConditionalOnProperty(
+        prefix      = "app.reactive-email-sender.warm-up",
+        name        = "enabled",
+        havingValue = "true"
+    )
+    public ReactiveEmailSenderWarmUp
+    reactiveEmailSenderWarmUp(DefaultReactiveEmailSenderImpl emailSender)
+    {
+        final ReactiveEmailSenderProperties.WarmUp warmUp
+            = this.properties.getWarmUp();
+
+        return new
+        ReactiveEmailSenderWarmUp(
+            emailSender, warmUp.getConnections(),
+            Duration.ofSeconds(warmUp.getTimeout())
+        );
+    }
+
+    /** 发送器生命周期自动装配方法（应用停止时优雅关闭）。*/
+    @Bean
+    @ConditionalOnMissingBean(value = {ReactiveEmailSenderLifecycle.class})
+    public ReactiveEmailSenderLifecycle
+    reactiveEmailSenderLifecycle(ReactiveEmailSender emailSender)
+    {
+        return new
+        ReactiveEmailSenderLifecycle(
+            emailSender,
+            Duration.ofSeconds(this.properties.getShutdown().getTimeout()),
+            this.properties.getLogging().isMaskRecipients()
+        );
+    }
+
+    /**
+     * 本地文件死信存储自动装配方法（app.reactive-email-sender.dead-letter.enabled=true 时启用），
+     * 死信包含完整的邮件内容，因此默认不启用，启用时必须显式配置目录；
+     * 用户自行提供 {@link DeadLetterSink} 时不再装配。
+     *
+     * @throws EmailException 启用了死信存储却没有配置目录时抛出
+     */
+    @Bean
+    @ConditionalOnMissingBean(value = {DeadLetterSink.class})
+    @ConditionalOnProperty(
+        prefix      = "app.reactive-email-sender.dead-letter",
+        name        = "enabled",
+        havingValue = "true"
+    )
+    public FileDeadLetterStore deadLetterStore()
+    {
+        final String directory
+            = this.properties.getDeadLetter().getDirectory();
+
+        if (Objects.isNull(directory) || directory.isBlank())
+        {
+            throw new
+            EmailException(
+                ErrorType.CONFIG_MISSING,
+                "Property <dead-letter.directory> is required when dead letter store is enabled..."
+            );
+        }
+
+        return new
+        FileDeadLetterStore(Path.of(directory).toAbsolutePath());
+    }
+
+    /**
+     * 收件人抑制列表自动装配方法（默认为进程内的散列抑制列表），
+     * 启动时依次载入配置的快照文件与文本地址文件，用户自行提供 {@link SuppressionList} 时不再装配。
+     *
+     * @throws EmailException 地址文件不存在或者快照文件格式错误时抛出
+     */
+    @Bean
+    @ConditionalOnMissingBean(value = {SuppressionList.class})
+    @ConditionalOnProperty(
+        prefix      = "app.reactive-email-sender.suppression",
+        name        = "enabled",
+        havingValue = "true"
+    )
+    public HashedSuppressionList suppressionList()
+    {
+        final ReactiveEmailSenderProperties.Suppression suppression
+            = this.properties.getSuppression();
+
+        final HashedSuppressionList suppressionList
+            = new HashedSuppressionList(suppression.getExpectedSize(), suppression.isBloomFilter());
+
+        try
+        {
+            if (Objects.nonNull(suppression.getSnapshotFile()) &&
+                Files.exists(Path.of(suppression.getSnapshotFile()))) {
+                suppressionList.loadSnapshot(Path.of(suppression.getSnapshotFile()));
+            }
+
+            if (Objects.nonNull(suppression.getAddressFile())) {
+                suppressionList.loadAddresses(Path.of(suppression.getAddressFile()));
+            }
+        }
+        catch (IOException exception)
+        {
+            throw new
+            EmailException(
+                ErrorType.CONFIG_MISSING,
+                "Load suppression list failed! Caused by: " + exception.getMessage(),
+                exception
+            );
+        }
+
+        return suppressionList;
+    }
+
+    /**
+     * 定时邮件调度器自动装配方法，
+     * 容器中存在 {@link ScheduledEmailStore} 时使用它，否则按 schedule.directory 选择文件或内存存储。
+     */
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @ConditionalOnMissingBean(value = {EmailScheduler.class})
+    @ConditionalOnProperty(
+        prefix      = "app.reactive-email-sender.schedule",
+        name        = "enabled",
+        havingValue = "true"
+    )
+    public EmailScheduler
+    emailScheduler(
+        ReactiveEmailSender                 emailSender,
+        ObjectProvider<ScheduledEmailStore> scheduledEmailStore)
+    {
+        final ReactiveEmailSenderProperties.Schedule schedule
+            = this.properties.getSchedule();
+
+        return new
+        EmailScheduler(
+            emailSender,
+            scheduledEmailStore.getIfAvailable(() ->
+                Objects.nonNull(schedule.getDirectory())
+                    ? new FileScheduledEmailStore(Path.of(schedule.getDirectory()))
+                    : new InMemoryScheduledEmailStore()),
+            schedule.getMaxConcurrentSends(),
+            Duration.ofMillis(schedule.getTick()),
+            this.properties.getLogging().isMaskRecipients()
+        );
+    }
+
+    /** 死信重放器自动装配方法。*/
+    @Bean
+    @ConditionalOnBean(value = {DeadLetterStore.class})
+    @ConditionalOnMissingBean(value = {DeadLetterReplayer.class})
+    public DeadLetterReplayer
+    deadLetterReplayer(
+        ReactiveEmailSender emailSender,
+        DeadLetterStore     deadLetterStore)
+    {
+        return new
+        DeadLetterReplayer(
+            emailSender, deadLetterStore,
+            this.properties.getDeadLetter().getReplayRate()
+        );
+    }
+
+    /** 验证码存储自动装配方法（默认为进程内存储）。*/
+    @Bean
+    @ConditionalOnMissingBean(value = {VerificationCodeStore.class})
+    public VerificationCodeStore verificationCodeStore()
+    {
+        return new
+        InMemoryVerificationCodeStore(
+            this.properties.getVerification().getMaxEntries()
+        );
+    }
+
+    /** 验证码服务自动装配方法。*/
+    @Bean
+    @ConditionalOnMissingBean(value = {VerificationCodeService.class})
+    public VerificationCodeService
+    verificationCodeService(
+        ReactiveEmailSender   emailSender,
+        VerificationCodeStore codeStore)
+    {
+        final ReactiveEmailSenderProperties.Verification verification
+            = this.properties.getVerification();
+
+        return
+        DefaultVerificationCodeServiceImpl.builder()
+            .emailSender(emailSender)
+            .codeStore(codeStore)
+            .digits(verification.getDigits())
+            .expired(Duration.ofSeconds(verification.getExpiredInterval()))
+            .maxAttempts(verification.getMaxAttempts())
+            .resendCooldown(Duration.ofSeconds(verification.getResendCooldown()))
+            .hashSecret(verification.getHashSecret())
+            .build();
+    }
+}
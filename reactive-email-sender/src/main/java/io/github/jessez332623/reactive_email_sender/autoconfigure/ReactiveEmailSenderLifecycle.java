@@ -0,0 +1,106 @@
+package io.github.jessez332623.reactive_email_sender.autoconfigure;
+
+import io.github.jessez332623.reactive_email_sender.ReactiveEmailSender;
+import io.github.jessez332623.reactive_email_sender.dto.EmailContent;
+import io.github.jessez332623.reactive_email_sender.utils.EmailAddressMasker;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+
+/**
+ * <p>响应式邮件发送器生命周期管理，负责应用停止时的优雅关闭。</p>
+ *
+ * <p>
+ *     所在阶段低于 Web 服务器的优雅关闭阶段，
+ *     因此会在 HTTP 请求处理完毕之后才停止接受新的邮件发送，
+ *     再在 app.reactive-email-sender.shutdown.timeout 内等待在途发送结束。
+ *     注意该期限应小于 spring.lifecycle.timeout-per-shutdown-phase（默认 30 秒）。
+ * </p>
+ */
+@Slf4j
+public class ReactiveEmailSenderLifecycle implements SmartLifecycle
+{
+    /** 在 Web 服务器优雅关闭（DEFAULT_PHASE - 1024）与停止（DEFAULT_PHASE - 2048）之后关闭 */
+    public static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    /** 关闭超时时日志中最多列出的未送达收件人数 */
+    private static final int UNDELIVERED_SAMPLE_SIZE = 5;
+
+    private final ReactiveEmailSender emailSender;
+
+    /** 等待在途发送结束的期限 */
+    private final Duration shutdownTimeout;
+
+    /** 日志中的收件人是否脱敏 */
+    private final boolean maskRecipients;
+
+    private volatile boolean running = false;
+
+    public ReactiveEmailSenderLifecycle(
+        ReactiveEmailSender emailSender, Duration shutdownTimeout)
+    {
+        this(emailSender, shutdownTimeout, true);
+    }
+
+    /**
+     * @param maskRecipients 关闭超时的日志中列出的未送达收件人是否脱敏
+     */
+    public ReactiveEmailSenderLifecycle(
+        ReactiveEmailSender emailSender, Duration shutdownTimeout, boolean maskRecipients)
+    {
+        this.emailSender     = emailSender;
+        this.shutdownTimeout = shutdownTimeout;
+        this.maskRecipients  = maskRecipients;
+    }
+
+    @Override
+    public void start() { this.running = true; }
+
+    @Override
+    public void stop() { this.stop(() -> {}); }
+
+    @Override
+    public void stop(@NotNull Runnable callback)
+    {
+        this.emailSender
+            .shutdown(this.shutdownTimeout)
+            .doFinally((signal) -> {
+                this.running = false;
+                callback.run();
+            })
+            .subscribe(
+                (report) -> {
+                    if (report.isDrained())
+                    {
+                        log.info(
+                            "Reactive email sender shutdown gracefully in {} ms.",
+                            report.getElapsedMillis()
+                        );
+                    }
+                    else
+                    {
+                        // 未送达的邮件可能成千上万，只列出少量（脱敏后的）收件人作为样本
+                        log.warn(
+                            "Reactive email sender shutdown timeout after {} ms, {} email(s) undelivered, e.g. {}",
+                            report.getElapsedMillis(), report.getUndelivered().size(),
+                            report.getUndelivered().stream()
+                                  .limit(UNDELIVERED_SAMPLE_SIZE)
+                                  .map(EmailContent::getTo)
+                                  .map((to) -> this.maskRecipients ? EmailAddressMasker.mask(to) : to)
+                                  .toList()
+                        );
+                    }
+                },
+                (exception) ->
+                    log.error("Reactive email sender shutdown failed!", exception)
+            );
+    }
+
+    @Override
+    public boolean isRunning() { return this.running; }
+
+    @Override
+    public int getPhase() { return PHASE; }
+}
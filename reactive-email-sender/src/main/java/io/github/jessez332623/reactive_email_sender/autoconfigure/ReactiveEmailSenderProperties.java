@@ -0,0 +1,491 @@
+package io.github.jessez332623.reactive_email_sender.autoconfigure;
+
+import io.github.jessez332623.reactive_email_sender.dkim.DkimAlgorithm;
+import io.github.jessez332623.reactive_email_sender.dkim.DkimSigner;
+import io.github.jessez332623.reactive_email_sender.event.SendEventBus;
+import io.github.jessez332623.reactive_email_sender.retry.JitterStrategy;
+import io.github.jessez332623.reactive_email_sender.utils.AttachmentCompressor;
+import jakarta.validation.constraints.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/** 响应式邮件发送器依赖自动装配属性类。*/
+@Data
+@ToString
+@ConfigurationProperties(prefix = "app.reactive-email-sender")
+public class ReactiveEmailSenderProperties
+{
+    /** 是否启用本依赖？（默认启用）*/
+    private boolean enabled = true;
+
+    /** 提供 SMTP 服务的运营商主机名（例：smtp.gmail.com、smtp.qq.com）*/
+    @NotBlank(message = "SMTP host not be null")
+    private String smtpHost;
+
+    /**
+     * SMTP 端口号，不同的服务商对邮件开放的标准服务端口都不同，具体如下所示：
+     * <pre>
+     *     Gmail   587 STARTTLS
+     *     Outlook 587 STARTTLS
+     *     Yahoo   465 SSL
+     *     QQ-Mail 465 or 587 SSL
+     * </pre>
+     * 至于其他服务商的端口号可以查询他们提供的文档。
+     */
+    @Min(value = 1,     message = "SMTP port not less then 1")
+    @Max(value = 65535, message = "SMTP port not less then 65535")
+    private int smtpPort;
+
+    /** 附件大小的上限（单位：MB，默认为 8）*/
+    @Positive(message = "Max attachment size must be positive")
+    private int maxAttachmentSize = 8;
+
+    /** 发件人邮箱地址 */
+    @Email(message = "Sender email format invalid")
+    private String senderEmail;
+
+    /** 邮箱服务授权码 */
+    private String authCode;
+
+    /** 指数退避策略相关属性。*/
+    private BackOff backoff = new BackOff();
+
+    /** 发送期限与各阶段网络超时相关属性。*/
+    private Timeout timeout = new Timeout();
+
+    /** 验证码服务相关属性。*/
+    private Verification verification = new Verification();
+
+    /** 凭据与会话属性刷新相关属性。*/
+    private Refresh refresh = new Refresh();
+
+    /** 优雅关闭相关属性。*/
+    private Shutdown shutdown = new Shutdown();
+
+    /** 死信存储与重放相关属性。*/
+    private DeadLetter deadLetter = new DeadLetter();
+
+    /** 附件压缩相关属性。*/
+    private Compression compression = new Compression();
+
+    /** DKIM 签名相关属性。*/
+    private Dkim dkim = new Dkim();
+
+    /** 传输编码（8BITMIME / SMTPUTF8）相关属性。*/
+    private Encoding encoding = new Encoding();
+
+    /** 多租户发送器注册表相关属性（容器中存在 TenantConfigLoader 时生效）。*/
+    private Tenants tenants = new Tenants();
+
+    /** 直连 MX 投递相关属性。*/
+    private DirectMx directMx = new DirectMx();
+
+    /** 收件人抑制列表相关属性。*/
+    private Suppression suppression = new Suppression();
+
+    /** 定时发送相关属性。*/
+    private Schedule schedule = new Schedule();
+
+    /** 日志采样、聚合与脱敏相关属性。*/
+    private Logging logging = new Logging();
+
+    /** 发送链路观测（追踪）相关属性。*/
+    private Tracing tracing = new Tracing();
+
+    /** 健康检查相关属性（需要 spring-boot-actuator）。*/
+    private Health health = new Health();
+
+    /** 运行时统计相关属性。*/
+    private Stats stats = new Stats();
+
+    /** 发送事件流相关属性。*/
+    private Events events = new Events();
+
+    /** 启动预热相关属性。*/
+    private WarmUp warmUp = new WarmUp();
+
+    /**
+     * 邮件会话属性配置，示例如下：
+     * <ul>
+     *     <li>app.reactive-email-sender.session-props.mail.smtp.connectionpoolsize=10</li>
+     *     <li>app.reactive-email-sender.session-props.mail.smtp.connectionpooltimeout=5000</li>
+     * </ul>
+     */
+    private Map<String, String> sessionProps = new HashMap<>();
+
+    @Data
+    @NoArgsConstructor
+    public static class BackOff
+    {
+        /** 最大邮件发送尝试次数（默认 3 回）*/
+        @Positive(message = "Max attempt times must be positive")
+        private int maxAttemptTimes = 3;
+
+        /** 指数退避起始时间间隔（单位：秒，默认为 1）*/
+        @Positive(message = "Start backoff interval must be positive")
+        private long startBackoffInterval = 1;
+
+        /** 指数退避封顶时间间隔（单位：秒，默认为 10）*/
+        @Positive(message = "Max backoff interval must be positive")
+        private long maxBackoffInterval = 10;
+
+        /** 退避时间的抖动策略（NONE、FULL、EQUAL、DECORRELATED，默认为 EQUAL）*/
+        @NotNull(message = "Jitter strategy not be null")
+        private JitterStrategy jitter = JitterStrategy.EQUAL;
+
+        /** 全局重试预算：统计窗口内重试数最多占首次发送数的比例（默认为 0.2，即 20%）*/
+        @PositiveOrZero(message = "Retry budget ratio must not be negative")
+        private double retryBudgetRatio = 0.2;
+
+        /** 全局重试预算：与流量无关的保底重试速率（单位：次 / 秒，默认为 10）*/
+        @PositiveOrZero(message = "Min retries per second must not be negative")
+        private int minRetriesPerSecond = 10;
+
+        /** 全局重试预算的统计窗口（单位：秒，默认为 10）*/
+        @Positive(message = "Retry budget window must be positive")
+        private long retryBudgetWindow = 10;
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Verification
+    {
+        /** 验证码位数（默认 6 位）*/
+        @Min(value = 1,  message = "Verify code digits not less then 1")
+        @Max(value = 19, message = "Verify code digits not greater then 19")
+        private int digits = 6;
+
+        /** 验证码有效期（单位：秒，默认为 300）*/
+        @Positive(message = "Verify code expired interval must be positive")
+        private long expiredInterval = 300;
+
+        /** 单个验证码允许的最大校验次数（默认 5 回）*/
+        @Positive(message = "Max verify attempts must be positive")
+        private int maxAttempts = 5;
+
+        /** 同一收件人两次签发验证码之间的冷却时间（单位：秒，默认为 60）*/
+        @PositiveOrZero(message = "Resend cooldown must not be negative")
+        private long resendCooldown = 60;
+
+        /** 进程内验证码存储最多保存的记录数（默认 100000）*/
+        @Positive(message = "Max verify code entries must be positive")
+        private int maxEntries = 100_000;
+
+        /**
+         * 验证码摘要密钥，不配置时使用进程内随机密钥，
+         * 多实例共享外部验证码存储时必须配置成相同的值。
+         */
+        private String hashSecret;
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Refresh
+    {
+        /**
+         * 定时刷新授权码与会话属性的间隔（单位：秒，默认为 0，即不定时刷新），
+         * 不论是否启用定时刷新，都可以通过发布 ReactiveEmailSenderRefreshEvent 事件手动触发。
+         */
+        @PositiveOrZero(message = "Refresh interval must not be negative")
+        private long interval = 0;
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Shutdown
+    {
+        /**
+         * 应用停止时等待在途发送结束的期限（单位：秒，默认为 20），
+         * 应小于 spring.lifecycle.timeout-per-shutdown-phase（默认 30 秒）。
+         */
+        @PositiveOrZero(message = "Shutdown timeout must not be negative")
+        private long timeout = 20;
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Dkim
+    {
+        /** 是否对发出的邮件进行 DKIM 签名（默认为 false）*/
+        private boolean enabled = false;
+
+        /** 签名域（d=），通常是发件人邮箱的域名 */
+        private String domain;
+
+        /** 选择器（s=），公钥发布在 {selector}._domainkey.{domain} 的 TXT 记录中 */
+        private String selector;
+
+        /** 签名算法（RSA_SHA256 / ED25519_SHA256，默认为 RSA_SHA256）*/
+        private DkimAlgorithm algorithm = DkimAlgorithm.RSA_SHA256;
+
+        /** PKCS#8 格式的私钥（PEM 文本或 Base64），与 private-key-file 二选一 */
+        @ToString.Exclude
+        private String privateKey;
+
+        /** PKCS#8 格式私钥文件的路径，与 private-key 二选一 */
+        private String privateKeyFile;
+
+        /** 参与签名的头部 */
+        private List<String> signedHeaders = new ArrayList<>(DkimSigner.DEFAULT_SIGNED_HEADERS);
+
+        /** 正文渲染结果缓存的容量（单位：MB，默认为 16，为 0 时不缓存）*/
+        @PositiveOrZero(message = "DKIM body cache capacity must not be negative")
+        private int bodyCacheCapacity = 16;
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Compression
+    {
+        /** 是否压缩满足条件的附件（默认为 false）*/
+        private boolean enabled = false;
+
+        /** 压缩格式（ZIP / GZIP，默认为 ZIP）*/
+        private AttachmentCompressor.Format format = AttachmentCompressor.Format.ZIP;
+
+        /** 附件达到该大小才压缩（单位：KB，默认为 64）*/
+        @PositiveOrZero(message = "Compression min size must not be negative")
+        private long minSize = 64;
+
+        /** Deflate 压缩级别（0 ~ 9，默认为 6）*/
+        @Min(value = 0, message = "Compression level must be in [0, 9]")
+        @Max(value = 9, message = "Compression level must be in [0, 9]")
+        private int level = 6;
+
+        /** 参与压缩的附件 MIME 类型，支持 text/* 这样的通配 */
+        private List<String> types = new ArrayList<>(AttachmentCompressor.DEFAULT_TYPES);
+
+        /** 压缩后的大小与原大小之比不超过该值时才采用压缩结果（默认为 0.9）*/
+        @DecimalMin(value = "0.0", inclusive = false, message = "Compression max ratio must be in (0, 1]")
+        @DecimalMax(value = "1.0", message = "Compression max ratio must be in (0, 1]")
+        private double maxRatio = 0.9;
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class DirectMx
+    {
+        /** 是否按收件域解析 MX 并直接投递，而不是通过 smtp-host 中继（默认为 false）*/
+        private boolean enabled = false;
+
+        /** 每个 MX 服务器最多同时占用的连接数（默认为 5）*/
+        @Positive(message = "Connections per destination must be positive")
+        private int connectionsPerDestination = 5;
+
+        /** 每个 MX 服务器最多排队等待的发送数（默认为 1000）*/
+        @PositiveOrZero(message = "Max queued per destination must not be negative")
+        private int maxQueuedPerDestination = 1000;
+
+        /** MX 服务器推迟投递（4xx 或连接失败）后首次退避的时长（单位：秒，默认为 30）*/
+        @Positive(message = "Defer start interval must be positive")
+        private long deferStartInterval = 30;
+
+        /** MX 服务器连续推迟投递时退避时长的上限（单位：秒，默认为 600）*/
+        @Positive(message = "Defer max interval must be positive")
+        private long deferMaxInterval = 600;
+
+        /** DNS 解析结果的缓存时长（单位：秒，默认为 300，使用自定义 MxResolver 时无效）*/
+        @Positive(message = "Resolver cache TTL must be positive")
+        private long resolverCacheTtl = 300;
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Suppression
+    {
+        /** 是否在发送前检查收件人抑制列表（默认为 false）*/
+        private boolean enabled = false;
+
+        /** 预计的地址数，据此预分配内存，超出后自动扩容（默认为 1000000）*/
+        @Positive(message = "Suppression expected size must be positive")
+        private int expectedSize = 1_000_000;
+
+        /** 是否在散列表之前使用 Bloom 过滤器（默认为 true）*/
+        private boolean bloomFilter = true;
+
+        /** 启动时载入的二进制快照文件（不存在时跳过，默认为空）*/
+        private String snapshotFile;
+
+        /** 启动时载入的文本地址文件，每行一个地址（默认为空）*/
+        private String addressFile;
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Schedule
+    {
+        /** 是否启用定时发送（默认为 false）*/
+        private boolean enabled = false;
+
+        /** 定时邮件内容的保存目录（为空时保存在内存中，重启后丢失，默认为空）*/
+        private String directory;
+
+        /** 到期邮件的最大并发发送数（默认为 16）*/
+        @Positive(message = "Schedule max concurrent sends must be positive")
+        private int maxConcurrentSends = 16;
+
+        /** 时间轮的刻度，即定时的精度（单位：毫秒，默认为 1000）*/
+        @Positive(message = "Schedule tick must be positive")
+        private long tick = 1000;
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Logging
+    {
+        /** 汇总重试日志的间隔，例如 “1243 retries to smtp.x in the last 10 s”（单位：秒，默认为 10）*/
+        @Positive(message = "Retry summary interval must be positive")
+        private long retrySummaryInterval = 10;
+
+        /** 每个汇总间隔内最多逐条记录的重试数，其余只计入汇总（为 0 时只输出汇总，默认为 10）*/
+        @PositiveOrZero(message = "Max retry logs per interval must not be negative")
+        private int maxRetryLogsPerInterval = 10;
+
+        /** 日志中的收件人是否脱敏，例如 j***@example.com（默认为 true）*/
+        private boolean maskRecipients = true;
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Tracing
+    {
+        /**
+         * 容器中存在 ObservationRegistry 时是否观测发送链路（默认为 true），
+         * 每封邮件、每次尝试与尝试内的各个阶段各成为一个 Span。
+         */
+        private boolean enabled = true;
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Health
+    {
+        /** 是否注册邮件发送器的健康检查（默认为 true）*/
+        private boolean enabled = true;
+
+        /** 检查结果的缓存时长，期间的健康检查请求不会再连接 SMTP 服务器（单位：秒，默认为 30）*/
+        @Positive(message = "Health cache TTL must be positive")
+        private long cacheTtl = 30;
+
+        /** 连接 SMTP 服务器检查的超时时间（单位：秒，默认为 10）*/
+        @Positive(message = "Health probe timeout must be positive")
+        private long probeTimeout = 10;
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Stats
+    {
+        /** 运行时统计中延迟分布的统计窗口（单位：秒，默认为 60）*/
+        @Positive(message = "Stats latency window must be positive")
+        private long latencyWindow = 60;
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Events
+    {
+        /** 每个事件订阅者的默认缓冲区大小（默认为 256）*/
+        @Positive(message = "Event buffer size must be positive")
+        private int bufferSize = 256;
+
+        /** 订阅者缓冲区满时的默认策略（DROP_OLDEST、DROP_NEWEST，默认为 DROP_OLDEST）*/
+        @NotNull(message = "Event overflow policy not be null")
+        private SendEventBus.OverflowPolicy overflowPolicy = SendEventBus.OverflowPolicy.DROP_OLDEST;
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class WarmUp
+    {
+        /** 是否在应用就绪后于后台预热发送器（默认为 false）*/
+        private boolean enabled = false;
+
+        /** 预先建立的 SMTP 连接数，为 0 时只预热类加载与邮件渲染（默认为 1）*/
+        @PositiveOrZero(message = "Warm-up connections must not be negative")
+        private int connections = 1;
+
+        /** 预热的超时时间（单位：秒，默认为 30）*/
+        @Positive(message = "Warm-up timeout must be positive")
+        private long timeout = 30;
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Tenants
+    {
+        /** 最多同时保留的租户发送器数（默认为 256）*/
+        @Positive(message = "Max tenants must be positive")
+        private int maxTenants = 256;
+
+        /** 租户发送器空闲多久后被关闭淘汰（单位：秒，默认为 600）*/
+        @Positive(message = "Tenant idle timeout must be positive")
+        private long idleTimeout = 600;
+
+        /** 所有租户合计的最大 SMTP 连接数（默认为 100）*/
+        @Positive(message = "Max total connections must be positive")
+        private int maxTotalConnections = 100;
+
+        /** 每个租户最多排队等待的发送尝试数（默认为 1000）*/
+        @PositiveOrZero(message = "Max queued sends must not be negative")
+        private int maxQueuedSends = 1000;
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Encoding
+    {
+        /** 服务器支持 8BITMIME 时，非 ASCII 正文是否以 8bit 原样传输（默认为 true）*/
+        private boolean eightBitMime = true;
+
+        /** 服务器支持 SMTPUTF8 时，主题与附件名是否以 UTF-8 原样传输（默认为 true）*/
+        private boolean smtpUtf8 = true;
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class DeadLetter
+    {
+        /** 是否把最终发送失败的邮件（包括正文与附件）保存到本地文件（默认为 false）*/
+        private boolean enabled = false;
+
+        /** 死信文件所在的目录（启用时必须配置，没有默认值）*/
+        private String directory;
+
+        /** 重放死信时每秒最多发送的邮件数（默认为 5）*/
+        @Positive(message = "Replay rate must be positive")
+        private int replayRate = 5;
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Timeout
+    {
+        /** 单封邮件的总体发送期限，包含所有重试与退避等待（单位：秒，默认为 60）*/
+        @Positive(message = "Send timeout must be positive")
+        private long sendTimeout = 60;
+
+        /** 单次发送尝试的期限，不会超过剩余的总体期限（单位：秒，默认为 30）*/
+        @Positive(message = "Attempt timeout must be positive")
+        private long attemptTimeout = 30;
+
+        /** 建立 TCP 连接的超时（单位：秒，默认为 10）*/
+        @Positive(message = "Connect timeout must be positive")
+        private long connectTimeout = 10;
+
+        /** 等待服务器应答的超时，覆盖问候、EHLO、TLS 握手与认证（单位：秒，默认为 10）*/
+        @Positive(message = "Handshake timeout must be positive")
+        private long handshakeTimeout = 10;
+
+        /** 写出邮件数据的超时（单位：秒，默认为 10）*/
+        @Positive(message = "Data timeout must be positive")
+        private long dataTimeout = 10;
+    }
+}
@@ -0,0 +1,20 @@
+package io.github.jessez332623.reactive_email_sender.autoconfigure;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * <p>要求响应式邮件发送器刷新授权码与会话属性的事件。</p>
+ *
+ * <p>
+ *     授权码轮换后（或配置中心推送新配置后）发布该事件即可让发送器在不重启的情况下切换凭据，
+ *     例如在 Spring Cloud 的 RefreshScopeRefreshedEvent 监听器中转发本事件。
+ * </p>
+ */
+public class ReactiveEmailSenderRefreshEvent extends ApplicationEvent
+{
+    private static final long serialVersionUID = 1L;
+
+    public ReactiveEmailSenderRefreshEvent(Object source) {
+        super(source);
+    }
+}
@@ -0,0 +1,148 @@
+package io.github.jessez332623.reactive_email_sender.autoconfigure;
+
+import io.github.jessez332623.reactive_email_sender.authorization.EmailServiceAuthCodeGetter;
+import io.github.jessez332623.reactive_email_sender.exception.EmailException;
+import io.github.jessez332623.reactive_email_sender.impl.DefaultReactiveEmailSenderImpl;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Properties;
+
+import static io.github.jessez332623.reactive_email_sender.exception.EmailException.ErrorType.CONFIG_MISSING;
+
+/**
+ * <p>响应式邮件发送器凭据刷新器。</p>
+ *
+ * <p>
+ *     重新从 {@link EmailServiceAuthCodeGetter} 和当前 {@link Environment} 读取授权码与会话属性，
+ *     交给 {@link DefaultReactiveEmailSenderImpl#refresh(String, Properties)} 原子地切换。
+ *     刷新既可以按 app.reactive-email-sender.refresh.interval 定时进行，
+ *     也可以通过发布 {@link ReactiveEmailSenderRefreshEvent} 事件触发。
+ * </p>
+ */
+@Slf4j
+public class ReactiveEmailSenderRefresher implements InitializingBean, DisposableBean
+{
+    private final DefaultReactiveEmailSenderImpl emailSender;
+    private final EmailServiceAuthCodeGetter     authCodeGetter;
+    private final Environment                    environment;
+    private final ReactiveEmailSenderProperties  properties;
+
+    /** 定时刷新任务（未启用时为 null）*/
+    private Disposable scheduledRefresh;
+
+    public ReactiveEmailSenderRefresher(
+        DefaultReactiveEmailSenderImpl emailSender,
+        EmailServiceAuthCodeGetter     authCodeGetter,
+        Environment                    environment,
+        ReactiveEmailSenderProperties  properties)
+    {
+        this.emailSender    = emailSender;
+        this.authCodeGetter = authCodeGetter;
+        this.environment    = environment;
+        this.properties     = properties;
+    }
+
+    /** 从当前环境重新绑定属性（环境中没有对应属性时沿用启动时的属性）。*/
+    private ReactiveEmailSenderProperties currentProperties()
+    {
+        return
+        Binder.get(this.environment)
+              .bind("app.reactive-email-sender", ReactiveEmailSenderProperties.class)
+              .orElse(this.properties);
+    }
+
+    /**
+     * 立即执行一次刷新，
+     * 授权码获取接口可能是阻塞的（例如查询数据库），因此放到 boundedElastic 线程池执行。
+     *
+     * @return 发布是否真的切换了凭据的 {@link Mono}
+     */
+    public Mono<Boolean> refresh()
+    {
+        return Mono.fromCallable(() -> {
+            final ReactiveEmailSenderProperties latest
+                = this.currentProperties();
+
+            final String authCode
+                = Optional.ofNullable(this.authCodeGetter.get())
+                          .orElse(latest.getAuthCode());
+
+            if (Objects.isNull(authCode))
+            {
+                throw new
+                EmailException(CONFIG_MISSING, "Property <auth-code> is missing...");
+            }
+
+            final Properties mailProperties
+                = DefaultReactiveEmailSenderImpl.builder()
+                    .smtpHost(this.emailSender.getSmtpHost())
+                    .smtpPort(this.emailSender.getSmtpPort())
+                    .phaseTimeouts(
+                        latest.getTimeout().getConnectTimeout(),
+                        latest.getTimeout().getHandshakeTimeout(),
+                        latest.getTimeout().getDataTimeout())
+                    .transferExtensions(
+                        latest.getEncoding().isEightBitMime(),
+                        latest.getEncoding().isSmtpUtf8())
+                    .setDefaultSessionProperties()
+                    .addProperties(latest.getSessionProps())
+                    .getMailProperties();
+
+            return this.emailSender.refresh(authCode, mailProperties);
+        })
+        .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /** 收到刷新事件时执行一次刷新。*/
+    @EventListener(ReactiveEmailSenderRefreshEvent.class)
+    public void onRefreshEvent(@NotNull ReactiveEmailSenderRefreshEvent event)
+    {
+        this.refresh()
+            .subscribe(
+                (refreshed) -> log.debug("Refresh triggered by {}, refreshed = {}.", event.getSource(), refreshed),
+                (exception) -> log.error("Refresh email sender credentials failed!", exception)
+            );
+    }
+
+    /** 按配置启动定时刷新。*/
+    @Override
+    public void afterPropertiesSet()
+    {
+        final long interval = this.properties.getRefresh().getInterval();
+
+        if (interval <= 0) { return; }
+
+        this.scheduledRefresh
+            = Flux.interval(Duration.ofSeconds(interval), Duration.ofSeconds(interval))
+                  .onBackpressureDrop()
+                  .concatMap((tick) ->
+                      this.refresh()
+                          .onErrorResume((exception) -> {
+                              log.error("Scheduled refresh of email sender credentials failed!", exception);
+                              return Mono.empty();
+                          }))
+                  .subscribe();
+    }
+
+    /** 停止定时刷新。*/
+    @Override
+    public void destroy()
+    {
+        if (Objects.nonNull(this.scheduledRefresh)) {
+            this.scheduledRefresh.dispose();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package io.github.jessez332623.reactive_email_sender.autoconfigure;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+import java.util.List;
+
+/**
+ * <p>响应式邮件发送器的 AOT 运行时提示（GraalVM 原生镜像）。</p>
+ *
+ * <p>
+ *     jakarta.mail 与 jakarta.activation 在运行时才按照 META-INF 下的配置文件
+ *     以反射加载 SMTP 提供者与内容处理器，直连 MX 投递通过 JNDI 按类名加载 DNS 上下文工厂，
+ *     这些都无法被原生镜像的静态分析发现，需要在这里登记；
+ *     配置属性由 Bean Validation 反射读取字段，也一并登记。
+ * </p>
+ */
+public class ReactiveEmailSenderRuntimeHints implements RuntimeHintsRegistrar
+{
+    /** jakarta.mail、jakarta.activation 与本依赖在运行时读取的资源 */
+    private static final List<String> RESOURCES
+        = List.of(
+            "META-INF/javamail.providers",
+            "META-INF/javamail.default.providers",
+            "META-INF/javamail.address.map",
+            "META-INF/javamail.default.address.map",
+            "META-INF/javamail.charset.map",
+            "META-INF/services/jakarta.mail.Provider",
+            "META-INF/mailcap",
+            "META-INF/mailcap.default",
+            "META-INF/mime.types",
+            "META-INF/mimetypes.default",
+            "META-INF/reactive-email-sender/mime.types"
+        );
+
+    /** 运行时按类名反射实例化的类型 */
+    private static final List<String> REFLECTIVE_TYPES
+        = List.of(
+            // SMTP 提供者与传输（Session.getTransport() 按提供者配置实例化）
+            "com.sun.mail.smtp.SMTPProvider",
+            "com.sun.mail.smtp.SMTPSSLProvider",
+            "com.sun.mail.smtp.SMTPTransport",
+            "com.sun.mail.smtp.SMTPSSLTransport",
+
+            // 内容处理器（activation 按 mailcap 实例化）
+            "com.sun.mail.handlers.text_plain",
+            "com.sun.mail.handlers.text_html",
+            "com.sun.mail.handlers.text_xml",
+            "com.sun.mail.handlers.multipart_mixed",
+            "com.sun.mail.handlers.message_rfc822",
+
+            // 直连 MX 投递的 DNS 查询
+            "com.sun.jndi.dns.DnsContextFactory"
+        );
+
+    @Override
+    public void
+    registerHints(@NotNull RuntimeHints hints, @Nullable ClassLoader classLoader)
+    {
+        RESOURCES.forEach((resource) -> hints.resources().registerPattern(resource));
+
+        REFLECTIVE_TYPES.forEach((type) ->
+            hints.reflection().registerType(
+                TypeReference.of(type),
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS
+            )
+        );
+
+        // 自动配置启动时手动执行 Bean Validation，需要反射读取属性类及其嵌套类的字段
+        registerValidatedType(hints, ReactiveEmailSenderProperties.class);
+
+        for (Class<?> nested : ReactiveEmailSenderProperties.class.getDeclaredClasses()) {
+            registerValidatedType(hints, nested);
+        }
+    }
+
+    private static void
+    registerValidatedType(@NotNull RuntimeHints hints, @NotNull Class<?> type)
+    {
+        hints.reflection().registerType(
+            type,
+            MemberCategory.DECLARED_FIELDS,
+            MemberCategory.INVOKE_PUBLIC_METHODS
+        );
+    }
+}
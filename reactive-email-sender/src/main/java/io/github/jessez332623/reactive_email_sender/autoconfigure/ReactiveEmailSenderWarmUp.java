@@ -0,0 +1,64 @@
+package io.github.jessez332623.reactive_email_sender.autoconfigure;
+
+import io.github.jessez332623.reactive_email_sender.impl.DefaultReactiveEmailSenderImpl;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>响应式邮件发送器启动预热。</p>
+ *
+ * <p>
+ *     应用就绪（{@link ApplicationReadyEvent}）之后在后台调用
+ *     {@link DefaultReactiveEmailSenderImpl#warmUp(int)}，不阻塞启动过程；
+ *     预热失败只记录警告，不影响应用运行（第一封邮件照常按需建立连接）。
+ * </p>
+ */
+@Slf4j
+public class ReactiveEmailSenderWarmUp implements ApplicationListener<ApplicationReadyEvent>
+{
+    private final DefaultReactiveEmailSenderImpl emailSender;
+
+    /** 预先建立的 SMTP 连接数 */
+    private final int connections;
+
+    /** 预热的超时时间 */
+    private final Duration timeout;
+
+    public ReactiveEmailSenderWarmUp(
+        DefaultReactiveEmailSenderImpl emailSender,
+        int connections, Duration timeout)
+    {
+        this.emailSender = emailSender;
+        this.connections = connections;
+        this.timeout     = timeout;
+    }
+
+    @Override
+    public void onApplicationEvent(@NotNull ApplicationReadyEvent event)
+    {
+        final long startAt = System.nanoTime();
+
+        this.emailSender
+            .warmUp(this.connections)
+            .timeout(this.timeout)
+            .subscribe(
+                null,
+                (exception) ->
+                    log.warn(
+                        "Reactive email sender warm-up failed, caused by: {}",
+                        exception.getMessage()
+                    ),
+                () ->
+                    log.info(
+                        "Reactive email sender warmed up ({} connection(s)) in {} ms.",
+                        this.connections,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startAt)
+                    )
+            );
+    }
+}
@@ -0,0 +1,73 @@
+package io.github.jessez332623.reactive_email_sender.deadletter;
+
+import io.github.jessez332623.reactive_email_sender.dto.EmailContent;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/** 最终发送失败、被交给死信存储的邮件。*/
+@Getter
+@ToString
+@AllArgsConstructor
+public class DeadLetter
+{
+    /** 死信编号（按失败时间递增，可用于排序与重放）*/
+    private final String id;
+
+    /** 邮件内容 */
+    private final EmailContent content;
+
+    /** 最终导致失败的异常类名 */
+    private final String errorClass;
+
+    /** 最终导致失败的异常信息 */
+    private final String errorMessage;
+
+    /** SMTP 服务器最后的应答码（没有收到应答时为 0）*/
+    private final int smtpReplyCode;
+
+    /** SMTP 服务器最后的应答文本（没有收到应答时为 null）*/
+    private final @Nullable String smtpReply;
+
+    /** 每一次发送尝试的记录 */
+    private final List<Attempt> attempts;
+
+    /** 最终失败的时间（Unix 毫秒时间戳）*/
+    private final long failedAt;
+
+    /** 生成死信编号：零填充的失败时间戳加随机后缀，按字典序即按时间排序。*/
+    public static String nextId(long failedAt)
+    {
+        return
+        String.format(
+            "%013d-%06x", failedAt,
+            ThreadLocalRandom.current().nextInt(1 << 24)
+        );
+    }
+
+    /** 一次发送尝试的记录。*/
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    public static class Attempt
+    {
+        /** 开始时间（Unix 毫秒时间戳）*/
+        private final long startedAt;
+
+        /** 耗时（单位：毫秒）*/
+        private final long elapsedMillis;
+
+        /** 失败的异常类名 */
+        private final String errorClass;
+
+        /** 失败的异常信息 */
+        private final String errorMessage;
+
+        /** SMTP 应答码（没有收到应答时为 0）*/
+        private final int smtpReplyCode;
+    }
+}
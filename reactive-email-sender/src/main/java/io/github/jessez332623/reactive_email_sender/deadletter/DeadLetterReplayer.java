@@ -0,0 +1,106 @@
+package io.github.jessez332623.reactive_email_sender.deadletter;
+
+import io.github.jessez332623.reactive_email_sender.ReactiveEmailSender;
+import io.github.jessez332623.reactive_email_sender.impl.DefaultReactiveEmailSenderImpl;
+import io.github.jessez332623.reactive_email_sender.utils.EmailAddressMasker;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * <p>死信重放器，把死信存储中的邮件重新交给发送器发送。</p>
+ *
+ * <p>
+ *     重放按 ratePerSecond 匀速进行，避免中继恢复后被积压的死信瞬间打满；
+ *     发送成功的死信会从存储中删除，失败的死信保持原样留待下次重放
+ *     （重放的发送不会再产生新的死信）。
+ * </p>
+ */
+@Slf4j
+public class DeadLetterReplayer
+{
+    private final ReactiveEmailSender sender;
+
+    private final DeadLetterStore store;
+
+    /** 每秒最多重放的死信数 */
+    private final int ratePerSecond;
+
+    public DeadLetterReplayer(
+        @NotNull ReactiveEmailSender sender,
+        @NotNull DeadLetterStore store, int ratePerSecond)
+    {
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("ratePerSecond must be positive!");
+        }
+
+        this.sender        = sender;
+        this.store         = store;
+        this.ratePerSecond = ratePerSecond;
+    }
+
+    /** 重放所有死信。*/
+    public Flux<ReplayResult>
+    replayAll() { return this.replay((deadLetter) -> true); }
+
+    /** 重放指定编号的死信。*/
+    public Flux<ReplayResult>
+    replay(@NotNull Set<String> ids)
+    {
+        return
+        Flux.fromIterable(ids)
+            .sort()
+            .concatMap(this.store::get)
+            .transform(this::replayEach);
+    }
+
+    /** 重放满足条件的死信（如按收件人、失败原因或 SMTP 应答码筛选）。*/
+    public Flux<ReplayResult>
+    replay(@NotNull Predicate<DeadLetter> selector)
+    {
+        return
+        this.store.list()
+            .filter(selector)
+            .transform(this::replayEach);
+    }
+
+    private @NotNull Flux<ReplayResult>
+    replayEach(@NotNull Flux<DeadLetter> deadLetters)
+    {
+        final Duration interval = Duration.ofMillis(Math.max(1000L / this.ratePerSecond, 1L));
+
+        return
+        deadLetters
+            .delayElements(interval)
+            .concatMap(this::replayOne);
+    }
+
+    private @NotNull Mono<ReplayResult>
+    replayOne(@NotNull DeadLetter deadLetter)
+    {
+        final String to = deadLetter.getContent().getTo();
+
+        return
+        this.sender.sendEmail(deadLetter.getContent())
+            .contextWrite(
+                Context.of(DefaultReactiveEmailSenderImpl.SKIP_DEAD_LETTER_CONTEXT_KEY, true))
+            .then(this.store.remove(deadLetter.getId()))
+            .thenReturn(new ReplayResult(deadLetter.getId(), to, true, null))
+            .onErrorResume((exception) -> {
+                log.warn(
+                    "Replay dead letter {} to {} failed: {}",
+                    deadLetter.getId(), EmailAddressMasker.mask(to), exception.getMessage()
+                );
+
+                return Mono.just(
+                    new ReplayResult(deadLetter.getId(), to, false, exception.getMessage())
+                );
+            });
+    }
+}
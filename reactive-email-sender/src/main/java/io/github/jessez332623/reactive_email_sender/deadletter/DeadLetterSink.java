@@ -0,0 +1,24 @@
+package io.github.jessez332623.reactive_email_sender.deadletter;
+
+import org.jetbrains.annotations.NotNull;
+import reactor.core.publisher.Mono;
+
+/**
+ * <p>死信接收器。</p>
+ *
+ * <p>
+ *     用完重试次数（或重试预算）仍然发送失败的邮件会交给它保存，
+ *     调用方收到的错误不变。保存失败只会记录日志，不会影响调用方。
+ * </p>
+ */
+@FunctionalInterface
+public interface DeadLetterSink
+{
+    /** 保存一封死信。*/
+    Mono<Void> accept(@NotNull DeadLetter deadLetter);
+
+    /** 直接丢弃死信的接收器。*/
+    static DeadLetterSink discard() {
+        return (deadLetter) -> Mono.empty();
+    }
+}
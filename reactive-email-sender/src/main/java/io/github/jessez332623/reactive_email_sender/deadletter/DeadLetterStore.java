@@ -0,0 +1,21 @@
+package io.github.jessez332623.reactive_email_sender.deadletter;
+
+import org.jetbrains.annotations.NotNull;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/** 可以查询与删除的死信存储，配合 {@link DeadLetterReplayer} 重放。*/
+public interface DeadLetterStore extends DeadLetterSink
+{
+    /** 按编号（即失败时间）顺序列出所有死信。*/
+    Flux<DeadLetter> list();
+
+    /** 按编号查找死信，不存在时发布空。*/
+    Mono<DeadLetter> get(@NotNull String id);
+
+    /** 按编号删除死信（不存在时什么也不做）。*/
+    Mono<Void> remove(@NotNull String id);
+
+    /** 当前保存的死信数量。*/
+    Mono<Long> count();
+}
@@ -0,0 +1,278 @@
+package io.github.jessez332623.reactive_email_sender.deadletter;
+
+import io.github.jessez332623.reactive_email_sender.utils.EmailContentCodec;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.*;
+import java.nio.file.*;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static io.github.jessez332623.reactive_email_sender.utils.EmailContentCodec.readString;
+import static io.github.jessez332623.reactive_email_sender.utils.EmailContentCodec.writeString;
+
+/**
+ * <p>基于本地文件的死信存储，每封死信保存为目录下的一个文件（文件名即死信编号）。</p>
+ *
+ * <p>
+ *     文件采用紧凑的二进制格式（见 {@link EmailContentCodec}），
+ *     先写临时文件再原子重命名，进程崩溃时不会留下半截的死信。
+ *     所有文件操作都在 boundedElastic 调度器上执行，不会阻塞调用线程。
+ * </p>
+ *
+ * <p>
+ *     死信包含完整的邮件内容（正文与附件），
+ *     在支持 POSIX 权限的文件系统上，新建的目录与死信文件只允许所有者访问（700 / 600）。
+ * </p>
+ */
+@Slf4j
+public class FileDeadLetterStore implements DeadLetterStore
+{
+    /** 文件格式版本号 */
+    private static final byte FORMAT_VERSION = 1;
+
+    /** 死信文件的扩展名 */
+    private static final String SUFFIX = ".dl";
+
+    /** 死信目录与文件的权限（仅所有者可访问）*/
+    private static final Set<PosixFilePermission> DIRECTORY_PERMISSIONS
+        = PosixFilePermissions.fromString("rwx------");
+
+    private static final Set<PosixFilePermission> FILE_PERMISSIONS
+        = PosixFilePermissions.fromString("rw-------");
+
+    /** 死信文件所在的目录 */
+    @Getter
+    private final Path directory;
+
+    public FileDeadLetterStore(@NotNull Path directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public Mono<Void>
+    accept(@NotNull DeadLetter deadLetter)
+    {
+        return
+        Mono.<Void>fromCallable(() -> {
+            this.createDirectory();
+
+            final Path target    = this.pathOf(deadLetter.getId());
+            final Path temporary = this.directory.resolve(deadLetter.getId() + ".tmp");
+
+            createPrivateFile(temporary);
+
+            try (DataOutputStream output
+                     = new DataOutputStream(
+                         new BufferedOutputStream(Files.newOutputStream(temporary))))
+            {
+                write(output, deadLetter);
+            }
+
+            Files.move(
+                temporary, target,
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING
+            );
+
+            return null;
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Flux<DeadLetter>
+    list()
+    {
+        return
+        Mono.fromCallable(this::listIds)
+            .flatMapMany(Flux::fromIterable)
+            .concatMap(this::get)
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Mono<DeadLetter>
+    get(@NotNull String id)
+    {
+        return
+        Mono.fromCallable(() -> {
+            final Path path = this.pathOf(id);
+
+            if (!Files.exists(path)) { return null; }
+
+            try (DataInputStream input
+                     = new DataInputStream(
+                         new BufferedInputStream(Files.newInputStream(path))))
+            {
+                return read(input, Files.size(path));
+            }
+            catch (NoSuchFileException exception) {
+                return null;    // 读取前刚好被删除（如重放成功）
+            }
+            catch (IOException exception)
+            {
+                log.error("Read dead letter file {} failed, skip it.", path, exception);
+                return null;
+            }
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Mono<Void>
+    remove(@NotNull String id)
+    {
+        return
+        Mono.<Void>fromCallable(() -> {
+            Files.deleteIfExists(this.pathOf(id));
+            return null;
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Mono<Long>
+    count()
+    {
+        return
+        Mono.fromCallable(() -> (long) this.listIds().size())
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /** 创建死信目录（支持 POSIX 权限时只允许所有者访问）。*/
+    private void createDirectory() throws IOException
+    {
+        if (Files.isDirectory(this.directory)) { return; }
+
+        if (isPosix(this.directory))
+        {
+            Files.createDirectories(
+                this.directory,
+                PosixFilePermissions.asFileAttribute(DIRECTORY_PERMISSIONS)
+            );
+        }
+        else {
+            Files.createDirectories(this.directory);
+        }
+    }
+
+    /** 创建（或清空）一个只允许所有者读写的文件。*/
+    private static void createPrivateFile(@NotNull Path path) throws IOException
+    {
+        Files.deleteIfExists(path);
+
+        if (isPosix(path)) {
+            Files.createFile(path, PosixFilePermissions.asFileAttribute(FILE_PERMISSIONS));
+        }
+        else {
+            Files.createFile(path);
+        }
+    }
+
+    private static boolean isPosix(@NotNull Path path) {
+        return path.getFileSystem().supportedFileAttributeViews().contains("posix");
+    }
+
+    /** 按编号顺序列出目录下所有死信的编号。*/
+    private @NotNull List<String>
+    listIds() throws IOException
+    {
+        if (!Files.isDirectory(this.directory)) {
+            return List.of();
+        }
+
+        try (Stream<Path> files = Files.list(this.directory))
+        {
+            return
+            files.map((path) -> path.getFileName().toString())
+                 .filter((name) -> name.endsWith(SUFFIX))
+                 .map((name) -> name.substring(0, name.length() - SUFFIX.length()))
+                 .sorted()
+                 .toList();
+        }
+    }
+
+    private @NotNull Path
+    pathOf(@NotNull String id)
+    {
+        // 编号只由数字、十六进制字符与 '-' 组成，拒绝任何可能跳出目录的编号
+        if (!id.matches("[0-9a-fA-F-]+")) {
+            throw new IllegalArgumentException("Illegal dead letter id: " + id);
+        }
+
+        return this.directory.resolve(id + SUFFIX);
+    }
+
+    private static void
+    write(@NotNull DataOutput output, @NotNull DeadLetter deadLetter) throws IOException
+    {
+        output.writeByte(FORMAT_VERSION);
+        writeString(output, deadLetter.getId());
+        EmailContentCodec.write(output, deadLetter.getContent());
+        writeString(output, deadLetter.getErrorClass());
+        writeString(output, deadLetter.getErrorMessage());
+        output.writeInt(deadLetter.getSmtpReplyCode());
+        writeString(output, deadLetter.getSmtpReply());
+        output.writeLong(deadLetter.getFailedAt());
+
+        output.writeInt(deadLetter.getAttempts().size());
+
+        for (DeadLetter.Attempt attempt : deadLetter.getAttempts())
+        {
+            output.writeLong(attempt.getStartedAt());
+            output.writeLong(attempt.getElapsedMillis());
+            writeString(output, attempt.getErrorClass());
+            writeString(output, attempt.getErrorMessage());
+            output.writeInt(attempt.getSmtpReplyCode());
+        }
+    }
+
+    private static @NotNull DeadLetter
+    read(@NotNull DataInput input, long limit) throws IOException
+    {
+        final byte version = input.readByte();
+
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported dead letter format version: " + version);
+        }
+
+        final String id            = readString(input, limit);
+        final var    content       = EmailContentCodec.read(input, limit);
+        final String errorClass    = readString(input, limit);
+        final String errorMessage  = readString(input, limit);
+        final int    smtpReplyCode = input.readInt();
+        final String smtpReply     = readString(input, limit);
+        final long   failedAt      = input.readLong();
+
+        final int attemptCount = input.readInt();
+
+        if (attemptCount < 0 || attemptCount > limit) {
+            throw new IOException("corrupt record");
+        }
+
+        final List<DeadLetter.Attempt> attempts = new ArrayList<>(attemptCount);
+
+        for (int index = 0; index < attemptCount; ++index)
+        {
+            attempts.add(
+                new DeadLetter.Attempt(
+                    input.readLong(), input.readLong(),
+                    readString(input, limit), readString(input, limit),
+                    input.readInt()
+                )
+            );
+        }
+
+        return new
+        DeadLetter(
+            id, content, errorClass, errorMessage,
+            smtpReplyCode, smtpReply, List.copyOf(attempts), failedAt
+        );
+    }
+}
@@ -0,0 +1,13 @@
+package io.github.jessez332623.reactive_email_sender.deadletter;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * 一封死信的重放结果。
+ *
+ * @param id        死信编号
+ * @param to        收件人
+ * @param delivered 是否重新发送成功（成功的死信会从存储中删除）
+ * @param error     失败原因（成功时为 null）
+ */
+public record ReplayResult(String id, String to, boolean delivered, @Nullable String error) {}
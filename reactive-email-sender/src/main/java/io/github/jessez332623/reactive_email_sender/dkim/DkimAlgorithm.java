@@ -0,0 +1,25 @@
+package io.github.jessez332623.reactive_email_sender.dkim;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/** DKIM 签名算法。*/
+@Getter
+@AllArgsConstructor
+public enum DkimAlgorithm
+{
+    /** RSA 签名（a=rsa-sha256），兼容性最好。*/
+    RSA_SHA256("rsa-sha256", "RSA", "SHA256withRSA"),
+
+    /** Ed25519 签名（a=ed25519-sha256，RFC 8463），签名更快、密钥更短。*/
+    ED25519_SHA256("ed25519-sha256", "Ed25519", "Ed25519");
+
+    /** DKIM-Signature 中 a= 标签的值 */
+    private final String tag;
+
+    /** 解析私钥使用的 KeyFactory 算法名 */
+    private final String keyAlgorithm;
+
+    /** java.security.Signature 算法名 */
+    private final String signatureAlgorithm;
+}
@@ -0,0 +1,98 @@
+package io.github.jessez332623.reactive_email_sender.dkim;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.jetbrains.annotations.NotNull;
+
+import java.security.MessageDigest;
+import java.util.Locale;
+
+/** DKIM relaxed 规范化算法（RFC 6376 3.4.2 与 3.4.4）。*/
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class DkimCanonicalizer
+{
+    private static final byte[] CRLF = {'\r', '\n'};
+
+    /** 按 relaxed 规则规范化一行头部（可以是折叠过的多行），结果不包含行尾的 CRLF。*/
+    static @NotNull String
+    relaxedHeader(@NotNull String headerLine)
+    {
+        final int colon = headerLine.indexOf(':');
+
+        final String name  = headerLine.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+        final String value
+            = headerLine.substring(colon + 1)
+                        .replace("\r\n", "")
+                        .replace("\n", "")
+                        .replaceAll("[ \t]+", " ")
+                        .trim();
+
+        return name + ":" + value;
+    }
+
+    /**
+     * 按 relaxed 规则规范化正文并直接送入摘要（不生成规范化后的副本）：
+     * 行内连续空白压缩为一个空格、去掉行尾空白、去掉末尾的空行，每行以 CRLF 结尾。
+     */
+    static void
+    digestRelaxedBody(byte @NotNull [] body, @NotNull MessageDigest digest)
+    {
+        byte[] buffer       = new byte[Math.min(body.length, 8192)];
+        int    pendingEmpty = 0;
+        int    start        = 0;
+
+        while (start < body.length)
+        {
+            int end = start;
+
+            while (end < body.length && body[end] != '\n') { ++end; }
+
+            // 行的范围为 [start, lineEnd)，不包含 CR LF
+            int lineEnd = end;
+
+            if (lineEnd > start && body[lineEnd - 1] == '\r') { --lineEnd; }
+
+            if (buffer.length < lineEnd - start) {
+                buffer = new byte[lineEnd - start];
+            }
+
+            int     length     = 0;
+            boolean whitespace = false;
+
+            for (int index = start; index < lineEnd; ++index)
+            {
+                final byte current = body[index];
+
+                if (current == ' ' || current == '\t')
+                {
+                    whitespace = true;
+                    continue;
+                }
+
+                if (whitespace)
+                {
+                    buffer[length++] = ' ';
+                    whitespace       = false;
+                }
+
+                buffer[length++] = current;
+            }
+
+            // 行尾的空白直接丢弃（whitespace 为 true 时不再补空格）
+            if (length == 0) {
+                ++pendingEmpty;
+            }
+            else
+            {
+                for (; pendingEmpty > 0; --pendingEmpty) {
+                    digest.update(CRLF);
+                }
+
+                digest.update(buffer, 0, length);
+                digest.update(CRLF);
+            }
+
+            start = end + 1;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package io.github.jessez332623.reactive_email_sender.dkim;
+
+import com.sun.mail.smtp.SMTPMessage;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Date;
+
+/**
+ * <p>正文已经预先渲染好的 MIME 邮件。</p>
+ *
+ * <p>
+ *     正文字节直接写出，saveChanges() 只补全 Date 与 Message-ID，
+ *     不会像 {@link MimeMessage} 那样重新生成 Content-Type（以及 multipart 的分隔符）
+ *     与 Content-Transfer-Encoding，因此签名时计算的正文摘要与实际发出的正文保持一致。
+ * </p>
+ */
+public final class PrerenderedMimeMessage extends SMTPMessage
+{
+    public PrerenderedMimeMessage(
+        Session session, @NotNull RenderedBody body) throws MessagingException
+    {
+        super(session);
+
+        this.content  = body.bytes();
+        this.modified = false;
+
+        this.setHeader("MIME-Version", "1.0");
+        this.setHeader("Content-Type", body.contentType());
+
+        if (body.transferEncoding() != null) {
+            this.setHeader("Content-Transfer-Encoding", body.transferEncoding());
+        }
+    }
+
+    @Override
+    public void saveChanges() throws MessagingException
+    {
+        this.saved = true;
+        this.updateHeaders();
+    }
+
+    @Override
+    protected void updateHeaders() throws MessagingException
+    {
+        if (this.getHeader("Date") == null) {
+            this.setSentDate(new Date());
+        }
+
+        if (this.getHeader("Message-ID") == null) {
+            this.updateMessageID();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package io.github.jessez332623.reactive_email_sender.dkim;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * 预先渲染好的邮件正文（MIME 结构已经确定，包括 multipart 的分隔符），
+ * 发给多个收件人时共享同一份字节与正文摘要。
+ *
+ * @param contentType       Content-Type 头的值
+ * @param transferEncoding  Content-Transfer-Encoding 头的值（没有时为 null）
+ * @param bytes             正文的原始字节（不包含头部）
+ * @param bodyHash          按 relaxed 规则规范化后的正文摘要（Base64，即 bh= 标签的值）
+ */
+public record RenderedBody(
+    String contentType, @Nullable String transferEncoding,
+    byte[] bytes, String bodyHash) {}
@@ -81,26 +81,45 @@ public class EmailContent
     {
         return
         VerifyCodeGenerator.generateVerifyCode(digits)
-            .map((varifyCode) -> {
-                EmailContent emailContent = new EmailContent();
-
-                emailContent.setTo(userEmail);
-                emailContent.setSubject("用户：" + userName + " 请查收您的验证码。");
-                emailContent.setTextBody(
-                    format(
-                        "用户：%s 您的验证码是：[%s]，" +
-                            "请在 %s 分钟内完成验证，超过 %s 分钟后验证码自动失效！",
-                        userName, varifyCode,
-                        expired.toMinutes(), expired.toMinutes()
-                    )
-                );
-
-                // 验证码邮件不需要附件内容
-                emailContent.setAttachmentName(null);
-                emailContent.setAttachmentData(null);
-
-                return emailContent;
-            });
+            .map((varifyCode) ->
+                fromVarifyCode(userName, userEmail, varifyCode, expired));
+    }
+
+    /**
+     * 使用已经生成好的验证码构建验证码邮件内容，
+     * 适用于验证码需要先行保存（如交由 VerificationCodeService 管理）的场景。
+     *
+     * @param userName   收件人姓名
+     * @param userEmail  收件人邮箱
+     * @param varifyCode 验证码
+     * @param expired    验证码有效期
+     *
+     * @return 验证码邮件内容
+     */
+    public static @NotNull EmailContent
+    fromVarifyCode(
+        String userName, String userEmail,
+        String varifyCode, @NotNull Duration expired
+    )
+    {
+        EmailContent emailContent = new EmailContent();
+
+        emailContent.setTo(userEmail);
+        emailContent.setSubject("用户：" + userName + " 请查收您的验证码。");
+        emailContent.setTextBody(
+            format(
+                "用户：%s 您的验证码是：[%s]，" +
+                    "请在 %s 分钟内完成验证，超过 %s 分钟后验证码自动失效！",
+                userName, varifyCode,
+                expired.toMinutes(), expired.toMinutes()
+            )
+        );
+
+        // 验证码邮件不需要附件内容
+        emailContent.setAttachmentName(null);
+        emailContent.setAttachmentData(null);
+
+        return emailContent;
     }
 
     /**
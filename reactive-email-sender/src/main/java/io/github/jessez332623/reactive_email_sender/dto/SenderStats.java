@@ -0,0 +1,47 @@
+package io.github.jessez332623.reactive_email_sender.dto;
+
+import java.util.Map;
+
+/**
+ * 邮件发送器的运行时统计快照（计数自发送器创建以来累计，延迟分布只统计最近一个窗口）。
+ *
+ * @param accepting         是否仍在接受新的发送（关闭后为 false）
+ * @param inFlightSends     在途的发送数（包括正在退避等待重试的）
+ * @param succeeded         发送成功的邮件数
+ * @param failed            最终发送失败的邮件数
+ * @param errors            最终失败按错误类型（{@link io.github.jessez332623.reactive_email_sender.exception.EmailException.ErrorType}）的计数，
+ *                          不是 EmailException 的错误计入 OTHER
+ * @param lastSuccessAt     最近一次发送成功的时刻（Unix 毫秒时间戳，精确到秒，从未成功时为 0）
+ * @param pool              连接池的使用情况（直连 MX 投递时为所有目标的合计）
+ * @param destinations      直连 MX 投递的目标数（中继投递时为 0）
+ * @param latency           最近一个窗口内发送成功的邮件从调用到完成的延迟分布
+ * @param transferEncoding  传输编码统计
+ */
+public record SenderStats(
+    boolean accepting, long inFlightSends,
+    long succeeded, long failed, Map<String, Long> errors, long lastSuccessAt,
+    Pool pool, int destinations, Latency latency,
+    TransferEncodingStats transferEncoding)
+{
+    /**
+     * 连接池的使用情况。
+     *
+     * @param active  已借出的连接数
+     * @param idle    空闲的连接数
+     * @param waiting 正在排队等待连接（或目标发送许可）的发送数
+     * @param maxSize 连接池的最大连接数
+     */
+    public record Pool(int active, int idle, int waiting, int maxSize) {}
+
+    /**
+     * 延迟分布（单位：毫秒，分位点的相对误差约为 25%）。
+     *
+     * @param windowSeconds 统计窗口的长度（单位：秒）
+     * @param count         窗口内的样本数
+     * @param p50           中位数
+     * @param p90           90 分位
+     * @param p99           99 分位
+     * @param max           最大值
+     */
+    public record Latency(long windowSeconds, long count, long p50, long p90, long p99, long max) {}
+}
@@ -0,0 +1,23 @@
+package io.github.jessez332623.reactive_email_sender.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+/** 邮件发送器关闭报告，记录关闭时有哪些邮件没能在期限内发送完毕。*/
+@Getter
+@ToString
+@AllArgsConstructor
+public class ShutdownReport
+{
+    /** 在途的发送是否在期限内全部结束 */
+    private final boolean drained;
+
+    /** 关闭耗时（单位：毫秒）*/
+    private final long elapsedMillis;
+
+    /** 期限到达时仍未结束、被强制中止的邮件 */
+    private final List<EmailContent> undelivered;
+}
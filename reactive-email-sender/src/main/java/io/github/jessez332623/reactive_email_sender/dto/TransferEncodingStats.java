@@ -0,0 +1,13 @@
+package io.github.jessez332623.reactive_email_sender.dto;
+
+/**
+ * 传输编码统计（自发送器创建以来，只统计发送成功的邮件）。
+ *
+ * @param eightBitMessages    以 8bit 原样发送正文的邮件数（服务器支持 8BITMIME）
+ * @param utf8HeaderMessages  以 UTF-8 原样发送头部的邮件数（服务器支持 SMTPUTF8）
+ * @param fallbackMessages    服务器不支持（或正文不满足 8bit 要求）而回退到 Base64 / QP 的邮件数
+ * @param bytesSaved          与 Base64 / QP 编码相比估算节省的字节数
+ */
+public record TransferEncodingStats(
+    long eightBitMessages, long utf8HeaderMessages,
+    long fallbackMessages, long bytesSaved) {}
@@ -0,0 +1,60 @@
+package io.github.jessez332623.reactive_email_sender.event;
+
+import io.github.jessez332623.reactive_email_sender.dto.EmailContent;
+import io.github.jessez332623.reactive_email_sender.exception.EmailException;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * <p>邮件发送的生命周期事件。</p>
+ *
+ * <p>
+ *     事件不可变，发布时只创建一次，所有订阅者共享同一个实例；
+ *     只保存基本类型与已有对象的引用（邮件内容、失败原因），发布时不做任何字符串格式化，
+ *     需要文本的订阅者在自己的线程上再格式化。
+ * </p>
+ *
+ * @param type         事件类型
+ * @param sendId       发送编号（同一个发送器内唯一，用于关联同一封邮件的各个事件）
+ * @param attempt      尝试序号（QUEUED 为 0，其余为当前或最后一次尝试的序号，从 1 开始）
+ * @param timestamp    事件发生的时刻（Unix 毫秒时间戳）
+ * @param elapsedNanos 距离邮件进入发送器的时长（单位：纳秒）
+ * @param content      邮件内容
+ * @param failure      RETRYING 时为本次尝试失败的原因，FAILED 时为最终的错误，其余为 null
+ */
+public record SendEvent(
+    Type type, long sendId, int attempt,
+    long timestamp, long elapsedNanos,
+    EmailContent content, @Nullable Throwable failure)
+{
+    /** 事件类型。*/
+    public enum Type
+    {
+        /** 邮件进入发送器（已通过关闭检查，尚未校验与发送）。*/
+        QUEUED,
+
+        /** 开始一次发送尝试。*/
+        ATTEMPT_STARTED,
+
+        /** 一次尝试失败，将在退避后重试。*/
+        RETRYING,
+
+        /** 发送成功。*/
+        DELIVERED,
+
+        /** 最终发送失败（包括重试耗尽、超过期限、校验失败与被抑制）。*/
+        FAILED
+    }
+
+    /** 收件人邮箱。*/
+    public String recipient() { return this.content.getTo(); }
+
+    /** 失败原因的错误类型（不是 {@link EmailException} 或没有失败时为 null）。*/
+    public @Nullable EmailException.ErrorType
+    errorType()
+    {
+        return
+        (this.failure instanceof EmailException exception)
+            ? exception.getErrorType()
+            : null;
+    }
+}
@@ -0,0 +1,170 @@
+package io.github.jessez332623.reactive_email_sender.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ *     发送事件的热多播流，供审计、分析等观察者订阅，
+ *     可以由多个发送器共用（如多租户注册表中的各个发送器）。
+ * </p>
+ *
+ * <ul>
+ *     <li>没有订阅者时发送器不创建任何事件；</li>
+ *     <li>
+ *         每个订阅者有自己的有界缓冲区，缓冲区满时按照 {@link OverflowPolicy} 丢弃事件并计数，
+ *         慢的订阅者只会丢失自己的事件，既不影响其他订阅者，也不会让发送变慢；
+ *     </li>
+ *     <li>
+ *         订阅者在 boundedElastic 线程上消费事件（可以阻塞，如写入数据库），
+ *         发送线程发布事件时只把事件放进各个缓冲区；
+ *     </li>
+ *     <li>只有订阅之后发布的事件才会收到，不重放历史事件。</li>
+ * </ul>
+ *
+ * <pre>{@code
+ * eventBus.events("audit", 1024, SendEventBus.OverflowPolicy.DROP_OLDEST)
+ *         .filter((event) -> event.type() == SendEvent.Type.FAILED)
+ *         .concatMap(auditRepository::save)
+ *         .subscribe();
+ * }</pre>
+ */
+@Slf4j
+public class SendEventBus implements AutoCloseable
+{
+    /** 缓冲区满时的处理策略。*/
+    public enum OverflowPolicy
+    {
+        /** 丢弃新到达的事件，保留缓冲区中较早的事件。*/
+        DROP_NEWEST(BufferOverflowStrategy.DROP_LATEST),
+
+        /** 丢弃缓冲区中最早的事件，保留最新的事件。*/
+        DROP_OLDEST(BufferOverflowStrategy.DROP_OLDEST);
+
+        private final BufferOverflowStrategy strategy;
+
+        OverflowPolicy(BufferOverflowStrategy strategy) {
+            this.strategy = strategy;
+        }
+    }
+
+    /** 消费线程每次从缓冲区取出的事件数（也是缓冲区之外额外暂存的事件数上限）*/
+    private static final int PREFETCH = 32;
+
+    /**
+     * 所有订阅者共用的多播接收器，不保留没有需求的订阅者的事件；
+     * 发布事件的线程在 {@link #publish(SendEvent)} 中串行化，因此不需要接收器自己的并发检查。
+     */
+    private final Sinks.Many<SendEvent> sink
+        = Sinks.unsafe().many().multicast().directBestEffort();
+
+    /** 各个订阅者（按名称）因缓冲区满而丢弃的事件数 */
+    private final Map<String, LongAdder> dropped = new ConcurrentHashMap<>();
+
+    private final int defaultBufferSize;
+
+    private final OverflowPolicy defaultPolicy;
+
+    /** 默认每个订阅者缓冲 256 个事件，满时丢弃最早的事件。*/
+    public SendEventBus() { this(256, OverflowPolicy.DROP_OLDEST); }
+
+    /**
+     * @param defaultBufferSize {@link #events(String)} 使用的缓冲区大小
+     * @param defaultPolicy     {@link #events(String)} 使用的缓冲区满时的策略
+     */
+    public SendEventBus(int defaultBufferSize, @NotNull OverflowPolicy defaultPolicy)
+    {
+        if (defaultBufferSize <= 0)
+        {
+            throw new
+            IllegalArgumentException("Buffer size must be positive, but got " + defaultBufferSize);
+        }
+
+        this.defaultBufferSize = defaultBufferSize;
+        this.defaultPolicy     = Objects.requireNonNull(defaultPolicy);
+    }
+
+    /** 以默认的缓冲区大小与策略订阅事件。*/
+    public @NotNull Flux<SendEvent>
+    events(@NotNull String subscriber) {
+        return this.events(subscriber, this.defaultBufferSize, this.defaultPolicy);
+    }
+
+    /**
+     * 订阅事件。
+     *
+     * @param subscriber 订阅者名称，用于统计丢弃的事件数（同名的订阅共用一个计数）
+     * @param bufferSize 缓冲区大小
+     * @param policy     缓冲区满时的策略
+     *
+     * @return 发布之后发生的事件的 {@link Flux}，取消订阅即停止接收
+     */
+    public @NotNull Flux<SendEvent>
+    events(@NotNull String subscriber, int bufferSize, @NotNull OverflowPolicy policy)
+    {
+        if (bufferSize <= 0)
+        {
+            throw new
+            IllegalArgumentException("Buffer size must be positive, but got " + bufferSize);
+        }
+
+        final LongAdder droppedCount
+            = this.dropped.computeIfAbsent(subscriber, (ignored) -> new LongAdder());
+
+        return
+        this.sink.asFlux()
+            .onBackpressureBuffer(
+                bufferSize, (event) -> droppedCount.increment(), policy.strategy
+            )
+            .publishOn(Schedulers.boundedElastic(), PREFETCH);
+    }
+
+    /** 当前是否有订阅者（没有时发送器不创建事件）。*/
+    public boolean hasSubscribers() { return this.sink.currentSubscriberCount() > 0; }
+
+    /** 当前的订阅者数。*/
+    public int getSubscriberCount() { return this.sink.currentSubscriberCount(); }
+
+    /** 各个订阅者因缓冲区满而丢弃的事件数。*/
+    public @NotNull Map<String, Long>
+    getDroppedCounts()
+    {
+        final Map<String, Long> counts = new LinkedHashMap<>();
+
+        this.dropped.forEach((subscriber, count) -> counts.put(subscriber, count.sum()));
+
+        return counts;
+    }
+
+    /**
+     * 发布一个事件（由发送器调用）。
+     * 只把事件放进各个订阅者的缓冲区，不会等待订阅者消费。
+     */
+    public void publish(@NotNull SendEvent event)
+    {
+        synchronized (this.sink) {
+            this.sink.tryEmitNext(event);
+        }
+    }
+
+    /** 结束事件流，所有订阅者收到完成信号，之后发布的事件被忽略。*/
+    @Override
+    public void close()
+    {
+        synchronized (this.sink) {
+            this.sink.tryEmitComplete();
+        }
+
+        log.debug("Send event bus closed, dropped events: {}", this.getDroppedCounts());
+    }
+}
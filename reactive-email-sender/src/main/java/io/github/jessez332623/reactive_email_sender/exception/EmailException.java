@@ -15,9 +15,12 @@ public class EmailException extends RuntimeException
         /** 邮箱服务授权码错误。 */
         AUTH_FAILURE,
 
-        /** 网络错误。 */
+        /** 网络错误（包括 SMTP 服务器的 4xx 暂时性应答）。 */
         NETWORK_ISSUE,
 
+        /** SMTP 服务器以 5xx 应答永久拒绝了这封邮件（如收件人不存在），重试没有意义。*/
+        REJECTED,
+
         /** 错误的邮箱地址格式。 */
         INVALID_CONTENT,
 
@@ -25,7 +28,19 @@ public class EmailException extends RuntimeException
         CONFIG_MISSING,
 
         /** 附件不存在错误。*/
-        ATTACHMENT_NOT_EXIST
+        ATTACHMENT_NOT_EXIST,
+
+        /** 请求过于频繁（如验证码重发冷却期内再次请求）。*/
+        RATE_LIMITED,
+
+        /** 邮件发送器已关闭（或正在关闭），不再接受新的发送。*/
+        SENDER_CLOSED,
+
+        /** 超出了发送的总体期限（包含所有重试与退避等待）。*/
+        DEADLINE_EXCEEDED,
+
+        /** 收件人在抑制列表中（硬退信、已退订等），不再投递。*/
+        SUPPRESSED
     }
 
     private final ErrorType errorType;
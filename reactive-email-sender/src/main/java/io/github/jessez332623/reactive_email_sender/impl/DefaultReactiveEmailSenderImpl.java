@@ -0,0 +1,1925 @@
+package io.github.jessez332623.reactive_email_sender.impl;
+
+
+import io.github.jessez332623.reactive_email_sender.ReactiveEmailSender;
+import io.github.jessez332623.reactive_email_sender.deadletter.DeadLetter;
+import io.github.jessez332623.reactive_email_sender.deadletter.DeadLetterSink;
+import io.github.jessez332623.reactive_email_sender.dkim.DkimSigner;
+import io.github.jessez332623.reactive_email_sender.dkim.PrerenderedMimeMessage;
+import io.github.jessez332623.reactive_email_sender.dkim.RenderedBody;
+import io.github.jessez332623.reactive_email_sender.event.SendEventBus;
+import io.github.jessez332623.reactive_email_sender.exception.EmailException;
+import io.github.jessez332623.reactive_email_sender.dto.EmailContent;
+import io.github.jessez332623.reactive_email_sender.dto.SenderStats;
+import io.github.jessez332623.reactive_email_sender.dto.ShutdownReport;
+import io.github.jessez332623.reactive_email_sender.dto.TransferEncodingStats;
+import io.github.jessez332623.reactive_email_sender.mx.MxResolver;
+import io.github.jessez332623.reactive_email_sender.retry.JitterStrategy;
+import io.github.jessez332623.reactive_email_sender.retry.RetryBudget;
+import io.github.jessez332623.reactive_email_sender.retry.RetryPolicy;
+import io.github.jessez332623.reactive_email_sender.suppression.SuppressionList;
+import io.github.jessez332623.reactive_email_sender.transport.SendPermits;
+import io.github.jessez332623.reactive_email_sender.transport.SmtpConnection;
+import io.github.jessez332623.reactive_email_sender.transport.SmtpReply;
+import io.github.jessez332623.reactive_email_sender.transport.SmtpTransportPool;
+import io.github.jessez332623.reactive_email_sender.utils.AttachmentCompressor;
+import io.github.jessez332623.reactive_email_sender.utils.EmailAddressMasker;
+import io.github.jessez332623.reactive_email_sender.utils.EmailFormatVerifier;
+import io.github.jessez332623.reactive_email_sender.utils.MimeTypeGetter;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import reactor.core.Disposable;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.ContextView;
+import reactor.util.retry.Retry;
+
+import com.sun.mail.smtp.SMTPMessage;
+import jakarta.activation.DataHandler;
+import jakarta.mail.*;
+import jakarta.mail.internet.*;
+import jakarta.mail.util.ByteArrayDataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import static io.github.jessez332623.reactive_email_sender.exception.EmailException.ErrorType.*;
+import static java.lang.String.format;
+
+/** 响应式邮件发送器默认实现。*/
+@Data
+@Slf4j
+public class DefaultReactiveEmailSenderImpl implements ReactiveEmailSender
+{
+    /** 提供 SMTP 服务的运营商主机名（例：smtp.gmail.com、smtp.qq.com）*/
+    private final String smtpHost;
+
+    /** SMTP 端口号 */
+    private final int smtpPort;
+
+    /** 最大邮件发送尝试次数 */
+    private final int maxAttemptTimes;
+
+    /** 指数退避起始时间间隔（单位：秒）*/
+    private final long startBackoffInterval;
+
+    /** 指数退避封顶时间间隔（单位：秒）*/
+    private final long maxBackoffInterval;
+
+    /** 附件大小的上限（单位：MB），启用附件压缩时按压缩后的大小检查 */
+    private final int maxAttachmentSize;
+
+    /** 附件压缩策略 */
+    private final AttachmentCompressor attachmentCompressor;
+
+    /** DKIM 签名器（为 null 时不签名）*/
+    private final @Nullable DkimSigner dkimSigner;
+
+    /** 与其他发送器共享的全局连接许可（为 null 时只受本发送器连接池大小的限制）*/
+    @Getter(AccessLevel.NONE)
+    private final @Nullable Semaphore sharedConnectionPermits;
+
+    /** 每次尝试借用连接前取得的发送许可（为 null 时不限制）*/
+    @Getter(AccessLevel.NONE)
+    private final @Nullable SendPermits sendPermits;
+
+    /** 服务器支持 8BITMIME 时是否以 8bit 原样发送 UTF-8 正文 */
+    private final boolean eightBitMime;
+
+    /** 服务器支持 SMTPUTF8 时是否以 UTF-8 原样发送头部 */
+    private final boolean smtpUtf8;
+
+    /** 以 8bit 原样发送正文的邮件数 */
+    @Getter(AccessLevel.NONE)
+    private final LongAdder eightBitMessages = new LongAdder();
+
+    /** 以 UTF-8 原样发送头部的邮件数 */
+    @Getter(AccessLevel.NONE)
+    private final LongAdder utf8HeaderMessages = new LongAdder();
+
+    /** 回退到 Base64 / QP 的邮件数 */
+    @Getter(AccessLevel.NONE)
+    private final LongAdder fallbackMessages = new LongAdder();
+
+    /** 估算节省的字节数 */
+    @Getter(AccessLevel.NONE)
+    private final LongAdder bytesSaved = new LongAdder();
+
+    /** 单封邮件的总体发送期限，包含所有重试与退避等待（单位：秒）*/
+    private final long sendTimeout;
+
+    /** 单次发送尝试的期限（单位：秒），实际取值不会超过剩余的总体期限 */
+    private final long attemptTimeout;
+
+    /** 重试策略（指数退避 + 抖动 + 全局重试预算）*/
+    private final RetryPolicy retryPolicy;
+
+    /** 最终发送失败的邮件交给它保存 */
+    private final DeadLetterSink deadLetterSink;
+
+    /** 直连 MX 投递的目标调度（为 null 时通过 smtpHost 中继投递）*/
+    @Getter(AccessLevel.NONE)
+    private final @Nullable MxRouter mxRouter;
+
+    /** 定期关闭过期空闲连接（以及清理长时间未使用的 MX 目标）的任务 */
+    @Getter(AccessLevel.NONE)
+    private final Disposable idleReaper;
+
+    /** 收件人抑制列表（为 null 时不检查）*/
+    private final @Nullable SuppressionList suppressionList;
+
+    /** 重试日志的采样与聚合 */
+    @Getter(AccessLevel.NONE)
+    private final RetryLogAggregator retryLog;
+
+    /** 发送链路的观测埋点（未配置 ObservationRegistry 时不创建任何观测）*/
+    @Getter(AccessLevel.NONE)
+    private final SendTracing tracing;
+
+    /** 发送结果统计 */
+    @Getter(AccessLevel.NONE)
+    private final SendStatsRecorder stats;
+
+    /** 发送事件的热多播流（没有订阅者时不创建事件）*/
+    private final SendEventBus eventBus;
+
+    /** 事件总线是否由本发送器创建（是则关闭发送器时一并结束事件流）*/
+    @Getter(AccessLevel.NONE)
+    private final boolean ownsEventBus;
+
+    /** 发件人邮箱地址 */
+    private final String enterPriceEmailAddress;
+
+    /** 当前这一代的发件凭据（授权码、会话属性、会话与连接池），刷新时整体替换 */
+    @Getter(AccessLevel.NONE)
+    private final AtomicReference<SessionGeneration> generation;
+
+    /** 是否仍在接受新的发送（调用 shutdown() 后为 false）*/
+    @Getter(AccessLevel.NONE)
+    private volatile boolean accepting = true;
+
+    /** 在途发送编号生成器 */
+    @Getter(AccessLevel.NONE)
+    private final AtomicLong sendSequence = new AtomicLong();
+
+    /** 在途的发送（已订阅但尚未结束，包括正在退避等待重试的）*/
+    @Getter(AccessLevel.NONE)
+    private final
+    Map<Long, EmailContent> inFlightSends = new ConcurrentHashMap<>();
+
+    /** 在途发送全部结束的信号（shutdown() 时等待）*/
+    @Getter(AccessLevel.NONE)
+    private final Sinks.Empty<Void> drainedSignal = Sinks.empty();
+
+    /** 关闭期限到达、强制中止剩余发送的信号 */
+    @Getter(AccessLevel.NONE)
+    private final Sinks.Empty<Void> abortSignal = Sinks.empty();
+
+    /**
+     * <p>Reactor Context 中表示发送截止时刻的键，值的类型为 {@link java.time.Instant}。</p>
+     *
+     * <p>
+     *     调用方可以通过 contextWrite(Context.of(DEADLINE_CONTEXT_KEY, deadline))
+     *     把上游请求的截止时刻传给发送器，实际期限取它与 sendTimeout 中较早的一个。
+     * </p>
+     */
+    public static final String DEADLINE_CONTEXT_KEY = "reactive-email-sender.deadline";
+
+    /**
+     * Reactor Context 中表示本次发送不需要保存死信的键（值为 true 时生效），
+     * 重放死信时使用，避免重放失败后同一封邮件被重复保存；
+     * 验证码邮件同样使用，一次性的验证码不会落到死信存储中。
+     */
+    public static final String SKIP_DEAD_LETTER_CONTEXT_KEY = "reactive-email-sender.skip-dead-letter";
+
+    @Contract(" -> new")
+    public static @NotNull EmailSenderBuilder
+    builder() { return new EmailSenderBuilder(); }
+
+    /**
+     * 邮件发送器构造函数，在调用 EmailSenderBuilder::build() 时调用，
+     * 外部不可以直接调用。
+     *
+     * @param builder 邮件发送器实例生成器
+     */
+    private DefaultReactiveEmailSenderImpl(@NotNull EmailSenderBuilder builder)
+    {
+        this.smtpHost               = builder.getSmtpHost();
+        this.smtpPort               = builder.getSmtpPort();
+        this.maxAttemptTimes        = builder.getMaxAttemptTimes();
+        this.maxAttachmentSize      = builder.getMaxAttachmentSize();
+        this.attachmentCompressor   = builder.getAttachmentCompressor();
+        this.dkimSigner             = builder.getDkimSigner();
+        this.sharedConnectionPermits = builder.getSharedConnectionPermits();
+        this.sendPermits            = builder.getSendPermits();
+        this.eightBitMime           = builder.isEightBitMime();
+        this.smtpUtf8               = builder.isSmtpUtf8();
+        this.startBackoffInterval   = builder.getStartBackoffInterval();
+        this.maxBackoffInterval     = builder.getMaxBackoffInterval();
+        this.sendTimeout            = builder.getSendTimeout();
+        this.attemptTimeout         = builder.getAttemptTimeout();
+        this.deadLetterSink         = builder.getDeadLetterSink();
+        this.retryPolicy
+            = new RetryPolicy(
+                this.maxAttemptTimes,
+                Duration.ofSeconds(this.startBackoffInterval),
+                Duration.ofSeconds(this.maxBackoffInterval),
+                builder.getJitterStrategy(), builder.getRetryBudget()
+            );
+        this.enterPriceEmailAddress = builder.getEnterPriceEmailAddress();
+        this.mxRouter               = this.createMxRouter(builder);
+        this.suppressionList        = builder.getSuppressionList();
+        this.retryLog
+            = new RetryLogAggregator(
+                builder.getRetrySummaryInterval(),
+                builder.getMaxRetryLogsPerInterval(),
+                builder.isMaskRecipients()
+            );
+        this.tracing                = new SendTracing(builder.getObservationRegistry());
+        this.stats                  = new SendStatsRecorder(builder.getStatsWindow());
+        this.ownsEventBus           = Objects.isNull(builder.getEventBus());
+        this.eventBus
+            = this.ownsEventBus ? new SendEventBus() : builder.getEventBus();
+        this.generation
+            = new AtomicReference<>(
+                this.createGeneration(
+                    builder.getServiceAuthCode(),
+                    builder.getMailProperties()
+                )
+            );
+
+        // 空闲连接的过期原本只在借用时检查，流量下降后由这个任务主动发送 QUIT 并断开
+        final long idleTimeout
+            = intProperty(builder.getMailProperties(), "mail.smtp.connectionpooltimeout", 5000);
+
+        final Duration reapInterval
+            = Duration.ofMillis(Math.max(Math.min(idleTimeout / 2L, 60_000L), 1000L));
+
+        this.idleReaper
+            = Flux.interval(reapInterval, reapInterval, Schedulers.boundedElastic())
+                  .onBackpressureDrop()
+                  .subscribe((tick) -> this.reapIdle());
+    }
+
+    /** 关闭当前连接池中过期的空闲连接，直连 MX 时同时清理长时间未使用的目标。*/
+    private void reapIdle()
+    {
+        this.generation.get().getTransportPool().evictExpired();
+
+        if (Objects.nonNull(this.mxRouter)) {
+            this.mxRouter.reapIdle();
+        }
+    }
+
+    /** 邮箱服务授权码（当前这一代）*/
+    public String getServiceAuthCode() {
+        return this.generation.get().getServiceAuthCode();
+    }
+
+    /** 传输编码统计（8BITMIME / SMTPUTF8 的使用情况与估算节省的字节数）。*/
+    public TransferEncodingStats getTransferEncodingStats()
+    {
+        return new
+        TransferEncodingStats(
+            this.eightBitMessages.sum(), this.utf8HeaderMessages.sum(),
+            this.fallbackMessages.sum(), this.bytesSaved.sum()
+        );
+    }
+
+    /**
+     * 运行时统计快照：在途发送、成功与失败数、按错误类型的失败数、连接池使用情况与最近的延迟分布。
+     * 所有计数都是分段计数器，读取时才汇总，不影响发送线程。
+     */
+    public SenderStats getStats()
+    {
+        final SenderStats.Pool pool;
+
+        if (Objects.nonNull(this.mxRouter)) {
+            pool = this.mxRouter.getPoolStats();
+        }
+        else
+        {
+            final SmtpTransportPool transportPool = this.generation.get().getTransportPool();
+
+            pool = new SenderStats.Pool(
+                transportPool.getActiveCount(), transportPool.getIdleCount(),
+                transportPool.getWaitingCount(), transportPool.getMaxSize()
+            );
+        }
+
+        return new
+        SenderStats(
+            this.accepting, this.inFlightSends.size(),
+            this.stats.getSucceeded(), this.stats.getFailed(),
+            this.stats.getErrors(), this.stats.getLastSuccessAt(),
+            pool,
+            Objects.nonNull(this.mxRouter) ? this.mxRouter.getDestinationCount() : 0,
+            this.stats.getLatency(),
+            this.getTransferEncodingStats()
+        );
+    }
+
+    /** 是否直连收件域的 MX 服务器投递（否则通过 smtpHost 中继）。*/
+    public boolean isDirectToMx() { return Objects.nonNull(this.mxRouter); }
+
+    /**
+     * 检查中继服务器是否可用：建立一条不入池的新连接完成 EHLO、AUTH 与 NOOP 后关闭，
+     * 不占用连接池。直连 MX 投递时没有固定的服务器，直接完成。
+     *
+     * @throws EmailException 认证失败（AUTH_FAILURE）或连接失败（NETWORK_ISSUE）
+     *
+     * @return 检查通过时完成的 {@link Mono}
+     */
+    public Mono<Void> probe()
+    {
+        if (this.isDirectToMx()) { return Mono.empty(); }
+
+        return
+        Mono.<Void>fromCallable(() -> {
+            try
+            {
+                this.generation.get().getTransportPool().probe();
+                return null;
+            }
+            catch (AuthenticationFailedException exception) {
+                throw new EmailException(AUTH_FAILURE, "SMTP auth failed!", exception);
+            }
+            catch (MessagingException exception) {
+                throw new EmailException(NETWORK_ISSUE, "SMTP server unreachable!", exception);
+            }
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * <p>预热发送器，让第一封邮件不必承担冷启动的开销（阻塞的部分在 boundedElastic 上执行）：</p>
+     *
+     * <ol>
+     *     <li>
+     *         在当前会话上构建并渲染一封带附件的邮件（不发送），
+     *         提前加载 SMTP 提供者、activation 的 mailcap 与内容处理器、字符集映射与编码器；
+     *     </li>
+     *     <li>
+     *         中继投递时向连接池预先建立最多 connections 条连接（连接、STARTTLS 与 AUTH），
+     *         它们与普通空闲连接一样受 mail.smtp.connectionpooltimeout 约束；直连 MX 投递时跳过这一步。
+     *     </li>
+     * </ol>
+     *
+     * @param connections 预先建立的连接数（不超过连接池大小，为 0 时只预热类加载与渲染）
+     *
+     * @throws EmailException 认证失败（AUTH_FAILURE）或连接失败（NETWORK_ISSUE）
+     *
+     * @return 预热完成时完成的 {@link Mono}
+     */
+    public Mono<Void> warmUp(int connections)
+    {
+        return
+        Mono.<Void>fromCallable(() -> {
+            final SessionGeneration current = this.generation.get();
+
+            this.renderWarmUpMessage(current.getSession());
+
+            if (this.isDirectToMx() || connections <= 0) { return null; }
+
+            try
+            {
+                current.getTransportPool().warmUp(connections);
+                return null;
+            }
+            catch (AuthenticationFailedException exception) {
+                throw new EmailException(AUTH_FAILURE, "SMTP auth failed!", exception);
+            }
+            catch (MessagingException exception) {
+                throw new EmailException(NETWORK_ISSUE, "SMTP server unreachable!", exception);
+            }
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /** 按照发送时的流程构建一封发给自己的带附件邮件（配置了 DKIM 时同时签名），并完整渲染到空输出流。*/
+    private void
+    renderWarmUpMessage(@NotNull Session session)
+        throws MessagingException, IOException
+    {
+        final EmailContent content
+            = EmailContent.builder()
+                .to(this.enterPriceEmailAddress)
+                .subject("warm-up")
+                .textBody("warm-up")
+                .attachmentName("warm-up.txt")
+                .attachmentData("warm-up".getBytes(StandardCharsets.UTF_8))
+                .build();
+
+        // 只创建不连接，触发 SMTP 提供者的加载
+        session.getTransport("smtp");
+
+        this.buildMessage(session, content, this.enterPriceEmailAddress, TransferMode.ENCODED)
+            .writeTo(OutputStream.nullOutputStream());
+    }
+
+    /** 邮件配置属性（当前这一代的只读副本）*/
+    public Properties getMailProperties() {
+        return this.generation.get().getMailProperties();
+    }
+
+    /**
+     * <p>邮件发送器实例生成器。</p>
+     *
+     * <span>
+     *     在 createEmailSender() 工厂方法中用到了该生成器，
+     *     因此需要 @Component 注解标记为一个组件，使得 Spring 能识别到它。
+     * </span>
+     */
+    @Data
+    @NoArgsConstructor(access  = AccessLevel.PUBLIC)
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    public static class EmailSenderBuilder
+    {
+        private String     smtpHost;
+        private int        smtpPort;
+        private int        maxAttemptTimes;
+        private long       startBackoffInterval;
+        private long       maxBackoffInterval;
+        private int        maxAttachmentSize;
+        private long       sendTimeout      = 60L;
+        private long       attemptTimeout   = 30L;
+        private long       connectTimeout   = 10L;
+        private long       handshakeTimeout = 10L;
+        private long       dataTimeout      = 10L;
+        private JitterStrategy jitterStrategy = JitterStrategy.EQUAL;
+        private RetryBudget    retryBudget    = RetryBudget.unlimited();
+        private DeadLetterSink deadLetterSink = DeadLetterSink.discard();
+        private AttachmentCompressor attachmentCompressor = AttachmentCompressor.disabled();
+        private DkimSigner dkimSigner;
+        private Semaphore  sharedConnectionPermits;
+        private SendPermits sendPermits;
+        private MxResolver mxResolver;
+        private SuppressionList suppressionList;
+        private long       retrySummaryInterval    = 10L;
+        private int        maxRetryLogsPerInterval = 10;
+        private boolean    maskRecipients          = true;
+        private ObservationRegistry observationRegistry = ObservationRegistry.NOOP;
+        private long       statsWindow = 60L;
+        private SendEventBus eventBus;
+        private int        connectionsPerDestination = 5;
+        private int        maxQueuedPerDestination   = 1000;
+        private long       deferStartInterval        = 30L;
+        private long       deferMaxInterval          = 600L;
+        private boolean    eightBitMime = true;
+        private boolean    smtpUtf8     = true;
+        private String     enterPriceEmailAddress;
+        private String     serviceAuthCode;
+        private Properties mailProperties = new Properties();
+
+        public EmailSenderBuilder
+        smtpHost(String host) {
+            this.smtpHost = host; return this;
+        }
+        public EmailSenderBuilder
+        smtpPort(int port) {
+            this.smtpPort = port; return this;
+        }
+
+        public EmailSenderBuilder
+        maxAttemptTimes(int attemptTimes)
+        {
+            this.maxAttemptTimes = attemptTimes;
+            return this;
+        }
+
+        public EmailSenderBuilder
+        maxAttachmentSize(int attachmentSize)
+        {
+            this.maxAttachmentSize = attachmentSize;
+            return this;
+        }
+
+        public EmailSenderBuilder
+        startBackoffInterval(long interval)
+        {
+            this.startBackoffInterval = interval;
+            return this;
+        }
+
+        public EmailSenderBuilder
+        maxBackoffInterval(long interval)
+        {
+            this.maxBackoffInterval = interval;
+            return this;
+        }
+
+        /**
+         * 总体发送期限与单次尝试期限（单位：秒）。
+         *
+         * @param sendTimeout    单封邮件的总体期限，包含所有重试与退避等待
+         * @param attemptTimeout 单次尝试的期限
+         */
+        public EmailSenderBuilder
+        timeouts(long sendTimeout, long attemptTimeout)
+        {
+            this.sendTimeout    = sendTimeout;
+            this.attemptTimeout = attemptTimeout;
+            return this;
+        }
+
+        /**
+         * 各阶段的网络超时（单位：秒），需要在 setDefaultSessionProperties() 之前调用。
+         *
+         * @param connect   建立 TCP 连接的超时（mail.smtp.connectiontimeout）
+         * @param handshake 等待服务器应答的超时，覆盖问候、EHLO、TLS 与认证（mail.smtp.timeout）
+         * @param data      写出邮件数据的超时（mail.smtp.writetimeout）
+         */
+        public EmailSenderBuilder
+        phaseTimeouts(long connect, long handshake, long data)
+        {
+            this.connectTimeout   = connect;
+            this.handshakeTimeout = handshake;
+            this.dataTimeout      = data;
+            return this;
+        }
+
+        /** 指数退避的抖动策略（默认为 EQUAL）。*/
+        public EmailSenderBuilder
+        jitterStrategy(JitterStrategy jitter)
+        {
+            this.jitterStrategy = jitter;
+            return this;
+        }
+
+        /** 全局重试预算（默认不限制），多个发送器之间可以共享同一个预算。*/
+        public EmailSenderBuilder
+        retryBudget(RetryBudget budget)
+        {
+            this.retryBudget = budget;
+            return this;
+        }
+
+        /** 最终发送失败的邮件交给哪个死信接收器（默认直接丢弃）。*/
+        public EmailSenderBuilder
+        deadLetterSink(DeadLetterSink sink)
+        {
+            this.deadLetterSink = sink;
+            return this;
+        }
+
+        /** 附件压缩策略（默认不压缩）。*/
+        public EmailSenderBuilder
+        attachmentCompressor(AttachmentCompressor compressor)
+        {
+            this.attachmentCompressor = compressor;
+            return this;
+        }
+
+        /** DKIM 签名器（默认为 null，即不签名）。*/
+        public EmailSenderBuilder
+        dkimSigner(DkimSigner signer)
+        {
+            this.dkimSigner = signer;
+            return this;
+        }
+
+        /**
+         * 与其他发送器共享的全局连接许可（默认为 null，即不共享），
+         * 每个借出的 SMTP 连接同时占用一个全局许可，用于限制多个发送器的总连接数。
+         * 应当使用公平的 {@link Semaphore}。
+         */
+        public EmailSenderBuilder
+        sharedConnectionPermits(Semaphore permits)
+        {
+            this.sharedConnectionPermits = permits;
+            return this;
+        }
+
+        /**
+         * 每次发送尝试借用连接之前取得的发送许可（默认为 null，即不限制），
+         * 许可只在单次尝试期间占用，退避等待重试时归还，
+         * 用于限制一个发送器同时占用连接的发送数，多出的尝试以非阻塞的方式排队。
+         */
+        public EmailSenderBuilder
+        sendPermits(SendPermits permits)
+        {
+            this.sendPermits = permits;
+            return this;
+        }
+
+        /**
+         * 启用直连 MX 投递（默认为 null，即通过 smtpHost 中继）：
+         * 按收件域解析 MX 服务器并直接投递，不再使用 smtpHost 与授权码。
+         */
+        public EmailSenderBuilder
+        directToMx(MxResolver resolver)
+        {
+            this.mxResolver = resolver;
+            return this;
+        }
+
+        /**
+         * 直连 MX 投递时每个目标服务器的限制。
+         *
+         * @param connectionsPerDestination 每个目标最多同时占用的连接数（默认为 5）
+         * @param maxQueuedPerDestination   每个目标最多排队等待的发送数（默认为 1000）
+         */
+        public EmailSenderBuilder
+        destinationLimits(int connectionsPerDestination, int maxQueuedPerDestination)
+        {
+            this.connectionsPerDestination = connectionsPerDestination;
+            this.maxQueuedPerDestination   = maxQueuedPerDestination;
+            return this;
+        }
+
+        /**
+         * 直连 MX 投递时目标服务器推迟投递（4xx 或连接失败）后的退避时长，
+         * 连续推迟时按指数增长（单位：秒，默认为 30 与 600）。
+         */
+        public EmailSenderBuilder
+        deferralBackoff(long start, long max)
+        {
+            this.deferStartInterval = start;
+            this.deferMaxInterval   = max;
+            return this;
+        }
+
+        /**
+         * 收件人抑制列表（默认为 null，即不检查），
+         * 命中的邮件在格式校验之前以 SUPPRESSED 错误结束，不重试也不保存死信。
+         */
+        public EmailSenderBuilder
+        suppressionList(SuppressionList suppressions)
+        {
+            this.suppressionList = suppressions;
+            return this;
+        }
+
+        /**
+         * 重试日志的采样与聚合。
+         *
+         * @param summaryInterval  汇总重试日志的间隔（单位：秒，默认为 10）
+         * @param maxLogsPerWindow 每个间隔内最多逐条记录的重试数，其余只计入汇总（默认为 10）
+         * @param maskRecipients   日志中的收件人是否脱敏（默认为 true）
+         */
+        public EmailSenderBuilder
+        retryLogging(long summaryInterval, int maxLogsPerWindow, boolean maskRecipients)
+        {
+            this.retrySummaryInterval    = summaryInterval;
+            this.maxRetryLogsPerInterval = maxLogsPerWindow;
+            this.maskRecipients          = maskRecipients;
+            return this;
+        }
+
+        /**
+         * 发送链路观测使用的 {@link ObservationRegistry}（默认为 NOOP，即不创建任何观测），
+         * 接入 micrometer-tracing 后每封邮件、每次尝试与尝试内的各个阶段都会成为 Span。
+         */
+        public EmailSenderBuilder
+        observationRegistry(@NotNull ObservationRegistry registry)
+        {
+            this.observationRegistry = registry;
+            return this;
+        }
+
+        /** 运行时统计中延迟分布的统计窗口（单位：秒，默认为 60）。*/
+        public EmailSenderBuilder
+        statsWindow(long seconds)
+        {
+            this.statsWindow = seconds;
+            return this;
+        }
+
+        /**
+         * 发布发送事件的事件总线，多个发送器可以共用同一个（默认每个发送器创建自己的，
+         * 并在关闭发送器时结束事件流；共用的事件总线由创建者负责关闭）。
+         */
+        public EmailSenderBuilder
+        eventBus(@NotNull SendEventBus bus)
+        {
+            this.eventBus = bus;
+            return this;
+        }
+
+        /**
+         * 服务器声明了对应扩展时，是否以 8bit / UTF-8 原样发送正文与头部（默认均为 true），
+         * 需要在 setDefaultSessionProperties() 之前调用。
+         *
+         * @param eightBitMime 服务器支持 8BITMIME 时正文不再使用 Base64 / QP
+         * @param smtpUtf8     服务器支持 SMTPUTF8 时主题与附件名不再使用 RFC 2047 编码
+         */
+        public EmailSenderBuilder
+        transferExtensions(boolean eightBitMime, boolean smtpUtf8)
+        {
+            this.eightBitMime = eightBitMime;
+            this.smtpUtf8     = smtpUtf8;
+            return this;
+        }
+
+        public EmailSenderBuilder
+        enterPriceEmailAddress(String address)
+        {
+            this.enterPriceEmailAddress = address;
+            return this;
+        }
+
+        public EmailSenderBuilder
+        serviceAuthCode(String authCode)
+        {
+            this.serviceAuthCode = authCode;
+            return this;
+        }
+
+        /** 添加单条邮件服务配置属性。*/
+        public EmailSenderBuilder
+        addProperty(String key, String value)
+        {
+            mailProperties.put(key, value);
+            return this;
+        }
+
+        /** 添加多条邮件服务配置属性。 */
+        public EmailSenderBuilder
+        addProperties(@NotNull Map<String, String> sessionProps)
+        {
+            mailProperties.putAll(sessionProps);
+            return this;
+        }
+
+        /** 配置默认的邮件属性。*/
+        public EmailSenderBuilder setDefaultSessionProperties()
+        {
+            this.mailProperties.put("mail.smtp.auth", "true");
+            this.mailProperties.put("mail.smtp.host", this.smtpHost);
+            this.mailProperties.put("mail.smtp.port", this.smtpPort);
+            this.mailProperties.put("mail.smtp.connectionpool", "true");
+            this.mailProperties.put("mail.smtp.connectionpooltimeout", "5000");
+            this.mailProperties.put("mail.smtp.connectionpoolsize", "10");
+
+            this.mailProperties.put("mail.smtp.connectiontimeout", String.valueOf(this.connectTimeout * 1000L));
+            this.mailProperties.put("mail.smtp.timeout", String.valueOf(this.handshakeTimeout * 1000L));
+            this.mailProperties.put("mail.smtp.writetimeout", String.valueOf(this.dataTimeout * 1000L));
+
+            // 允许以 UTF-8 写出头部，服务器支持 SMTPUTF8 时 MAIL FROM 会带上 SMTPUTF8 参数
+            if (this.smtpUtf8) {
+                this.mailProperties.put("mail.mime.allowutf8", "true");
+            }
+
+            switch (this.smtpPort)
+            {
+                case 465:
+                    this.mailProperties.put("mail.smtp.ssl.enable", "true");
+                    this.mailProperties.put("mail.smtp.ssl.checkserveridentity", "true");
+                    break;
+
+                case 587:
+                    this.mailProperties.put("mail.smtp.starttls.enable", "true");
+                    this.mailProperties.put("mail.smtp.starttls.required", "true");
+                    break;
+
+                case 25:
+                    // 端口 25 通常不加密或使用 STARTTLS
+                    this.mailProperties.put("mail.smtp.starttls.enable", "true");
+                    break;
+
+                default:
+                   log.warn(
+                       "Uncommon SMTP port: {}, security settings may need adjustment",
+                       this.smtpPort
+                   );
+
+                   this.mailProperties.put("mail.smtp.starttls.enable", "true");
+            }
+
+            return this;
+        }
+
+        /** 字段设置完毕，构造出实例并返回。*/
+        public DefaultReactiveEmailSenderImpl build()
+        {
+            return new
+            DefaultReactiveEmailSenderImpl(this);
+        }
+    }
+
+    /**
+     * 创建邮件发送会话的静态方法。
+     *
+     * @param props     邮件配置属性
+     * @param userName  邮件发送人邮箱
+     * @param password  邮箱服务授权码
+     *
+     * @return 构造好的 {@link Session} 实例
+     */
+    @Contract("_, _, _ -> new")
+    private static @NotNull Session
+    createSession(
+        Properties props,
+        String userName, String password)
+    {
+        return
+        Session.getInstance(props, new Authenticator() {
+            @Override
+            protected PasswordAuthentication getPasswordAuthentication() {
+                return new PasswordAuthentication(userName, password);
+            }
+        });
+    }
+
+    /** 读取整数类型的会话属性（属性值可能是 String 也可能是 Integer）。*/
+    private static int
+    intProperty(@NotNull Properties props, String key, int defaultValue)
+    {
+        final Object value = props.get(key);
+
+        if (Objects.isNull(value)) { return defaultValue; }
+
+        try {
+            return Integer.parseInt(String.valueOf(value).trim());
+        }
+        catch (NumberFormatException exception)
+        {
+            log.warn("Invalid session property {} = {}, use default {}.", key, value, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * 按照授权码和会话属性创建新一代的会话与连接池。
+     * 连接池大小与空闲超时分别读取
+     * mail.smtp.connectionpoolsize 与 mail.smtp.connectionpooltimeout。
+     */
+    private @NotNull SessionGeneration
+    createGeneration(String authCode, @NotNull Properties props)
+    {
+        final Properties snapshot = new Properties();
+        snapshot.putAll(props);
+
+        // 会话使用的属性额外安装捕获底层 Socket 的工厂，不计入快照（快照用于比较是否需要刷新）
+        final Properties sessionProps = new Properties();
+        sessionProps.putAll(snapshot);
+        SmtpTransportPool.installSocketCapture(sessionProps);
+
+        final Session session
+            = createSession(sessionProps, this.enterPriceEmailAddress, authCode);
+
+        final SmtpTransportPool transportPool
+            = new SmtpTransportPool(
+                session, this.smtpHost, this.smtpPort,
+                this.enterPriceEmailAddress, authCode,
+                intProperty(snapshot, "mail.smtp.connectionpoolsize", 10),
+                intProperty(snapshot, "mail.smtp.connectionpooltimeout", 5000),
+                intProperty(snapshot, "mail.smtp.connectiontimeout", 10000),
+                this.sharedConnectionPermits
+            );
+
+        return new
+        SessionGeneration(authCode, snapshot, session, transportPool);
+    }
+
+    /** 启用了直连 MX 投递时创建目标调度，会话属性由中继模式的属性派生。*/
+    private @Nullable MxRouter
+    createMxRouter(@NotNull EmailSenderBuilder builder)
+    {
+        if (Objects.isNull(builder.getMxResolver())) { return null; }
+
+        final Properties sessionProps
+            = MxRouter.directSessionProperties(builder.getMailProperties());
+
+        SmtpTransportPool.installSocketCapture(sessionProps);
+
+        return new
+        MxRouter(
+            builder.getMxResolver(),
+            Session.getInstance(sessionProps),
+            builder.getConnectionsPerDestination(),
+            builder.getMaxQueuedPerDestination(),
+            Duration.ofSeconds(builder.getDeferStartInterval()).toMillis(),
+            Duration.ofSeconds(builder.getDeferMaxInterval()).toMillis(),
+            intProperty(sessionProps, "mail.smtp.connectionpooltimeout", 5000),
+            intProperty(sessionProps, "mail.smtp.connectiontimeout", 10000)
+        );
+    }
+
+    /**
+     * <p>在运行时刷新邮箱服务授权码和会话属性，无需重启。</p>
+     *
+     * <p>
+     *     新一代的会话与连接池创建好后原子地替换旧的一代，
+     *     之后开始的发送使用新连接；旧连接池随即关闭，
+     *     其空闲连接立即断开，在途发送借出的连接用完后再断开。
+     *     授权码与会话属性都没有变化时什么也不做。
+     * </p>
+     *
+     * @param authCode       新的邮箱服务授权码
+     * @param mailProperties 新的邮件配置属性
+     *
+     * @return 是否真的发生了替换
+     */
+    public boolean
+    refresh(@NotNull String authCode, @NotNull Properties mailProperties)
+    {
+        final SessionGeneration current = this.generation.get();
+
+        // 已经关闭的发送器不再创建新的连接池
+        if (!this.accepting) { return false; }
+
+        if (authCode.equals(current.getServiceAuthCode()) &&
+            mailProperties.equals(current.getMailProperties())) {
+            return false;
+        }
+
+        final SessionGeneration newGeneration
+            = this.createGeneration(authCode, mailProperties);
+
+        if (!this.generation.compareAndSet(current, newGeneration))
+        {
+            // 并发刷新时以先完成的一方为准
+            newGeneration.getTransportPool().close();
+            return false;
+        }
+
+        current.getTransportPool().close();
+
+        log.info("Reactive email sender credentials refreshed.");
+
+        return true;
+    }
+
+    /**
+     * 检查在发送邮件过程中所抛出的异常，
+     * 是否有重发邮件的必要？（5xx 应答以 REJECTED 抛出，不会重试）
+     */
+    private boolean
+    isRetryableError(Throwable throwable)
+    {
+        if (throwable instanceof EmailException exception)
+        {
+            // 只有因为网络问题导致的发送失败，才需要进行重试。
+            return
+            exception.getErrorType()
+                     .equals(EmailException.ErrorType.NETWORK_ISSUE);
+        }
+        
+        return false;
+    }
+
+    /** 构建邮件正文的数据。*/
+    private @NotNull Multipart
+    getMultipart(@NotNull EmailContent content, @NotNull TransferMode mode)
+        throws MessagingException, IOException, NullPointerException
+    {
+        Multipart    multipart = new MimeMultipart();
+        MimeBodyPart textPart  = new MimeBodyPart();
+
+        setTextBody(textPart, content.getTextBody(), mode);
+        multipart.addBodyPart(textPart);
+
+        // 若 content 内的附件路径不为空，则需要添加附件
+        if (content.hasAttachment())
+        {
+            ByteArrayDataSource attachment
+                = getAttachment(
+                    Objects.requireNonNull(content.getAttachmentName()),
+                    Objects.requireNonNull(content.getAttachmentData())
+                );
+
+            MimeBodyPart attachmentPart = new MimeBodyPart();
+            attachmentPart.setDataHandler(new DataHandler(attachment));
+
+            // 服务器支持 SMTPUTF8 时附件名原样以 UTF-8 传输
+            if (mode.utf8Headers() && TransferMode.hasNonAscii(content.getAttachmentName()))
+            {
+                attachmentPart.setHeader(
+                    "Content-Disposition",
+                    "attachment; filename=\"" +
+                    content.getAttachmentName()
+                           .replace("\\", "\\\\")
+                           .replace("\"", "\\\"") + "\""
+                );
+            }
+            else
+            {
+                attachmentPart.setFileName(
+                    MimeUtility.encodeText(
+                        content.getAttachmentName(),
+                        "utf-8", null
+                    )
+                );
+            }
+
+            multipart.addBodyPart(attachmentPart);
+        }
+
+        return multipart;
+    }
+
+    /** 按照提供的附件名和附件数据构建附件。*/
+    private @NotNull ByteArrayDataSource
+    getAttachment(
+        @NotNull String name, byte @NotNull [] data)
+    {
+
+        // 检查附件的大小有没有超过最大值
+        if (data.length > this.maxAttachmentSize * 1024 * 1024)
+        {
+            throw new
+            EmailException(
+                INVALID_CONTENT,
+                "Attachment too large! (MAX_ATTACHMENT_SIZE = " +
+                this.maxAttachmentSize + " MB)"
+            );
+        }
+
+        return new
+        ByteArrayDataSource(
+            data,
+            MimeTypeGetter.getMimeType(name, data)
+        );
+    }
+
+    /**
+     * 设置文本正文：传输方式允许并且文本满足 8bit 的要求时，
+     * 声明 Content-Transfer-Encoding: 8bit 以 UTF-8 原样传输，否则交给 jakarta.mail 选择 Base64 / QP。
+     */
+    private static void
+    setTextBody(@NotNull MimePart part, String text, @NotNull TransferMode mode)
+        throws MessagingException
+    {
+        part.setText(text, "UTF-8");
+
+        // 必须在 setText() 之后设置，setText() 会清除已有的 Content-Transfer-Encoding
+        if (mode.eightBitBody() && text != null && TransferMode.eightBitEligible(text)) {
+            part.setHeader("Content-Transfer-Encoding", "8bit");
+        }
+    }
+
+    /**
+     * 根据连接上服务器声明的扩展决定本次尝试的传输方式，
+     * 服务器不支持（或配置关闭）时自动回退到传统编码。
+     */
+    private @NotNull TransferMode
+    negotiateTransferMode(@NotNull Session session, @NotNull SmtpConnection connection)
+    {
+        final boolean eightBitBody
+            = this.eightBitMime && connection.supportsExtension("8BITMIME");
+
+        // 头部能否以 UTF-8 写出还取决于会话属性 mail.mime.allowutf8（用户可能覆盖了它）
+        final boolean utf8Headers
+            = this.smtpUtf8 &&
+              Boolean.parseBoolean(session.getProperty("mail.mime.allowutf8")) &&
+              connection.supportsExtension("SMTPUTF8");
+
+        return
+        (eightBitBody || utf8Headers)
+            ? new TransferMode(eightBitBody, utf8Headers)
+            : TransferMode.ENCODED;
+    }
+
+    /** 统计发送成功的邮件采用的传输方式，并估算与传统编码相比节省的字节数。*/
+    private void
+    recordTransferStats(@NotNull EmailContent content, @NotNull TransferMode mode)
+    {
+        final String text    = content.getTextBody();
+        final String subject = content.getSubject();
+
+        final boolean eightBitText
+            = mode.eightBitBody() && text != null && TransferMode.eightBitEligible(text);
+
+        final boolean utf8Subject
+            = mode.utf8Headers() && subject != null && TransferMode.hasNonAscii(subject);
+
+        long saved = 0L;
+
+        if (eightBitText)
+        {
+            final byte[] raw = text.getBytes(StandardCharsets.UTF_8);
+
+            saved += TransferMode.encodedBodySize(raw) - raw.length;
+            this.eightBitMessages.increment();
+        }
+
+        if (utf8Subject)
+        {
+            final byte[] raw = subject.getBytes(StandardCharsets.UTF_8);
+
+            saved += TransferMode.encodedWordSize(raw) - raw.length;
+            this.utf8HeaderMessages.increment();
+        }
+
+        // 纯 ASCII 的邮件本来就不需要编码，不计入回退
+        final boolean needsEncoding
+            = (text != null && TransferMode.hasNonAscii(text)) ||
+              (subject != null && TransferMode.hasNonAscii(subject));
+
+        if (needsEncoding && !eightBitText && !utf8Subject) {
+            this.fallbackMessages.increment();
+        }
+
+        if (saved > 0L) {
+            this.bytesSaved.add(saved);
+        }
+    }
+
+    /** 按照传输方式填写正文（纯文本或带附件的 multipart）。*/
+    private void
+    fillBody(@NotNull MimeMessage message, @NotNull EmailContent content, @NotNull TransferMode mode)
+        throws MessagingException, IOException
+    {
+        if (!content.hasAttachment()) {
+            setTextBody(message, content.getTextBody(), mode);
+        }
+        else {
+            message.setContent(getMultipart(content, mode));
+        }
+    }
+
+    /** 按照传输方式填写信封扩展与主题。*/
+    private static void
+    fillEnvelope(@NotNull SMTPMessage message, @NotNull EmailContent content, @NotNull TransferMode mode)
+        throws MessagingException
+    {
+        // jakarta.mail 不会自己声明 BODY=8BITMIME，需要通过 MAIL FROM 扩展参数声明
+        if (mode.eightBitBody() &&
+            content.getTextBody() != null && TransferMode.eightBitEligible(content.getTextBody())) {
+            message.setMailExtension("BODY=8BITMIME");
+        }
+
+        final String subject = content.getSubject();
+
+        if (mode.utf8Headers() && subject != null && TransferMode.hasNonAscii(subject)) {
+            message.setHeader("Subject", subject);
+        }
+        else {
+            message.setSubject(subject, "UTF-8");
+        }
+    }
+
+    /** 按照邮件内容在指定会话上构建待发送的邮件，配置了 DKIM 签名器时同时签名。*/
+    private @NotNull Message
+    buildMessage(
+        Session session, @NotNull EmailContent content,
+        String fromName, @NotNull TransferMode mode)
+        throws MessagingException, IOException
+    {
+        if (this.dkimSigner != null) {
+            return this.buildSignedMessage(this.dkimSigner, session, content, fromName, mode);
+        }
+
+        SMTPMessage message = new SMTPMessage(session);
+
+        if (fromName != null) {
+            message.setFrom(new InternetAddress(fromName));
+        }
+
+        message.setRecipient(
+            Message.RecipientType.TO,
+            new InternetAddress(content.getTo())
+        );
+
+        fillEnvelope(message, content, mode);
+        this.fillBody(message, content, mode);
+
+        message.saveChanges();
+
+        return message;
+    }
+
+    /**
+     * 构建 DKIM 签名的邮件：正文交给签名器渲染（同一份正文只渲染与摘要一次），
+     * 每封邮件只填写收发件人与主题，再计算头部签名。
+     */
+    private @NotNull Message
+    buildSignedMessage(
+        @NotNull DkimSigner signer, Session session,
+        @NotNull EmailContent content, String fromName, @NotNull TransferMode mode)
+        throws MessagingException, IOException
+    {
+        // 8bit 与 Base64 / QP 渲染出的正文不同，分别缓存
+        final RenderedBody body
+            = signer.renderBody(
+                content.getTextBody(),
+                content.getAttachmentName(), content.getAttachmentData(),
+                mode.toString(),
+                () -> {
+                    final MimeMessage template = new MimeMessage(session);
+
+                    this.fillBody(template, content, mode);
+
+                    return template;
+                }
+            );
+
+        final PrerenderedMimeMessage message
+            = new PrerenderedMimeMessage(session, body);
+
+        if (fromName != null) {
+            message.setFrom(new InternetAddress(fromName));
+        }
+
+        message.setRecipient(
+            Message.RecipientType.TO,
+            new InternetAddress(content.getTo())
+        );
+
+        fillEnvelope(message, content, mode);
+        message.saveChanges();
+
+        signer.sign(message, body);
+
+        return message;
+    }
+
+    /**
+     * 邮件发送的主要逻辑，由于传统的邮件发送是阻塞式的，
+     * 所有我需要调用 {@link Mono#fromCallable(Callable)} 把整个邮件组装发送的逻辑封装，
+     * 最后调用 {@link Mono#subscribeOn(Scheduler)} 将整个任务提交给线程池去执行。
+     *
+     * <p>
+     *     每次尝试开始时取当前这一代的会话，并从其连接池借出连接，
+     *     发送成功后归还复用，出错时直接断开。
+     *     尝试被取消（超时或关闭）时直接关闭借出连接的底层 Socket，
+     *     让阻塞在网络读写上的线程立即返回，而不是在后台继续发送。
+     * </p>
+     *
+     * <p>
+     *     直连 MX 投递时先为收件域选择目标服务器，在目标的发送许可下使用目标的连接池，
+     *     并按结果更新目标的退避状态。
+     * </p>
+     *
+     * @param content  邮件内容
+     * @param fromName 发件人
+     *
+     * @return 不发布任何数据的 Mono，表示操作成功完成
+     */
+    private @NotNull Mono<Void>
+    sendEmailReactive(EmailContent content, String fromName, @NotNull SendTracing.AttemptTrace trace)
+    {
+        final SendPermits permits = this.sendPermits;
+
+        if (Objects.isNull(permits)) {
+            return this.routeAndSend(content, fromName, trace);
+        }
+
+        return Mono.defer(() -> {
+            trace.enter(SendTracing.PERMIT);
+
+            return
+            permits.withPermit(() -> this.routeAndSend(content, fromName, trace));
+        });
+    }
+
+    /** 中继投递时直接使用当前这一代的连接池，直连 MX 时先选择目标并取得目标的发送许可。*/
+    private @NotNull Mono<Void>
+    routeAndSend(EmailContent content, String fromName, @NotNull SendTracing.AttemptTrace trace)
+    {
+        final MxRouter router = this.mxRouter;
+
+        if (Objects.isNull(router)) {
+            return this.sendThrough(content, fromName, null, trace);
+        }
+
+        return Mono.defer(() -> {
+            trace.enter(SendTracing.ROUTE);
+
+            return
+            router.route(content.getTo())
+                .flatMap((destination) -> {
+                    trace.destination(destination.toString());
+                    trace.enter(SendTracing.PERMIT);
+
+                    return
+                    destination.getPermits()
+                        .withPermit(() -> this.sendThrough(content, fromName, destination, trace))
+                        .doOnSuccess((ignored) -> router.delivered(destination))
+                        .doOnError((exception) -> router.failed(destination, exception));
+                });
+        });
+    }
+
+    /**
+     * 在 boundedElastic 线程上完成一次发送尝试，
+     * destination 为 null 时使用当前这一代的中继连接池，否则使用目标 MX 的连接池。
+     * 尝试的观测作用域随任务一起切换到 boundedElastic 线程上。
+     */
+    private @NotNull Mono<Void>
+    sendThrough(
+        EmailContent content, String fromName,
+        @Nullable MxRouter.Destination destination, @NotNull SendTracing.AttemptTrace trace)
+    {
+        return Mono.defer(() -> {
+            final AtomicBoolean                  cancelled = new AtomicBoolean(false);
+            final AtomicReference<SmtpConnection> borrowed = new AtomicReference<>();
+
+            trace.enter(SendTracing.QUEUE);
+
+            return
+            Mono.fromCallable(() -> {
+                final Observation.Scope scope = trace.openScope();
+
+                try {
+                    return this.attemptSend(content, fromName, destination, cancelled, borrowed, trace);
+                }
+                catch (EmailException exception)
+                {
+                    // 已被取消（超时或关闭）的尝试没有订阅者接收错误，直接丢弃
+                    if (cancelled.get()) { return null; }
+
+                    throw exception;
+                }
+                finally {
+                    scope.close();
+                }
+            })
+            .subscribeOn(Schedulers.boundedElastic())
+            .doOnCancel(() -> {
+                cancelled.set(true);
+
+                final SmtpConnection connection = borrowed.get();
+
+                if (Objects.nonNull(connection)) {
+                    connection.abort();
+                }
+            })
+            .then();
+        });
+    }
+
+    /**
+     * 在当前线程上完成一次发送尝试（阻塞操作）。
+     *
+     * @param destination 直连 MX 投递的目标（为 null 时通过中继投递）
+     * @param cancelled   该次尝试是否已被取消
+     * @param borrowed    借出的连接，供取消时中止
+     * @param trace       本次尝试的追踪，用于划分建连、构建与传输阶段
+     */
+    private @Nullable Void
+    attemptSend(
+        EmailContent content, String fromName,
+        @Nullable MxRouter.Destination destination,
+        AtomicBoolean cancelled, AtomicReference<SmtpConnection> borrowed,
+        SendTracing.AttemptTrace trace)
+    {
+        SessionGeneration current = this.generation.get();
+
+        Session session
+            = Objects.isNull(destination)
+                ? current.getSession()
+                : Objects.requireNonNull(this.mxRouter).getSession();
+
+        SmtpTransportPool transportPool
+            = Objects.isNull(destination)
+                ? current.getTransportPool()
+                : destination.getTransportPool();
+
+        SmtpConnection connection = null;
+        boolean        reusable   = false;
+
+        try
+        {
+            trace.enter(SendTracing.CONNECT);
+
+            while (connection == null)
+            {
+                try {
+                    connection = transportPool.borrow();
+                }
+                catch (SmtpTransportPool.PoolClosedException exception)
+                {
+                    // 目标 MX 的连接池被清理，交给重试重新选择目标
+                    if (Objects.nonNull(destination)) { throw exception; }
+
+                    // 凭据刷新关闭了旧连接池：改从新一代的连接池借出，不进入重试退避
+                    final SessionGeneration latest = this.generation.get();
+
+                    if (latest == current)
+                    {
+                        throw new
+                        EmailException(SENDER_CLOSED, "Email sender already closed!", exception);
+                    }
+
+                    current       = latest;
+                    session       = current.getSession();
+                    transportPool = current.getTransportPool();
+                }
+            }
+
+            borrowed.set(connection);
+
+            // 借出连接的同时尝试被取消，取消回调可能没能看到这条连接
+            if (cancelled.get()) {
+                connection.abort();
+                return null;
+            }
+
+            trace.enter(SendTracing.BUILD);
+
+            final TransferMode mode
+                = this.negotiateTransferMode(session, connection);
+
+            Message message
+                = this.buildMessage(session, content, fromName, mode);
+
+            trace.enter(SendTracing.TRANSFER);
+
+            connection.getTransport()
+                      .sendMessage(message, message.getAllRecipients());
+            reusable = true;
+
+            trace.replyCode(connection.getLastReplyCode());
+
+            this.recordTransferStats(content, mode);
+
+            return null;
+        }
+        catch (AuthenticationFailedException exception)
+        {
+            throw new EmailException(
+                AUTH_FAILURE,
+                "SMTP auth failed!", exception
+            );
+        }
+        catch (MessagingException exception)
+        {
+            final SmtpReply reply = SmtpReply.from(exception);
+
+            // 5xx 是永久性的拒绝，重试只会白白消耗重试预算；4xx 与没有应答的传输故障才值得重试
+            if (Objects.nonNull(reply) && reply.code() >= 500)
+            {
+                throw new EmailException(
+                    REJECTED,
+                    format("SMTP server rejected the email! (%d)", reply.code()), exception
+                );
+            }
+
+            throw new EmailException(
+                NETWORK_ISSUE,
+                "Net work issue!", exception
+            );
+        }
+        catch (IOException exception)
+        {
+            throw new EmailException(
+                ATTACHMENT_NOT_EXIST,
+                "Attachment error!", exception
+            );
+        }
+        finally
+        {
+            if (connection != null) {
+                transportPool.release(connection, reusable);
+            }
+        }
+    }
+
+    /**
+     * 外部可调用的发送邮件的方法。
+     *
+     * @param emailContent 邮件内容
+     *
+     * @throws EmailException 当发送邮件失败，或发送器已关闭时抛出
+     *
+     * @return 表示操作是否正确完成的 {@link Mono}
+     */
+    @Override
+    public Mono<Void>
+    sendEmail(@NotNull EmailContent emailContent)
+    {
+        return Mono.defer(() -> {
+            final long sendId    = this.sendSequence.incrementAndGet();
+            final long startedAt = System.nanoTime();
+
+            // 先登记再检查，保证 shutdown() 看到在途集合为空时不会再有发送溜进来
+            this.inFlightSends.put(sendId, emailContent);
+
+            if (!this.accepting)
+            {
+                this.inFlightSends.remove(sendId);
+
+                return
+                Mono.error(
+                    new EmailException(
+                        SENDER_CLOSED,
+                        format(
+                            "Email sender already closed, reject email to %s.",
+                            this.retryLog.recipient(emailContent.getTo())
+                        )
+                    )
+                );
+            }
+
+            final Mono<Void> aborted
+                = this.abortSignal.asMono()
+                      .then(Mono.error(() ->
+                          new EmailException(
+                              SENDER_CLOSED,
+                              format(
+                                  "Email sender shutdown timeout, abort email to %s.",
+                                  this.retryLog.recipient(emailContent.getTo())
+                              )
+                          )
+                      ));
+
+            final SendLifecycle lifecycle
+                = new SendLifecycle(this.eventBus, sendId, startedAt, emailContent);
+
+            lifecycle.queued();
+
+            final Mono<Void> send
+                = this.tracing.observeSend(
+                    emailContent,
+                    Objects.nonNull(this.mxRouter) ? "mx" : this.smtpHost,
+                    Mono.firstWithSignal(this.doSendEmail(emailContent, lifecycle), aborted)
+                );
+
+            return
+            send.doOnSuccess((ignored) -> {
+                    this.stats.succeeded(startedAt);
+                    lifecycle.delivered();
+                })
+                .doOnError((exception) -> {
+                    this.stats.failed(exception);
+                    lifecycle.failed(exception);
+                })
+                .doFinally((signal) -> {
+                    this.inFlightSends.remove(sendId);
+
+                    if (!this.accepting && this.inFlightSends.isEmpty()) {
+                        this.drainedSignal.tryEmitEmpty();
+                    }
+                });
+        });
+    }
+
+    /**
+     * <p>关闭邮件发送器。</p>
+     *
+     * <ol>
+     *     <li>停止接受新的发送（新的调用立即以 SENDER_CLOSED 失败）；</li>
+     *     <li>在 timeout 内等待在途与退避中的发送结束；</li>
+     *     <li>期限到达后中止剩余发送，并把它们记入关闭报告；</li>
+     *     <li>关闭连接池，空闲连接发送 QUIT 后断开，借出的连接归还时断开。</li>
+     * </ol>
+     */
+    @Override
+    public Mono<ShutdownReport>
+    shutdown(@NotNull Duration timeout)
+    {
+        return Mono.defer(() -> {
+            final long startTime = System.currentTimeMillis();
+
+            this.accepting = false;
+
+            if (this.inFlightSends.isEmpty()) {
+                this.drainedSignal.tryEmitEmpty();
+            }
+
+            return
+            this.drainedSignal.asMono()
+                .thenReturn(true)
+                .timeout(timeout, Mono.just(false))
+                .map((drained) -> {
+                    final List<EmailContent> undelivered
+                        = new ArrayList<>(this.inFlightSends.values());
+
+                    this.abortSignal.tryEmitEmpty();
+                    this.idleReaper.dispose();
+                    this.generation.get().getTransportPool().close();
+
+                    if (Objects.nonNull(this.mxRouter)) {
+                        this.mxRouter.close();
+                    }
+
+                    this.retryLog.close();
+
+                    // 被中止的发送已经同步发布了 FAILED 事件，此时可以结束事件流
+                    if (this.ownsEventBus) {
+                        this.eventBus.close();
+                    }
+
+                    return new
+                    ShutdownReport(
+                        drained, System.currentTimeMillis() - startTime,
+                        List.copyOf(undelivered)
+                    );
+                });
+        });
+    }
+
+    /** 邮件发送流程：格式校验、带超时的发送以及失败后的指数退避重试。*/
+    private Mono<Void>
+    doSendEmail(@NotNull EmailContent emailContent, @NotNull SendLifecycle lifecycle)
+    {
+        /*
+         * 对于邮件发送过程中因为网络波动而出现的失败，
+         * 有比固定时间重试（fixedDelay()）更好的策略，即指数退避。
+         *
+         * 比如代码中的调用：
+         *
+         * Retry.backoff(this.maxAttemptTimes, Duration.ofSeconds(this.startBackoffInterval))
+                .maxBackoff(Duration.ofSeconds(this.maxBackoffInterval))
+         *
+         * 表明每失败一次，等待重试的时间就在原有的基础上乘以 2，
+         * 具体如下表所示：
+         *
+         * ----------------------------------
+         * 重试次数     等待重试时间（单位：秒）
+         *    0             1
+         *    1             2
+         *    2             4
+         *    3             8
+         *    4             maxBackoffInterval
+         *    5             maxBackoffInterval
+         * maxAttemptTimes  maxBackoffInterval
+         * -----------------------------------
+         *
+         * maxBackoff() 则给重试时间封了顶，
+         * 不论重试多少次，等待时间都不会超过 maxBackoffInterval 秒。
+         *
+         * 现在这张表交由 RetryPolicy 计算：实际等待时间会按 JitterStrategy 抖动，
+         * 并且每次重试都要先向全局的 RetryBudget 申请额度，中继故障时不会放大负载。
+         */
+        return Mono.deferContextual((context) -> {
+            final long                      deadline = this.resolveDeadline(context);
+            final List<DeadLetter.Attempt>  attempts = Collections.synchronizedList(new ArrayList<>());
+            final boolean                   skipDeadLetter
+                = context.getOrDefault(SKIP_DEAD_LETTER_CONTEXT_KEY, false);
+            final SendTracing.SendTrace     trace    = SendTracing.currentSend(context);
+
+            final Retry retryStrategy
+                = this.retryPolicy.toRetry(
+                    (exception) ->
+                        this.isRetryableError(exception) &&
+                        System.currentTimeMillis() < deadline,
+                    (retrySignal) -> {
+                        // 记录尝试次数和失败原因（采样并按目标聚合，避免故障期间的日志风暴）
+                        this.retryLog.retrying(
+                            Objects.nonNull(this.mxRouter)
+                                ? EmailAddressMasker.domainOf(emailContent.getTo())
+                                : this.smtpHost,
+                            emailContent.getTo(),
+                            retrySignal.totalRetries() + 1,
+                            retrySignal.failure()
+                        );
+
+                        lifecycle.retrying(retrySignal.failure());
+
+                        if (Objects.nonNull(trace))
+                        {
+                            trace.retrying(
+                                retrySignal.totalRetries() + 1,
+                                RetryLogAggregator.reasonOf(retrySignal.failure())
+                            );
+                        }
+                    }
+                );
+
+            return
+            this.checkSuppression(emailContent.getTo())
+                .then(EmailFormatVerifier.isValid(emailContent.getTo()))
+                .then(this.compressAttachment(emailContent))
+                .flatMap((prepared) ->
+                    this.attemptWithinDeadline(prepared, deadline, attempts, trace, lifecycle)
+                        .retryWhen(retryStrategy)
+                        // 每封邮件只记一次首次发送，作为重试预算的分母
+                        .doOnSubscribe((subscription) ->
+                            this.retryPolicy.getBudget().recordSend())
+                        // 总体期限同样约束退避等待，避免睡过截止时刻
+                        .timeout(
+                            Duration.ofMillis(Math.max(deadline - System.currentTimeMillis(), 0L)),
+                            Mono.error(() ->
+                                new EmailException(
+                                    DEADLINE_EXCEEDED,
+                                    format(
+                                        "Send email to %s exceeded its deadline!",
+                                        this.retryLog.recipient(emailContent.getTo())
+                                    )
+                                )
+                            )
+                        )
+                        .onErrorResume(exception -> {
+                            final String errorMessage
+                                = format(
+                                    "Send email to %s finally failed! max attempt times = %d. Caused by: %s",
+                                    this.retryLog.recipient(emailContent.getTo()), this.maxAttemptTimes,
+                                    exception.getMessage()
+                                );
+
+                            // 不重试的错误（内容错误、5xx 拒绝、超出期限等）保留原来的类型，
+                            // 其余的是重试用尽（或重试预算用尽）的网络错误
+                            final EmailException.ErrorType errorType
+                                = (exception instanceof EmailException emailException)
+                                    ? emailException.getErrorType()
+                                    : NETWORK_ISSUE;
+
+                            final Mono<Void> deadLetter
+                                = (skipDeadLetter || !isReplayable(errorType))
+                                    ? Mono.empty()
+                                    : this.deadLetter(emailContent, exception, attempts);
+
+                            return
+                            deadLetter
+                                .then(Mono.error(
+                                    new EmailException(errorType, errorMessage, exception)
+                                ));
+                        })
+                );
+        });
+    }
+
+    /**
+     * 是否值得保存为死信：网络错误、超出期限与发送器关闭在重放时可能成功，
+     * 5xx 拒绝为了审计同样保存；内容错误、认证失败等重放也不会成功的错误不保存。
+     */
+    private static boolean
+    isReplayable(@NotNull EmailException.ErrorType errorType)
+    {
+        return
+        switch (errorType)
+        {
+            case NETWORK_ISSUE, DEADLINE_EXCEEDED, SENDER_CLOSED, REJECTED -> true;
+            default -> false;
+        };
+    }
+
+    /** 收件人在抑制列表中时以 SUPPRESSED 错误结束发送。*/
+    private @NotNull Mono<Void>
+    checkSuppression(@NotNull String to)
+    {
+        if (this.suppressionList == null || !this.suppressionList.isSuppressed(to)) {
+            return Mono.empty();
+        }
+
+        return
+        Mono.error(
+            new EmailException(
+                SUPPRESSED,
+                format("Recipient %s is in the suppression list!", this.retryLog.recipient(to))
+            )
+        );
+    }
+
+    /**
+     * 按附件压缩策略压缩附件，每封邮件只在首次尝试前压缩一次，重试时复用压缩结果。
+     * 压缩结果超过附件大小上限时放弃压缩，交由 getAttachment() 报告附件过大。
+     */
+    private @NotNull Mono<EmailContent>
+    compressAttachment(@NotNull EmailContent emailContent)
+    {
+        if (!this.attachmentCompressor.isEnabled() || !emailContent.hasAttachment()) {
+            return Mono.just(emailContent);
+        }
+
+        return
+        Mono.fromCallable(() ->
+                this.attachmentCompressor.compress(
+                    emailContent, this.maxAttachmentSize * 1024L * 1024L))
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * 计算本次发送的截止时刻（Unix 毫秒时间戳）：
+     * 取 Reactor Context 中调用方给出的截止时刻与 sendTimeout 中较早的一个。
+     */
+    private long resolveDeadline(@NotNull ContextView context)
+    {
+        final long ownDeadline
+            = System.currentTimeMillis() + Duration.ofSeconds(this.sendTimeout).toMillis();
+
+        return
+        context.<Instant>getOrEmpty(DEADLINE_CONTEXT_KEY)
+               .map((deadline) -> Math.min(deadline.toEpochMilli(), ownDeadline))
+               .orElse(ownDeadline);
+    }
+
+    /** 把最终发送失败的邮件交给死信接收器，保存失败只记录日志。*/
+    private @NotNull Mono<Void>
+    deadLetter(
+        @NotNull EmailContent emailContent, @NotNull Throwable failure,
+        @NotNull List<DeadLetter.Attempt> attempts)
+    {
+        final Throwable cause
+            = Exceptions.isRetryExhausted(failure) && Objects.nonNull(failure.getCause())
+                ? failure.getCause()
+                : failure;
+
+        return
+        Mono.defer(() -> {
+            final long      failedAt = System.currentTimeMillis();
+            final SmtpReply reply    = SmtpReply.from(cause);
+
+            final List<DeadLetter.Attempt> history;
+
+            synchronized (attempts) {
+                history = List.copyOf(attempts);
+            }
+
+            return
+            this.deadLetterSink.accept(
+                new DeadLetter(
+                    DeadLetter.nextId(failedAt), emailContent,
+                    cause.getClass().getName(), cause.getMessage(),
+                    reply == null ? 0 : reply.code(),
+                    reply == null ? null : reply.text(),
+                    history, failedAt
+                )
+            );
+        })
+            .onErrorResume((exception) -> {
+                log.error(
+                    "Save dead letter of email to {} failed!",
+                    this.retryLog.recipient(emailContent.getTo()), exception
+                );
+                return Mono.empty();
+            });
+    }
+
+    /**
+     * 在剩余期限内进行一次发送尝试，每次（重新）订阅时都重新计算剩余期限，
+     * 因此重试的时间预算会随着之前的尝试与退避等待而缩小，而不是每次都从头计算。
+     */
+    private @NotNull Mono<Void>
+    attemptWithinDeadline(
+        @NotNull EmailContent emailContent, long deadline,
+        @NotNull List<DeadLetter.Attempt> attempts,
+        @Nullable SendTracing.SendTrace trace, @NotNull SendLifecycle lifecycle)
+    {
+        return Mono.defer(() -> {
+            final long startedAt = System.currentTimeMillis();
+            final long remaining = deadline - System.currentTimeMillis();
+
+            if (remaining <= 0L)
+            {
+                return
+                Mono.error(
+                    new EmailException(
+                        DEADLINE_EXCEEDED,
+                        format(
+                            "Send email to %s exceeded its deadline!",
+                            this.retryLog.recipient(emailContent.getTo())
+                        )
+                    )
+                );
+            }
+
+            final Duration budget
+                = Duration.ofMillis(
+                    Math.min(remaining, Duration.ofSeconds(this.attemptTimeout).toMillis())
+                );
+
+            lifecycle.attemptStarted();
+
+            return
+            SendTracing.observeAttempt(
+                trace, attempts.size() + 1,
+                (attemptTrace) ->
+                    this.sendEmailReactive(emailContent, this.enterPriceEmailAddress, attemptTrace)
+                        .timeout(
+                            budget,
+                            Mono.error(() ->
+                                new EmailException(
+                                    NETWORK_ISSUE,
+                                    format(
+                                        "Send attempt to %s timeout after %d ms!",
+                                        this.retryLog.recipient(emailContent.getTo()), budget.toMillis()
+                                    )
+                                )
+                            )
+                        )
+            )
+                // 记录每次失败的尝试，最终失败时随死信一并保存
+                .doOnError((exception) -> {
+                    final SmtpReply reply = SmtpReply.from(exception);
+
+                    attempts.add(
+                        new DeadLetter.Attempt(
+                            startedAt, System.currentTimeMillis() - startedAt,
+                            exception.getClass().getName(), exception.getMessage(),
+                            reply == null ? 0 : reply.code()
+                        )
+                    );
+                });
+        });
+    }
+}
\ No newline at end of file
@@ -0,0 +1,233 @@
+package io.github.jessez332623.reactive_email_sender.impl;
+
+import io.github.jessez332623.reactive_email_sender.ReactiveEmailSender;
+import io.github.jessez332623.reactive_email_sender.dto.EmailContent;
+import io.github.jessez332623.reactive_email_sender.exception.EmailException;
+import io.github.jessez332623.reactive_email_sender.utils.EmailAddressMasker;
+import io.github.jessez332623.reactive_email_sender.utils.VerifyCodeGenerator;
+import io.github.jessez332623.reactive_email_sender.verification.VerificationCodeRecord;
+import io.github.jessez332623.reactive_email_sender.verification.VerificationCodeService;
+import io.github.jessez332623.reactive_email_sender.verification.VerificationCodeStore;
+import io.github.jessez332623.reactive_email_sender.verification.VerifyResult;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Objects;
+
+import static io.github.jessez332623.reactive_email_sender.exception.EmailException.ErrorType.RATE_LIMITED;
+import static java.lang.String.format;
+
+/**
+ * <p>验证码服务默认实现。</p>
+ *
+ * <p>
+ *     验证码由 {@link VerifyCodeGenerator} 生成，
+ *     存储中只保存 HMAC-SHA256(hashSecret, 收件人 + 验证码) 的摘要，
+ *     校验时使用 {@link MessageDigest#isEqual(byte[], byte[])} 做恒定时间比较。
+ * </p>
+ */
+@Slf4j
+public class DefaultVerificationCodeServiceImpl implements VerificationCodeService
+{
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    /** 发送验证码邮件所用的邮件发送器 */
+    private final ReactiveEmailSender emailSender;
+
+    /** 验证码存储 */
+    private final VerificationCodeStore codeStore;
+
+    /** 验证码位数 */
+    private final int digits;
+
+    /** 验证码有效期 */
+    private final Duration expired;
+
+    /** 单个验证码允许的最大校验次数 */
+    private final int maxAttempts;
+
+    /** 同一收件人两次签发之间的冷却时间 */
+    private final Duration resendCooldown;
+
+    /** 每个线程复用一个已初始化的 {@link Mac} 实例，避免每次校验都重新查找算法提供者 */
+    private final ThreadLocal<Mac> macHolder;
+
+    @Builder
+    private DefaultVerificationCodeServiceImpl(
+        @NotNull ReactiveEmailSender   emailSender,
+        @NotNull VerificationCodeStore codeStore,
+        int digits, @NotNull Duration expired,
+        int maxAttempts, @NotNull Duration resendCooldown,
+        String hashSecret)
+    {
+        this.emailSender    = emailSender;
+        this.codeStore      = codeStore;
+        this.digits         = digits;
+        this.expired        = expired;
+        this.maxAttempts    = maxAttempts;
+        this.resendCooldown = resendCooldown;
+
+        final SecretKeySpec secretKey
+            = new SecretKeySpec(resolveSecret(hashSecret), HMAC_ALGORITHM);
+
+        this.macHolder = ThreadLocal.withInitial(() -> {
+            try
+            {
+                Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+                mac.init(secretKey);
+
+                return mac;
+            }
+            catch (GeneralSecurityException exception) {
+                throw new IllegalStateException(exception);
+            }
+        });
+    }
+
+    /**
+     * 未配置摘要密钥时使用进程内随机密钥，
+     * 这对进程内存储没有影响，但外部存储在多实例间共享时必须显式配置。
+     */
+    private static byte @NotNull []
+    resolveSecret(String hashSecret)
+    {
+        if (Objects.nonNull(hashSecret) && !hashSecret.isBlank()) {
+            return hashSecret.getBytes(StandardCharsets.UTF_8);
+        }
+
+        log.info("Verification hash secret not configured, use a random secret for this process.");
+
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+
+        return secret;
+    }
+
+    /** 规范化收件人邮箱，作为存储键。*/
+    private static @NotNull String
+    normalize(@NotNull String userEmail) {
+        return userEmail.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /** 计算验证码摘要。*/
+    private byte @NotNull []
+    digest(@NotNull String key, @NotNull String code)
+    {
+        final Mac mac = this.macHolder.get();
+
+        mac.update(key.getBytes(StandardCharsets.UTF_8));
+        mac.update((byte) 0);
+
+        return mac.doFinal(code.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** 一次签发：验证码明文与保存的记录。*/
+    private record Issued(String key, String code, VerificationCodeRecord record) {}
+
+    @Override
+    public Mono<String>
+    issue(@NotNull String userEmail) {
+        return this.doIssue(userEmail).map(Issued::code);
+    }
+
+    /** 签发验证码并保存记录，冷却期内签发时以 RATE_LIMITED 错误结束。*/
+    private @NotNull Mono<Issued>
+    doIssue(@NotNull String userEmail)
+    {
+        final String key = normalize(userEmail);
+
+        return
+        VerifyCodeGenerator.generateVerifyCode(this.digits)
+            .flatMap((code) -> {
+                final long now = System.currentTimeMillis();
+
+                final VerificationCodeRecord record
+                    = new VerificationCodeRecord(
+                        this.digest(key, code), now,
+                        now + this.expired.toMillis(), 0
+                    );
+
+                return
+                this.codeStore
+                    .saveIfCooledDown(key, record, this.resendCooldown)
+                    .flatMap((saved) ->
+                        saved
+                            ? Mono.just(new Issued(key, code, record))
+                            : Mono.error(
+                                new EmailException(
+                                    RATE_LIMITED,
+                                    format(
+                                        "Verify code for %s was issued less than %d seconds ago!",
+                                        EmailAddressMasker.mask(userEmail), this.resendCooldown.toSeconds()
+                                    )
+                                )
+                            )
+                    );
+            });
+    }
+
+    @Override
+    public Mono<Void>
+    sendVerifyCode(@NotNull String userName, @NotNull String userEmail)
+    {
+        return
+        this.doIssue(userEmail)
+            .flatMap((issued) ->
+                this.emailSender
+                    .sendEmail(
+                        EmailContent.fromVarifyCode(userName, userEmail, issued.code(), this.expired)
+                    )
+                    // 验证码是一次性的敏感信息，发送失败时不保存为死信（重放过期的验证码也没有意义）
+                    .contextWrite(
+                        Context.of(DefaultReactiveEmailSenderImpl.SKIP_DEAD_LETTER_CONTEXT_KEY, true)
+                    )
+                    // 用户没有收到验证码，撤销这次签发，让冷却期不再阻止重新获取（不会删除之后签发的新验证码）
+                    .onErrorResume((exception) ->
+                        this.codeStore
+                            .consume(issued.key(), issued.record())
+                            .then(Mono.error(exception))
+                    )
+            );
+    }
+
+    @Override
+    public Mono<VerifyResult>
+    verify(@NotNull String userEmail, @NotNull String code)
+    {
+        final String key = normalize(userEmail);
+
+        return
+        this.codeStore
+            .increaseAttempts(key)
+            .flatMap((record) -> {
+                if (record.getAttempts() > this.maxAttempts) {
+                    return Mono.just(VerifyResult.ATTEMPTS_EXCEEDED);
+                }
+
+                final boolean matched
+                    = MessageDigest.isEqual(record.getCodeHash(), this.digest(key, code));
+
+                if (!matched) {
+                    return Mono.just(VerifyResult.MISMATCH);
+                }
+
+                // 验证码只能使用一次：比较并删除成功的校验才算通过，并发的校验中至多一个通过
+                return
+                this.codeStore
+                    .consume(key, record)
+                    .map((consumed) -> consumed ? VerifyResult.PASSED : VerifyResult.NOT_FOUND);
+            })
+            .defaultIfEmpty(VerifyResult.NOT_FOUND);
+    }
+}
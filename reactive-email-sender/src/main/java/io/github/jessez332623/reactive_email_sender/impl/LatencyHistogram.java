@@ -0,0 +1,184 @@
+package io.github.jessez332623.reactive_email_sender.impl;
+
+import io.github.jessez332623.reactive_email_sender.dto.SenderStats;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>最近一段时间内的延迟分布（单位：毫秒），用于计算 p50 / p90 / p99。</p>
+ *
+ * <p>
+ *     统计窗口被等分为 6 个时间片，每个时间片是一组按对数划分的桶：
+ *     16 ms 以下每毫秒一个桶，之后每个 2 的幂区间再分成 4 个桶（相对误差约 25%），
+ *     共 128 个桶，覆盖到约 2^32 ms。每个桶都是 {@link LongAdder}，
+ *     记录一次延迟只是一次分段计数器的自增，不加锁、没有共享的热点缓存行。
+ * </p>
+ *
+ * <p>
+ *     时间片轮转到新的周期时由第一个发现的线程清零（只有这一步加锁，每个时间片周期最多一次），
+ *     与清零并发的少量记录可能丢失或计入相邻的时间片，对统计用途没有影响。
+ * </p>
+ */
+final class LatencyHistogram
+{
+    /** 16 ms 以下按毫秒精确计数 */
+    private static final int LINEAR_BUCKETS = 16;
+
+    /** 每个 2 的幂区间划分的桶数（2^SUB_BUCKET_BITS）*/
+    private static final int SUB_BUCKET_BITS = 2;
+
+    private static final int BUCKETS = 128;
+
+    /** 统计窗口划分的时间片数 */
+    private static final int SLICES = 6;
+
+    /** 一个时间片 */
+    private static final class Slice
+    {
+        /** 时间片对应的周期编号（当前时刻 / 时间片长度），-1 表示从未使用 */
+        private volatile long epoch = -1L;
+
+        private final LongAdder[] counts = new LongAdder[BUCKETS];
+
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+        private Slice()
+        {
+            for (int index = 0; index < BUCKETS; ++index) {
+                this.counts[index] = new LongAdder();
+            }
+        }
+    }
+
+    /** 时间片长度（单位：毫秒）*/
+    private final long sliceMillis;
+
+    private final Slice[] slices = new Slice[SLICES];
+
+    /**
+     * @param windowSeconds 统计窗口的长度（单位：秒）
+     */
+    LatencyHistogram(long windowSeconds)
+    {
+        this.sliceMillis = Math.max(windowSeconds * 1000L / SLICES, 1L);
+
+        for (int index = 0; index < SLICES; ++index) {
+            this.slices[index] = new Slice();
+        }
+    }
+
+    /** 记录一次延迟（单位：毫秒）。*/
+    void record(long millis)
+    {
+        final long  epoch = System.currentTimeMillis() / this.sliceMillis;
+        final Slice slice = this.slices[(int) (epoch % SLICES)];
+
+        if (slice.epoch != epoch) {
+            this.rotate(slice, epoch);
+        }
+
+        slice.counts[bucketOf(Math.max(millis, 0L))].increment();
+        slice.max.accumulate(millis);
+    }
+
+    /** 统计窗口内的延迟分布快照。*/
+    @NotNull SenderStats.Latency
+    snapshot()
+    {
+        final long   currentEpoch = System.currentTimeMillis() / this.sliceMillis;
+        final long[] counts       = new long[BUCKETS];
+
+        long total = 0L;
+        long max   = 0L;
+
+        for (Slice slice : this.slices)
+        {
+            // 跳过已经滑出窗口（或从未使用）的时间片
+            if (slice.epoch <= currentEpoch - SLICES) { continue; }
+
+            for (int index = 0; index < BUCKETS; ++index)
+            {
+                final long count = slice.counts[index].sum();
+
+                counts[index] += count;
+                total         += count;
+            }
+
+            max = Math.max(max, slice.max.get());
+        }
+
+        return new
+        SenderStats.Latency(
+            this.sliceMillis * SLICES / 1000L, total,
+            percentile(counts, total, 0.50, max),
+            percentile(counts, total, 0.90, max),
+            percentile(counts, total, 0.99, max),
+            max
+        );
+    }
+
+    private void rotate(@NotNull Slice slice, long epoch)
+    {
+        synchronized (slice)
+        {
+            if (slice.epoch >= epoch) { return; }
+
+            for (LongAdder count : slice.counts) {
+                count.reset();
+            }
+
+            slice.max.reset();
+            slice.epoch = epoch;
+        }
+    }
+
+    /** 取分位点所在桶的上界（不超过观测到的最大值），没有数据时为 0。*/
+    private static long
+    percentile(long @NotNull [] counts, long total, double quantile, long max)
+    {
+        if (total == 0L) { return 0L; }
+
+        final long rank       = (long) Math.ceil(total * quantile);
+        long       cumulative = 0L;
+
+        for (int index = 0; index < BUCKETS; ++index)
+        {
+            cumulative += counts[index];
+
+            if (cumulative >= rank) {
+                return Math.min(upperBoundOf(index), max);
+            }
+        }
+
+        return max;
+    }
+
+    static int bucketOf(long millis)
+    {
+        if (millis < LINEAR_BUCKETS) { return (int) millis; }
+
+        final int exponent = 63 - Long.numberOfLeadingZeros(millis);
+        final int sub      = (int) (millis >>> (exponent - SUB_BUCKET_BITS)) & ((1 << SUB_BUCKET_BITS) - 1);
+
+        final int index
+            = LINEAR_BUCKETS +
+              ((exponent - Integer.numberOfTrailingZeros(LINEAR_BUCKETS)) << SUB_BUCKET_BITS) + sub;
+
+        return Math.min(index, BUCKETS - 1);
+    }
+
+    static long upperBoundOf(int index)
+    {
+        if (index < LINEAR_BUCKETS) { return index; }
+
+        final int exponent
+            = Integer.numberOfTrailingZeros(LINEAR_BUCKETS) + ((index - LINEAR_BUCKETS) >>> SUB_BUCKET_BITS);
+
+        final int  sub   = (index - LINEAR_BUCKETS) & ((1 << SUB_BUCKET_BITS) - 1);
+        final long width = 1L << (exponent - SUB_BUCKET_BITS);
+
+        return (((1L << SUB_BUCKET_BITS) + sub) * width) + width - 1L;
+    }
+}
@@ -0,0 +1,345 @@
+package io.github.jessez332623.reactive_email_sender.impl;
+
+import io.github.jessez332623.reactive_email_sender.dto.SenderStats;
+import io.github.jessez332623.reactive_email_sender.exception.EmailException;
+import io.github.jessez332623.reactive_email_sender.mx.MxRecord;
+import io.github.jessez332623.reactive_email_sender.mx.MxResolver;
+import io.github.jessez332623.reactive_email_sender.transport.SendPermits;
+import io.github.jessez332623.reactive_email_sender.transport.SmtpReply;
+import io.github.jessez332623.reactive_email_sender.transport.SmtpTransportPool;
+import jakarta.mail.Session;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static io.github.jessez332623.reactive_email_sender.exception.EmailException.ErrorType.INVALID_CONTENT;
+import static io.github.jessez332623.reactive_email_sender.exception.EmailException.ErrorType.NETWORK_ISSUE;
+import static java.lang.String.format;
+
+/**
+ * <p>直连 MX 投递模式下的目标服务器调度。</p>
+ *
+ * <p>
+ *     每个 MX 服务器（目标）拥有各自的连接池、发送许可与退避状态：
+ *     同一目标的连接在多封邮件之间复用，同时执行的发送数不超过 connectionsPerDestination，
+ *     多出的发送排队等待（不占用线程）；不同目标之间互不影响，
+ *     因此大批量发送可以同时分散到许多接收服务器上。
+ * </p>
+ *
+ * <p>
+ *     目标以 4xx 应答推迟投递或者连接失败时进入退避，
+ *     退避期间发往该域的邮件改投优先级更低的 MX，所有 MX 都在退避时立即失败并交给重试，
+ *     不会继续冲击正在推迟投递的服务器。
+ * </p>
+ */
+@Slf4j
+final class MxRouter implements AutoCloseable
+{
+    /** 最多保留的目标数，超过后清理长时间未使用且不在退避中的目标 */
+    private static final int MAX_DESTINATIONS = 4096;
+
+    /** 一个 MX 服务器 */
+    @Getter
+    static final class Destination
+    {
+        private final String host;
+
+        private final int port;
+
+        private final SmtpTransportPool transportPool;
+
+        private final SendPermits permits;
+
+        /** 连续推迟投递（或连接失败）的次数，访问时需要持有本对象的锁 */
+        @Getter(AccessLevel.NONE)
+        private int failures = 0;
+
+        /** 退避结束的时刻（Unix 毫秒时间戳）*/
+        private volatile long deferredUntil = 0L;
+
+        /** 最近一次使用的时刻（Unix 毫秒时间戳）*/
+        private volatile long lastUsed = System.currentTimeMillis();
+
+        Destination(String host, int port, SmtpTransportPool transportPool, SendPermits permits)
+        {
+            this.host          = host;
+            this.port          = port;
+            this.transportPool = transportPool;
+            this.permits       = permits;
+        }
+
+        @Override
+        public String toString() { return this.host + ":" + this.port; }
+    }
+
+    private final MxResolver resolver;
+
+    /** 直连 MX 使用的会话（不认证，尽量使用 STARTTLS）*/
+    @Getter
+    private final Session session;
+
+    /** 每个目标的最大连接数 */
+    private final int connectionsPerDestination;
+
+    /** 每个目标最多排队等待的发送数 */
+    private final int maxQueuedPerDestination;
+
+    /** 首次退避的时长与退避时长的上限（单位：毫秒）*/
+    private final long deferStart;
+    private final long deferMax;
+
+    /** 空闲连接的存活时长与借用连接的等待时长（单位：毫秒）*/
+    private final long idleTimeout;
+    private final long borrowTimeout;
+
+    /** 目标（键为 host:port）*/
+    private final Map<String, Destination> destinations = new ConcurrentHashMap<>();
+
+    private volatile boolean closed = false;
+
+    MxRouter(
+        @NotNull MxResolver resolver, @NotNull Session session,
+        int connectionsPerDestination, int maxQueuedPerDestination,
+        long deferStart, long deferMax, long idleTimeout, long borrowTimeout)
+    {
+        this.resolver                  = resolver;
+        this.session                   = session;
+        this.connectionsPerDestination = connectionsPerDestination;
+        this.maxQueuedPerDestination   = maxQueuedPerDestination;
+        this.deferStart                = deferStart;
+        this.deferMax                  = deferMax;
+        this.idleTimeout               = idleTimeout;
+        this.borrowTimeout             = borrowTimeout;
+    }
+
+    /**
+     * 由中继模式的会话属性派生直连 MX 的会话属性：
+     * 不认证、不使用隐式 TLS，服务器支持时使用 STARTTLS（但不强制）。
+     */
+    static @NotNull Properties
+    directSessionProperties(@NotNull Properties relayProperties)
+    {
+        final Properties props = new Properties();
+        props.putAll(relayProperties);
+
+        props.remove("mail.smtp.host");
+        props.remove("mail.smtp.port");
+        props.remove("mail.smtp.ssl.enable");
+        props.remove("mail.smtp.ssl.checkserveridentity");
+
+        props.put("mail.smtp.auth", "false");
+        props.put("mail.smtp.starttls.enable", "true");
+        props.put("mail.smtp.starttls.required", "false");
+
+        return props;
+    }
+
+    /**
+     * 为收件地址选择目标：按优先级尝试该域的 MX（同一优先级之间随机），跳过退避中的目标。
+     *
+     * @throws EmailException 收件域没有 MX（INVALID_CONTENT），或所有 MX 都在退避中（NETWORK_ISSUE）
+     */
+    @NotNull Mono<Destination>
+    route(@NotNull String recipient)
+    {
+        final String domain
+            = recipient.substring(recipient.lastIndexOf('@') + 1).toLowerCase(Locale.ROOT);
+
+        return
+        Mono.fromCallable(() -> this.resolver.resolve(domain))
+            .subscribeOn(Schedulers.boundedElastic())
+            .map((records) -> this.choose(domain, records));
+    }
+
+    private @NotNull Destination
+    choose(@NotNull String domain, @NotNull List<MxRecord> records)
+    {
+        if (records.isEmpty())
+        {
+            throw new
+            EmailException(
+                INVALID_CONTENT,
+                format("Domain %s does not accept email (no MX)!", domain)
+            );
+        }
+
+        // 先打乱再按优先级稳定排序，同一优先级的 MX 之间分摊负载（RFC 5321 5.1）
+        final List<MxRecord> ordered = new ArrayList<>(records);
+        Collections.shuffle(ordered);
+        ordered.sort(Comparator.comparingInt(MxRecord::preference));
+
+        final long now           = System.currentTimeMillis();
+        long       earliestRetry = Long.MAX_VALUE;
+
+        for (MxRecord record : ordered)
+        {
+            final Destination destination = this.destination(record.host(), record.port());
+
+            if (destination.deferredUntil <= now)
+            {
+                destination.lastUsed = now;
+                return destination;
+            }
+
+            earliestRetry = Math.min(earliestRetry, destination.deferredUntil);
+        }
+
+        throw new
+        EmailException(
+            NETWORK_ISSUE,
+            format(
+                "All MX hosts of %s are deferring, retry after %d ms.",
+                domain, earliestRetry - now
+            )
+        );
+    }
+
+    /** 投递成功，清除目标的退避状态。*/
+    void delivered(@NotNull Destination destination)
+    {
+        synchronized (destination)
+        {
+            destination.failures      = 0;
+            destination.deferredUntil = 0L;
+        }
+    }
+
+    /**
+     * 投递失败：4xx 应答（服务器推迟投递）或者没有应答（连接失败）时目标进入指数退避，
+     * 5xx 应答以及附件、排队已满等与服务器无关的错误不影响目标。
+     */
+    void failed(@NotNull Destination destination, @NotNull Throwable failure)
+    {
+        if (failure instanceof EmailException exception &&
+            exception.getErrorType() != NETWORK_ISSUE) {
+            return;
+        }
+
+        final SmtpReply reply = SmtpReply.from(failure);
+
+        if (reply != null && (reply.code() < 400 || reply.code() >= 500)) {
+            return;
+        }
+
+        final long backoff;
+
+        synchronized (destination)
+        {
+            ++destination.failures;
+
+            backoff
+                = Math.min(
+                    this.deferStart << Math.min(destination.failures - 1, 20),
+                    this.deferMax
+                );
+
+            destination.deferredUntil = System.currentTimeMillis() + backoff;
+        }
+
+        log.info(
+            "MX {} deferred ({}), back off {} ms.",
+            destination, reply == null ? failure.getMessage() : reply.code() + " " + reply.text(), backoff
+        );
+    }
+
+    private @NotNull Destination
+    destination(@NotNull String host, int port)
+    {
+        final String key = host + ":" + port;
+
+        final Destination existing = this.destinations.get(key);
+
+        if (existing != null) { return existing; }
+
+        if (this.closed) {
+            throw new EmailException(NETWORK_ISSUE, "MX router already closed!");
+        }
+
+        if (this.destinations.size() >= MAX_DESTINATIONS) {
+            this.evictIdle();
+        }
+
+        return
+        this.destinations.computeIfAbsent(key, (ignored) ->
+            new Destination(
+                host, port,
+                new SmtpTransportPool(
+                    this.session, host, port, null, null,
+                    this.connectionsPerDestination, this.idleTimeout, this.borrowTimeout
+                ),
+                new SendPermits("MX " + key, this.connectionsPerDestination, this.maxQueuedPerDestination)
+            )
+        );
+    }
+
+    /** 定期清理：关闭各目标过期的空闲连接，并移除长时间未使用的目标。*/
+    void reapIdle()
+    {
+        if (this.closed) { return; }
+
+        this.destinations.values()
+            .forEach((destination) -> destination.transportPool.evictExpired());
+
+        this.evictIdle();
+    }
+
+    /** 清理空闲超过 idleTimeout、没有借出连接且不在退避中的目标，并关闭它们的连接池。*/
+    private void evictIdle()
+    {
+        final long now = System.currentTimeMillis();
+
+        this.destinations.values().removeIf((destination) -> {
+            final boolean idle
+                = destination.transportPool.getActiveCount() == 0 &&
+                  destination.permits.getWaitingCount() == 0 &&
+                  destination.deferredUntil <= now &&
+                  now - destination.lastUsed >= this.idleTimeout;
+
+            if (idle) {
+                destination.transportPool.close();
+            }
+
+            return idle;
+        });
+    }
+
+    /** 当前保留的目标数。*/
+    int getDestinationCount() { return this.destinations.size(); }
+
+    /** 所有目标的连接池合计的使用情况（等待数包括排队等待目标发送许可的发送）。*/
+    @NotNull SenderStats.Pool
+    getPoolStats()
+    {
+        int active = 0, idle = 0, waiting = 0, maxSize = 0;
+
+        for (Destination destination : this.destinations.values())
+        {
+            active  += destination.transportPool.getActiveCount();
+            idle    += destination.transportPool.getIdleCount();
+            waiting += destination.transportPool.getWaitingCount() + destination.permits.getWaitingCount();
+            maxSize += destination.transportPool.getMaxSize();
+        }
+
+        return new SenderStats.Pool(active, idle, waiting, maxSize);
+    }
+
+    /** 关闭所有目标的连接池。*/
+    @Override
+    public void close()
+    {
+        this.closed = true;
+        this.destinations.values().forEach((destination) -> destination.transportPool.close());
+    }
+}
@@ -0,0 +1,297 @@
+package io.github.jessez332623.reactive_email_sender.impl;
+
+import io.github.jessez332623.reactive_email_sender.exception.EmailException;
+import io.github.jessez332623.reactive_email_sender.transport.SmtpReply;
+import io.github.jessez332623.reactive_email_sender.utils.EmailAddressMasker;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import reactor.core.Disposable;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>重试日志的采样与聚合。</p>
+ *
+ * <p>
+ *     中继故障时每封邮件的每次重试都写一行日志会形成日志风暴，反而淹没真正的信号。
+ *     这里每个统计窗口最多逐条记录 maxLogsPerWindow 次重试，其余只计数；
+ *     窗口结束时按目标（中继主机或收件域）输出一行汇总，
+ *     例如 “1243 retries to smtp.x in the last 10 s, top reason 421”。
+ * </p>
+ *
+ * <p>
+ *     日志均为 SLF4J 2 的结构化事件（附带 event、target、reason 等键值对），
+ *     收件人默认脱敏；汇总任务只在窗口内有重试时才会被调度，空闲时不占用定时器。
+ * </p>
+ */
+@Slf4j
+final class RetryLogAggregator implements AutoCloseable
+{
+    /** 每次汇总最多输出的目标数，其余目标合并为一行 */
+    private static final int MAX_SUMMARY_TARGETS = 10;
+
+    /** 统计窗口的长度（单位：毫秒）*/
+    private final long windowMillis;
+
+    /** 每个窗口最多逐条记录的重试数（为 0 时只输出汇总）*/
+    private final int maxLogsPerWindow;
+
+    /** 日志中的收件人是否脱敏 */
+    private final boolean maskRecipients;
+
+    /** 当前窗口内的重试次数：目标 -> 原因 -> 次数（窗口结束时整体替换）*/
+    private volatile Map<String, Map<String, LongAdder>> window = new ConcurrentHashMap<>();
+
+    /** 当前窗口内已经逐条记录的重试数 */
+    private final AtomicInteger loggedInWindow = new AtomicInteger();
+
+    /** 当前窗口内因为采样而省略的日志数 */
+    private final LongAdder suppressedInWindow = new LongAdder();
+
+    /** 当前窗口的开始时刻（Unix 毫秒时间戳）*/
+    private volatile long windowStart = System.currentTimeMillis();
+
+    /** 是否已经调度了下一次汇总 */
+    private final AtomicBoolean summaryScheduled = new AtomicBoolean();
+
+    private volatile @Nullable Disposable pendingSummary;
+
+    private volatile boolean closed = false;
+
+    RetryLogAggregator(long windowSeconds, int maxLogsPerWindow, boolean maskRecipients)
+    {
+        this.windowMillis     = windowSeconds * 1000L;
+        this.maxLogsPerWindow = maxLogsPerWindow;
+        this.maskRecipients   = maskRecipients;
+    }
+
+    /** 按配置脱敏收件人。*/
+    @Nullable String
+    recipient(@Nullable String address) {
+        return this.maskRecipients ? EmailAddressMasker.mask(address) : address;
+    }
+
+    /**
+     * 记录一次重试。
+     *
+     * @param target    目标（中继主机或收件域）
+     * @param recipient 收件人
+     * @param attempt   即将进行的是第几次重试
+     * @param failure   上一次尝试失败的原因
+     */
+    void retrying(
+        @NotNull String target, @NotNull String recipient,
+        long attempt, @NotNull Throwable failure)
+    {
+        final String reason = reasonOf(failure);
+
+        this.window
+            .computeIfAbsent(target, (ignored) -> new ConcurrentHashMap<>())
+            .computeIfAbsent(reason, (ignored) -> new LongAdder())
+            .increment();
+
+        if (this.loggedInWindow.getAndIncrement() < this.maxLogsPerWindow)
+        {
+            log.atWarn()
+               .setMessage("Retry attempt {} for email to {} via {}, reason: {}.")
+               .addArgument(attempt)
+               .addArgument(() -> this.recipient(recipient))
+               .addArgument(target)
+               .addArgument(reason)
+               .addKeyValue("event", "email.retry")
+               .addKeyValue("attempt", attempt)
+               .addKeyValue("recipient", () -> this.recipient(recipient))
+               .addKeyValue("target", target)
+               .addKeyValue("reason", reason)
+               .log();
+        }
+        else {
+            this.suppressedInWindow.increment();
+        }
+
+        this.scheduleSummary();
+    }
+
+    /** 输出最后一个窗口的汇总，并停止调度。*/
+    @Override
+    public void close()
+    {
+        this.closed = true;
+
+        final Disposable pending = this.pendingSummary;
+
+        if (pending != null) {
+            pending.dispose();
+        }
+
+        this.summarize();
+    }
+
+    private void scheduleSummary()
+    {
+        if (this.closed || !this.summaryScheduled.compareAndSet(false, true)) { return; }
+
+        // 从空闲转为活跃时，窗口从第一次重试开始计算
+        this.windowStart = System.currentTimeMillis();
+
+        this.pendingSummary
+            = Schedulers.parallel()
+                        .schedule(this::flush, this.windowMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /** 窗口结束：输出汇总，窗口内有重试时继续调度下一次，否则停止。*/
+    private void flush()
+    {
+        final boolean active = this.summarize();
+
+        if (active && !this.closed)
+        {
+            this.pendingSummary
+                = Schedulers.parallel()
+                            .schedule(this::flush, this.windowMillis, TimeUnit.MILLISECONDS);
+            return;
+        }
+
+        this.summaryScheduled.set(false);
+
+        // 停止调度的同时可能刚好有新的重试，重新检查一次
+        if (!this.window.isEmpty()) {
+            this.scheduleSummary();
+        }
+    }
+
+    /**
+     * 结束当前窗口并输出汇总。
+     *
+     * @return 窗口内是否有重试
+     */
+    private boolean summarize()
+    {
+        final Map<String, Map<String, LongAdder>> finished = this.window;
+
+        this.window = new ConcurrentHashMap<>();
+
+        final long now        = System.currentTimeMillis();
+        final long seconds    = Math.max((now - this.windowStart + 500L) / 1000L, 1L);
+        final long suppressed = this.suppressedInWindow.sumThenReset();
+
+        this.windowStart = now;
+        this.loggedInWindow.set(0);
+
+        if (finished.isEmpty()) { return false; }
+
+        final List<TargetSummary> summaries
+            = finished.entrySet().stream()
+                      .map((entry) -> TargetSummary.of(entry.getKey(), entry.getValue()))
+                      .sorted(Comparator.comparingLong(TargetSummary::retries).reversed())
+                      .toList();
+
+        for (TargetSummary summary : summaries.subList(0, Math.min(summaries.size(), MAX_SUMMARY_TARGETS)))
+        {
+            log.atWarn()
+               .setMessage("{} retries to {} in the last {} s, top reason {} ({}).")
+               .addArgument(summary.retries())
+               .addArgument(summary.target())
+               .addArgument(seconds)
+               .addArgument(summary.topReason())
+               .addArgument(summary.topReasonCount())
+               .addKeyValue("event", "email.retry.summary")
+               .addKeyValue("target", summary.target())
+               .addKeyValue("retries", summary.retries())
+               .addKeyValue("windowSeconds", seconds)
+               .addKeyValue("topReason", summary.topReason())
+               .addKeyValue("topReasonCount", summary.topReasonCount())
+               .log();
+        }
+
+        if (summaries.size() > MAX_SUMMARY_TARGETS)
+        {
+            final long others
+                = summaries.subList(MAX_SUMMARY_TARGETS, summaries.size())
+                           .stream().mapToLong(TargetSummary::retries).sum();
+
+            log.atWarn()
+               .setMessage("{} retries to {} other targets in the last {} s.")
+               .addArgument(others)
+               .addArgument(summaries.size() - MAX_SUMMARY_TARGETS)
+               .addArgument(seconds)
+               .addKeyValue("event", "email.retry.summary")
+               .addKeyValue("target", "others")
+               .addKeyValue("retries", others)
+               .addKeyValue("windowSeconds", seconds)
+               .log();
+        }
+
+        if (suppressed > 0L)
+        {
+            log.atInfo()
+               .setMessage("Sampled out {} retry log line(s) in the last {} s.")
+               .addArgument(suppressed)
+               .addArgument(seconds)
+               .addKeyValue("event", "email.retry.sampled")
+               .addKeyValue("suppressed", suppressed)
+               .addKeyValue("windowSeconds", seconds)
+               .log();
+        }
+
+        return true;
+    }
+
+    /** 失败原因：SMTP 应答码，没有应答时取异常链最内层的异常类名。*/
+    static @NotNull String
+    reasonOf(@NotNull Throwable failure)
+    {
+        final SmtpReply reply = SmtpReply.from(failure);
+
+        if (reply != null) { return String.valueOf(reply.code()); }
+
+        Throwable root  = failure;
+        int       depth = 0;
+
+        // 限制深度，防止异常链成环
+        while (root.getCause() != null && root.getCause() != root && depth++ < 16) {
+            root = root.getCause();
+        }
+
+        return
+        (root instanceof EmailException exception)
+            ? exception.getErrorType().name()
+            : root.getClass().getSimpleName();
+    }
+
+    /** 一个目标在窗口内的重试汇总 */
+    private record TargetSummary(String target, long retries, String topReason, long topReasonCount)
+    {
+        static @NotNull TargetSummary
+        of(@NotNull String target, @NotNull Map<String, LongAdder> reasons)
+        {
+            long   total     = 0L;
+            String topReason = "";
+            long   topCount  = -1L;
+
+            for (Map.Entry<String, LongAdder> entry : reasons.entrySet())
+            {
+                final long count = entry.getValue().sum();
+
+                total += count;
+
+                if (count > topCount)
+                {
+                    topReason = entry.getKey();
+                    topCount  = count;
+                }
+            }
+
+            return new TargetSummary(target, total, topReason, topCount);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package io.github.jessez332623.reactive_email_sender.impl;
+
+import io.github.jessez332623.reactive_email_sender.dto.EmailContent;
+import io.github.jessez332623.reactive_email_sender.event.SendEvent;
+import io.github.jessez332623.reactive_email_sender.event.SendEventBus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * <p>一封邮件的生命周期，负责向 {@link SendEventBus} 发布这封邮件的事件。</p>
+ *
+ * <p>
+ *     事件总线没有订阅者时只更新尝试次数，不创建事件；
+ *     同一封邮件的尝试是依次进行的（重试在上一次尝试结束之后才订阅），尝试次数不需要原子更新。
+ * </p>
+ */
+final class SendLifecycle
+{
+    private final SendEventBus eventBus;
+
+    private final long sendId;
+
+    /** 进入发送器的时刻（System.nanoTime()）*/
+    private final long queuedAt;
+
+    private final EmailContent content;
+
+    /** 已经开始的尝试次数 */
+    private volatile int attempts = 0;
+
+    SendLifecycle(
+        @NotNull SendEventBus eventBus, long sendId,
+        long queuedAt, @NotNull EmailContent content)
+    {
+        this.eventBus = eventBus;
+        this.sendId   = sendId;
+        this.queuedAt = queuedAt;
+        this.content  = content;
+    }
+
+    void queued() { this.publish(SendEvent.Type.QUEUED, 0, null); }
+
+    void attemptStarted()
+    {
+        final int attempt = this.attempts + 1;
+
+        this.attempts = attempt;
+        this.publish(SendEvent.Type.ATTEMPT_STARTED, attempt, null);
+    }
+
+    void retrying(@NotNull Throwable failure) {
+        this.publish(SendEvent.Type.RETRYING, this.attempts, failure);
+    }
+
+    void delivered() { this.publish(SendEvent.Type.DELIVERED, this.attempts, null); }
+
+    void failed(@NotNull Throwable failure) {
+        this.publish(SendEvent.Type.FAILED, this.attempts, failure);
+    }
+
+    private void
+    publish(@NotNull SendEvent.Type type, int attempt, @Nullable Throwable failure)
+    {
+        if (!this.eventBus.hasSubscribers()) { return; }
+
+        this.eventBus.publish(
+            new SendEvent(
+                type, this.sendId, attempt,
+                System.currentTimeMillis(), System.nanoTime() - this.queuedAt,
+                this.content, failure
+            )
+        );
+    }
+}
@@ -0,0 +1,108 @@
+package io.github.jessez332623.reactive_email_sender.impl;
+
+import io.github.jessez332623.reactive_email_sender.dto.SenderStats;
+import io.github.jessez332623.reactive_email_sender.exception.EmailException;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>发送结果的统计：成功与失败数、按错误类型的失败数、最近一次成功的时刻与延迟分布。</p>
+ *
+ * <p>
+ *     所有计数都是 {@link LongAdder}（按错误类型的计数在构造时就全部创建好，之后只读），
+ *     发送线程记录结果时不加锁，读取快照时才把各个分段加起来。
+ * </p>
+ */
+final class SendStatsRecorder
+{
+    /** 最近一次成功时刻的更新粒度（单位：毫秒），避免每次成功都写同一个变量 */
+    private static final long LAST_SUCCESS_RESOLUTION = 1000L;
+
+    private final LongAdder succeeded = new LongAdder();
+
+    private final LongAdder failed = new LongAdder();
+
+    private final Map<EmailException.ErrorType, LongAdder> errors
+        = new EnumMap<>(EmailException.ErrorType.class);
+
+    /** 不是 EmailException 的失败 */
+    private final LongAdder otherErrors = new LongAdder();
+
+    private volatile long lastSuccessAt = 0L;
+
+    private final LatencyHistogram latency;
+
+    /**
+     * @param latencyWindow 延迟分布的统计窗口（单位：秒）
+     */
+    SendStatsRecorder(long latencyWindow)
+    {
+        for (EmailException.ErrorType type : EmailException.ErrorType.values()) {
+            this.errors.put(type, new LongAdder());
+        }
+
+        this.latency = new LatencyHistogram(latencyWindow);
+    }
+
+    /** 记录一次发送成功。*/
+    void succeeded(long startNanos)
+    {
+        this.succeeded.increment();
+        this.latency.record((System.nanoTime() - startNanos) / 1_000_000L);
+
+        final long now = System.currentTimeMillis();
+
+        if (now - this.lastSuccessAt >= LAST_SUCCESS_RESOLUTION) {
+            this.lastSuccessAt = now;
+        }
+    }
+
+    /** 记录一次最终失败。*/
+    void failed(@NotNull Throwable failure)
+    {
+        this.failed.increment();
+
+        if (failure instanceof EmailException exception) {
+            this.errors.get(exception.getErrorType()).increment();
+        }
+        else {
+            this.otherErrors.increment();
+        }
+    }
+
+    long getSucceeded() { return this.succeeded.sum(); }
+
+    long getFailed() { return this.failed.sum(); }
+
+    long getLastSuccessAt() { return this.lastSuccessAt; }
+
+    /** 按错误类型的失败数（只包含不为 0 的类型）。*/
+    @NotNull Map<String, Long>
+    getErrors()
+    {
+        final Map<String, Long> counts = new LinkedHashMap<>();
+
+        this.errors.forEach((type, count) -> {
+            final long sum = count.sum();
+
+            if (sum > 0L) {
+                counts.put(type.name(), sum);
+            }
+        });
+
+        final long others = this.otherErrors.sum();
+
+        if (others > 0L) {
+            counts.put("OTHER", others);
+        }
+
+        return counts;
+    }
+
+    @NotNull SenderStats.Latency
+    getLatency() { return this.latency.snapshot(); }
+}
@@ -0,0 +1,360 @@
+package io.github.jessez332623.reactive_email_sender.impl;
+
+import io.github.jessez332623.reactive_email_sender.dto.EmailContent;
+import io.github.jessez332623.reactive_email_sender.transport.SmtpReply;
+import io.github.jessez332623.reactive_email_sender.utils.EmailAddressMasker;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.util.context.ContextView;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
+
+/**
+ * <p>发送链路的 Micrometer Observation 埋点。</p>
+ *
+ * <p>
+ *     每封邮件一个 email.send 观测，其下每次尝试一个 email.send.attempt 观测，
+ *     尝试内依次划分为路由、排队、建连、构建与传输等阶段，重试以事件的形式记录在 email.send 上，
+ *     两次尝试之间的退避等待记为 email.send.backoff。
+ *     接入 micrometer-tracing（如 OpenTelemetry 桥接）后，这些观测即成为对应的 Span。
+ * </p>
+ *
+ * <p>
+ *     父观测取自 Reactor Context（WebFlux 请求的观测即放在这里），没有时取当前线程上的观测；
+ *     阻塞的发送尝试在 boundedElastic 线程上执行时会打开尝试观测的作用域，
+ *     使该线程上的追踪上下文（以及据此填充的日志 MDC）与本次尝试一致。
+ * </p>
+ *
+ * <p>
+ *     未配置 {@link ObservationRegistry}（或配置的是 NOOP）时不创建任何观测，
+ *     发送流程与没有埋点时完全相同。
+ * </p>
+ */
+final class SendTracing
+{
+    /** 单封邮件的观测名 */
+    static final String SEND     = "email.send";
+
+    /** 单次尝试的观测名 */
+    static final String ATTEMPT  = "email.send.attempt";
+
+    /** 重试之间退避等待的观测名 */
+    static final String BACKOFF  = "email.send.backoff";
+
+    /** 阶段：解析收件域的 MX 记录（直连 MX 投递时）*/
+    static final String ROUTE    = "email.send.route";
+
+    /** 阶段：等待目标服务器的发送许可（直连 MX 投递时）*/
+    static final String PERMIT   = "email.send.permit";
+
+    /** 阶段：在 boundedElastic 调度器上排队 */
+    static final String QUEUE    = "email.send.queue";
+
+    /** 阶段：从连接池借出连接（需要时包括 TCP / TLS 握手、EHLO 与 AUTH）*/
+    static final String CONNECT  = "email.send.connect";
+
+    /** 阶段：构建（与签名）邮件 */
+    static final String BUILD    = "email.send.build";
+
+    /** 阶段：MAIL FROM / RCPT TO / DATA 传输 */
+    static final String TRANSFER = "email.send.transfer";
+
+    /** 本次发送的追踪在 Reactor Context 中的键 */
+    private static final String TRACE_CONTEXT_KEY = SendTracing.class.getName();
+
+    private final ObservationRegistry registry;
+
+    SendTracing(@NotNull ObservationRegistry registry) {
+        this.registry = registry;
+    }
+
+    boolean isEnabled() { return !this.registry.isNoop(); }
+
+    /**
+     * 为一封邮件的整个发送过程（包括重试与退避）创建 email.send 观测，
+     * 并把它放入下游的 Reactor Context，供尝试与用户代码（如死信接收器）作为父观测。
+     *
+     * @param relay 中继主机（直连 MX 投递时为 "mx"）
+     */
+    Mono<Void>
+    observeSend(@NotNull EmailContent content, @NotNull String relay, @NotNull Mono<Void> send)
+    {
+        if (!this.isEnabled()) { return send; }
+
+        return Mono.deferContextual((context) -> {
+            final Observation parent
+                = context.getOrDefault(
+                    ObservationThreadLocalAccessor.KEY,
+                    this.registry.getCurrentObservation()
+                );
+
+            final Observation observation
+                = Observation.createNotStarted(SEND, this.registry)
+                             .parentObservation(parent)
+                             .contextualName("email send")
+                             .lowCardinalityKeyValue("email.relay", relay)
+                             .highCardinalityKeyValue(
+                                 "email.recipient.domain",
+                                 EmailAddressMasker.domainOf(content.getTo()))
+                             .highCardinalityKeyValue("email.size", String.valueOf(sizeOf(content)))
+                             .start();
+
+            final SendTrace trace = new SendTrace(observation);
+
+            // 在信号传给下游之前结束观测（doFinally 在下游处理完信号之后才执行，父观测可能已经结束）
+            return
+            send.doOnSuccess((ignored) -> trace.finish(SignalType.ON_COMPLETE))
+                .doOnError((exception) -> {
+                    observation.error(exception);
+                    trace.finish(SignalType.ON_ERROR);
+                })
+                .doOnCancel(() -> trace.finish(SignalType.CANCEL))
+                .contextWrite((downstream) ->
+                    downstream.put(ObservationThreadLocalAccessor.KEY, observation)
+                              .put(TRACE_CONTEXT_KEY, trace));
+        });
+    }
+
+    /** 取出 Context 中本次发送的追踪，未开启追踪时为 null。*/
+    static @Nullable SendTrace
+    currentSend(@NotNull ContextView context) {
+        return context.getOrDefault(TRACE_CONTEXT_KEY, null);
+    }
+
+    /**
+     * 为一次尝试创建 email.send.attempt 观测，结束上一次重试的退避等待，
+     * 尝试流程通过参数拿到 {@link AttemptTrace} 记录各阶段。
+     *
+     * @param trace   本次发送的追踪（未开启追踪时为 null）
+     * @param number  第几次尝试（从 1 开始）
+     * @param attempt 尝试流程
+     */
+    static Mono<Void>
+    observeAttempt(
+        @Nullable SendTrace trace, int number,
+        @NotNull Function<AttemptTrace, Mono<Void>> attempt)
+    {
+        if (trace == null) { return attempt.apply(AttemptTrace.NOOP); }
+
+        return Mono.defer(() -> {
+            final AttemptTrace attemptTrace = trace.startAttempt(number);
+
+            return
+            attempt.apply(attemptTrace)
+                   .doOnSuccess((ignored) -> attemptTrace.finish(SignalType.ON_COMPLETE))
+                   .doOnError((exception) -> {
+                       attemptTrace.failed(exception);
+                       attemptTrace.finish(SignalType.ON_ERROR);
+                   })
+                   .doOnCancel(() -> attemptTrace.finish(SignalType.CANCEL))
+                   .contextWrite((downstream) ->
+                       downstream.put(ObservationThreadLocalAccessor.KEY, attemptTrace.observation));
+        });
+    }
+
+    /** 邮件的大致大小（正文与附件的字节数），用作观测属性。*/
+    private static long sizeOf(@NotNull EmailContent content)
+    {
+        final String text       = content.getTextBody();
+        final byte[] attachment = content.getAttachmentData();
+
+        return
+        (text == null ? 0L : text.getBytes(StandardCharsets.UTF_8).length) +
+        (attachment == null ? 0L : attachment.length);
+    }
+
+    /** 一封邮件的追踪：email.send 观测与正在进行的退避等待。*/
+    static final class SendTrace
+    {
+        private final Observation observation;
+
+        /** 正在进行的退避等待（访问时需要持有本对象的锁）*/
+        private @Nullable Observation backoff;
+
+        private boolean finished = false;
+
+        private SendTrace(@NotNull Observation observation) {
+            this.observation = observation;
+        }
+
+        /** 记录一次重试，并开始退避等待。*/
+        synchronized void
+        retrying(long retry, @NotNull String reason)
+        {
+            this.observation.event(
+                Observation.Event.of("email.retry", "retry " + retry + ", reason " + reason)
+            );
+
+            this.stopBackoff();
+
+            this.backoff
+                = Observation.createNotStarted(BACKOFF, this.observation.getObservationRegistry())
+                             .parentObservation(this.observation)
+                             .lowCardinalityKeyValue("email.retry.reason", reason)
+                             .start();
+        }
+
+        private synchronized @NotNull AttemptTrace
+        startAttempt(int number)
+        {
+            this.stopBackoff();
+
+            return new
+            AttemptTrace(
+                Observation.createNotStarted(ATTEMPT, this.observation.getObservationRegistry())
+                           .parentObservation(this.observation)
+                           .lowCardinalityKeyValue("email.attempt", String.valueOf(number))
+                           .start()
+            );
+        }
+
+        private synchronized void
+        finish(@NotNull SignalType signal)
+        {
+            if (this.finished) { return; }
+
+            this.finished = true;
+            this.stopBackoff();
+
+            this.observation
+                .lowCardinalityKeyValue("email.outcome", outcomeOf(signal))
+                .stop();
+        }
+
+        private void stopBackoff()
+        {
+            if (this.backoff != null)
+            {
+                this.backoff.stop();
+                this.backoff = null;
+            }
+        }
+    }
+
+    /**
+     * 一次尝试的追踪：email.send.attempt 观测与当前阶段。
+     * 阶段依次进行，进入下一个阶段时结束上一个阶段，
+     * 阶段可能在订阅线程与 boundedElastic 线程上切换，因此访问时需要持有本对象的锁。
+     */
+    static final class AttemptTrace
+    {
+        /** 未开启追踪时使用的空实现 */
+        static final AttemptTrace NOOP = new AttemptTrace(Observation.NOOP);
+
+        private final Observation observation;
+
+        private @Nullable Observation phase;
+
+        /** 尝试是否已经结束（被取消的尝试仍可能在 boundedElastic 线程上继续进入阶段）*/
+        private boolean finished = false;
+
+        private AttemptTrace(@NotNull Observation observation) {
+            this.observation = observation;
+        }
+
+        /** 结束当前阶段并进入下一个阶段。*/
+        void enter(@NotNull String phaseName)
+        {
+            if (this == NOOP) { return; }
+
+            synchronized (this)
+            {
+                if (this.finished) { return; }
+
+                this.stopPhase(null);
+
+                this.phase
+                    = Observation.createNotStarted(phaseName, this.observation.getObservationRegistry())
+                                 .parentObservation(this.observation)
+                                 .start();
+            }
+        }
+
+        /** 记录目标服务器（直连 MX 投递时）。*/
+        void destination(@NotNull String host)
+        {
+            if (this == NOOP) { return; }
+
+            this.observation.highCardinalityKeyValue("email.destination", host);
+        }
+
+        /** 记录服务器的最终应答码（成功时为 DATA 的应答码）。*/
+        void replyCode(int code)
+        {
+            if (this == NOOP || code <= 0) { return; }
+
+            this.observation.lowCardinalityKeyValue("smtp.reply.code", String.valueOf(code));
+        }
+
+        /**
+         * 在当前线程上打开尝试观测的作用域（阻塞发送在 boundedElastic 线程上执行时使用），
+         * 关闭作用域时恢复线程原来的观测。
+         */
+        @NotNull Observation.Scope
+        openScope() { return this.observation.openScope(); }
+
+        private void failed(@NotNull Throwable failure)
+        {
+            if (this == NOOP) { return; }
+
+            final SmtpReply reply = SmtpReply.from(failure);
+
+            if (reply != null) {
+                this.replyCode(reply.code());
+            }
+
+            synchronized (this) {
+                this.stopPhase(failure);
+            }
+
+            this.observation.error(failure);
+        }
+
+        private void finish(@NotNull SignalType signal)
+        {
+            if (this == NOOP) { return; }
+
+            synchronized (this)
+            {
+                if (this.finished) { return; }
+
+                this.finished = true;
+                this.stopPhase(null);
+            }
+
+            this.observation
+                .lowCardinalityKeyValue("email.outcome", outcomeOf(signal))
+                .stop();
+        }
+
+        private void stopPhase(@Nullable Throwable failure)
+        {
+            if (this.phase == null) { return; }
+
+            if (failure != null) {
+                this.phase.error(failure);
+            }
+
+            this.phase.stop();
+            this.phase = null;
+        }
+    }
+
+    private static @NotNull String
+    outcomeOf(@NotNull SignalType signal)
+    {
+        return
+        switch (signal)
+        {
+            case ON_COMPLETE -> "success";
+            case ON_ERROR    -> "failure";
+            default          -> "cancelled";
+        };
+    }
+}
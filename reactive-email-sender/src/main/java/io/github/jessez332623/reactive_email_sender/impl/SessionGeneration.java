@@ -0,0 +1,42 @@
+package io.github.jessez332623.reactive_email_sender.impl;
+
+import io.github.jessez332623.reactive_email_sender.transport.SmtpTransportPool;
+import jakarta.mail.Session;
+import lombok.Getter;
+
+import java.util.Properties;
+
+/**
+ * <p>一代发件凭据：授权码、会话属性，以及由它们创建的 {@link Session} 和连接池。</p>
+ *
+ * <p>
+ *     实例创建后不可变，凭据刷新时整体替换成新的一代，
+ *     每次发送开始时取当前代，因此在途的发送始终使用旧连接完成，
+ *     新的发送则使用新的连接。
+ * </p>
+ */
+@Getter
+final class SessionGeneration
+{
+    /** 邮箱服务授权码 */
+    private final String serviceAuthCode;
+
+    /** 邮件配置属性（只读副本）*/
+    private final Properties mailProperties;
+
+    /** 由上述属性和授权码创建的会话 */
+    private final Session session;
+
+    /** 与会话绑定的连接池 */
+    private final SmtpTransportPool transportPool;
+
+    SessionGeneration(
+        String serviceAuthCode, Properties mailProperties,
+        Session session, SmtpTransportPool transportPool)
+    {
+        this.serviceAuthCode = serviceAuthCode;
+        this.mailProperties  = mailProperties;
+        this.session         = session;
+        this.transportPool   = transportPool;
+    }
+}
@@ -0,0 +1,124 @@
+package io.github.jessez332623.reactive_email_sender.impl;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * 一次发送尝试采用的传输方式，由服务器在 EHLO 中声明的扩展与配置共同决定。
+ *
+ * @param eightBitBody 正文是否以 8bit 原样传输（服务器支持 8BITMIME）
+ * @param utf8Headers  头部是否以 UTF-8 原样传输（服务器支持 SMTPUTF8）
+ */
+record TransferMode(boolean eightBitBody, boolean utf8Headers)
+{
+    /** 传统的传输方式：正文使用 Base64 / QP，头部使用 RFC 2047 编码。*/
+    static final TransferMode ENCODED = new TransferMode(false, false);
+
+    /** SMTP 规定的单行最大长度（不含 CRLF）*/
+    private static final int MAX_LINE_OCTETS = 998;
+
+    /** RFC 2047 编码字中除去编码数据以外的开销（"=?UTF-8?B?" 与 "?="）*/
+    private static final int ENCODED_WORD_OVERHEAD = 12;
+
+    /** 单个编码字中编码数据的最大长度 */
+    private static final int ENCODED_WORD_PAYLOAD = 60;
+
+    /**
+     * 文本是否值得并且能够以 8bit 原样传输：
+     * 含有非 ASCII 字符（纯 ASCII 本来就是 7bit），每行不超过 998 字节，且不含 NUL 与孤立的 CR。
+     */
+    static boolean
+    eightBitEligible(@NotNull String text)
+    {
+        boolean nonAscii  = false;
+        int     lineBytes = 0;
+
+        for (int index = 0; index < text.length(); ++index)
+        {
+            final char current = text.charAt(index);
+
+            if (current == '\n')
+            {
+                lineBytes = 0;
+                continue;
+            }
+
+            if (current == '\0') { return false; }
+
+            if (current == '\r')
+            {
+                if (index + 1 >= text.length() || text.charAt(index + 1) != '\n') {
+                    return false;
+                }
+
+                continue;
+            }
+
+            if (current < 0x80) {
+                ++lineBytes;
+            }
+            else
+            {
+                nonAscii = true;
+
+                // 代理对的两个 char 合计 4 字节
+                lineBytes += (current < 0x800) ? 2 : (Character.isSurrogate(current) ? 2 : 3);
+            }
+
+            if (lineBytes > MAX_LINE_OCTETS) { return false; }
+        }
+
+        return nonAscii;
+    }
+
+    /** 头部是否含有非 ASCII 字符（需要 SMTPUTF8 才能原样传输）。*/
+    static boolean
+    hasNonAscii(@NotNull String text)
+    {
+        for (int index = 0; index < text.length(); ++index)
+        {
+            if (text.charAt(index) >= 0x80) { return true; }
+        }
+
+        return false;
+    }
+
+    /**
+     * 估算 jakarta.mail 默认编码后的正文大小：
+     * 非 ASCII 字节占多数时为 Base64（每 76 个字符换行），否则为 quoted-printable。
+     */
+    static long
+    encodedBodySize(byte @NotNull [] utf8)
+    {
+        long nonAscii = 0L;
+
+        for (byte current : utf8)
+        {
+            if (current < 0) { ++nonAscii; }
+        }
+
+        final long ascii = utf8.length - nonAscii;
+
+        if (nonAscii > ascii)
+        {
+            final long base64 = (utf8.length + 2L) / 3L * 4L;
+
+            return base64 + (base64 + 75L) / 76L * 2L;
+        }
+
+        // quoted-printable：非 ASCII 字节编码为 =XX，每 76 个字符插入一个软换行（=CRLF）
+        final long encoded = ascii + nonAscii * 3L;
+
+        return encoded + encoded / 73L * 3L;
+    }
+
+    /** 估算头部值按 RFC 2047（B 编码）编码后的大小。*/
+    static long
+    encodedWordSize(byte @NotNull [] utf8)
+    {
+        final long base64 = (utf8.length + 2L) / 3L * 4L;
+        final long words  = Math.max((base64 + ENCODED_WORD_PAYLOAD - 1L) / ENCODED_WORD_PAYLOAD, 1L);
+
+        // 编码字之间以 CRLF + 空格折叠
+        return base64 + words * ENCODED_WORD_OVERHEAD + (words - 1L) * 3L;
+    }
+}
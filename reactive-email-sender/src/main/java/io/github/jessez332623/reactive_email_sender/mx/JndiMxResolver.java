@@ -0,0 +1,165 @@
+package io.github.jessez332623.reactive_email_sender.mx;
+
+import io.github.jessez332623.reactive_email_sender.exception.EmailException;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+
+import javax.naming.Context;
+import javax.naming.NameNotFoundException;
+import javax.naming.NamingEnumeration;
+import javax.naming.NamingException;
+import javax.naming.directory.Attribute;
+import javax.naming.directory.Attributes;
+import javax.naming.directory.DirContext;
+import javax.naming.directory.InitialDirContext;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static io.github.jessez332623.reactive_email_sender.exception.EmailException.ErrorType.NETWORK_ISSUE;
+import static java.lang.String.format;
+
+/**
+ * <p>通过 JNDI 查询 DNS 的 MX 解析器（JDK 自带，无需额外依赖）。</p>
+ *
+ * <ul>
+ *     <li>结果按优先级排序，并在 ttl 内缓存（包括域不存在这样的否定结果）；</li>
+ *     <li>域存在但没有 MX 记录时，按 RFC 5321 以域本身作为隐式 MX；</li>
+ *     <li>空 MX（RFC 7505，"0 ."）表示该域不接收邮件，返回空列表；</li>
+ *     <li>查询超时等暂时性错误不缓存，以 NETWORK_ISSUE 抛出交给重试。</li>
+ * </ul>
+ */
+@Slf4j
+public class JndiMxResolver implements MxResolver
+{
+    /** 解析结果与过期时间 */
+    private record Cached(List<MxRecord> records, long expiresAt) {}
+
+    /** 缓存的域数上限（超过后先清理过期的条目，仍然超过则清空）*/
+    private static final int MAX_CACHED_DOMAINS = 10_000;
+
+    /** 缓存时长（单位：毫秒）*/
+    private final long ttl;
+
+    private final Map<String, Cached> cache = new ConcurrentHashMap<>();
+
+    /** 使用默认 5 分钟的缓存时长。*/
+    public JndiMxResolver() { this(Duration.ofMinutes(5L)); }
+
+    /** @param ttl 解析结果的缓存时长 */
+    public JndiMxResolver(@NotNull Duration ttl) {
+        this.ttl = ttl.toMillis();
+    }
+
+    @Override
+    public @NotNull List<MxRecord>
+    resolve(@NotNull String domain)
+    {
+        final long   now    = System.currentTimeMillis();
+        final Cached cached = this.cache.get(domain);
+
+        if (cached != null && cached.expiresAt() > now) {
+            return cached.records();
+        }
+
+        final List<MxRecord> records = this.lookup(domain);
+
+        if (this.cache.size() >= MAX_CACHED_DOMAINS)
+        {
+            this.cache.values().removeIf((entry) -> entry.expiresAt() <= now);
+
+            if (this.cache.size() >= MAX_CACHED_DOMAINS) {
+                this.cache.clear();
+            }
+        }
+
+        this.cache.put(domain, new Cached(records, now + this.ttl));
+
+        return records;
+    }
+
+    private @NotNull List<MxRecord>
+    lookup(@NotNull String domain)
+    {
+        final Hashtable<String, String> environment = new Hashtable<>();
+
+        environment.put(Context.INITIAL_CONTEXT_FACTORY, "com.sun.jndi.dns.DnsContextFactory");
+        environment.put(Context.PROVIDER_URL, "dns:");
+        environment.put("com.sun.jndi.dns.timeout.initial", "2000");
+        environment.put("com.sun.jndi.dns.timeout.retries", "2");
+
+        DirContext context = null;
+
+        try
+        {
+            context = new InitialDirContext(environment);
+
+            final Attributes attributes
+                = context.getAttributes(domain, new String[] {"MX"});
+
+            final Attribute mx = attributes.get("MX");
+
+            // 没有 MX 记录时以域本身作为隐式 MX（RFC 5321 5.1）
+            if (mx == null || mx.size() == 0) {
+                return List.of(new MxRecord(domain, 0));
+            }
+
+            final List<MxRecord>       records = new ArrayList<>(mx.size());
+            final NamingEnumeration<?> values  = mx.getAll();
+
+            while (values.hasMore())
+            {
+                final String[] fields = String.valueOf(values.next()).trim().split("\\s+");
+
+                if (fields.length != 2) { continue; }
+
+                final String host
+                    = fields[1].endsWith(".")
+                        ? fields[1].substring(0, fields[1].length() - 1)
+                        : fields[1];
+
+                // 空 MX（RFC 7505）：该域明确表示不接收邮件
+                if (host.isEmpty()) { return List.of(); }
+
+                try {
+                    records.add(new MxRecord(host.toLowerCase(Locale.ROOT), Integer.parseInt(fields[0])));
+                }
+                catch (NumberFormatException exception) {
+                    log.debug("Ignore malformed MX record of {}: {}", domain, fields[0]);
+                }
+            }
+
+            records.sort(Comparator.comparingInt(MxRecord::preference));
+
+            return List.copyOf(records);
+        }
+        catch (NameNotFoundException exception) {
+            return List.of();
+        }
+        catch (NamingException exception)
+        {
+            throw new
+            EmailException(
+                NETWORK_ISSUE,
+                format("Resolve MX of %s failed!", domain), exception
+            );
+        }
+        finally
+        {
+            if (context != null)
+            {
+                try {
+                    context.close();
+                }
+                catch (NamingException exception) {
+                    log.debug("Close DNS context failed: {}", exception.getMessage());
+                }
+            }
+        }
+    }
+}
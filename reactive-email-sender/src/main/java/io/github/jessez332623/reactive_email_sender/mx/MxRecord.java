@@ -0,0 +1,20 @@
+package io.github.jessez332623.reactive_email_sender.mx;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * 一条 MX 记录：接收某个域邮件的服务器。
+ *
+ * @param host       服务器域名
+ * @param preference 优先级（越小越优先）
+ * @param port       SMTP 端口（真实的 MX 记录不带端口，固定为 25，测试时可以指定其他端口）
+ */
+public record MxRecord(@NotNull String host, int preference, int port)
+{
+    /** SMTP 服务器之间投递使用的标准端口 */
+    public static final int SMTP_PORT = 25;
+
+    public MxRecord(@NotNull String host, int preference) {
+        this(host, preference, SMTP_PORT);
+    }
+}
@@ -0,0 +1,31 @@
+package io.github.jessez332623.reactive_email_sender.mx;
+
+import io.github.jessez332623.reactive_email_sender.exception.EmailException;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * <p>收件域到 MX 服务器的解析接口（直连 MX 投递模式使用）。</p>
+ *
+ * <p>
+ *     默认实现为 {@link JndiMxResolver}（查询 DNS），
+ *     测试或内网环境可以使用 {@link StaticMxResolver} 给出固定的映射。
+ *     解析允许阻塞，发送器会把调用放到 boundedElastic 线程池执行。
+ * </p>
+ */
+@FunctionalInterface
+public interface MxResolver
+{
+    /**
+     * 解析收件域的 MX 服务器。
+     *
+     * @param domain 收件域（小写，如 example.com）
+     *
+     * @throws EmailException 解析暂时失败时以 NETWORK_ISSUE 抛出（之后会重试）
+     *
+     * @return 该域的 MX 服务器，域不存在或不接收邮件时返回空列表
+     */
+    @NotNull List<MxRecord>
+    resolve(@NotNull String domain);
+}
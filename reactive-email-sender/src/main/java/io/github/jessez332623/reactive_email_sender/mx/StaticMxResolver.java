@@ -0,0 +1,31 @@
+package io.github.jessez332623.reactive_email_sender.mx;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/** 固定映射的 MX 解析器，用于测试（配合本地的 SMTP 服务）或内网环境。*/
+public class StaticMxResolver implements MxResolver
+{
+    private final Map<String, List<MxRecord>> records;
+
+    /** @param records 收件域（不区分大小写）到 MX 服务器的映射，没有列出的域视为不接收邮件 */
+    public StaticMxResolver(@NotNull Map<String, List<MxRecord>> records)
+    {
+        final Map<String, List<MxRecord>> copy = new HashMap<>();
+
+        records.forEach((domain, servers) ->
+            copy.put(domain.toLowerCase(Locale.ROOT), List.copyOf(servers)));
+
+        this.records = Map.copyOf(copy);
+    }
+
+    @Override
+    public @NotNull List<MxRecord>
+    resolve(@NotNull String domain) {
+        return this.records.getOrDefault(domain.toLowerCase(Locale.ROOT), List.of());
+    }
+}
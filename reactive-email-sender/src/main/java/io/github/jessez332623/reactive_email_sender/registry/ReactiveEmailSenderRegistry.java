@@ -0,0 +1,422 @@
+package io.github.jessez332623.reactive_email_sender.registry;
+
+import io.github.jessez332623.reactive_email_sender.ReactiveEmailSender;
+import io.github.jessez332623.reactive_email_sender.dto.EmailContent;
+import io.github.jessez332623.reactive_email_sender.dto.ShutdownReport;
+import io.github.jessez332623.reactive_email_sender.exception.EmailException;
+import io.github.jessez332623.reactive_email_sender.impl.DefaultReactiveEmailSenderImpl;
+import io.github.jessez332623.reactive_email_sender.impl.DefaultReactiveEmailSenderImpl.EmailSenderBuilder;
+import io.github.jessez332623.reactive_email_sender.transport.SendPermits;
+import io.github.jessez332623.reactive_email_sender.utils.EmailAddressMasker;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static io.github.jessez332623.reactive_email_sender.exception.EmailException.ErrorType.CONFIG_MISSING;
+import static io.github.jessez332623.reactive_email_sender.exception.EmailException.ErrorType.SENDER_CLOSED;
+import static java.lang.String.format;
+
+/**
+ * <p>多租户邮件发送器注册表，每个租户拥有各自的 SMTP 账户、会话、连接池与并发限制。</p>
+ *
+ * <ul>
+ *     <li>
+ *         懒创建：租户第一次发送时才通过 {@link TenantConfigLoader} 加载配置并创建发送器，
+ *         同一租户的并发首次发送只会加载一次；
+ *     </li>
+ *     <li>
+ *         LRU 淘汰：空闲超过 idleTimeout 的租户、以及租户数超过 maxTenants 时最久未使用的租户
+ *         会被关闭并移出注册表（有在途发送的租户不会被淘汰），下次使用时重新创建；
+ *     </li>
+ *     <li>
+ *         全局连接上限：所有租户的连接池共享 maxTotalConnections 个公平的连接许可；
+ *     </li>
+ *     <li>
+ *         租户隔离：每个租户同时执行的发送尝试数不超过它的连接数，
+ *         积压的尝试以非阻塞的方式排队（超过 maxQueuedSends 时拒绝），
+ *         许可只在单次尝试期间占用，退避等待重试的发送不占用许可，
+ *         繁忙的租户既占不满 boundedElastic 线程池，也占不满全局连接许可。
+ *     </li>
+ * </ul>
+ */
+@Slf4j
+public class ReactiveEmailSenderRegistry
+{
+    /** 注册表中的一个租户 */
+    private static final class Tenant
+    {
+        final String tenantId;
+
+        /** 租户的发送器（首次订阅时加载，之后复用）*/
+        final Mono<DefaultReactiveEmailSenderImpl> sender;
+
+        /** 在途的发送数，访问 tenants 时在锁内增加 */
+        final AtomicInteger inFlight = new AtomicInteger();
+
+        /** 最近一次使用的时间（Unix 毫秒时间戳）*/
+        volatile long lastUsed = System.currentTimeMillis();
+
+        Tenant(String tenantId, Mono<DefaultReactiveEmailSenderImpl> sender)
+        {
+            this.tenantId = tenantId;
+            this.sender   = sender;
+        }
+    }
+
+    private final TenantConfigLoader configLoader;
+
+    /** 提供所有租户共用策略（重试、超时、附件压缩等）的发送器生成器 */
+    private final Supplier<EmailSenderBuilder> senderTemplate;
+
+    /** 最多同时保留的租户数 */
+    @Getter
+    private final int maxTenants;
+
+    /** 租户空闲多久后被淘汰 */
+    @Getter
+    private final Duration idleTimeout;
+
+    /** 所有租户合计的最大连接数 */
+    @Getter
+    private final int maxTotalConnections;
+
+    /** 每个租户最多排队等待的发送尝试数 */
+    @Getter
+    private final int maxQueuedSends;
+
+    /** 淘汰租户时等待其在途发送结束的期限 */
+    private final Duration shutdownTimeout;
+
+    /** 所有租户共享的连接许可 */
+    private final Semaphore connectionPermits;
+
+    /** 租户（按访问顺序排列，队首为最久未使用的租户），访问时需要持有它的锁 */
+    private final
+    LinkedHashMap<String, Tenant> tenants = new LinkedHashMap<>(16, 0.75F, true);
+
+    /** 定时淘汰空闲租户的任务 */
+    private final Disposable idleSweeper;
+
+    private volatile boolean closed = false;
+
+    /**
+     * 多租户邮件发送器注册表的构造。
+     *
+     * @param configLoader        租户配置加载器
+     * @param senderTemplate      提供共用策略的发送器生成器（每次调用返回一个新的生成器），
+     *                            SMTP 账户与会话属性由注册表按租户配置填写
+     * @param maxTenants          最多同时保留的租户数
+     * @param idleTimeout         租户空闲多久后被淘汰
+     * @param maxTotalConnections 所有租户合计的最大连接数
+     * @param maxQueuedSends      每个租户最多排队等待的发送尝试数
+     * @param shutdownTimeout     淘汰租户时等待其在途发送结束的期限
+     */
+    public ReactiveEmailSenderRegistry(
+        @NotNull TenantConfigLoader configLoader,
+        @NotNull Supplier<EmailSenderBuilder> senderTemplate,
+        int maxTenants, @NotNull Duration idleTimeout,
+        int maxTotalConnections, int maxQueuedSends,
+        @NotNull Duration shutdownTimeout)
+    {
+        if (maxTenants <= 0 || maxTotalConnections <= 0 || maxQueuedSends < 0) {
+            throw new IllegalArgumentException("Invalid tenant registry limits!");
+        }
+
+        if (idleTimeout.isNegative() || idleTimeout.isZero()) {
+            throw new IllegalArgumentException("Idle timeout must be positive!");
+        }
+
+        this.configLoader        = configLoader;
+        this.senderTemplate      = senderTemplate;
+        this.maxTenants          = maxTenants;
+        this.idleTimeout         = idleTimeout;
+        this.maxTotalConnections = maxTotalConnections;
+        this.maxQueuedSends      = maxQueuedSends;
+        this.shutdownTimeout     = shutdownTimeout;
+        this.connectionPermits   = new Semaphore(maxTotalConnections, true);
+
+        // 每隔空闲期限的一半（最长 1 分钟）检查一次，租户最多多保留半个空闲期限
+        final Duration sweepInterval
+            = Duration.ofMillis(Math.max(Math.min(idleTimeout.toMillis() / 2L, 60_000L), 1L));
+
+        this.idleSweeper
+            = Flux.interval(sweepInterval, sweepInterval)
+                  .onBackpressureDrop()
+                  .subscribe((tick) -> this.evictIdle());
+    }
+
+    /**
+     * 以指定租户的身份发送邮件。
+     *
+     * @throws EmailException 租户不存在（CONFIG_MISSING）、
+     *                        租户排队的发送过多（RATE_LIMITED）、
+     *                        注册表已关闭（SENDER_CLOSED）或发送失败时抛出
+     */
+    public Mono<Void>
+    sendEmail(@NotNull String tenantId, @NotNull EmailContent emailContent)
+    {
+        return Mono.defer(() -> {
+            final Tenant       tenant;
+            final List<Tenant> evicted = new ArrayList<>();
+
+            synchronized (this.tenants)
+            {
+                if (this.closed)
+                {
+                    return
+                    Mono.error(
+                        new EmailException(
+                            SENDER_CLOSED,
+                            format(
+                                "Email sender registry already closed, reject email to %s.",
+                                EmailAddressMasker.mask(emailContent.getTo())
+                            )
+                        )
+                    );
+                }
+
+                tenant = this.tenants.computeIfAbsent(tenantId, this::newTenant);
+                tenant.inFlight.incrementAndGet();
+                tenant.lastUsed = System.currentTimeMillis();
+
+                this.collectOverflow(evicted);
+            }
+
+            evicted.forEach(this::retire);
+
+            return
+            tenant.sender
+                .flatMap((sender) -> sender.sendEmail(emailContent))
+                .doFinally((signal) -> {
+                    tenant.lastUsed = System.currentTimeMillis();
+                    tenant.inFlight.decrementAndGet();
+                });
+        });
+    }
+
+    /** 取得以指定租户身份发送邮件的 {@link ReactiveEmailSender} 视图（不会立即创建租户的发送器）。*/
+    public @NotNull ReactiveEmailSender
+    forTenant(@NotNull String tenantId)
+    {
+        return (emailContent) -> this.sendEmail(tenantId, emailContent);
+    }
+
+    /**
+     * 立即淘汰指定租户（如租户的 SMTP 账户发生了变化），
+     * 之后的发送会重新加载配置，在途的发送仍由旧的发送器完成。
+     *
+     * @return 发布旧发送器关闭报告的 {@link Mono}，租户不在注册表中时为空
+     */
+    public Mono<ShutdownReport>
+    evict(@NotNull String tenantId)
+    {
+        return Mono.defer(() -> {
+            final Tenant tenant;
+
+            synchronized (this.tenants) {
+                tenant = this.tenants.remove(tenantId);
+            }
+
+            return
+            Objects.isNull(tenant)
+                ? Mono.empty()
+                : this.shutdownTenant(tenant, this.shutdownTimeout);
+        });
+    }
+
+    /** 注册表中当前的租户数。*/
+    public int getTenantCount()
+    {
+        synchronized (this.tenants) {
+            return this.tenants.size();
+        }
+    }
+
+    /** 所有租户当前借出的连接数。*/
+    public int getActiveConnections() {
+        return this.maxTotalConnections - this.connectionPermits.availablePermits();
+    }
+
+    /**
+     * 关闭注册表：停止接受新的发送，并在 timeout 内关闭所有租户的发送器。
+     *
+     * @return 发布汇总后的关闭报告的 {@link Mono}
+     */
+    public Mono<ShutdownReport>
+    shutdown(@NotNull Duration timeout)
+    {
+        return Mono.defer(() -> {
+            final long         startTime = System.currentTimeMillis();
+            final List<Tenant> remaining;
+
+            synchronized (this.tenants)
+            {
+                this.closed = true;
+                remaining   = new ArrayList<>(this.tenants.values());
+                this.tenants.clear();
+            }
+
+            this.idleSweeper.dispose();
+
+            return
+            Flux.fromIterable(remaining)
+                .flatMap((tenant) -> this.shutdownTenant(tenant, timeout))
+                .collectList()
+                .map((reports) ->
+                    new ShutdownReport(
+                        reports.stream().allMatch(ShutdownReport::isDrained),
+                        System.currentTimeMillis() - startTime,
+                        reports.stream()
+                               .flatMap((report) -> report.getUndelivered().stream())
+                               .toList()
+                    )
+                );
+        });
+    }
+
+    /** 以 shutdownTimeout 为期限同步关闭注册表（供容器销毁时调用）。*/
+    public void close()
+    {
+        final ShutdownReport report
+            = this.shutdown(this.shutdownTimeout).block();
+
+        if (Objects.nonNull(report) && !report.isDrained())
+        {
+            log.warn(
+                "Email sender registry shutdown timeout, {} email(s) undelivered.",
+                report.getUndelivered().size()
+            );
+        }
+    }
+
+    /** 创建租户：配置在首次订阅时加载，加载失败的租户会被移出注册表，下次发送时重试。*/
+    private @NotNull Tenant
+    newTenant(@NotNull String tenantId)
+    {
+        final Tenant[] created = new Tenant[1];
+
+        final Mono<DefaultReactiveEmailSenderImpl> sender
+            = Mono.fromCallable(() -> this.createSender(tenantId))
+                  .subscribeOn(Schedulers.boundedElastic())
+                  .doOnError((exception) -> {
+                      synchronized (this.tenants) {
+                          this.tenants.remove(tenantId, created[0]);
+                      }
+                  })
+                  .cache();
+
+        created[0] = new Tenant(tenantId, sender);
+
+        return created[0];
+    }
+
+    private @NotNull DefaultReactiveEmailSenderImpl
+    createSender(@NotNull String tenantId)
+    {
+        final TenantSenderConfig config = this.configLoader.load(tenantId);
+
+        if (Objects.isNull(config))
+        {
+            throw new
+            EmailException(
+                CONFIG_MISSING,
+                format("No sender config for tenant %s!", tenantId)
+            );
+        }
+
+        final DefaultReactiveEmailSenderImpl sender
+            = this.senderTemplate.get()
+                .smtpHost(config.getSmtpHost())
+                .smtpPort(config.getSmtpPort())
+                .enterPriceEmailAddress(config.getSenderEmail())
+                .serviceAuthCode(config.getAuthCode())
+                .sharedConnectionPermits(this.connectionPermits)
+                .sendPermits(
+                    new SendPermits("Tenant " + tenantId, config.getMaxConnections(), this.maxQueuedSends))
+                .setDefaultSessionProperties()
+                .addProperties(config.getSessionProps())
+                .addProperty("mail.smtp.connectionpoolsize", String.valueOf(config.getMaxConnections()))
+                .build();
+
+        log.debug("Sender of tenant {} created ({}).", tenantId, config);
+
+        return sender;
+    }
+
+    /** 租户数超过上限时，从最久未使用的租户开始移出没有在途发送的租户（调用时需持有 tenants 的锁）。*/
+    private void collectOverflow(@NotNull List<Tenant> evicted)
+    {
+        final Iterator<Tenant> eldest = this.tenants.values().iterator();
+
+        while (this.tenants.size() > this.maxTenants && eldest.hasNext())
+        {
+            final Tenant tenant = eldest.next();
+
+            if (tenant.inFlight.get() == 0)
+            {
+                eldest.remove();
+                evicted.add(tenant);
+            }
+        }
+    }
+
+    /** 移出空闲超过 idleTimeout 且没有在途发送的租户。*/
+    private void evictIdle()
+    {
+        final long         expiredBefore = System.currentTimeMillis() - this.idleTimeout.toMillis();
+        final List<Tenant> evicted       = new ArrayList<>();
+
+        synchronized (this.tenants)
+        {
+            final Iterator<Tenant> iterator = this.tenants.values().iterator();
+
+            while (iterator.hasNext())
+            {
+                final Tenant tenant = iterator.next();
+
+                if (tenant.inFlight.get() == 0 && tenant.lastUsed < expiredBefore)
+                {
+                    iterator.remove();
+                    evicted.add(tenant);
+                }
+            }
+        }
+
+        evicted.forEach(this::retire);
+    }
+
+    /** 在后台关闭被淘汰的租户。*/
+    private void retire(@NotNull Tenant tenant)
+    {
+        this.shutdownTenant(tenant, this.shutdownTimeout)
+            .subscribe(
+                (report) -> log.debug("Tenant {} evicted, drained = {}.", tenant.tenantId, report.isDrained()),
+                (exception) -> log.warn("Shutdown sender of tenant {} failed!", tenant.tenantId, exception)
+            );
+    }
+
+    /** 关闭租户的发送器，配置加载失败（从未创建发送器）的租户直接返回空报告。*/
+    private @NotNull Mono<ShutdownReport>
+    shutdownTenant(@NotNull Tenant tenant, @NotNull Duration timeout)
+    {
+        return
+        tenant.sender
+            .onErrorResume((exception) -> Mono.empty())
+            .flatMap((sender) -> sender.shutdown(timeout))
+            .defaultIfEmpty(new ShutdownReport(true, 0L, List.of()));
+    }
+}
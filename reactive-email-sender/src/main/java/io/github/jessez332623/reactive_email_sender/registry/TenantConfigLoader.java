@@ -0,0 +1,26 @@
+package io.github.jessez332623.reactive_email_sender.registry;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * <p>租户发件配置加载接口，由用户实现（如从数据库或配置中心查询）。</p>
+ *
+ * <p>
+ *     只在租户的发送器第一次被使用（或被淘汰后再次使用）时调用，
+ *     允许阻塞，注册表会把调用放到 boundedElastic 线程池执行。
+ * </p>
+ */
+@FunctionalInterface
+public interface TenantConfigLoader
+{
+    /**
+     * 加载指定租户的发件配置。
+     *
+     * @param tenantId 租户标识
+     *
+     * @return 租户的发件配置，租户不存在时返回 null
+     */
+    @Nullable TenantSenderConfig
+    load(@NotNull String tenantId);
+}
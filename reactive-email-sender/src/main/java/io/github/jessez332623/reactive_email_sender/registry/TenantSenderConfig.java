@@ -0,0 +1,41 @@
+package io.github.jessez332623.reactive_email_sender.registry;
+
+import lombok.*;
+
+import java.util.Map;
+
+/**
+ * <p>单个租户的发件配置，由 {@link TenantConfigLoader} 按租户加载。</p>
+ *
+ * <p>
+ *     重试、超时、附件压缩等策略对所有租户相同，
+ *     这里只包含每个租户各自的 SMTP 账户与连接数。
+ * </p>
+ */
+@Data
+@Builder
+@NoArgsConstructor(access  = AccessLevel.PRIVATE)
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class TenantSenderConfig
+{
+    /** 租户的发件邮箱 */
+    private String senderEmail;
+
+    /** 租户的邮箱服务授权码 */
+    @ToString.Exclude
+    private String authCode;
+
+    /** 租户的 SMTP 服务器域名 */
+    private String smtpHost;
+
+    /** 租户的 SMTP 服务器端口 */
+    private int smtpPort;
+
+    /** 该租户最多同时占用的 SMTP 连接数（默认为 10）*/
+    @Builder.Default
+    private int maxConnections = 10;
+
+    /** 该租户额外的邮件会话属性 */
+    @Builder.Default
+    private Map<String, String> sessionProps = Map.of();
+}
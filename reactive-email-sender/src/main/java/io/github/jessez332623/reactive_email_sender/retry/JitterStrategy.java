@@ -0,0 +1,65 @@
+package io.github.jessez332623.reactive_email_sender.retry;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * <p>指数退避的抖动策略。</p>
+ *
+ * <p>
+ *     没有抖动时，同一时刻因为中继故障而失败的邮件会在同样的时刻一起重试，
+ *     中继恢复的瞬间就会被重试洪峰再次打垮。抖动把重试分散到整个退避区间内。
+ *     下表中 t = min(cap, base * 2^n)，n 为已经重试的次数：
+ * </p>
+ *
+ * <pre>
+ *     NONE          t
+ *     FULL          random(0, t)
+ *     EQUAL         t / 2 + random(0, t / 2)
+ *     DECORRELATED  min(cap, random(base, previous * 3))
+ * </pre>
+ */
+public enum JitterStrategy
+{
+    /** 不抖动，严格按指数增长。*/
+    NONE,
+
+    /** 完全抖动：在 [0, t] 内均匀取值，分散效果最好。*/
+    FULL,
+
+    /** 等量抖动：保留一半的退避时间，另一半随机。*/
+    EQUAL,
+
+    /** 去相关抖动：基于上一次的实际等待时间随机增长。*/
+    DECORRELATED;
+
+    /**
+     * 计算下一次重试前的等待时间（单位：毫秒）。
+     *
+     * @param retries  已经重试的次数（从 0 开始）
+     * @param base     起始退避时间
+     * @param cap      封顶退避时间
+     * @param previous 上一次的实际等待时间（第一次重试时为 0）
+     */
+    public long nextDelay(long retries, long base, long cap, long previous)
+    {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        // 左移会溢出时直接取封顶值
+        final long exponential
+            = (retries >= Long.numberOfLeadingZeros(base) - 1)
+                ? cap
+                : Math.min(cap, base << retries);
+
+        return switch (this)
+        {
+            case NONE  -> exponential;
+            case FULL  -> random.nextLong(exponential + 1);
+            case EQUAL -> exponential / 2 + random.nextLong(exponential / 2 + 1);
+            case DECORRELATED ->
+                Math.min(
+                    cap,
+                    random.nextLong(base, Math.max(base, Math.max(previous, base) * 3) + 1)
+                );
+        };
+    }
+}
@@ -0,0 +1,153 @@
+package io.github.jessez332623.reactive_email_sender.retry;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static java.lang.String.format;
+
+/**
+ * <p>全局重试预算。</p>
+ *
+ * <p>
+ *     单封邮件各自决定要不要重试，在中继故障时所有待发邮件都会重试，
+ *     使中继上的负载成倍放大。重试预算限制最近一个时间窗口内的重试总数：
+ * </p>
+ *
+ * <pre>
+ *     允许的重试数 = minRetriesPerSecond * 窗口秒数 + ratio * 窗口内的首次发送数
+ * </pre>
+ *
+ * <p>
+ *     预算耗尽后失败的邮件直接放弃重试（交给死信存储），
+ *     这样恢复期的重试洪峰被压在一个固定比例之内。
+ *     计数按时间分桶存放在 {@link AtomicLongArray} 中，记录与检查都不加锁，
+ *     并发下允许有极少量的超额。
+ * </p>
+ */
+public final class RetryBudget
+{
+    /** 时间窗口被切分成多少个桶 */
+    private static final int BUCKETS = 10;
+
+    /** 重试数最多可以占首次发送数的比例 */
+    @Getter
+    private final double ratio;
+
+    /** 与流量无关的保底重试速率（单位：次 / 秒）*/
+    @Getter
+    private final int minRetriesPerSecond;
+
+    /** 时间窗口长度（单位：毫秒）*/
+    @Getter
+    private final long windowMillis;
+
+    /** 每个桶覆盖的时长（单位：毫秒）*/
+    private final long bucketMillis;
+
+    /** 每个桶当前对应的时间片编号 */
+    private final AtomicLongArray bucketEpochs = new AtomicLongArray(BUCKETS);
+
+    /** 每个桶内的首次发送数 */
+    private final AtomicLongArray sends = new AtomicLongArray(BUCKETS);
+
+    /** 每个桶内的重试数 */
+    private final AtomicLongArray retries = new AtomicLongArray(BUCKETS);
+
+    /**
+     * @param ratio               重试数最多可以占首次发送数的比例（如 0.2 表示 20%）
+     * @param minRetriesPerSecond 保底重试速率（单位：次 / 秒）
+     * @param windowSeconds       统计窗口长度（单位：秒）
+     */
+    public RetryBudget(double ratio, int minRetriesPerSecond, long windowSeconds)
+    {
+        if (ratio < 0.0 || minRetriesPerSecond < 0 || windowSeconds <= 0L)
+        {
+            throw new IllegalArgumentException(
+                format(
+                    "Invalid retry budget: ratio = %s, minRetriesPerSecond = %d, window = %d s.",
+                    ratio, minRetriesPerSecond, windowSeconds
+                )
+            );
+        }
+
+        this.ratio               = ratio;
+        this.minRetriesPerSecond = minRetriesPerSecond;
+        this.windowMillis        = windowSeconds * 1000L;
+        this.bucketMillis        = Math.max(1L, this.windowMillis / BUCKETS);
+
+        for (int index = 0; index < BUCKETS; ++index) {
+            this.bucketEpochs.set(index, -1L);
+        }
+    }
+
+    /** 不做任何限制的重试预算（保持每封邮件各自决定重试的行为）。*/
+    public static RetryBudget unlimited() {
+        return new RetryBudget(Double.POSITIVE_INFINITY, 0, 1L);
+    }
+
+    /** 取当前时间片对应的桶，桶内是过期的时间片时先清零。*/
+    private int currentBucket(long now)
+    {
+        final long epoch = now / this.bucketMillis;
+        final int  index = (int) (epoch % BUCKETS);
+        final long old   = this.bucketEpochs.get(index);
+
+        if (old != epoch && this.bucketEpochs.compareAndSet(index, old, epoch))
+        {
+            this.sends.set(index, 0L);
+            this.retries.set(index, 0L);
+        }
+
+        return index;
+    }
+
+    /** 对窗口内仍然有效的桶求和。*/
+    private long sum(AtomicLongArray counters, long now)
+    {
+        final long oldestEpoch = (now - this.windowMillis) / this.bucketMillis;
+        long total = 0L;
+
+        for (int index = 0; index < BUCKETS; ++index)
+        {
+            if (this.bucketEpochs.get(index) > oldestEpoch) {
+                total += counters.get(index);
+            }
+        }
+
+        return total;
+    }
+
+    /** 记录一次首次发送。*/
+    public void recordSend()
+    {
+        if (Double.isInfinite(this.ratio)) { return; }
+
+        this.sends.incrementAndGet(this.currentBucket(System.currentTimeMillis()));
+    }
+
+    /**
+     * 尝试从预算中申请一次重试。
+     *
+     * @return 预算充足时返回 true 并记账，否则返回 false
+     */
+    public boolean tryAcquireRetry()
+    {
+        if (Double.isInfinite(this.ratio)) { return true; }
+
+        final long now    = System.currentTimeMillis();
+        final int  bucket = this.currentBucket(now);
+
+        final double allowed
+            = this.minRetriesPerSecond * (this.windowMillis / 1000.0)
+            + this.ratio * this.sum(this.sends, now);
+
+        if (this.sum(this.retries, now) + 1 > allowed) {
+            return false;
+        }
+
+        this.retries.incrementAndGet(bucket);
+
+        return true;
+    }
+}
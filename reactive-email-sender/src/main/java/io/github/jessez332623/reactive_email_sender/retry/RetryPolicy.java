@@ -0,0 +1,120 @@
+package io.github.jessez332623.reactive_email_sender.retry;
+
+import lombok.Getter;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+import reactor.util.retry.Retry.RetrySignal;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import static java.lang.String.format;
+
+/**
+ * <p>邮件发送的重试策略：指数退避 + 抖动 + 全局重试预算。</p>
+ *
+ * <p>
+ *     与 {@link Retry#backoff(long, Duration)} 相比，
+ *     抖动算法可以选择（见 {@link JitterStrategy}），
+ *     并且每次重试前都要先向共享的 {@link RetryBudget} 申请额度，
+ *     额度不足时不再重试，直接以最近一次的失败结束。
+ * </p>
+ */
+@Getter
+public final class RetryPolicy
+{
+    /** 最大重试次数 */
+    private final long maxRetries;
+
+    /** 起始退避时间 */
+    private final Duration startBackoff;
+
+    /** 封顶退避时间 */
+    private final Duration maxBackoff;
+
+    /** 抖动策略 */
+    private final JitterStrategy jitter;
+
+    /** 全局重试预算（同一个发送器上的所有邮件共享）*/
+    private final RetryBudget budget;
+
+    public RetryPolicy(
+        long maxRetries,
+        @NotNull Duration startBackoff, @NotNull Duration maxBackoff,
+        @NotNull JitterStrategy jitter, @NotNull RetryBudget budget)
+    {
+        this.maxRetries   = maxRetries;
+        this.startBackoff = startBackoff;
+        this.maxBackoff   = maxBackoff;
+        this.jitter       = jitter;
+        this.budget       = budget;
+    }
+
+    /**
+     * 为一封邮件构建 Reactor 的 {@link Retry}，
+     * 每次订阅（即每封邮件）都有独立的退避状态，预算则是全局共享的。
+     *
+     * @param retryable   哪些错误值得重试
+     * @param beforeRetry 每次重试之前的回调（用于记录日志）
+     */
+    @Contract("_, _ -> new")
+    public @NotNull Retry
+    toRetry(
+        @NotNull Predicate<Throwable>   retryable,
+        @NotNull Consumer<RetrySignal>  beforeRetry)
+    {
+        final long base = this.startBackoff.toMillis();
+        final long cap  = Math.max(base, this.maxBackoff.toMillis());
+
+        return Retry.from((signals) -> {
+            // 去相关抖动需要记住上一次的实际等待时间
+            final long[] previousDelay = {0L};
+
+            return
+            signals.concatMap((signal) -> {
+                final Throwable failure = signal.failure();
+
+                if (!retryable.test(failure)) {
+                    return Mono.error(failure);
+                }
+
+                if (signal.totalRetries() >= this.maxRetries)
+                {
+                    return Mono.error(
+                        Exceptions.retryExhausted(
+                            format("Retries exhausted: %d/%d", signal.totalRetries(), this.maxRetries),
+                            failure
+                        )
+                    );
+                }
+
+                if (!this.budget.tryAcquireRetry())
+                {
+                    return Mono.error(
+                        Exceptions.retryExhausted(
+                            format(
+                                "Retry budget exhausted after %d retries (ratio = %s)",
+                                signal.totalRetries(), this.budget.getRatio()
+                            ),
+                            failure
+                        )
+                    );
+                }
+
+                final long delay
+                    = this.jitter.nextDelay(
+                        signal.totalRetries(), base, cap, previousDelay[0]
+                    );
+
+                previousDelay[0] = delay;
+                beforeRetry.accept(signal.copy());
+
+                return Mono.delay(Duration.ofMillis(delay));
+            });
+        });
+    }
+}
@@ -0,0 +1,334 @@
+package io.github.jessez332623.reactive_email_sender.schedule;
+
+import io.github.jessez332623.reactive_email_sender.ReactiveEmailSender;
+import io.github.jessez332623.reactive_email_sender.dto.EmailContent;
+import io.github.jessez332623.reactive_email_sender.exception.EmailException;
+import io.github.jessez332623.reactive_email_sender.utils.EmailAddressMasker;
+import io.github.jessez332623.reactive_email_sender.utils.EmailFormatVerifier;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.github.jessez332623.reactive_email_sender.exception.EmailException.ErrorType.SENDER_CLOSED;
+
+/**
+ * <p>定时邮件调度器，在指定时刻把邮件交给发送器发送（如提醒、摘要邮件）。</p>
+ *
+ * <ul>
+ *     <li>
+ *         定时由一个分层时间轮管理，内存中每封定时邮件只占编号与发送时刻两个 long，
+ *         不为每封邮件持有一个定时任务；
+ *     </li>
+ *     <li>
+ *         邮件内容（包括附件）在到期之前放在 {@link ScheduledEmailStore} 中，
+ *         使用 {@link FileScheduledEmailStore} 时定时可以跨进程重启保留；
+ *     </li>
+ *     <li>
+ *         每个刻度到期的邮件作为一批取出，以不超过 maxConcurrentSends 的并发读出内容并发送，
+ *         发送成功或最终失败（已由发送器保存为死信）后从存储中删除，
+ *         发送器已关闭时保留在存储中，下次启动时重新定时。
+ *     </li>
+ * </ul>
+ */
+@Slf4j
+public class EmailScheduler implements AutoCloseable
+{
+    private final ReactiveEmailSender sender;
+
+    private final ScheduledEmailStore store;
+
+    /** 到期邮件的最大并发发送数 */
+    private final int maxConcurrentSends;
+
+    /** 时间轮的刻度（单位：毫秒）*/
+    private final long tickMillis;
+
+    /** 日志中的收件人是否脱敏 */
+    private final boolean maskRecipients;
+
+    /** 时间轮（访问时需要持有它的锁）*/
+    private final TimingWheel wheel;
+
+    /** 编号生成器，以毫秒时间戳左移 16 位为起点，重启后不会与存储中的编号重复 */
+    private final AtomicLong idSequence = new AtomicLong(System.currentTimeMillis() << 16);
+
+    /** 每个刻度到期的一批邮件（只由时间轮线程发出）*/
+    private final Sinks.Many<List<ScheduledEmail>> dueBatches
+        = Sinks.many().unicast().onBackpressureBuffer();
+
+    /** 推进时间轮的线程 */
+    private Scheduler ticker;
+
+    private Disposable ticking;
+
+    private Disposable dispatching;
+
+    /** 恢复期间新增的定时编号，恢复时跳过它们，避免同一封邮件被放入时间轮两次 */
+    private final Set<Long> scheduledDuringRecovery = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean recovering = false;
+
+    private volatile boolean started = false;
+
+    private volatile boolean closed = false;
+
+    /** 使用 1 秒的刻度。*/
+    public EmailScheduler(
+        @NotNull ReactiveEmailSender sender,
+        @NotNull ScheduledEmailStore store, int maxConcurrentSends)
+    {
+        this(sender, store, maxConcurrentSends, Duration.ofSeconds(1L));
+    }
+
+    /**
+     * @param sender             发送到期邮件的发送器
+     * @param store              定时邮件内容的存储
+     * @param maxConcurrentSends 到期邮件的最大并发发送数
+     * @param tick               时间轮的刻度，即定时的精度（邮件最多晚一个刻度发出）
+     */
+    public EmailScheduler(
+        @NotNull ReactiveEmailSender sender,
+        @NotNull ScheduledEmailStore store, int maxConcurrentSends, @NotNull Duration tick)
+    {
+        this(sender, store, maxConcurrentSends, tick, true);
+    }
+
+    /**
+     * @param sender             发送到期邮件的发送器
+     * @param store              定时邮件内容的存储
+     * @param maxConcurrentSends 到期邮件的最大并发发送数
+     * @param tick               时间轮的刻度，即定时的精度（邮件最多晚一个刻度发出）
+     * @param maskRecipients     日志中的收件人是否脱敏
+     */
+    public EmailScheduler(
+        @NotNull ReactiveEmailSender sender,
+        @NotNull ScheduledEmailStore store, int maxConcurrentSends,
+        @NotNull Duration tick, boolean maskRecipients)
+    {
+        if (maxConcurrentSends <= 0) {
+            throw new IllegalArgumentException("maxConcurrentSends must be positive!");
+        }
+
+        if (tick.toMillis() <= 0L) {
+            throw new IllegalArgumentException("tick must be at least 1 ms!");
+        }
+
+        this.sender             = sender;
+        this.store              = store;
+        this.maxConcurrentSends = maxConcurrentSends;
+        this.tickMillis         = tick.toMillis();
+        this.maskRecipients     = maskRecipients;
+        this.wheel              = new TimingWheel(this.tickMillis, System.currentTimeMillis());
+    }
+
+    /** 恢复存储中的定时邮件，并开始推进时间轮。*/
+    public synchronized void start()
+    {
+        if (this.ticking != null || this.closed) { return; }
+
+        this.dispatching
+            = this.dueBatches.asFlux()
+                  .flatMapIterable((batch) -> batch)
+                  .flatMap(this::dispatch, this.maxConcurrentSends)
+                  .subscribe();
+
+        this.ticker  = Schedulers.newSingle("email-scheduler", true);
+        this.ticking
+            = this.ticker.schedulePeriodically(
+                this::tick, this.tickMillis, this.tickMillis, TimeUnit.MILLISECONDS
+            );
+
+        this.recovering = true;
+        this.started    = true;
+
+        this.store.list()
+            .filter((email) -> !this.scheduledDuringRecovery.contains(email.id()))
+            .doOnNext((email) -> {
+                this.idSequence.accumulateAndGet(email.id(), Math::max);
+
+                synchronized (this.wheel) {
+                    this.wheel.add(email.id(), email.dueAt());
+                }
+            })
+            .count()
+            .doFinally((signal) -> {
+                this.recovering = false;
+                this.scheduledDuringRecovery.clear();
+            })
+            .subscribe(
+                (recovered) -> {
+                    if (recovered > 0L) {
+                        log.info("Recovered {} scheduled email(s).", recovered);
+                    }
+                },
+                (exception) ->
+                    log.error("Recover scheduled emails failed!", exception)
+            );
+    }
+
+    /**
+     * 定时发送一封邮件，sendAt 早于当前时刻时在下一个刻度发出。
+     *
+     * @param emailContent 邮件内容
+     * @param sendAt       计划发送的时刻
+     *
+     * @throws EmailException 收件地址格式错误（INVALID_CONTENT），或调度器尚未启动、已关闭（SENDER_CLOSED）
+     *
+     * @return 发布定时邮件句柄（可用于取消）的 {@link Mono}，内容保存完毕后才发布
+     */
+    public Mono<ScheduledEmail>
+    scheduleEmail(@NotNull EmailContent emailContent, @NotNull Instant sendAt)
+    {
+        return
+        EmailFormatVerifier
+            .isValid(emailContent.getTo())
+            .then(Mono.defer(() -> {
+                if (!this.started || this.closed)
+                {
+                    return Mono.error(
+                        new EmailException(
+                            SENDER_CLOSED,
+                            this.closed ? "Email scheduler already closed!" : "Email scheduler not started!"
+                        )
+                    );
+                }
+
+                final ScheduledEmail email
+                    = new ScheduledEmail(this.idSequence.incrementAndGet(), sendAt.toEpochMilli());
+
+                // 先登记再保存，恢复过程中列出该文件时能够识别并跳过
+                if (this.recovering) {
+                    this.scheduledDuringRecovery.add(email.id());
+                }
+
+                return
+                this.store.save(email, emailContent)
+                    .then(Mono.fromSupplier(() -> {
+                        synchronized (this.wheel) {
+                            this.wheel.add(email.id(), email.dueAt());
+                        }
+
+                        return email;
+                    }));
+            }));
+    }
+
+    /**
+     * 取消一封定时邮件（删除存储中的内容，到期时不再发送）。
+     *
+     * @return 发布是否取消成功的 {@link Mono}，邮件已经发出或已被取消时为 false
+     */
+    public Mono<Boolean>
+    cancel(@NotNull ScheduledEmail email) { return this.store.remove(email); }
+
+    /** 时间轮中尚未到期的定时数（已取消但尚未到期的定时仍计算在内）。*/
+    public int getPendingCount()
+    {
+        synchronized (this.wheel) {
+            return this.wheel.size();
+        }
+    }
+
+    /** 停止推进时间轮，尚未到期的定时保留在存储中。*/
+    @Override
+    public synchronized void close()
+    {
+        if (this.closed) { return; }
+
+        this.closed = true;
+
+        if (this.ticking != null)
+        {
+            this.ticking.dispose();
+            this.ticker.dispose();
+            this.dispatching.dispose();
+        }
+
+        final int pending = this.getPendingCount();
+
+        if (pending > 0 && this.store instanceof InMemoryScheduledEmailStore)
+        {
+            log.warn(
+                "Email scheduler closed with {} pending email(s) in memory, they will be lost.",
+                pending
+            );
+        }
+    }
+
+    /** 推进时间轮，取出到期的一批邮件。*/
+    private void tick()
+    {
+        try
+        {
+            final List<ScheduledEmail> due = new ArrayList<>();
+
+            synchronized (this.wheel) {
+                this.wheel.advance(System.currentTimeMillis(), due);
+            }
+
+            if (!due.isEmpty()) {
+                this.dueBatches.tryEmitNext(due);
+            }
+        }
+        catch (RuntimeException exception) {
+            log.error("Advance email scheduler failed!", exception);
+        }
+    }
+
+    /** 读出到期邮件的内容并发送（已取消的邮件读不到内容，直接跳过）。*/
+    private @NotNull Mono<Void>
+    dispatch(@NotNull ScheduledEmail email)
+    {
+        return
+        this.store.load(email)
+            .flatMap((content) ->
+                this.sender.sendEmail(content)
+                    .then(this.store.remove(email))
+                    .onErrorResume((exception) -> {
+                        if (exception instanceof EmailException emailException &&
+                            emailException.getErrorType() == SENDER_CLOSED)
+                        {
+                            log.warn(
+                                "Sender closed, keep scheduled email {} to {}.",
+                                email.id(), this.recipient(content.getTo())
+                            );
+                            return Mono.empty();
+                        }
+
+                        log.warn(
+                            "Scheduled email {} to {} failed: {}",
+                            email.id(), this.recipient(content.getTo()), exception.getMessage()
+                        );
+
+                        return this.store.remove(email);
+                    }))
+            .onErrorResume((exception) -> {
+                log.error("Load scheduled email {} failed!", email.id(), exception);
+                return Mono.empty();
+            })
+            .then();
+    }
+
+    /** 日志中输出的收件人（开启脱敏时只保留首字母与域名）*/
+    private @NotNull String
+    recipient(@NotNull String address)
+    {
+        return
+        (this.maskRecipients)
+            ? EmailAddressMasker.mask(address)
+            : address;
+    }
+}
@@ -0,0 +1,163 @@
+package io.github.jessez332623.reactive_email_sender.schedule;
+
+import io.github.jessez332623.reactive_email_sender.dto.EmailContent;
+import io.github.jessez332623.reactive_email_sender.utils.EmailContentCodec;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * <p>基于本地文件的定时邮件存储，每封定时邮件保存为一个文件。</p>
+ *
+ * <p>
+ *     文件名为 “发送时刻-编号.se”，并按编号的低 8 位分散到 256 个子目录中，
+ *     启动时只需要列出文件名即可恢复所有定时，不必读取邮件内容。
+ *     文件内容采用紧凑的二进制格式（见 {@link EmailContentCodec}），
+ *     先写临时文件再原子重命名，所有文件操作都在 boundedElastic 调度器上执行。
+ * </p>
+ */
+@Slf4j
+public class FileScheduledEmailStore implements ScheduledEmailStore
+{
+    /** 文件格式版本号 */
+    private static final byte FORMAT_VERSION = 1;
+
+    /** 定时邮件文件的扩展名 */
+    private static final String SUFFIX = ".se";
+
+    /** 定时邮件文件所在的目录 */
+    @Getter
+    private final Path directory;
+
+    public FileScheduledEmailStore(@NotNull Path directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public Mono<Void>
+    save(@NotNull ScheduledEmail email, @NotNull EmailContent content)
+    {
+        return
+        Mono.<Void>fromCallable(() -> {
+            final Path target = this.pathOf(email);
+
+            Files.createDirectories(target.getParent());
+
+            final Path temporary = target.resolveSibling(email.id() + ".tmp");
+
+            try (DataOutputStream output
+                     = new DataOutputStream(
+                         new BufferedOutputStream(Files.newOutputStream(temporary))))
+            {
+                output.writeByte(FORMAT_VERSION);
+                EmailContentCodec.write(output, content);
+            }
+
+            Files.move(
+                temporary, target,
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING
+            );
+
+            return null;
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Mono<EmailContent>
+    load(@NotNull ScheduledEmail email)
+    {
+        return
+        Mono.fromCallable(() -> {
+            final Path path = this.pathOf(email);
+
+            try (DataInputStream input
+                     = new DataInputStream(
+                         new BufferedInputStream(Files.newInputStream(path))))
+            {
+                final byte version = input.readByte();
+
+                if (version != FORMAT_VERSION) {
+                    throw new IOException("Unsupported scheduled email format version: " + version);
+                }
+
+                return EmailContentCodec.read(input, Files.size(path));
+            }
+            catch (NoSuchFileException exception) {
+                return null;    // 已被取消
+            }
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Mono<Boolean>
+    remove(@NotNull ScheduledEmail email)
+    {
+        return
+        Mono.fromCallable(() -> Files.deleteIfExists(this.pathOf(email)))
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Flux<ScheduledEmail>
+    list()
+    {
+        return
+        Flux.defer(() -> {
+            if (!Files.isDirectory(this.directory)) {
+                return Flux.empty();
+            }
+
+            return
+            Flux.using(
+                () -> Files.find(
+                    this.directory, 2,
+                    (path, attributes) ->
+                        attributes.isRegularFile() &&
+                        path.getFileName().toString().endsWith(SUFFIX)),
+                (Stream<Path> paths) ->
+                    Flux.fromStream(paths.map(FileScheduledEmailStore::parse).filter(Objects::nonNull)),
+                Stream::close
+            );
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private @NotNull Path
+    pathOf(@NotNull ScheduledEmail email)
+    {
+        return
+        this.directory
+            .resolve(String.format("%02x", email.id() & 0xFF))
+            .resolve(email.dueAt() + "-" + email.id() + SUFFIX);
+    }
+
+    /** 由文件名解析出定时邮件，文件名不合法时返回 null。*/
+    private static @Nullable ScheduledEmail
+    parse(@NotNull Path path)
+    {
+        final String name = path.getFileName().toString();
+        final int    dash = name.indexOf('-');
+
+        try
+        {
+            return new
+            ScheduledEmail(
+                Long.parseLong(name.substring(dash + 1, name.length() - SUFFIX.length())),
+                Long.parseLong(name.substring(0, dash))
+            );
+        }
+        catch (NumberFormatException | IndexOutOfBoundsException exception)
+        {
+            log.warn("Ignore unrecognized scheduled email file {}.", path);
+            return null;
+        }
+    }
+}
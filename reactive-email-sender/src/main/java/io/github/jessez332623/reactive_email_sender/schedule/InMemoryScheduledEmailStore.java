@@ -0,0 +1,46 @@
+package io.github.jessez332623.reactive_email_sender.schedule;
+
+import io.github.jessez332623.reactive_email_sender.dto.EmailContent;
+import org.jetbrains.annotations.NotNull;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>进程内的定时邮件存储。</p>
+ *
+ * <p>
+ *     邮件内容一直保留在堆内存中，进程重启后全部丢失，
+ *     适合数量不多、发送时刻较近的定时邮件（如几分钟后的提醒）。
+ * </p>
+ */
+public class InMemoryScheduledEmailStore implements ScheduledEmailStore
+{
+    private final Map<ScheduledEmail, EmailContent> contents = new ConcurrentHashMap<>();
+
+    @Override
+    public Mono<Void>
+    save(@NotNull ScheduledEmail email, @NotNull EmailContent content)
+    {
+        return
+        Mono.fromRunnable(() -> this.contents.put(email, content));
+    }
+
+    @Override
+    public Mono<EmailContent>
+    load(@NotNull ScheduledEmail email) {
+        return Mono.fromSupplier(() -> this.contents.get(email));
+    }
+
+    @Override
+    public Mono<Boolean>
+    remove(@NotNull ScheduledEmail email) {
+        return Mono.fromSupplier(() -> this.contents.remove(email) != null);
+    }
+
+    @Override
+    public Flux<ScheduledEmail>
+    list() { return Flux.defer(() -> Flux.fromIterable(this.contents.keySet())); }
+}
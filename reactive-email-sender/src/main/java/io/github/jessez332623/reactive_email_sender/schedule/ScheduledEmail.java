@@ -0,0 +1,18 @@
+package io.github.jessez332623.reactive_email_sender.schedule;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Instant;
+
+/**
+ * 一封定时邮件的句柄，由 {@link EmailScheduler#scheduleEmail} 返回，可用于取消。
+ *
+ * @param id    定时邮件编号
+ * @param dueAt 计划发送的时刻（Unix 毫秒时间戳）
+ */
+public record ScheduledEmail(long id, long dueAt)
+{
+    /** 计划发送的时刻。*/
+    public @NotNull Instant
+    dueInstant() { return Instant.ofEpochMilli(this.dueAt); }
+}
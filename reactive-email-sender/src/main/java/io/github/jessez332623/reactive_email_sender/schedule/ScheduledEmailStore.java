@@ -0,0 +1,39 @@
+package io.github.jessez332623.reactive_email_sender.schedule;
+
+import io.github.jessez332623.reactive_email_sender.dto.EmailContent;
+import org.jetbrains.annotations.NotNull;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * <p>定时邮件内容的存储 SPI。</p>
+ *
+ * <p>
+ *     {@link EmailScheduler} 在内存中只保留每封定时邮件的编号与发送时刻，
+ *     邮件内容（包括附件）在到期之前一直放在存储中，到期时才读出发送。
+ *     默认实现为进程内的 {@link InMemoryScheduledEmailStore}，
+ *     大量或需要跨重启保留的定时邮件应使用 {@link FileScheduledEmailStore}。
+ * </p>
+ */
+public interface ScheduledEmailStore
+{
+    /** 保存一封定时邮件的内容。*/
+    Mono<Void>
+    save(@NotNull ScheduledEmail email, @NotNull EmailContent content);
+
+    /** 读取定时邮件的内容，已被取消（或不存在）时发布空。*/
+    Mono<EmailContent>
+    load(@NotNull ScheduledEmail email);
+
+    /**
+     * 删除定时邮件的内容。
+     *
+     * @return 发布删除前是否存在的 {@link Mono}
+     */
+    Mono<Boolean>
+    remove(@NotNull ScheduledEmail email);
+
+    /** 列出存储中所有尚未发送的定时邮件（启动时据此恢复定时）。*/
+    Flux<ScheduledEmail>
+    list();
+}
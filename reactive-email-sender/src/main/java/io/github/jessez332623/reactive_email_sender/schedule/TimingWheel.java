@@ -0,0 +1,199 @@
+package io.github.jessez332623.reactive_email_sender.schedule;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>分层时间轮，保存定时邮件的编号与发送时刻（非线程安全，由调用方加锁）。</p>
+ *
+ * <p>
+ *     共 4 层，每层 512 个槽位，第 n 层的一个槽位覆盖 512^n 个刻度：
+ *     刻度为 1 秒时第 0 层覆盖约 8.5 分钟，第 1 层约 3 天，第 2 层约 4 年。
+ *     新增定时是 O(1) 的；时间每前进到某层槽位的边界，就把该槽位的条目重新放入更低的层，
+ *     到达第 0 层对应刻度的条目即为到期。超出最高层范围的条目留在最高层，轮转一圈后重新放置。
+ * </p>
+ *
+ * <p>
+ *     每个条目在槽位中只占两个 long（编号与发送时刻），不为每个条目创建对象，
+ *     百万级的定时只占用几十 MB 内存。
+ * </p>
+ */
+final class TimingWheel
+{
+    private static final int WHEEL_BITS = 9;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS     = 4;
+
+    /** 一个槽位，条目按（编号，发送时刻）成对存放 */
+    private static final class Bucket
+    {
+        private long[] entries = new long[8];
+
+        private int size = 0;
+
+        void add(long id, long dueAt)
+        {
+            if (this.size * 2 == this.entries.length) {
+                this.entries = Arrays.copyOf(this.entries, this.entries.length * 2);
+            }
+
+            this.entries[this.size * 2]     = id;
+            this.entries[this.size * 2 + 1] = dueAt;
+            ++this.size;
+        }
+    }
+
+    /** 刻度（单位：毫秒）*/
+    private final long tickMillis;
+
+    /** 各层的槽位（按需创建，清空后释放）*/
+    private final Bucket[][] buckets = new Bucket[LEVELS][WHEEL_SIZE];
+
+    /** 各层的条目数，推进时据此跳过没有条目的刻度 */
+    private final int[] levelSizes = new int[LEVELS];
+
+    /** 已经到期、等待下次推进时取出的条目 */
+    private Bucket ready = new Bucket();
+
+    /** 当前刻度（自 Unix 纪元起的刻度数）*/
+    private long currentTick;
+
+    /** 时间轮中的条目数 */
+    private int size = 0;
+
+    TimingWheel(long tickMillis, long now)
+    {
+        this.tickMillis  = tickMillis;
+        this.currentTick = now / tickMillis;
+    }
+
+    int size() { return this.size; }
+
+    /** 新增一个条目，发送时刻向上取整到刻度（宁可晚一个刻度也不提前发送）。*/
+    void add(long id, long dueAt)
+    {
+        this.place(id, dueAt);
+        ++this.size;
+    }
+
+    /** 把时间推进到 now，并把所有到期的条目追加到 due 中。*/
+    void advance(long now, @NotNull List<ScheduledEmail> due)
+    {
+        final long targetTick = now / this.tickMillis;
+
+        this.drainReady(due);
+
+        while (this.currentTick < targetTick)
+        {
+            // 没有条目时直接跳到目标刻度
+            if (this.size == 0)
+            {
+                this.currentTick = targetTick;
+                break;
+            }
+
+            // 低层没有条目时，直接跳到最低的非空层下一个槽位边界的前一刻度（长时间停顿后不必逐刻度推进）
+            int lowest = 0;
+
+            while (lowest < LEVELS - 1 && this.levelSizes[lowest] == 0) { ++lowest; }
+
+            if (lowest > 0)
+            {
+                final int  shift    = lowest * WHEEL_BITS;
+                final long boundary = ((this.currentTick >>> shift) + 1L) << shift;
+
+                this.currentTick = Math.max(this.currentTick, Math.min(targetTick, boundary) - 1L);
+
+                if (this.currentTick >= targetTick) { break; }
+            }
+
+            ++this.currentTick;
+
+            // 先从高层往低层逐层下放，下放的条目可能落入本刻度的第 0 层槽位
+            for (int level = LEVELS - 1; level >= 1; --level)
+            {
+                final int shift = level * WHEEL_BITS;
+
+                if ((this.currentTick & ((1L << shift) - 1L)) != 0L) { continue; }
+
+                final int    index  = (int) (this.currentTick >>> shift) & WHEEL_MASK;
+                final Bucket bucket = this.buckets[level][index];
+
+                if (bucket == null) { continue; }
+
+                this.buckets[level][index] = null;
+                this.levelSizes[level]    -= bucket.size;
+
+                for (int entry = 0; entry < bucket.size; ++entry) {
+                    this.place(bucket.entries[entry * 2], bucket.entries[entry * 2 + 1]);
+                }
+            }
+
+            final int    index  = (int) this.currentTick & WHEEL_MASK;
+            final Bucket bucket = this.buckets[0][index];
+
+            if (bucket != null)
+            {
+                this.buckets[0][index] = null;
+                this.levelSizes[0]    -= bucket.size;
+                this.collect(bucket, due);
+            }
+
+            this.drainReady(due);
+        }
+    }
+
+    private void place(long id, long dueAt)
+    {
+        final long dueTick = Math.ceilDiv(dueAt, this.tickMillis);
+
+        if (dueTick <= this.currentTick)
+        {
+            this.ready.add(id, dueAt);
+            return;
+        }
+
+        for (int level = 0; level < LEVELS; ++level)
+        {
+            final int shift = level * WHEEL_BITS;
+
+            if ((dueTick >>> shift) - (this.currentTick >>> shift) < WHEEL_SIZE || level == LEVELS - 1)
+            {
+                final int index = (int) (dueTick >>> shift) & WHEEL_MASK;
+
+                Bucket bucket = this.buckets[level][index];
+
+                if (bucket == null) {
+                    bucket = this.buckets[level][index] = new Bucket();
+                }
+
+                bucket.add(id, dueAt);
+                ++this.levelSizes[level];
+
+                return;
+            }
+        }
+    }
+
+    private void drainReady(@NotNull List<ScheduledEmail> due)
+    {
+        if (this.ready.size == 0) { return; }
+
+        final Bucket drained = this.ready;
+
+        this.ready = new Bucket();
+        this.collect(drained, due);
+    }
+
+    private void collect(@NotNull Bucket bucket, @NotNull List<ScheduledEmail> due)
+    {
+        for (int entry = 0; entry < bucket.size; ++entry) {
+            due.add(new ScheduledEmail(bucket.entries[entry * 2], bucket.entries[entry * 2 + 1]));
+        }
+
+        this.size -= bucket.size;
+    }
+}
@@ -0,0 +1,606 @@
+package io.github.jessez332623.reactive_email_sender.suppression;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.StampedLock;
+
+import static java.lang.String.format;
+
+/**
+ * <p>基于地址散列的进程内抑制列表，适合保存数百万个地址。</p>
+ *
+ * <ul>
+ *     <li>
+ *         只保存规范化地址（去掉首尾空白、转为小写）的 64 位散列，
+ *         存放在开放寻址（线性探测）的 long 数组中，每个地址约占 16 ~ 27 字节，
+ *         散列碰撞导致误判的概率在千万级地址下仍低于百万分之一；
+ *     </li>
+ *     <li>
+ *         可选的 Bloom 过滤器（约为散列表的 1/8 大小，更容易留在 CPU 缓存中）
+ *         先排除绝大多数不在列表中的地址，只有可能命中时才探测散列表；
+ *     </li>
+ *     <li>
+ *         查询不加锁、不分配对象（{@link StampedLock} 乐观读，与写入冲突时才退化为读锁），
+ *         增删操作持有写锁；
+ *     </li>
+ *     <li>
+ *         快照文件只包含散列（不含明文地址），通过内存映射整体读入，
+ *         写出时先写临时文件再原子重命名。
+ *     </li>
+ * </ul>
+ */
+@Slf4j
+public class HashedSuppressionList implements SuppressionList
+{
+    /** 快照文件的魔数（"RESS"）与格式版本号 */
+    private static final int  SNAPSHOT_MAGIC   = 0x52455353;
+    private static final byte SNAPSHOT_VERSION = 1;
+
+    /** 快照文件头的长度（魔数 + 版本号 + 条目数）*/
+    private static final int SNAPSHOT_HEADER_SIZE = Integer.BYTES + Byte.BYTES + Long.BYTES;
+
+    /** 散列表的最大负载因子，超过后容量翻倍 */
+    private static final double MAX_LOAD_FACTOR = 0.6;
+
+    /** 散列表的最大容量（2^27 个槽位，1 GB，约可容纳 8000 万个地址）*/
+    private static final int MAX_CAPACITY = 1 << 27;
+
+    /** Bloom 过滤器每个散列表槽位对应的比特数，以及每个地址设置的比特数 */
+    private static final int BLOOM_BITS_PER_SLOT = 8;
+    private static final int BLOOM_HASHES        = 7;
+
+    /** 批量载入时每持有一次写锁插入的条目数，避免长时间阻塞查询 */
+    private static final int LOAD_BATCH_SIZE = 65_536;
+
+    /** 空槽位的标记（散列值为 0 的地址改记为 1）*/
+    private static final long EMPTY = 0L;
+
+    private final StampedLock lock = new StampedLock();
+
+    /** 是否启用 Bloom 过滤器 */
+    private final boolean bloomFilter;
+
+    /** 开放寻址散列表，长度总是 2 的幂 */
+    private long[] table;
+
+    /** Bloom 过滤器的比特位（未启用时为 null），长度为散列表的 1/8 */
+    private long[] bloom;
+
+    private int size = 0;
+
+    /** 按 100 万个地址预分配，并启用 Bloom 过滤器。*/
+    public HashedSuppressionList() { this(1_000_000, true); }
+
+    /**
+     * @param expectedSize 预计的地址数（据此预分配，超出后自动扩容）
+     * @param bloomFilter  是否启用 Bloom 过滤器
+     */
+    public HashedSuppressionList(int expectedSize, boolean bloomFilter)
+    {
+        this.bloomFilter = bloomFilter;
+        this.table       = new long[capacityFor(Math.max(expectedSize, 1))];
+        this.bloom       = bloomFilter ? new long[this.table.length / (Long.SIZE / BLOOM_BITS_PER_SLOT)] : null;
+    }
+
+    /**
+     * 计算规范化地址（去掉首尾空白、转为小写）的 64 位散列，
+     * 逐字符处理，不创建中间字符串。
+     */
+    static long hash(@NotNull CharSequence address)
+    {
+        int start = 0;
+        int end   = address.length();
+
+        while (start < end && Character.isWhitespace(address.charAt(start))) { ++start; }
+        while (end > start && Character.isWhitespace(address.charAt(end - 1))) { --end; }
+
+        // FNV-1a
+        long hash = 0xCBF29CE484222325L;
+
+        for (int index = start; index < end; ++index)
+        {
+            char ch = address.charAt(index);
+
+            if (ch < 0x80) {
+                if (ch >= 'A' && ch <= 'Z') { ch += 'a' - 'A'; }
+            }
+            else {
+                ch = Character.toLowerCase(ch);
+            }
+
+            hash ^= ch;
+            hash *= 0x100000001B3L;
+        }
+
+        // MurmurHash3 的 fmix64，让低位（散列表下标）同样均匀
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+
+        return (hash == EMPTY) ? 1L : hash;
+    }
+
+    @Override
+    public boolean
+    isSuppressed(@NotNull CharSequence address) {
+        return this.containsHash(hash(address));
+    }
+
+    @Override
+    public boolean
+    add(@NotNull CharSequence address)
+    {
+        final long hash  = hash(address);
+        final long stamp = this.lock.writeLock();
+
+        try {
+            return this.insert(hash);
+        }
+        finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public boolean
+    remove(@NotNull CharSequence address)
+    {
+        final long hash  = hash(address);
+        final long stamp = this.lock.writeLock();
+
+        try {
+            return this.delete(hash);
+        }
+        finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public int size()
+    {
+        final long stamp = this.lock.readLock();
+
+        try {
+            return this.size;
+        }
+        finally {
+            this.lock.unlockRead(stamp);
+        }
+    }
+
+    /** 散列表与 Bloom 过滤器占用的内存（单位：字节）。*/
+    public long getMemoryBytes()
+    {
+        final long stamp = this.lock.readLock();
+
+        try
+        {
+            return
+            (long) this.table.length * Long.BYTES +
+            ((this.bloom == null) ? 0L : (long) this.bloom.length * Long.BYTES);
+        }
+        finally {
+            this.lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * 从文本文件载入地址（每行一个，忽略空行与 # 开头的注释行），与已有的地址合并。
+     *
+     * @return 新加入的地址数
+     */
+    public int loadAddresses(@NotNull Path file) throws IOException
+    {
+        int added = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8))
+        {
+            final long[] batch = new long[LOAD_BATCH_SIZE];
+            int          count = 0;
+            String       line;
+
+            while ((line = reader.readLine()) != null)
+            {
+                final String address = line.strip();
+
+                if (address.isEmpty() || address.startsWith("#")) { continue; }
+
+                batch[count++] = hash(address);
+
+                if (count == batch.length)
+                {
+                    added += this.insertAll(batch, count);
+                    count  = 0;
+                }
+            }
+
+            added += this.insertAll(batch, count);
+        }
+
+        return added;
+    }
+
+    /**
+     * 载入 {@link #writeSnapshot(Path)} 写出的快照，与已有的地址合并。
+     *
+     * @return 新加入的地址数
+     *
+     * @throws IOException 文件无法读取或格式错误
+     */
+    public int loadSnapshot(@NotNull Path file) throws IOException
+    {
+        final long startTime = System.currentTimeMillis();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            final long fileSize = channel.size();
+
+            if (fileSize < SNAPSHOT_HEADER_SIZE) {
+                throw new IOException(format("Suppression snapshot %s is truncated!", file));
+            }
+
+            final ByteBuffer mapped
+                = channel.map(FileChannel.MapMode.READ_ONLY, 0L, fileSize);
+
+            final int  magic   = mapped.getInt();
+            final byte version = mapped.get();
+            final long entries = mapped.getLong();
+
+            if (magic != SNAPSHOT_MAGIC || version != SNAPSHOT_VERSION)
+            {
+                throw new
+                IOException(
+                    format("%s is not a suppression snapshot (version %d)!", file, SNAPSHOT_VERSION)
+                );
+            }
+
+            if (entries < 0 || SNAPSHOT_HEADER_SIZE + entries * Long.BYTES != fileSize) {
+                throw new IOException(format("Suppression snapshot %s is truncated!", file));
+            }
+
+            this.ensureCapacity(entries);
+
+            final LongBuffer hashes = mapped.asLongBuffer();
+            final long[]     batch  = new long[(int) Math.min(entries, LOAD_BATCH_SIZE)];
+            int              added  = 0;
+
+            while (hashes.hasRemaining())
+            {
+                final int count = Math.min(hashes.remaining(), batch.length);
+
+                hashes.get(batch, 0, count);
+                added += this.insertAll(batch, count);
+            }
+
+            log.info(
+                "Loaded {} suppressed addresses from {} in {} ms.",
+                entries, file, System.currentTimeMillis() - startTime
+            );
+
+            return added;
+        }
+    }
+
+    /**
+     * 把当前的地址散列写出为快照（先写临时文件再原子重命名），
+     * 写出期间不阻塞查询与增删。
+     */
+    public void writeSnapshot(@NotNull Path file) throws IOException
+    {
+        final long[] copy;
+        final int    entries;
+
+        final long stamp = this.lock.readLock();
+
+        try
+        {
+            copy    = this.table.clone();
+            entries = this.size;
+        }
+        finally {
+            this.lock.unlockRead(stamp);
+        }
+
+        final Path parent = file.toAbsolutePath().getParent();
+
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        final Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+
+        try (DataOutputStream output
+                 = new DataOutputStream(
+                     new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16)))
+        {
+            output.writeInt(SNAPSHOT_MAGIC);
+            output.writeByte(SNAPSHOT_VERSION);
+            output.writeLong(entries);
+
+            for (long hash : copy)
+            {
+                if (hash != EMPTY) {
+                    output.writeLong(hash);
+                }
+            }
+        }
+
+        Files.move(
+            temporary, file,
+            StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING
+        );
+    }
+
+    /** 乐观读查询，与写入冲突时持有读锁重新查询。*/
+    private boolean containsHash(long hash)
+    {
+        long    stamp = this.lock.tryOptimisticRead();
+        boolean found = this.probe(hash);
+
+        if (!this.lock.validate(stamp))
+        {
+            stamp = this.lock.readLock();
+
+            try {
+                found = this.probe(hash);
+            }
+            finally {
+                this.lock.unlockRead(stamp);
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * 先查 Bloom 过滤器，再线性探测散列表。
+     * 乐观读期间数据可能正被修改，探测次数以表长为上限，结果由调用方校验后才使用。
+     */
+    private boolean probe(long hash)
+    {
+        final long[] bloom = this.bloom;
+
+        if (bloom != null && !mightContain(bloom, hash)) {
+            return false;
+        }
+
+        final long[] table = this.table;
+        final int    mask  = table.length - 1;
+        int          index = (int) hash & mask;
+
+        for (int probes = 0; probes < table.length; ++probes)
+        {
+            final long slot = table[index];
+
+            if (slot == hash)  { return true;  }
+            if (slot == EMPTY) { return false; }
+
+            index = (index + 1) & mask;
+        }
+
+        return false;
+    }
+
+    /** 在写锁内分批插入，返回新加入的条目数。*/
+    private int insertAll(long @NotNull [] hashes, int count)
+    {
+        if (count == 0) { return 0; }
+
+        final long stamp = this.lock.writeLock();
+
+        try
+        {
+            int added = 0;
+
+            for (int index = 0; index < count; ++index)
+            {
+                if (this.insert(hashes[index])) { ++added; }
+            }
+
+            return added;
+        }
+        finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    /** 预先扩容到能再容纳 additional 个条目，避免批量载入时反复扩容。*/
+    private void ensureCapacity(long additional)
+    {
+        final long stamp = this.lock.writeLock();
+
+        try
+        {
+            final int capacity = capacityFor(this.size + additional);
+
+            if (capacity > this.table.length) {
+                this.rehash(capacity);
+            }
+        }
+        finally {
+            this.lock.unlockWrite(stamp);
+        }
+    }
+
+    /** 需要持有写锁。*/
+    private boolean insert(long hash)
+    {
+        if (this.size + 1 > this.table.length * MAX_LOAD_FACTOR) {
+            this.rehash(this.table.length << 1);
+        }
+
+        if (!place(this.table, hash)) { return false; }
+
+        if (this.bloom != null) {
+            markBloom(this.bloom, hash);
+        }
+
+        ++this.size;
+
+        return true;
+    }
+
+    /**
+     * 需要持有写锁。线性探测表使用回移删除（不留墓碑），
+     * Bloom 过滤器无法删除比特位，残留的比特位只会让少数查询多探测一次散列表。
+     */
+    private boolean delete(long hash)
+    {
+        final long[] table = this.table;
+        final int    mask  = table.length - 1;
+        int          index = (int) hash & mask;
+
+        while (table[index] != hash)
+        {
+            if (table[index] == EMPTY) { return false; }
+
+            index = (index + 1) & mask;
+        }
+
+        // 把后续探测链上的条目前移填补空位
+        int hole = index;
+        int next = index;
+
+        while (true)
+        {
+            next = (next + 1) & mask;
+
+            final long slot = table[next];
+
+            if (slot == EMPTY) { break; }
+
+            final int home = (int) slot & mask;
+
+            // home 循环地落在 (hole, next] 之内时条目不能前移
+            final boolean stays
+                = (hole <= next)
+                    ? (hole < home && home <= next)
+                    : (hole < home || home <= next);
+
+            if (!stays)
+            {
+                table[hole] = slot;
+                hole        = next;
+            }
+        }
+
+        table[hole] = EMPTY;
+        --this.size;
+
+        return true;
+    }
+
+    /** 需要持有写锁。以新容量重建散列表与 Bloom 过滤器。*/
+    private void rehash(int capacity)
+    {
+        if (capacity > MAX_CAPACITY || capacity <= 0)
+        {
+            throw new
+            IllegalStateException(
+                format("Suppression list exceeds its max capacity (%d slots)!", MAX_CAPACITY)
+            );
+        }
+
+        final long[] table = new long[capacity];
+        final long[] bloom
+            = this.bloomFilter
+                ? new long[capacity / (Long.SIZE / BLOOM_BITS_PER_SLOT)]
+                : null;
+
+        for (long hash : this.table)
+        {
+            if (hash == EMPTY) { continue; }
+
+            place(table, hash);
+
+            if (bloom != null) {
+                markBloom(bloom, hash);
+            }
+        }
+
+        this.table = table;
+        this.bloom = bloom;
+    }
+
+    /** 把散列放入表中，已存在时返回 false。*/
+    private static boolean place(long @NotNull [] table, long hash)
+    {
+        final int mask  = table.length - 1;
+        int       index = (int) hash & mask;
+
+        while (table[index] != EMPTY)
+        {
+            if (table[index] == hash) { return false; }
+
+            index = (index + 1) & mask;
+        }
+
+        table[index] = hash;
+
+        return true;
+    }
+
+    /** Bloom 过滤器的比特位由散列再混合一次后双重散列得到，与散列表下标不相关。*/
+    private static void markBloom(long @NotNull [] bloom, long hash)
+    {
+        final long mixed = hash * 0x9E3779B97F4A7C15L;
+        final int  first = (int) (mixed >>> 32);
+        final int  step  = (int) mixed | 1;
+        final int  mask  = bloom.length * Long.SIZE - 1;
+
+        for (int round = 0; round < BLOOM_HASHES; ++round)
+        {
+            final int bit = (first + round * step) & mask;
+            bloom[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    private static boolean mightContain(long @NotNull [] bloom, long hash)
+    {
+        final long mixed = hash * 0x9E3779B97F4A7C15L;
+        final int  first = (int) (mixed >>> 32);
+        final int  step  = (int) mixed | 1;
+        final int  mask  = bloom.length * Long.SIZE - 1;
+
+        for (int round = 0; round < BLOOM_HASHES; ++round)
+        {
+            final int bit = (first + round * step) & mask;
+
+            if ((bloom[bit >>> 6] & (1L << bit)) == 0L) { return false; }
+        }
+
+        return true;
+    }
+
+    /** 负载因子不超过 MAX_LOAD_FACTOR 的最小 2 的幂容量（至少 64）。*/
+    private static int capacityFor(long entries)
+    {
+        final long needed = Math.max((long) Math.ceil(entries / MAX_LOAD_FACTOR), 64L);
+
+        if (needed > MAX_CAPACITY)
+        {
+            throw new
+            IllegalStateException(
+                format("Suppression list exceeds its max capacity (%d slots)!", MAX_CAPACITY)
+            );
+        }
+
+        return Integer.highestOneBit((int) needed - 1) << 1;
+    }
+}
@@ -0,0 +1,42 @@
+package io.github.jessez332623.reactive_email_sender.suppression;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * <p>收件人抑制列表 SPI（硬退信、退订等不应再投递的地址）。</p>
+ *
+ * <p>
+ *     发送器在校验收件地址格式之前查询本接口，命中的邮件以 SUPPRESSED 错误结束，
+ *     不会重试，也不会保存为死信。查询位于每封邮件的发送路径上，
+ *     实现应当足够快且不阻塞，默认实现为进程内的 {@link HashedSuppressionList}。
+ * </p>
+ */
+public interface SuppressionList
+{
+    /**
+     * 收件地址是否被抑制（比较前忽略首尾空白与大小写）。
+     *
+     * @param address 收件地址
+     */
+    boolean
+    isSuppressed(@NotNull CharSequence address);
+
+    /**
+     * 把地址加入抑制列表。
+     *
+     * @return 地址此前是否不在列表中
+     */
+    boolean
+    add(@NotNull CharSequence address);
+
+    /**
+     * 把地址移出抑制列表（如用户重新订阅）。
+     *
+     * @return 地址此前是否在列表中
+     */
+    boolean
+    remove(@NotNull CharSequence address);
+
+    /** 列表中的地址数。*/
+    int size();
+}
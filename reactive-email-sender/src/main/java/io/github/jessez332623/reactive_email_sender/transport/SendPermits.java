@@ -0,0 +1,152 @@
+package io.github.jessez332623.reactive_email_sender.transport;
+
+import io.github.jessez332623.reactive_email_sender.exception.EmailException;
+import org.jetbrains.annotations.NotNull;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static io.github.jessez332623.reactive_email_sender.exception.EmailException.ErrorType.RATE_LIMITED;
+import static java.lang.String.format;
+
+/**
+ * <p>非阻塞的发送许可（先来先得），用于限制一个租户或一个目标服务器同时执行的发送数。</p>
+ *
+ * <p>
+ *     发送器在 boundedElastic 线程上阻塞地借用连接，
+ *     如果某个繁忙租户（或某个缓慢的目标服务器）的积压发送全部直接提交，
+ *     会占满线程池，让其他发送连线程都拿不到。
+ *     因此同时执行的发送数不超过对应的连接数，
+ *     其余发送在这里以回调的形式排队等待（不占用线程），队列满时立即拒绝。
+ * </p>
+ */
+public final class SendPermits
+{
+    private static final int WAITING = 0;
+    private static final int GRANTED = 1;
+    private static final int DONE    = 2;
+
+    /** 一个等待许可的发送 */
+    private static final class Waiter
+    {
+        final AtomicInteger state = new AtomicInteger(WAITING);
+
+        MonoSink<Void> sink;
+    }
+
+    /** 许可所属对象的名称（用于错误信息，如 "Tenant a"）*/
+    private final String name;
+
+    /** 排队等待的发送数上限 */
+    private final int maxWaiting;
+
+    /** 剩余的许可数，访问时需要持有 waiters 的锁 */
+    private int available;
+
+    /** 等待许可的发送（先来先得）*/
+    private final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+
+    public SendPermits(@NotNull String name, int permits, int maxWaiting)
+    {
+        this.name       = name;
+        this.available  = permits;
+        this.maxWaiting = maxWaiting;
+    }
+
+    /**
+     * 取得许可后才订阅 body，body 结束、出错或被取消时归还许可。
+     * 排队期间被取消的发送直接离开队列，不会占用许可。
+     */
+    public <T> @NotNull Mono<T>
+    withPermit(@NotNull Supplier<Mono<T>> body)
+    {
+        return Mono.defer(() -> {
+            final Waiter waiter = new Waiter();
+
+            return
+            Mono.<Void>create((sink) -> this.enqueue(waiter, sink))
+                .then(Mono.defer(body))
+                .doFinally((signal) -> {
+                    if (waiter.state.getAndSet(DONE) == GRANTED) {
+                        this.release();
+                    }
+                    else
+                    {
+                        synchronized (this.waiters) {
+                            this.waiters.remove(waiter);
+                        }
+                    }
+                });
+        });
+    }
+
+    /** 正在排队等待的发送数。*/
+    public int getWaitingCount()
+    {
+        synchronized (this.waiters) {
+            return this.waiters.size();
+        }
+    }
+
+    private void
+    enqueue(@NotNull Waiter waiter, @NotNull MonoSink<Void> sink)
+    {
+        synchronized (this.waiters)
+        {
+            if (this.available > 0)
+            {
+                --this.available;
+                waiter.state.set(GRANTED);
+            }
+            else if (this.waiters.size() < this.maxWaiting)
+            {
+                waiter.sink = sink;
+                this.waiters.offerLast(waiter);
+                return;
+            }
+        }
+
+        // 在锁外发出信号，下游可能同步地开始发送
+        if (waiter.state.get() == GRANTED)
+        {
+            sink.success();
+            return;
+        }
+
+        sink.error(
+            new EmailException(
+                RATE_LIMITED,
+                format(
+                    "%s has too many pending emails! (MAX_QUEUED_SENDS = %d)",
+                    this.name, this.maxWaiting
+                )
+            )
+        );
+    }
+
+    /** 归还许可：优先交给队首仍在等待的发送，没有时许可数加一。*/
+    private void release()
+    {
+        Waiter next;
+
+        synchronized (this.waiters)
+        {
+            while ((next = this.waiters.pollFirst()) != null)
+            {
+                // 已被取消的发送状态为 DONE，跳过
+                if (next.state.compareAndSet(WAITING, GRANTED)) { break; }
+            }
+
+            if (next == null)
+            {
+                ++this.available;
+                return;
+            }
+        }
+
+        next.sink.success();
+    }
+}
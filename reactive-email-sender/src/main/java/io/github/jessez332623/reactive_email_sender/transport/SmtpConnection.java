@@ -0,0 +1,73 @@
+package io.github.jessez332623.reactive_email_sender.transport;
+
+import com.sun.mail.smtp.SMTPTransport;
+import jakarta.mail.Transport;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.util.Objects;
+
+/** 连接池中的一条 SMTP 连接：已连接的 {@link Transport} 及其底层 {@link Socket}。*/
+@Slf4j
+public final class SmtpConnection
+{
+    /** 已连接并完成认证的 Transport */
+    @Getter
+    private final Transport transport;
+
+    /** 底层 Socket（用户自定义了 socketFactory 时为 null）*/
+    private final @Nullable Socket socket;
+
+    /** 是否已被强制中止 */
+    @Getter
+    private volatile boolean aborted = false;
+
+    SmtpConnection(@NotNull Transport transport, @Nullable Socket socket)
+    {
+        this.transport = transport;
+        this.socket    = socket;
+    }
+
+    /** 服务器在 EHLO 应答中是否声明了指定的扩展（如 8BITMIME、SMTPUTF8）。*/
+    public boolean supportsExtension(@NotNull String extension)
+    {
+        return
+        this.transport instanceof SMTPTransport smtpTransport &&
+        smtpTransport.supportsExtension(extension);
+    }
+
+    /** 服务器最近一次应答的状态码（不是 SMTP 传输时为 0）。*/
+    public int getLastReplyCode()
+    {
+        return
+        (this.transport instanceof SMTPTransport smtpTransport)
+            ? smtpTransport.getLastReturnCode()
+            : 0;
+    }
+
+    /**
+     * 从任意线程强制中止这条连接：直接关闭底层 Socket，
+     * 阻塞在这条连接上读写的线程会立即因 IO 错误返回。
+     *
+     * @return 是否真的能够中止（没有捕获到底层 Socket 时返回 false）
+     */
+    public boolean abort()
+    {
+        this.aborted = true;
+
+        if (Objects.isNull(this.socket)) { return false; }
+
+        try {
+            this.socket.close();
+        }
+        catch (IOException exception) {
+            log.debug("Abort SMTP connection failed: {}", exception.getMessage());
+        }
+
+        return true;
+    }
+}
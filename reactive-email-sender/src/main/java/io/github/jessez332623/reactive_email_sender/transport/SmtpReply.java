@@ -0,0 +1,50 @@
+package io.github.jessez332623.reactive_email_sender.transport;
+
+import com.sun.mail.smtp.SMTPAddressFailedException;
+import com.sun.mail.smtp.SMTPSendFailedException;
+import com.sun.mail.smtp.SMTPSenderFailedException;
+import jakarta.mail.MessagingException;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * SMTP 服务器的应答（应答码与应答文本），
+ * 从 jakarta.mail 抛出的异常链中提取。
+ */
+public record SmtpReply(int code, String text)
+{
+    /** 沿着 cause 与 nextException 链查找第一个携带 SMTP 应答的异常，找不到时返回 null。*/
+    public static @Nullable SmtpReply
+    from(@Nullable Throwable throwable)
+    {
+        Throwable current = throwable;
+        int       depth   = 0;
+
+        // 限制深度，防止异常链成环
+        while (current != null && depth++ < 16)
+        {
+            if (current instanceof SMTPSendFailedException exception) {
+                return new SmtpReply(exception.getReturnCode(), strip(exception.getMessage()));
+            }
+
+            if (current instanceof SMTPAddressFailedException exception) {
+                return new SmtpReply(exception.getReturnCode(), strip(exception.getMessage()));
+            }
+
+            if (current instanceof SMTPSenderFailedException exception) {
+                return new SmtpReply(exception.getReturnCode(), strip(exception.getMessage()));
+            }
+
+            current
+                = (current instanceof MessagingException messaging && messaging.getNextException() != null)
+                    ? messaging.getNextException()
+                    : current.getCause();
+        }
+
+        return null;
+    }
+
+    private static @Nullable String
+    strip(@Nullable String text) {
+        return text == null ? null : text.strip();
+    }
+}
@@ -0,0 +1,446 @@
+package io.github.jessez332623.reactive_email_sender.transport;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.lang.String.format;
+
+/**
+ * <p>已连接并完成认证的 SMTP {@link Transport} 连接池。</p>
+ *
+ * <p>
+ *     {@link Transport#send(jakarta.mail.Message)} 每发一封邮件都要重新走一遍
+ *     TCP 握手、TLS 握手、EHLO 和 AUTH，本连接池把这些开销摊到多封邮件上。
+ *     空闲连接按后进先出复用，让热连接保持热、冷连接自然超时关闭。
+ * </p>
+ *
+ * <p>
+ *     多个连接池可以共享一组全局连接许可（如多租户场景下限制总连接数）：
+ *     借出连接时先取得本池的许可，再取得全局许可，
+ *     因此每个连接池最多只有 maxSize 个借用者在争抢全局许可，
+ *     公平的全局许可按先来后到分配，繁忙的连接池无法独占全局许可。
+ * </p>
+ *
+ * <p>
+ *     连接池关闭后不再借出连接，空闲连接立即发送 QUIT 关闭，
+ *     已借出的连接在归还时关闭，因此正在进行的发送不受影响；
+ *     关闭时正在等待许可或正在建立连接的借用者以 {@link PoolClosedException} 结束，
+ *     不会再用这个连接池的凭据建立新连接。
+ * </p>
+ */
+@Slf4j
+public final class SmtpTransportPool implements AutoCloseable
+{
+    /** 空闲超过该时长（单位：毫秒）的连接在借出前需要先用 NOOP 检查是否仍然可用 */
+    private static final long VALIDATE_AFTER_IDLE = 2000L;
+
+    /** 空闲连接及其归还时间 */
+    private record IdleConnection(SmtpConnection connection, long releasedAt) {}
+
+    /** 连接池已经关闭时借出连接抛出的异常（调用方可以改从新的连接池借出）。*/
+    public static final class PoolClosedException extends MessagingException
+    {
+        private static final long serialVersionUID = 1L;
+
+        private PoolClosedException() {
+            super("SMTP transport pool already closed!");
+        }
+    }
+
+    private final Session session;
+    private final String  host;
+    private final int     port;
+    private final String  userName;
+    private final String  password;
+
+    /** 连接池最大连接数 */
+    @Getter
+    private final int maxSize;
+
+    /** 空闲连接的存活时长（单位：毫秒）*/
+    private final long idleTimeout;
+
+    /** 借用连接时最多等待多久（单位：毫秒）*/
+    private final long borrowTimeout;
+
+    /** 连接许可，数量等于 maxSize */
+    private final Semaphore permits;
+
+    /** 与其他连接池共享的全局连接许可（为 null 时不限制）*/
+    private final @Nullable Semaphore sharedPermits;
+
+    /** 空闲连接（队首为最近归还的连接）*/
+    private final
+    ConcurrentLinkedDeque<IdleConnection> idleConnections
+        = new ConcurrentLinkedDeque<>();
+
+    /** 已借出的连接数 */
+    private final AtomicInteger activeCount = new AtomicInteger();
+
+    private volatile boolean closed = false;
+
+    public SmtpTransportPool(
+        @NotNull Session session,
+        String host, int port,
+        String userName, String password,
+        int maxSize, long idleTimeout, long borrowTimeout)
+    {
+        this(session, host, port, userName, password, maxSize, idleTimeout, borrowTimeout, null);
+    }
+
+    /**
+     * @param sharedPermits 与其他连接池共享的全局连接许可，借出的连接同时占用一个全局许可
+     */
+    public SmtpTransportPool(
+        @NotNull Session session,
+        String host, int port,
+        String userName, String password,
+        int maxSize, long idleTimeout, long borrowTimeout,
+        @Nullable Semaphore sharedPermits)
+    {
+        if (maxSize <= 0)
+        {
+            throw new IllegalArgumentException(
+                format("Pool size must be positive, your value = %d.", maxSize)
+            );
+        }
+
+        this.session       = session;
+        this.host          = host;
+        this.port          = port;
+        this.userName      = userName;
+        this.password      = password;
+        this.maxSize       = maxSize;
+        this.idleTimeout   = idleTimeout;
+        this.borrowTimeout = borrowTimeout;
+        this.permits       = new Semaphore(maxSize, true);
+        this.sharedPermits = sharedPermits;
+    }
+
+    /** 已借出的连接数。*/
+    public int getActiveCount() { return this.activeCount.get(); }
+
+    /** 空闲的连接数。*/
+    public int getIdleCount() { return this.idleConnections.size(); }
+
+    /** 正在等待借出连接的线程数（估计值）。*/
+    public int getWaitingCount() { return this.permits.getQueueLength(); }
+
+    /** 连接池是否已经关闭？*/
+    public boolean isClosed() { return this.closed; }
+
+    /**
+     * 在用于创建会话的属性中安装捕获底层 Socket 的工厂，
+     * 使 {@link SmtpConnection#abort()} 能够从其他线程中止阻塞中的发送。
+     * 应当在 {@link Session#getInstance(Properties, jakarta.mail.Authenticator)} 之前调用。
+     */
+    public static void
+    installSocketCapture(@NotNull Properties sessionProps) {
+        SocketCapture.install(sessionProps, "smtp");
+    }
+
+    /**
+     * 借出一个已连接的 {@link SmtpConnection}（阻塞操作），
+     * 用完后必须调用 {@link #release(SmtpConnection, boolean)} 归还。
+     *
+     * @throws PoolClosedException 连接池已关闭（包括等待许可或建立连接期间被关闭）时抛出
+     * @throws MessagingException  等待超时或建立连接失败时抛出
+     */
+    public @NotNull SmtpConnection
+    borrow() throws MessagingException
+    {
+        if (this.closed) {
+            throw new PoolClosedException();
+        }
+
+        final long deadline = System.currentTimeMillis() + this.borrowTimeout;
+
+        acquire(this.permits, this.borrowTimeout, "POOL_SIZE = " + this.maxSize);
+
+        if (Objects.nonNull(this.sharedPermits))
+        {
+            try
+            {
+                // 本池许可与全局许可共用同一个等待期限
+                acquire(
+                    this.sharedPermits,
+                    Math.max(deadline - System.currentTimeMillis(), 0L),
+                    "shared connection limit"
+                );
+            }
+            catch (MessagingException exception)
+            {
+                this.permits.release();
+                throw exception;
+            }
+        }
+
+        try
+        {
+            // 等待许可期间连接池可能已被关闭（如凭据刷新），不能再用旧凭据建立连接
+            if (this.closed) {
+                throw new PoolClosedException();
+            }
+
+            SmtpConnection connection = this.pollIdle();
+
+            if (Objects.isNull(connection))
+            {
+                connection = this.connect();
+
+                // 建立连接期间连接池被关闭，新连接同样不能再用
+                if (this.closed)
+                {
+                    closeQuietly(connection.getTransport());
+                    throw new PoolClosedException();
+                }
+            }
+
+            this.activeCount.incrementAndGet();
+
+            return connection;
+        }
+        catch (MessagingException | RuntimeException exception)
+        {
+            this.releasePermits();
+            throw exception;
+        }
+    }
+
+    /** 在 timeout（单位：毫秒）内取得一个许可，超时或被中断时抛出 MessagingException。*/
+    private void
+    acquire(@NotNull Semaphore semaphore, long timeout, String limitName)
+        throws MessagingException
+    {
+        try
+        {
+            if (!semaphore.tryAcquire(timeout, TimeUnit.MILLISECONDS))
+            {
+                throw new
+                MessagingException(
+                    format(
+                        "Borrow SMTP transport timeout! (%s, TIMEOUT = %d ms)",
+                        limitName, this.borrowTimeout
+                    )
+                );
+            }
+        }
+        catch (InterruptedException exception)
+        {
+            Thread.currentThread().interrupt();
+            throw new MessagingException("Interrupted while borrowing SMTP transport!", exception);
+        }
+    }
+
+    /** 归还本池许可与全局许可。*/
+    private void releasePermits()
+    {
+        if (Objects.nonNull(this.sharedPermits)) {
+            this.sharedPermits.release();
+        }
+
+        this.permits.release();
+    }
+
+    /**
+     * 归还借出的 {@link SmtpConnection}。
+     *
+     * @param connection 借出的连接
+     * @param reusable   连接是否处于可复用的状态（发送出错或被中止时应为 false）
+     */
+    public void release(@NotNull SmtpConnection connection, boolean reusable)
+    {
+        this.activeCount.decrementAndGet();
+
+        try
+        {
+            if (reusable && !connection.isAborted() && !this.closed)
+            {
+                this.idleConnections.offerFirst(
+                    new IdleConnection(connection, System.currentTimeMillis())
+                );
+
+                // 归还的同时连接池被关闭，需要再清理一次
+                if (this.closed) {
+                    this.drainIdle();
+                }
+            }
+            else {
+                closeQuietly(connection.getTransport());
+            }
+        }
+        finally {
+            this.releasePermits();
+        }
+    }
+
+    /**
+     * 检查服务器是否可用（阻塞操作）：建立一条不入池的新连接，
+     * 完成 EHLO（与 AUTH）后发送 NOOP，再以 QUIT 关闭。
+     * 不占用连接池的许可，也不影响池中的连接。
+     *
+     * @throws MessagingException 连接、认证失败或服务器不响应 NOOP 时抛出
+     */
+    public void probe() throws MessagingException
+    {
+        final Transport transport = this.session.getTransport("smtp");
+
+        try
+        {
+            SocketCapture.take();
+            transport.connect(this.host, this.port, this.userName, this.password);
+
+            // 对 SMTPTransport 而言 isConnected() 会发送 NOOP
+            if (!transport.isConnected()) {
+                throw new MessagingException("SMTP server did not respond to NOOP!");
+            }
+        }
+        finally
+        {
+            SocketCapture.take();
+            closeQuietly(transport);
+        }
+    }
+
+    /**
+     * 预先建立连接放入空闲队列（阻塞操作），使第一次发送不必等待连接、TLS 握手与认证。
+     * 已有的空闲连接计入目标数，预热的连接与普通空闲连接一样在 idleTimeout 后过期。
+     *
+     * @param connections 空闲连接的目标数（不超过 maxSize）
+     *
+     * @throws MessagingException 连接池已关闭、等待超时或建立连接失败时抛出（已建立的连接仍然归还到池中）
+     */
+    public void warmUp(int connections) throws MessagingException
+    {
+        final int target = Math.min(connections, this.maxSize);
+        final List<SmtpConnection> borrowed = new ArrayList<>(target);
+
+        try
+        {
+            for (int index = 0; index < target; ++index) {
+                borrowed.add(this.borrow());
+            }
+        }
+        finally
+        {
+            for (SmtpConnection connection : borrowed) {
+                this.release(connection, true);
+            }
+        }
+    }
+
+    /** 从空闲队列中取出一个仍然可用的连接，没有时返回 null。*/
+    private SmtpConnection pollIdle()
+    {
+        IdleConnection idle;
+
+        while ((idle = this.idleConnections.pollFirst()) != null)
+        {
+            final long idleTime
+                = System.currentTimeMillis() - idle.releasedAt();
+
+            if (idleTime >= this.idleTimeout) {
+                closeQuietly(idle.connection().getTransport());
+                continue;
+            }
+
+            if (idleTime >= VALIDATE_AFTER_IDLE && !idle.connection().getTransport().isConnected()) {
+                closeQuietly(idle.connection().getTransport());
+                continue;
+            }
+
+            return idle.connection();
+        }
+
+        return null;
+    }
+
+    /**
+     * 关闭空闲超过 idleTimeout 的连接（发送 QUIT），由定期清理任务调用，
+     * 避免流量下降后过期的连接一直占用本地与服务器的资源，直到下一次借用才被发现。
+     *
+     * @return 关闭的连接数
+     */
+    public int evictExpired()
+    {
+        final long now     = System.currentTimeMillis();
+        int        evicted = 0;
+
+        for (IdleConnection idle : this.idleConnections)
+        {
+            // 只有从队列中移除成功才关闭，与同时借出该连接的线程互不干扰
+            if (now - idle.releasedAt() >= this.idleTimeout &&
+                this.idleConnections.removeFirstOccurrence(idle))
+            {
+                closeQuietly(idle.connection().getTransport());
+                ++evicted;
+            }
+        }
+
+        return evicted;
+    }
+
+    /** 建立一个新连接并完成认证，同时捕获它的底层 Socket。*/
+    private @NotNull SmtpConnection
+    connect() throws MessagingException
+    {
+        final Transport transport = this.session.getTransport("smtp");
+
+        SocketCapture.take();
+        transport.connect(this.host, this.port, this.userName, this.password);
+
+        return new SmtpConnection(transport, SocketCapture.take());
+    }
+
+    /** 关闭所有空闲连接。*/
+    private void drainIdle()
+    {
+        IdleConnection idle;
+
+        while ((idle = this.idleConnections.pollFirst()) != null) {
+            closeQuietly(idle.connection().getTransport());
+        }
+    }
+
+    /**
+     * 关闭连接池：不再借出连接，空闲连接立即关闭（发送 QUIT），
+     * 已借出的连接在归还时关闭。
+     * 同时多放出一个许可唤醒等待中的借用者，它发现连接池已关闭后归还许可，依次唤醒下一个。
+     */
+    @Override
+    public void close()
+    {
+        if (this.closed) { return; }
+
+        this.closed = true;
+        this.drainIdle();
+        this.permits.release();
+    }
+
+    /** 关闭连接（会向服务器发送 QUIT），忽略关闭过程中出现的错误。*/
+    public static void closeQuietly(Transport transport)
+    {
+        if (Objects.isNull(transport)) { return; }
+
+        try {
+            transport.close();
+        }
+        catch (MessagingException exception) {
+            log.debug("Close SMTP transport failed: {}", exception.getMessage());
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package io.github.jessez332623.reactive_email_sender.transport;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.net.SocketFactory;
+import javax.net.ssl.SSLSocketFactory;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.Properties;
+
+/**
+ * <p>记录 jakarta.mail 建立连接时创建的底层 {@link Socket}。</p>
+ *
+ * <p>
+ *     {@link jakarta.mail.Transport} 的 close() 与 sendMessage() 互斥，
+ *     发送阻塞时无法通过关闭 Transport 中断它，只能直接关闭底层 Socket。
+ *     这里把会话的 socketFactory 替换成包装后的工厂，
+ *     在连接线程上捕获新建的 Socket，供 {@link SmtpConnection#abort()} 使用。
+ * </p>
+ */
+final class SocketCapture
+{
+    private SocketCapture() {}
+
+    /** 当前线程最近一次创建的 Socket */
+    private static final ThreadLocal<Socket> CAPTURED = new ThreadLocal<>();
+
+    private static <S extends Socket> S capture(S socket)
+    {
+        CAPTURED.set(socket);
+        return socket;
+    }
+
+    /** 取出并清除当前线程捕获到的 Socket。*/
+    static @Nullable Socket take()
+    {
+        final Socket socket = CAPTURED.get();
+        CAPTURED.remove();
+
+        return socket;
+    }
+
+    /**
+     * 在会话属性中安装捕获 Socket 的工厂，
+     * 用户已经自行配置了对应的 socketFactory 时保持不变（此时无法强制中止发送）。
+     */
+    static void install(@NotNull Properties props, @NotNull String protocol)
+    {
+        final String prefix = "mail." + protocol;
+
+        final boolean sslEnabled
+            = Boolean.parseBoolean(String.valueOf(props.get(prefix + ".ssl.enable")));
+
+        if (sslEnabled)
+        {
+            if (!props.containsKey(prefix + ".ssl.socketFactory") &&
+                !props.containsKey(prefix + ".ssl.socketFactory.class"))
+            {
+                props.put(
+                    prefix + ".ssl.socketFactory",
+                    new CapturingSSLSocketFactory((SSLSocketFactory) SSLSocketFactory.getDefault())
+                );
+            }
+        }
+        else if (!props.containsKey(prefix + ".socketFactory") &&
+                 !props.containsKey(prefix + ".socketFactory.class"))
+        {
+            props.put(
+                prefix + ".socketFactory",
+                new CapturingSocketFactory(SocketFactory.getDefault())
+            );
+        }
+    }
+
+    /** 捕获明文 Socket 的工厂（STARTTLS 会在其上叠加 TLS，关闭它同样能中止连接）。*/
+    private static final class CapturingSocketFactory extends SocketFactory
+    {
+        private final SocketFactory delegate;
+
+        private CapturingSocketFactory(SocketFactory delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Socket createSocket() throws IOException {
+            return capture(this.delegate.createSocket());
+        }
+
+        @Override
+        public Socket createSocket(String host, int port) throws IOException {
+            return capture(this.delegate.createSocket(host, port));
+        }
+
+        @Override
+        public Socket createSocket(String host, int port, InetAddress localHost, int localPort) throws IOException {
+            return capture(this.delegate.createSocket(host, port, localHost, localPort));
+        }
+
+        @Override
+        public Socket createSocket(InetAddress host, int port) throws IOException {
+            return capture(this.delegate.createSocket(host, port));
+        }
+
+        @Override
+        public Socket createSocket(InetAddress address, int port, InetAddress localAddress, int localPort) throws IOException {
+            return capture(this.delegate.createSocket(address, port, localAddress, localPort));
+        }
+    }
+
+    /** 捕获 SSL Socket 的工厂（用于 465 端口这类直接 SSL 连接）。*/
+    private static final class CapturingSSLSocketFactory extends SSLSocketFactory
+    {
+        private final SSLSocketFactory delegate;
+
+        private CapturingSSLSocketFactory(SSLSocketFactory delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String[] getDefaultCipherSuites() {
+            return this.delegate.getDefaultCipherSuites();
+        }
+
+        @Override
+        public String[] getSupportedCipherSuites() {
+            return this.delegate.getSupportedCipherSuites();
+        }
+
+        @Override
+        public Socket createSocket() throws IOException {
+            return capture(this.delegate.createSocket());
+        }
+
+        @Override
+        public Socket createSocket(Socket socket, String host, int port, boolean autoClose) throws IOException {
+            return capture(this.delegate.createSocket(socket, host, port, autoClose));
+        }
+
+        @Override
+        public Socket createSocket(String host, int port) throws IOException {
+            return capture(this.delegate.createSocket(host, port));
+        }
+
+        @Override
+        public Socket createSocket(String host, int port, InetAddress localHost, int localPort) throws IOException {
+            return capture(this.delegate.createSocket(host, port, localHost, localPort));
+        }
+
+        @Override
+        public Socket createSocket(InetAddress host, int port) throws IOException {
+            return capture(this.delegate.createSocket(host, port));
+        }
+
+        @Override
+        public Socket createSocket(InetAddress address, int port, InetAddress localAddress, int localPort) throws IOException {
+            return capture(this.delegate.createSocket(address, port, localAddress, localPort));
+        }
+    }
+}
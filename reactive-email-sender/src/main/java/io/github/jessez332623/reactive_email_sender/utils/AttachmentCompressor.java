@@ -0,0 +1,312 @@
+package io.github.jessez332623.reactive_email_sender.utils;
+
+import io.github.jessez332623.reactive_email_sender.dto.EmailContent;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.ToString;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * <p>附件压缩策略。</p>
+ *
+ * <p>
+ *     日志、CSV 报表一类的文本附件通常能压缩到原来的十分之一，
+ *     满足类型与大小阈值的附件会被打包成 zip（或 gzip）再发送，
+ *     附件大小上限按压缩后的大小检查。
+ *     压缩是边读边写的，压缩结果一旦超过 outputLimit 或者达不到 maxRatio
+ *     就立即放弃，不会为不值得压缩的附件付出完整的开销。
+ * </p>
+ */
+@Getter
+@ToString
+public final class AttachmentCompressor
+{
+    /** 压缩格式。*/
+    public enum Format
+    {
+        /** 打包为 zip 文件（附件名追加 .zip，各平台都能直接打开）*/
+        ZIP,
+
+        /** 压缩为 gzip 文件（附件名追加 .gz）*/
+        GZIP
+    }
+
+    /** 每次送入压缩流的数据块大小 */
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    /** 默认参与压缩的附件类型 */
+    public static final List<String> DEFAULT_TYPES = List.of(
+        "text/*",
+        "application/json", "application/x-ndjson", "application/xml",
+        "application/x-yaml", "application/sql", "application/rtf",
+        "application/javascript", "image/svg+xml", "image/bmp",
+        "image/tiff", "audio/wav", "application/x-sqlite3"
+    );
+
+    private static final AttachmentCompressor DISABLED
+        = new AttachmentCompressor(false, Format.ZIP, Long.MAX_VALUE, Deflater.DEFAULT_COMPRESSION, List.of(), 1.0);
+
+    /** 是否启用 */
+    private final boolean enabled;
+
+    /** 压缩格式 */
+    private final Format format;
+
+    /** 附件达到该大小（单位：字节）才压缩 */
+    private final long minSize;
+
+    /** Deflate 压缩级别（0 ~ 9，-1 为默认级别）*/
+    private final int level;
+
+    /** 参与压缩的 MIME 类型，支持 "text/*" 这样的通配 */
+    private final List<String> types;
+
+    /** 压缩后的大小与原大小之比不超过该值时才采用压缩结果 */
+    private final double maxRatio;
+
+    /**
+     * 原附件数组（按引用）到压缩结果的弱引用缓存：
+     * 同一个附件群发给多个收件人时只压缩一次。
+     * 命中还要求附件名与内容摘要都相同，调用方复用或修改了数组、
+     * 或者以不同的附件名发送同一个数组时重新压缩（zip 中的条目名来自附件名）。
+     */
+    @ToString.Exclude
+    @Getter(AccessLevel.NONE)
+    private final Map<byte[], Compressed> compressedCache = new WeakHashMap<>();
+
+    /** 一次压缩的结果，以及压缩时的附件名与原内容摘要 */
+    private record Compressed(String name, byte[] digest, byte[] data)
+    {
+        boolean matches(@NotNull String name, byte @NotNull [] digest) {
+            return this.name.equals(name) && MessageDigest.isEqual(this.digest, digest);
+        }
+    }
+
+    public AttachmentCompressor(
+        boolean enabled, @NotNull Format format, long minSize,
+        int level, @NotNull List<String> types, double maxRatio)
+    {
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Compression level must be in [-1, 9]!");
+        }
+
+        if (maxRatio <= 0.0 || maxRatio > 1.0) {
+            throw new IllegalArgumentException("maxRatio must be in (0, 1]!");
+        }
+
+        this.enabled  = enabled;
+        this.format   = format;
+        this.minSize  = minSize;
+        this.level    = level;
+        this.types    = List.copyOf(types);
+        this.maxRatio = maxRatio;
+    }
+
+    /** 不压缩任何附件的策略（默认）。*/
+    @Contract(pure = true)
+    public static AttachmentCompressor
+    disabled() { return DISABLED; }
+
+    /**
+     * 按策略压缩邮件的附件。
+     *
+     * @param content     邮件内容
+     * @param outputLimit 压缩结果的大小上限（单位：字节），超过时放弃压缩
+     *
+     * @return 附件被压缩时返回替换了附件的新邮件内容，否则原样返回
+     */
+    public @NotNull EmailContent
+    compress(@NotNull EmailContent content, long outputLimit)
+    {
+        if (!this.enabled || !content.hasAttachment()) {
+            return content;
+        }
+
+        final String name = Objects.requireNonNull(content.getAttachmentName());
+        final byte[] data = Objects.requireNonNull(content.getAttachmentData());
+
+        if (data.length < this.minSize || !this.isCompressible(MimeTypeGetter.getMimeType(name, data))) {
+            return content;
+        }
+
+        final long limit
+            = Math.min(outputLimit, (long) Math.floor(data.length * this.maxRatio));
+
+        // 摘要比压缩快一个数量级，用它确认缓存的结果对应的仍是同一份内容
+        final byte[] digest = sha256(data);
+
+        final Compressed cached;
+
+        synchronized (this.compressedCache) {
+            cached = this.compressedCache.get(data);
+        }
+
+        byte[] compressed
+            = (cached != null && cached.matches(name, digest)) ? cached.data() : null;
+
+        if (compressed == null || compressed.length > limit)
+        {
+            compressed = this.deflate(name, data, limit);
+
+            if (compressed != null)
+            {
+                synchronized (this.compressedCache) {
+                    this.compressedCache.put(data, new Compressed(name, digest, compressed));
+                }
+            }
+        }
+
+        if (compressed == null) {
+            return content;
+        }
+
+        return
+        EmailContent.builder()
+            .to(content.getTo())
+            .subject(content.getSubject())
+            .textBody(content.getTextBody())
+            .attachmentName(name + (this.format == Format.ZIP ? ".zip" : ".gz"))
+            .attachmentData(compressed)
+            .build();
+    }
+
+    private boolean
+    isCompressible(@NotNull String mimeType)
+    {
+        for (String type : this.types)
+        {
+            final boolean matched
+                = type.endsWith("/*")
+                    ? mimeType.startsWith(type.substring(0, type.length() - 1))
+                    : mimeType.equals(type);
+
+            if (matched) { return true; }
+        }
+
+        return false;
+    }
+
+    /** 分块压缩附件数据，结果超过 limit 时提前放弃并返回 null。*/
+    private byte @Nullable []
+    deflate(@NotNull String name, byte @NotNull [] data, long limit)
+    {
+        final LimitedOutputStream sink
+            = new LimitedOutputStream(limit, (int) Math.min(limit, data.length / 4 + 64));
+
+        try
+        {
+            if (this.format == Format.ZIP)
+            {
+                try (ZipOutputStream zip = new ZipOutputStream(sink, StandardCharsets.UTF_8))
+                {
+                    zip.setLevel(this.level);
+                    zip.putNextEntry(new ZipEntry(name));
+                    writeChunked(zip, data);
+                    zip.closeEntry();
+                }
+            }
+            else
+            {
+                try (GZIPOutputStream gzip = new LeveledGzipOutputStream(sink, this.level)) {
+                    writeChunked(gzip, data);
+                }
+            }
+        }
+        catch (LimitExceededException exception) {
+            return null;
+        }
+        catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+
+        return sink.toByteArray();
+    }
+
+    private static byte @NotNull []
+    sha256(byte @NotNull [] data)
+    {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        }
+        catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private static void
+    writeChunked(@NotNull OutputStream output, byte @NotNull [] data) throws IOException
+    {
+        for (int offset = 0; offset < data.length; offset += CHUNK_SIZE) {
+            output.write(data, offset, Math.min(CHUNK_SIZE, data.length - offset));
+        }
+    }
+
+    /** 可以指定压缩级别的 gzip 输出流。*/
+    private static final class LeveledGzipOutputStream extends GZIPOutputStream
+    {
+        LeveledGzipOutputStream(OutputStream output, int level) throws IOException
+        {
+            super(output, CHUNK_SIZE);
+            this.def.setLevel(level);
+        }
+    }
+
+    /** 写出的总字节数超过上限时抛出异常的输出流。*/
+    private static final class LimitedOutputStream extends ByteArrayOutputStream
+    {
+        private final long limit;
+
+        LimitedOutputStream(long limit, int initialSize)
+        {
+            super(Math.max(initialSize, 32));
+            this.limit = limit;
+        }
+
+        @Override
+        public synchronized void write(int value)
+        {
+            this.ensureCapacity(1);
+            super.write(value);
+        }
+
+        @Override
+        public synchronized void write(byte @NotNull [] buffer, int offset, int length)
+        {
+            this.ensureCapacity(length);
+            super.write(buffer, offset, length);
+        }
+
+        private void ensureCapacity(int length)
+        {
+            if (this.count + (long) length > this.limit) {
+                throw new LimitExceededException();
+            }
+        }
+    }
+
+    /** 压缩结果超过上限，放弃压缩。*/
+    private static final class LimitExceededException extends RuntimeException
+    {
+        private static final long serialVersionUID = 1L;
+
+        LimitExceededException() { super(null, null, false, false); }
+    }
+}
@@ -0,0 +1,43 @@
+package io.github.jessez332623.reactive_email_sender.utils;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Locale;
+
+/** 邮箱地址脱敏工具类，用于日志中的收件人（只保留本地部分的首字符与完整的域）。*/
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class EmailAddressMasker
+{
+    /**
+     * 脱敏一个邮箱地址，例如 jesse.z@example.com -> j***@example.com，
+     * 不含 @ 的字符串整体替换为 ***。
+     */
+    @Contract("null -> null; !null -> !null")
+    public static @Nullable String
+    mask(@Nullable String address)
+    {
+        if (address == null) { return null; }
+
+        final int at = address.lastIndexOf('@');
+
+        if (at < 0) { return "***"; }
+
+        return
+        (at == 0)
+            ? "***" + address.substring(at)
+            : address.charAt(0) + "***" + address.substring(at);
+    }
+
+    /** 取出邮箱地址的域（小写），不含 @ 时返回空字符串。*/
+    public static @NotNull String
+    domainOf(@NotNull String address)
+    {
+        final int at = address.lastIndexOf('@');
+
+        return (at < 0) ? "" : address.substring(at + 1).toLowerCase(Locale.ROOT);
+    }
+}
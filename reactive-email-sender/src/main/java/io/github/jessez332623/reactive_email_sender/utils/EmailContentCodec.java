@@ -0,0 +1,101 @@
+package io.github.jessez332623.reactive_email_sender.utils;
+
+import io.github.jessez332623.reactive_email_sender.dto.EmailContent;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * <p>{@link EmailContent} 的紧凑二进制编解码工具类，用于把邮件内容落盘（如死信存储）。</p>
+ *
+ * <p>
+ *     字符串编码为 “长度 + UTF-8 字节”（null 的长度为 -1），
+ *     附件数据原样写出，没有 Base64 之类的膨胀。
+ * </p>
+ *
+ * <p>
+ *     读取时调用方给出记录的总字节数（通常是文件大小）作为上限，
+ *     长度前缀超出上限（损坏或被截断的文件）时抛出 {@link IOException}，而不是按前缀分配巨大的数组。
+ * </p>
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class EmailContentCodec
+{
+    /** 写出一个可以为 null 的字符串。*/
+    public static void
+    writeString(@NotNull DataOutput output, @Nullable String value) throws IOException
+    {
+        writeBytes(output, value == null ? null : value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** 读取 {@link #writeString(DataOutput, String)} 写出的字符串，长度不超过 limit 字节。*/
+    public static @Nullable String
+    readString(@NotNull DataInput input, long limit) throws IOException
+    {
+        final byte[] bytes = readBytes(input, limit);
+
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** 写出一个可以为 null 的字节数组。*/
+    public static void
+    writeBytes(@NotNull DataOutput output, byte @Nullable [] value) throws IOException
+    {
+        if (value == null) {
+            output.writeInt(-1);
+            return;
+        }
+
+        output.writeInt(value.length);
+        output.write(value);
+    }
+
+    /** 读取 {@link #writeBytes(DataOutput, byte[])} 写出的字节数组，长度不超过 limit 字节。*/
+    public static byte @Nullable []
+    readBytes(@NotNull DataInput input, long limit) throws IOException
+    {
+        final int length = input.readInt();
+
+        if (length == -1) { return null; }
+
+        if (length < 0 || length > limit) {
+            throw new IOException("corrupt record");
+        }
+
+        final byte[] bytes = new byte[length];
+        input.readFully(bytes);
+
+        return bytes;
+    }
+
+    /** 写出邮件内容。*/
+    public static void
+    write(@NotNull DataOutput output, @NotNull EmailContent content) throws IOException
+    {
+        writeString(output, content.getTo());
+        writeString(output, content.getSubject());
+        writeString(output, content.getTextBody());
+        writeString(output, content.getAttachmentName());
+        writeBytes(output, content.getAttachmentData());
+    }
+
+    /** 读取 {@link #write(DataOutput, EmailContent)} 写出的邮件内容，limit 为记录的总字节数。*/
+    public static @NotNull EmailContent
+    read(@NotNull DataInput input, long limit) throws IOException
+    {
+        return
+        EmailContent.builder()
+            .to(readString(input, limit))
+            .subject(readString(input, limit))
+            .textBody(readString(input, limit))
+            .attachmentName(readString(input, limit))
+            .attachmentData(readBytes(input, limit))
+            .build();
+    }
+}
@@ -0,0 +1,275 @@
+package io.github.jessez332623.reactive_email_sender.utils;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>附件 Mine Type 获取器。</p>
+ *
+ * <p>
+ *     后缀映射来自随本依赖打包的注册表 META-INF/reactive-email-sender/mime.types，
+ *     首次使用时才加载为不可变的 Map；
+ *     此外还会检查附件开头的魔数（最多 {@link #SNIFF_LENGTH} 字节），
+ *     识别没有后缀或者后缀与内容不符的附件。
+ *     （后缀，魔数）组合的判定结果会被缓存，重复的附件类型只需一次查表。
+ * </p>
+ */
+@Slf4j
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class MimeTypeGetter
+{
+    /** 默认的二进制流类型。*/
+    private final static
+    String DEFAULT_MIME_TYPE = "application/octet-stream";
+
+    /** 注册表资源的路径。*/
+    private static final
+    String REGISTRY_RESOURCE = "/META-INF/reactive-email-sender/mime.types";
+
+    /** 检测魔数时最多读取的附件开头字节数。*/
+    public static final int SNIFF_LENGTH = 64;
+
+    /** 判定结果缓存的上限（超过后不再缓存新的组合，防止不可信的后缀撑爆内存）。*/
+    private static final int MAX_CACHED_RESULTS = 4096;
+
+    /** （后缀，魔数）组合到判定结果的缓存。*/
+    private static final
+    Map<String, String> RESOLVED_CACHE = new ConcurrentHashMap<>();
+
+    /** 注册表持有者，类加载时才读取资源（按需初始化的持有者惯用法）。*/
+    private static final class Registry
+    {
+        static final Map<String, String> BY_EXTENSION = load();
+
+        private static @NotNull Map<String, String>
+        load()
+        {
+            final Map<String, String> byExtension = new HashMap<>(512);
+
+            try (InputStream input = MimeTypeGetter.class.getResourceAsStream(REGISTRY_RESOURCE))
+            {
+                if (input == null)
+                {
+                    log.warn("MIME registry {} not found, fallback to {}.", REGISTRY_RESOURCE, DEFAULT_MIME_TYPE);
+                    return Map.of();
+                }
+
+                final BufferedReader reader
+                    = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+
+                String line;
+
+                while ((line = reader.readLine()) != null)
+                {
+                    line = line.strip();
+
+                    if (line.isEmpty() || line.startsWith("#")) { continue; }
+
+                    final String[] fields = line.split("\\s+");
+
+                    for (int index = 1; index < fields.length; ++index) {
+                        byExtension.putIfAbsent(fields[index].toLowerCase(Locale.ROOT), fields[0]);
+                    }
+                }
+            }
+            catch (IOException exception) {
+                log.error("Load MIME registry {} failed!", REGISTRY_RESOURCE, exception);
+            }
+
+            return Map.copyOf(byExtension);
+        }
+    }
+
+    /**
+     * 附件开头的魔数签名。
+     *
+     * @param weak 是否为弱签名：容器格式（如 docx / xlsx 本质上都是 zip）或过短、
+     *             容易误判的魔数，此时后缀已知则以后缀给出的具体类型为准
+     */
+    private record Signature(
+        String name, String mimeType, int offset, byte[] magic, boolean weak)
+    {
+        boolean matches(byte @NotNull [] header, int length)
+        {
+            if (length < this.offset + this.magic.length) { return false; }
+
+            for (int index = 0; index < this.magic.length; ++index)
+            {
+                if (header[this.offset + index] != this.magic[index]) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
+
+    private static @NotNull Signature
+    signature(String name, String mimeType, int offset, String magic, boolean weak)
+    {
+        return new
+        Signature(
+            name, mimeType, offset,
+            magic.getBytes(StandardCharsets.ISO_8859_1), weak
+        );
+    }
+
+    /** 已知的魔数签名，越具体的签名越靠前。*/
+    private static final List<Signature> SIGNATURES = List.of(
+        signature("pdf",   "application/pdf",              0, "%PDF-",                   false),
+        signature("png",   "image/png",                    0, "\u0089PNG\r\n\u001a\n",   false),
+        signature("jpeg",  "image/jpeg",                   0, "\u00ff\u00d8\u00ff",      false),
+        signature("gif",   "image/gif",                    0, "GIF8",                    false),
+        signature("webp",  "image/webp",                   8, "WEBP",                    false),
+        signature("wav",   "audio/wav",                    8, "WAVE",                    false),
+        signature("avi",   "video/x-msvideo",              8, "AVI ",                    false),
+        signature("heic",  "image/heic",                   4, "ftypheic",                false),
+        signature("avif",  "image/avif",                   4, "ftypavif",                false),
+        signature("m4a",   "audio/mp4",                    4, "ftypM4A",                 false),
+        signature("mov",   "video/quicktime",              4, "ftypqt",                  false),
+        signature("3gp",   "video/3gpp",                   4, "ftyp3g",                  false),
+        signature("mp4",   "video/mp4",                    4, "ftypisom",                false),
+        signature("mp41",  "video/mp4",                    4, "ftypmp41",                false),
+        signature("mp42",  "video/mp4",                    4, "ftypmp42",                false),
+        signature("avc1",  "video/mp4",                    4, "ftypavc1",                false),
+        // 其他品牌的 ISO-BMFF 文件（HEIF mif1、jp2、crx 等）只在后缀未知时按 mp4 处理
+        signature("bmff",  "video/mp4",                    4, "ftyp",                    true),
+        signature("bmp",   "image/bmp",                    0, "BM",                      true),
+        signature("tiff",  "image/tiff",                   0, "II*\u0000",               false),
+        signature("tiffb", "image/tiff",                   0, "MM\u0000*",               false),
+        signature("ico",   "image/x-icon",                 0, "\u0000\u0000\u0001\u0000", true),
+        signature("psd",   "image/vnd.adobe.photoshop",    0, "8BPS",                    false),
+        signature("mp3",   "audio/mpeg",                   0, "ID3",                     false),
+        signature("ogg",   "audio/ogg",                    0, "OggS",                    false),
+        signature("flac",  "audio/flac",                   0, "fLaC",                    false),
+        signature("mkv",   "video/x-matroska",             0, "\u001aE\u00df\u00a3",     true),
+        signature("ics",   "text/calendar",                0, "BEGIN:VCALENDAR",         false),
+        signature("vcf",   "text/vcard",                   0, "BEGIN:VCARD",             false),
+        signature("rtf",   "application/rtf",              0, "{\\rtf",                  false),
+        signature("gzip",  "application/gzip",             0, "\u001f\u008b",            false),
+        signature("7z",    "application/x-7z-compressed",  0, "7z\u00bc\u00af'\u001c",   false),
+        signature("rar",   "application/vnd.rar",          0, "Rar!\u001a\u0007",        false),
+        signature("bzip2", "application/x-bzip2",          0, "BZh",                     true),
+        signature("xz",    "application/x-xz",             0, "\u00fd7zXZ\u0000",        false),
+        signature("wasm",  "application/wasm",             0, "\u0000asm",               false),
+        signature("sqlite","application/x-sqlite3",        0, "SQLite format 3\u0000",   false),
+        signature("woff",  "font/woff",                    0, "wOFF",                    false),
+        signature("woff2", "font/woff2",                   0, "wOF2",                    false),
+        signature("zip",   "application/zip",              0, "PK\u0003\u0004",          true),
+        signature("ole2",  "application/x-ole-storage",    0, "\u00d0\u00cf\u0011\u00e0\u00a1\u00b1\u001a\u00e1", true),
+        signature("xml",   "application/xml",              0, "<?xml",                   true)
+    );
+
+    /** 通过文件名后缀尝试映射对应的 Mine Type。*/
+    public static String
+    getMimeTypeFromExtension(String fileName)
+    {
+        final String extension = extensionOf(fileName);
+
+        if (extension == null) {
+            return DEFAULT_MIME_TYPE;
+        }
+
+        return
+        Registry.BY_EXTENSION.getOrDefault(extension, DEFAULT_MIME_TYPE);
+    }
+
+    /**
+     * <p>结合文件名后缀与附件开头的魔数判定 Mine Type。</p>
+     *
+     * <ul>
+     *     <li>识别不出魔数时以后缀为准；</li>
+     *     <li>魔数为弱签名（zip、OLE2 等容器格式或过短的魔数）时，后缀已知则以后缀为准；</li>
+     *     <li>其余情况以魔数为准（比如实际上是 PNG 的 .jpg 附件）。</li>
+     * </ul>
+     *
+     * 只会读取 data 开头的 {@link #SNIFF_LENGTH} 字节。
+     */
+    public static String
+    getMimeType(String fileName, byte @Nullable [] data)
+    {
+        final String    extension = extensionOf(fileName);
+        final Signature signature = sniff(data);
+
+        final String cacheKey
+            = (extension == null ? "" : extension) + '\u0000' +
+              (signature == null ? "" : signature.name());
+
+        final String cached = RESOLVED_CACHE.get(cacheKey);
+
+        if (cached != null) { return cached; }
+
+        final String byExtension
+            = extension == null
+                ? null
+                : Registry.BY_EXTENSION.get(extension);
+
+        final String resolved;
+
+        if (signature == null) {
+            resolved = Objects.requireNonNullElse(byExtension, DEFAULT_MIME_TYPE);
+        }
+        else if (signature.weak() && byExtension != null) {
+            resolved = byExtension;
+        }
+        else {
+            resolved = signature.mimeType();
+        }
+
+        if (RESOLVED_CACHE.size() < MAX_CACHED_RESULTS) {
+            RESOLVED_CACHE.put(cacheKey, resolved);
+        }
+
+        return resolved;
+    }
+
+    /** 检查附件开头的魔数，识别不出时返回 null。*/
+    private static @Nullable Signature
+    sniff(byte @Nullable [] data)
+    {
+        if (data == null || data.length == 0) { return null; }
+
+        final int length = Math.min(data.length, SNIFF_LENGTH);
+
+        for (Signature signature : SIGNATURES)
+        {
+            if (signature.matches(data, length)) {
+                return signature;
+            }
+        }
+
+        return null;
+    }
+
+    /** 取出小写的文件名后缀，没有后缀时返回 null。*/
+    private static @Nullable String
+    extensionOf(String fileName)
+    {
+        if (Objects.isNull(fileName) || fileName.trim().isEmpty()) {
+            return null;
+        }
+
+        int dotIndex = fileName.lastIndexOf(".");
+
+        if (dotIndex < 0 || dotIndex == fileName.length() - 1) {
+            return null;
+        }
+
+        return fileName.substring(dotIndex + 1).toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,147 @@
+package io.github.jessez332623.reactive_email_sender.verification;
+
+import io.github.jessez332623.reactive_email_sender.exception.EmailException;
+import org.jetbrains.annotations.NotNull;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.github.jessez332623.reactive_email_sender.exception.EmailException.ErrorType.RATE_LIMITED;
+import static java.lang.String.format;
+
+/**
+ * <p>进程内的验证码存储（{@link VerificationCodeStore} 默认实现）。</p>
+ *
+ * <p>
+ *     基于 {@link ConcurrentHashMap}，记录数量有上限，
+ *     过期记录在访问时惰性删除，并且最多每秒做一次全表清理。
+ *     存储已满且清理后仍无空位时拒绝签发，而不是挤掉尚未过期的验证码。
+ * </p>
+ */
+public class InMemoryVerificationCodeStore implements VerificationCodeStore
+{
+    /** 两次全表清理之间的最小间隔（单位：毫秒）*/
+    private static final long PURGE_INTERVAL = 1000L;
+
+    /** 最多保存多少条记录 */
+    private final int maxEntries;
+
+    /** 收件人键 -> 验证码记录 */
+    private final
+    ConcurrentHashMap<String, VerificationCodeRecord> records
+        = new ConcurrentHashMap<>();
+
+    /** 下一次允许全表清理的时间（Unix 毫秒时间戳）*/
+    private final AtomicLong nextPurgeTime = new AtomicLong();
+
+    public InMemoryVerificationCodeStore(int maxEntries)
+    {
+        if (maxEntries <= 0)
+        {
+            throw new IllegalArgumentException(
+                format("Max entries must be positive, your value = %d.", maxEntries)
+            );
+        }
+
+        this.maxEntries = maxEntries;
+    }
+
+    /** 当前保存的记录数（包含尚未清理的过期记录）。*/
+    public int size() { return this.records.size(); }
+
+    /** 清理所有已过期的记录，force 为 false 时受清理间隔限制。*/
+    private void purgeExpired(long now, boolean force)
+    {
+        final long next = this.nextPurgeTime.get();
+
+        if (!force && (now < next || !this.nextPurgeTime.compareAndSet(next, now + PURGE_INTERVAL))) {
+            return;
+        }
+
+        this.records.values().removeIf((record) -> record.isExpired(now));
+    }
+
+    @Override
+    public Mono<Boolean>
+    saveIfCooledDown(
+        @NotNull String key,
+        @NotNull VerificationCodeRecord record,
+        @NotNull Duration cooldown)
+    {
+        return Mono.fromCallable(() -> {
+            final long now           = System.currentTimeMillis();
+            final long cooldownMillis = cooldown.toMillis();
+
+            this.purgeExpired(now, false);
+
+            if (this.records.size() >= this.maxEntries && !this.records.containsKey(key))
+            {
+                this.purgeExpired(now, true);
+
+                if (this.records.size() >= this.maxEntries)
+                {
+                    throw new
+                    EmailException(
+                        RATE_LIMITED,
+                        format("Verification code store is full! (MAX_ENTRIES = %d)", this.maxEntries)
+                    );
+                }
+            }
+
+            final boolean[] saved = {false};
+
+            this.records.compute(key, (k, old) -> {
+                if (old != null && !old.isExpired(now) && now - old.getIssuedAt() < cooldownMillis) {
+                    return old;
+                }
+
+                saved[0] = true;
+
+                return record;
+            });
+
+            return saved[0];
+        });
+    }
+
+    @Override
+    public Mono<VerificationCodeRecord>
+    increaseAttempts(@NotNull String key)
+    {
+        return Mono.fromSupplier(() -> {
+            final long now = System.currentTimeMillis();
+
+            return
+            this.records.computeIfPresent(key, (k, old) ->
+                old.isExpired(now) ? null : old.withNextAttempt());
+        });
+    }
+
+    @Override
+    public Mono<Void>
+    remove(@NotNull String key)
+    {
+        return Mono.fromRunnable(() -> this.records.remove(key));
+    }
+
+    @Override
+    public Mono<Boolean>
+    consume(@NotNull String key, @NotNull VerificationCodeRecord record)
+    {
+        return Mono.fromCallable(() -> {
+            final boolean[] removed = {false};
+
+            this.records.computeIfPresent(key, (k, old) -> {
+                if (!old.isSameIssue(record)) { return old; }
+
+                removed[0] = true;
+
+                return null;
+            });
+
+            return removed[0];
+        });
+    }
+}
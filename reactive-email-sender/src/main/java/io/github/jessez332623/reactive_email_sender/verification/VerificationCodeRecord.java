@@ -0,0 +1,56 @@
+package io.github.jessez332623.reactive_email_sender.verification;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.security.MessageDigest;
+
+/**
+ * 验证码存储记录（不可变），
+ * 只保存验证码的摘要，不保存验证码明文。
+ */
+@Getter
+@ToString(exclude = "codeHash")
+@AllArgsConstructor
+public final class VerificationCodeRecord
+{
+    /** 验证码摘要（HMAC-SHA256）*/
+    private final byte[] codeHash;
+
+    /** 签发时间（Unix 毫秒时间戳）*/
+    private final long issuedAt;
+
+    /** 过期时间（Unix 毫秒时间戳）*/
+    private final long expiresAt;
+
+    /** 已经进行的校验次数 */
+    private final int attempts;
+
+    /** 该记录在 now 时刻是否已经过期？*/
+    public boolean isExpired(long now) {
+        return now >= this.expiresAt;
+    }
+
+    /** 与 other 是否属于同一次签发（验证码摘要与签发时间都相同，不比较尝试次数）？*/
+    public boolean isSameIssue(@NotNull VerificationCodeRecord other)
+    {
+        return
+        this.issuedAt == other.issuedAt &&
+        MessageDigest.isEqual(this.codeHash, other.codeHash);
+    }
+
+    /** 返回尝试次数加一后的新记录。*/
+    @Contract(" -> new")
+    public @NotNull VerificationCodeRecord
+    withNextAttempt()
+    {
+        return new
+        VerificationCodeRecord(
+            this.codeHash, this.issuedAt,
+            this.expiresAt, this.attempts + 1
+        );
+    }
+}
@@ -0,0 +1,47 @@
+package io.github.jessez332623.reactive_email_sender.verification;
+
+import io.github.jessez332623.reactive_email_sender.exception.EmailException;
+import org.jetbrains.annotations.NotNull;
+import reactor.core.publisher.Mono;
+
+/** 验证码签发、存储与校验服务接口。*/
+public interface VerificationCodeService
+{
+    /**
+     * 为指定收件人签发一个新的验证码（不发送邮件）。
+     *
+     * @param userEmail 收件人邮箱
+     *
+     * @throws EmailException 重发冷却期内再次签发时抛出（{@link EmailException.ErrorType#RATE_LIMITED}）
+     *
+     * @return 发布验证码明文的 {@link Mono}
+     */
+    Mono<String>
+    issue(@NotNull String userEmail);
+
+    /**
+     * 签发验证码，并以验证码邮件的形式发送给收件人，
+     * 发送失败时撤销这次签发，收件人可以立即重新获取而不受冷却期限制。
+     *
+     * @param userName  收件人姓名
+     * @param userEmail 收件人邮箱
+     *
+     * @throws EmailException 签发或发送失败时抛出
+     *
+     * @return 表示操作是否正确完成的 {@link Mono}
+     */
+    Mono<Void>
+    sendVerifyCode(@NotNull String userName, @NotNull String userEmail);
+
+    /**
+     * 校验收件人提交的验证码（恒定时间比较），
+     * 验证码只能使用一次，同一个验证码的并发校验中至多一个得到 PASSED。
+     *
+     * @param userEmail 收件人邮箱
+     * @param code      收件人提交的验证码
+     *
+     * @return 发布校验结果的 {@link Mono}
+     */
+    Mono<VerifyResult>
+    verify(@NotNull String userEmail, @NotNull String code);
+}
@@ -0,0 +1,64 @@
+package io.github.jessez332623.reactive_email_sender.verification;
+
+import org.jetbrains.annotations.NotNull;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * <p>验证码存储 SPI。</p>
+ *
+ * <p>
+ *     默认实现为进程内的 {@link InMemoryVerificationCodeStore}，
+ *     多实例部署时可以实现本接口把记录放到外部存储（如 Redis）中，
+ *     但需要保证下列操作各自的原子性；
+ *     尤其是 {@link #consume(String, VerificationCodeRecord)} 必须是比较并删除
+ *     （如 Redis 的 Lua 脚本或 WATCH / MULTI），否则同一个验证码可能被并发的校验重复使用。
+ * </p>
+ */
+public interface VerificationCodeStore
+{
+    /**
+     * 保存一条新的验证码记录（覆盖旧记录），
+     * 但若旧记录尚未过期且签发时间距今不足 cooldown，则放弃保存。
+     *
+     * @param key      收件人键（已规范化的邮箱地址）
+     * @param record   新的验证码记录
+     * @param cooldown 重发冷却时间
+     *
+     * @return 发布是否保存成功的 {@link Mono}
+     */
+    Mono<Boolean>
+    saveIfCooledDown(
+        @NotNull String key,
+        @NotNull VerificationCodeRecord record,
+        @NotNull Duration cooldown
+    );
+
+    /**
+     * 原子地将记录的尝试次数加一。
+     *
+     * @param key 收件人键
+     *
+     * @return 发布更新后记录的 {@link Mono}，记录不存在或已过期时为空
+     */
+    Mono<VerificationCodeRecord>
+    increaseAttempts(@NotNull String key);
+
+    /** 删除收件人键对应的记录。*/
+    Mono<Void>
+    remove(@NotNull String key);
+
+    /**
+     * 原子地比较并删除：只有当前记录与 record 属于同一次签发
+     * （见 {@link VerificationCodeRecord#isSameIssue(VerificationCodeRecord)}）时才删除。
+     * 用于校验通过后消费验证码，以及验证码邮件发送失败后撤销签发（不会误删之后签发的新验证码）。
+     *
+     * @param key    收件人键
+     * @param record 期望删除的记录（尝试次数可以不同）
+     *
+     * @return 发布是否由本次调用删除的 {@link Mono}，并发调用中至多一个得到 true
+     */
+    Mono<Boolean>
+    consume(@NotNull String key, @NotNull VerificationCodeRecord record);
+}
@@ -0,0 +1,17 @@
+package io.github.jessez332623.reactive_email_sender.verification;
+
+/** 验证码校验结果。*/
+public enum VerifyResult
+{
+    /** 校验通过（验证码随即失效，不可重复使用）。*/
+    PASSED,
+
+    /** 验证码不匹配。*/
+    MISMATCH,
+
+    /** 该收件人没有有效的验证码（从未签发或已过期）。*/
+    NOT_FOUND,
+
+    /** 尝试次数超出上限，需等待冷却期过后重新签发。*/
+    ATTEMPTS_EXCEEDED
+}
@@ -10,6 +10,7 @@ module reactive_email_sender
 
     // Reactor 响应式编程
     requires transitive reactor.core;
+    requires org.reactivestreams;
 
     // Jakarta 依赖
     requires jakarta.annotation;
@@ -17,6 +18,9 @@ module reactive_email_sender
     requires jakarta.mail;
     requires jakarta.activation;
 
+    // 直连 MX 投递时通过 JNDI 查询 DNS
+    requires java.naming;
+
     // Lombok（编译时依赖）
     requires static lombok;
     requires static org.jetbrains.annotations;
@@ -24,12 +28,28 @@ module reactive_email_sender
     // 日志
     requires transitive org.slf4j;
 
+    // 发送链路观测（随 spring-context 引入，接入 micrometer-tracing 后成为 Span）
+    requires micrometer.observation;
+
+    // 健康检查与运行时统计端点（可选依赖，存在 spring-boot-actuator 时才装配）
+    requires static spring.boot.actuator;
+
     // 导出公共 API 包
     exports io.github.jessez332623.reactive_email_sender.dto;
     exports io.github.jessez332623.reactive_email_sender.autoconfigure;
     exports io.github.jessez332623.reactive_email_sender.utils;
     exports io.github.jessez332623.reactive_email_sender.authorization;
     exports io.github.jessez332623.reactive_email_sender.exception;
+    exports io.github.jessez332623.reactive_email_sender.verification;
+    exports io.github.jessez332623.reactive_email_sender.retry;
+    exports io.github.jessez332623.reactive_email_sender.deadletter;
+    exports io.github.jessez332623.reactive_email_sender.dkim;
+    exports io.github.jessez332623.reactive_email_sender.registry;
+    exports io.github.jessez332623.reactive_email_sender.mx;
+    exports io.github.jessez332623.reactive_email_sender.suppression;
+    exports io.github.jessez332623.reactive_email_sender.schedule;
+    exports io.github.jessez332623.reactive_email_sender.actuator;
+    exports io.github.jessez332623.reactive_email_sender.event;
     exports io.github.jessez332623.reactive_email_sender;
 
     // 开放包给 Spring 反射
@@ -0,0 +1,147 @@
+package io.github.jessez332623.reactive_email_sender.dkim;
+
+import jakarta.mail.Session;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Signature;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * <p>DKIM relaxed 规范化与签名的测试。</p>
+ *
+ * <p>
+ *     全部在土耳其语默认区域下运行：该区域中 "I".toLowerCase() 是无点的 ı，
+ *     头部名如果按默认区域转小写，h= 标签与签名数据都会变成非 ASCII，验证方无法复现。
+ * </p>
+ */
+class DkimCanonicalizerTest
+{
+    /** RFC 6376 附录 A 示例邮件的正文及其 bh= 值 */
+    private static final String RFC_BODY
+        = "Hi.\r\n\r\nWe lost the game. Are you hungry yet?\r\n\r\nJoe.\r\n";
+
+    private static final String RFC_BODY_HASH
+        = "2jUSOH9NhtVGCQWNr9BrIAPreKQjO6Sn7XIkfJVOzv8=";
+
+    private Locale defaultLocale;
+
+    @BeforeEach
+    void useTurkishLocale()
+    {
+        this.defaultLocale = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr"));
+    }
+
+    @AfterEach
+    void restoreLocale() {
+        Locale.setDefault(this.defaultLocale);
+    }
+
+    @Test
+    void relaxedHeaderLowerCasesNamesInAscii()
+    {
+        assertEquals("mime-version:1.0", DkimCanonicalizer.relaxedHeader("MIME-Version:  1.0 "));
+        assertEquals("message-id:<a@example.com>", DkimCanonicalizer.relaxedHeader("Message-ID: <a@example.com>"));
+        assertEquals(
+            "content-transfer-encoding:quoted-printable",
+            DkimCanonicalizer.relaxedHeader("Content-Transfer-Encoding: \t quoted-printable")
+        );
+        assertEquals("subject:Hello World", DkimCanonicalizer.relaxedHeader("Subject: Hello\r\n\t World"));
+    }
+
+    @Test
+    void relaxedBodyMatchesKnownHashes() throws NoSuchAlgorithmException
+    {
+        assertEquals(RFC_BODY_HASH, relaxedBodyHash(RFC_BODY));
+
+        // 行内空白压缩、行尾空白与末尾空行去掉后为 "Hi. there\r\nLine with tabs\r\n"
+        assertEquals(
+            "Hqi5I7L9TcrosO87hsy3BTjg72MOE+46eT1iczTJcvw=",
+            relaxedBodyHash("Hi. \t there  \r\nLine\twith\t\ttabs\t\r\n\r\n \r\n\r\n")
+        );
+
+        // 空正文规范化为空串
+        assertEquals("47DEQpj8HBSa+/TImW+5JCeuQeRkm5NMpJWZG3hSuFU=", relaxedBodyHash(""));
+    }
+
+    @Test
+    void signatureVerifiesAgainstIndependentlyCanonicalizedHeaders() throws Exception
+    {
+        final KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+
+        final KeyPair keyPair = generator.generateKeyPair();
+
+        final DkimSigner signer
+            = new DkimSigner("example.com", "mail", DkimAlgorithm.RSA_SHA256, keyPair.getPrivate(), null, 0L);
+
+        final RenderedBody body
+            = new RenderedBody(
+                "text/plain; charset=UTF-8", "7bit",
+                RFC_BODY.getBytes(StandardCharsets.US_ASCII), RFC_BODY_HASH
+            );
+
+        final PrerenderedMimeMessage message
+            = new PrerenderedMimeMessage(Session.getInstance(new Properties()), body);
+
+        message.setHeader("From", "sender@example.com");
+        message.setHeader("To", "user@example.org");
+        message.setHeader("Subject", "Hello  World");
+        message.setHeader("Date", "Mon, 19 Oct 2026 12:00:00 +0000");
+        message.setHeader("Message-ID", "<1@example.com>");
+        message.saveChanges();
+
+        signer.sign(message, body);
+
+        final String value         = message.getHeader("DKIM-Signature", null);
+        final int    signatureAt   = value.lastIndexOf("b=") + 2;
+        final String unsignedValue = value.substring(0, signatureAt);
+
+        assertTrue(
+            unsignedValue.contains(
+                "; h=from:to:subject:date:message-id:mime-version:content-type:content-transfer-encoding;"),
+            value
+        );
+        assertTrue(unsignedValue.contains("; bh=" + RFC_BODY_HASH + ";"), value);
+
+        final String signedData
+            = "from:sender@example.com\r\n" +
+              "to:user@example.org\r\n" +
+              "subject:Hello World\r\n" +
+              "date:Mon, 19 Oct 2026 12:00:00 +0000\r\n" +
+              "message-id:<1@example.com>\r\n" +
+              "mime-version:1.0\r\n" +
+              "content-type:text/plain; charset=UTF-8\r\n" +
+              "content-transfer-encoding:7bit\r\n" +
+              "dkim-signature:" + unsignedValue;
+
+        final Signature verifier = Signature.getInstance("SHA256withRSA");
+        verifier.initVerify(keyPair.getPublic());
+        verifier.update(signedData.getBytes(StandardCharsets.US_ASCII));
+
+        assertTrue(verifier.verify(Base64.getDecoder().decode(value.substring(signatureAt))));
+    }
+
+    private static @NotNull String
+    relaxedBodyHash(@NotNull String body) throws NoSuchAlgorithmException
+    {
+        final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+
+        DkimCanonicalizer.digestRelaxedBody(body.getBytes(StandardCharsets.US_ASCII), digest);
+
+        return Base64.getEncoder().encodeToString(digest.digest());
+    }
+}
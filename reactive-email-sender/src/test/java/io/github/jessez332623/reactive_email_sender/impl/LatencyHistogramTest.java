@@ -0,0 +1,111 @@
+package io.github.jessez332623.reactive_email_sender.impl;
+
+import io.github.jessez332623.reactive_email_sender.dto.SenderStats;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * <p>{@link LatencyHistogram} 的测试。</p>
+ *
+ * <p>
+ *     桶的划分必须首尾相接：每个桶的上界落在该桶内，上界 + 1 落在下一个桶内，
+ *     否则分位点会报告到错误的区间。
+ * </p>
+ */
+class LatencyHistogramTest
+{
+    private static final int BUCKETS = 128;
+
+    @Test
+    void upperBoundOfEveryBucketMapsBackToIt()
+    {
+        for (int index = 0; index < BUCKETS; ++index)
+        {
+            final long upperBound = LatencyHistogram.upperBoundOf(index);
+
+            assertEquals(index, LatencyHistogram.bucketOf(upperBound), "upper bound " + upperBound);
+
+            if (index + 1 < BUCKETS) {
+                assertEquals(index + 1, LatencyHistogram.bucketOf(upperBound + 1L), "after " + upperBound);
+            }
+        }
+
+        // 最后一个桶覆盖到约 2^32 ms，更大的值都计入它
+        assertEquals((1L << 32) - 1L, LatencyHistogram.upperBoundOf(BUCKETS - 1));
+        assertEquals(BUCKETS - 1, LatencyHistogram.bucketOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    void bucketsAreExactBelowSixteenMillis()
+    {
+        for (long millis = 0L; millis < 16L; ++millis)
+        {
+            assertEquals(millis, LatencyHistogram.bucketOf(millis));
+            assertEquals(millis, LatencyHistogram.upperBoundOf((int) millis));
+        }
+    }
+
+    @Test
+    void percentilesOfUniformDistribution()
+    {
+        final LatencyHistogram histogram = new LatencyHistogram(60L);
+
+        for (long millis = 1L; millis <= 100L; ++millis) {
+            histogram.record(millis);
+        }
+
+        final SenderStats.Latency latency = histogram.snapshot();
+
+        assertEquals(100L, latency.count());
+        assertEquals(100L, latency.max());
+
+        // 第 50 个值（50 ms）在 [48, 55] 桶，第 90 个值（90 ms）在 [80, 95] 桶
+        assertEquals(55L, latency.p50());
+        assertEquals(95L, latency.p90());
+
+        // 第 99 个值（99 ms）在 [96, 111] 桶，上界不超过观测到的最大值
+        assertEquals(100L, latency.p99());
+
+        // 相对误差不超过一个子桶（25%）
+        assertTrue(latency.p50() >= 50L && latency.p50() <= 50L * 5L / 4L);
+    }
+
+    @Test
+    void percentilesOfSkewedDistribution()
+    {
+        final LatencyHistogram histogram = new LatencyHistogram(60L);
+
+        // 990 次 5 ms，10 次 2000 ms：p50 精确为 5，p99 仍在快的一侧，p99 之外才是慢的请求
+        for (int count = 0; count < 990; ++count) {
+            histogram.record(5L);
+        }
+
+        for (int count = 0; count < 10; ++count) {
+            histogram.record(2_000L);
+        }
+
+        final SenderStats.Latency latency = histogram.snapshot();
+
+        assertEquals(1_000L, latency.count());
+        assertEquals(5L, latency.p50());
+        assertEquals(5L, latency.p99());
+        assertEquals(2_000L, latency.max());
+
+        histogram.record(2_000L);
+
+        // 再多一次慢请求后 p99 落入 [1792, 2047] 桶，以最大值为上限
+        assertEquals(2_000L, histogram.snapshot().p99());
+    }
+
+    @Test
+    void emptyHistogramReportsZero()
+    {
+        final SenderStats.Latency latency = new LatencyHistogram(60L).snapshot();
+
+        assertEquals(0L, latency.count());
+        assertEquals(0L, latency.p50());
+        assertEquals(0L, latency.p99());
+    }
+}
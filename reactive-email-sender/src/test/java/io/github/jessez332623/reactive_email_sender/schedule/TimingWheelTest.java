@@ -0,0 +1,204 @@
+package io.github.jessez332623.reactive_email_sender.schedule;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * <p>{@link TimingWheel} 的测试，时钟完全由测试给出。</p>
+ *
+ * <p>
+ *     重点是推进时的逐层下放（槽位边界）与跳跃（低层为空时直接跳到最低非空层的下一个边界），
+ *     以及超出最高层范围的条目：条目必须恰好到期一次，并且不早于发送时刻。
+ * </p>
+ */
+class TimingWheelTest
+{
+    private static final long SLOTS = 512L;
+
+    /** 不与任何一层槽位边界对齐的起始时刻 */
+    private static final long START = 1_760_000_000_123L;
+
+    @Test
+    void entriesAtSlotBoundariesFireExactlyOnceAndNeverEarly()
+    {
+        final TimingWheel wheel = new TimingWheel(1L, START);
+
+        final List<Long> offsets = new ArrayList<>();
+
+        offsets.add(1L);
+
+        for (long span : new long[] {SLOTS, SLOTS * SLOTS, SLOTS * SLOTS * SLOTS, SLOTS * SLOTS * SLOTS * SLOTS})
+        {
+            offsets.add(span - 1L);
+            offsets.add(span);
+            offsets.add(span + 1L);
+        }
+
+        // 超出最高层的范围（512^4 个刻度）之外，留在最高层轮转后重新放置
+        offsets.add(SLOTS * SLOTS * SLOTS * SLOTS * 3L + 12_345L);
+
+        final Map<Long, Long> dueAts = new HashMap<>();
+        long                  id     = 0L;
+
+        for (long offset : offsets) {
+            dueAts.put(++id, START + offset);
+        }
+
+        // 同时放入与绝对槽位边界对齐的发送时刻
+        for (long span : new long[] {SLOTS, SLOTS * SLOTS, SLOTS * SLOTS * SLOTS})
+        {
+            final long boundary = (START / span + 1L) * span;
+
+            dueAts.put(++id, boundary);
+            dueAts.put(++id, boundary + span);
+        }
+
+        dueAts.forEach(wheel::add);
+
+        // 依次推进到每个发送时刻的前一毫秒与发送时刻本身：前者不能取出该条目，后者必须取出
+        final TreeSet<Long> checkpoints = new TreeSet<>();
+
+        dueAts.values().forEach((dueAt) -> {
+            checkpoints.add(dueAt - 1L);
+            checkpoints.add(dueAt);
+        });
+
+        final Map<Long, Long> firedAt = new HashMap<>();
+
+        for (long now : checkpoints)
+        {
+            final List<ScheduledEmail> due = new ArrayList<>();
+            wheel.advance(now, due);
+
+            for (ScheduledEmail email : due)
+            {
+                assertNull(firedAt.put(email.id(), now), "fired twice: " + email);
+                assertEquals(dueAts.get(email.id()), email.dueAt());
+                assertEquals(email.dueAt(), now, "fired early or late: " + email);
+            }
+        }
+
+        assertEquals(dueAts.keySet(), firedAt.keySet());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void pastDueEntriesFireOnNextAdvance()
+    {
+        final TimingWheel wheel = new TimingWheel(1_000L, START);
+
+        wheel.add(1L, START - 60_000L);
+        wheel.add(2L, START);
+        wheel.add(3L, START + 1L);
+
+        final List<ScheduledEmail> due = new ArrayList<>();
+        wheel.advance(START, due);
+
+        assertEquals(List.of(1L), ids(due));
+
+        // 发送时刻向上取整到刻度（START 不在刻度上），START 与 START + 1 都要等到下一个刻度
+        due.clear();
+        wheel.advance(START + 1L, due);
+        assertTrue(due.isEmpty());
+
+        due.clear();
+        wheel.advance((START / 1_000L + 1L) * 1_000L, due);
+        assertEquals(List.of(2L, 3L), ids(due));
+
+        // 推进之后再加入已经过期的条目，下一次推进（即使时间没有前进）立即取出
+        wheel.add(4L, START);
+
+        due.clear();
+        wheel.advance((START / 1_000L + 1L) * 1_000L, due);
+        assertEquals(List.of(4L), ids(due));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void longPauseDoesNotLoseEntries()
+    {
+        final TimingWheel wheel  = new TimingWheel(1L, START);
+        final Random      random = new Random(7L);
+
+        for (long id = 1L; id <= 10_000L; ++id) {
+            wheel.add(id, START + 1L + (long) (random.nextDouble() * SLOTS * SLOTS * SLOTS * 2L));
+        }
+
+        final List<ScheduledEmail> due = new ArrayList<>();
+        wheel.advance(START + SLOTS * SLOTS * SLOTS * 2L + 1L, due);
+
+        assertEquals(10_000, due.size());
+        assertEquals(10_000, new TreeSet<>(ids(due)).size());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void randomClockStepsNeverFireEarlyLateOrTwice()
+    {
+        final long        tick   = 7L;
+        final TimingWheel wheel  = new TimingWheel(tick, START);
+        final Random      random = new Random(20261019L);
+
+        final Map<Long, Long> pending = new HashMap<>();
+        long                  now     = START;
+        long                  nextId  = 0L;
+
+        for (int step = 0; step < 5_000; ++step)
+        {
+            // 穿插加入各种距离的条目，包括已经过期的
+            for (int count = random.nextInt(4); count > 0; --count)
+            {
+                final long span  = (long) Math.pow(SLOTS, random.nextInt(4)) * tick;
+                final long dueAt = now - tick + (long) (random.nextDouble() * span * 2L);
+
+                wheel.add(++nextId, dueAt);
+                pending.put(nextId, dueAt);
+            }
+
+            // 大多是小步前进，偶尔长时间停顿
+            final long previous = now;
+
+            now += random.nextInt(10) == 0
+                ? (long) (random.nextDouble() * SLOTS * SLOTS * tick * 4L)
+                : random.nextInt((int) (SLOTS * tick));
+
+            final List<ScheduledEmail> due = new ArrayList<>();
+            wheel.advance(now, due);
+
+            for (ScheduledEmail email : due)
+            {
+                assertEquals(pending.remove(email.id()), email.dueAt(), "fired twice: " + email);
+                assertTrue(email.dueAt() <= now, "fired early: " + email);
+            }
+
+            // 上一次推进之后到期（且已经过了刻度）的条目都应该在这一次取出
+            for (long dueAt : pending.values())
+            {
+                assertFalse(
+                    Math.ceilDiv(dueAt, tick) * tick <= now,
+                    "missed entry due at " + dueAt + " (previous " + previous + ", now " + now + ")"
+                );
+            }
+
+            assertEquals(pending.size(), wheel.size());
+        }
+    }
+
+    private static @NotNull List<Long>
+    ids(@NotNull List<ScheduledEmail> due)
+    {
+        return due.stream().map(ScheduledEmail::id).sorted().toList();
+    }
+}
@@ -0,0 +1,279 @@
+package io.github.jessez332623.reactive_email_sender.suppression;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * <p>{@link HashedSuppressionList} 的测试。</p>
+ *
+ * <p>
+ *     回移删除的错误通常只在探测链跨过表尾、绕回表头时出现，
+ *     因此专门挑选落在最小散列表（64 个槽位）末尾几个槽位的地址，
+ *     以多种顺序增删后与 {@link HashSet} 的结果逐一比较。
+ * </p>
+ */
+class HashedSuppressionListTest
+{
+    /** 最小散列表的槽位数（预计地址数很少时的容量）*/
+    private static final int MIN_CAPACITY = 64;
+
+    /** 最小散列表不触发扩容时最多容纳的地址数（负载因子 0.6）*/
+    private static final int MAX_ENTRIES_WITHOUT_REHASH = 38;
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void addAndRemoveAroundWrapAroundClusters(boolean bloomFilter)
+    {
+        // 散列落在 62、63、0、1 号槽位的地址，插入后形成跨越表尾的探测链
+        final List<String> clustered = addressesWithHomes(Set.of(62, 63, 0, 1), 30);
+        final Random       random    = new Random(20261019L);
+
+        for (int round = 0; round < 200; ++round)
+        {
+            final HashedSuppressionList list     = new HashedSuppressionList(1, bloomFilter);
+            final Set<String>           expected = new HashSet<>();
+            final List<String>          order    = new ArrayList<>(clustered);
+
+            Collections.shuffle(order, random);
+
+            for (String address : order)
+            {
+                assertTrue(list.add(address));
+                expected.add(address);
+            }
+
+            assertEquals(MIN_CAPACITY * Long.BYTES, list.getMemoryBytes() - bloomBytes(bloomFilter));
+
+            Collections.shuffle(order, random);
+
+            for (String address : order)
+            {
+                assertTrue(list.remove(address), address);
+                assertFalse(list.remove(address), address);
+                expected.remove(address);
+
+                assertSameContents(expected, clustered, list);
+            }
+
+            assertEquals(0, list.size());
+        }
+    }
+
+    @Test
+    void interleavedAddAndRemoveMatchesHashSet()
+    {
+        final List<String> clustered = addressesWithHomes(Set.of(61, 62, 63, 0, 1, 2), MAX_ENTRIES_WITHOUT_REHASH);
+        final Random       random    = new Random(42L);
+
+        final HashedSuppressionList list     = new HashedSuppressionList(1, false);
+        final Set<String>           expected = new HashSet<>();
+
+        for (int step = 0; step < 20_000; ++step)
+        {
+            final String address = clustered.get(random.nextInt(clustered.size()));
+
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(address), list.add(address), address);
+            }
+            else {
+                assertEquals(expected.remove(address), list.remove(address), address);
+            }
+
+            assertEquals(expected.size(), list.size());
+        }
+
+        assertSameContents(expected, clustered, list);
+    }
+
+    @Test
+    void growsPastInitialCapacity()
+    {
+        final HashedSuppressionList list = new HashedSuppressionList(1, true);
+        final long initialBytes          = list.getMemoryBytes();
+
+        for (int index = 0; index < 100_000; ++index) {
+            assertTrue(list.add("user" + index + "@example.com"));
+        }
+
+        assertEquals(100_000, list.size());
+        assertTrue(list.getMemoryBytes() > initialBytes);
+
+        for (int index = 0; index < 100_000; ++index) {
+            assertTrue(list.isSuppressed("user" + index + "@example.com"));
+        }
+
+        for (int index = 0; index < 100_000; index += 2) {
+            assertTrue(list.remove("user" + index + "@example.com"));
+        }
+
+        for (int index = 0; index < 100_000; ++index) {
+            assertEquals(index % 2 == 1, list.isSuppressed("user" + index + "@example.com"));
+        }
+
+        assertEquals(50_000, list.size());
+        assertFalse(list.isSuppressed("someone-else@example.com"));
+    }
+
+    @Test
+    void normalizesCaseAndWhitespace()
+    {
+        final HashedSuppressionList list = new HashedSuppressionList(16, true);
+
+        assertTrue(list.add("  Jesse.Z@Example.COM \t"));
+        assertFalse(list.add("jesse.z@example.com"));
+
+        assertTrue(list.isSuppressed("JESSE.Z@EXAMPLE.COM"));
+        assertTrue(list.isSuppressed("\njesse.z@example.com  "));
+        assertFalse(list.isSuppressed("jesse.z@example.co"));
+
+        // 非 ASCII 字符同样不区分大小写
+        assertTrue(list.add("ÄNNE@example.com"));
+        assertTrue(list.isSuppressed("änne@example.com"));
+
+        assertTrue(list.remove(" JESSE.z@example.com"));
+        assertFalse(list.isSuppressed("jesse.z@example.com"));
+        assertEquals(1, list.size());
+    }
+
+    @Test
+    void loadsAddressFileSkippingCommentsAndBlankLines(@TempDir Path directory) throws IOException
+    {
+        final Path file = directory.resolve("addresses.txt");
+
+        Files.writeString(file, "# bounced\nA@example.com\n\n  b@example.com  \na@EXAMPLE.com\n");
+
+        final HashedSuppressionList list = new HashedSuppressionList(16, true);
+
+        assertEquals(2, list.loadAddresses(file));
+        assertTrue(list.isSuppressed("a@example.com"));
+        assertTrue(list.isSuppressed("b@example.com"));
+        assertFalse(list.isSuppressed("# bounced"));
+    }
+
+    @Test
+    void snapshotRoundTrip(@TempDir Path directory) throws IOException
+    {
+        final HashedSuppressionList source = new HashedSuppressionList(1, true);
+
+        for (int index = 0; index < 5_000; ++index) {
+            source.add("user" + index + "@example.com");
+        }
+
+        final Path snapshot = directory.resolve("nested").resolve("suppression.bin");
+        source.writeSnapshot(snapshot);
+
+        assertEquals(13L + 5_000L * Long.BYTES, Files.size(snapshot));
+        assertFalse(Files.exists(snapshot.resolveSibling("suppression.bin.tmp")));
+
+        final HashedSuppressionList target = new HashedSuppressionList(1, false);
+        target.add("user0@example.com");
+        target.add("other@example.com");
+
+        // 已有的地址不重复计数
+        assertEquals(4_999, target.loadSnapshot(snapshot));
+        assertEquals(5_001, target.size());
+
+        for (int index = 0; index < 5_000; ++index) {
+            assertTrue(target.isSuppressed("user" + index + "@example.com"));
+        }
+
+        assertTrue(target.isSuppressed("other@example.com"));
+        assertFalse(target.isSuppressed("user5000@example.com"));
+    }
+
+    @Test
+    void rejectsTruncatedOrForeignSnapshots(@TempDir Path directory) throws IOException
+    {
+        final HashedSuppressionList source = new HashedSuppressionList(16, true);
+
+        source.add("a@example.com");
+        source.add("b@example.com");
+
+        final Path snapshot = directory.resolve("suppression.bin");
+        source.writeSnapshot(snapshot);
+
+        final byte[] bytes = Files.readAllBytes(snapshot);
+
+        // 缺少最后一个条目的部分字节
+        final Path torn = directory.resolve("torn.bin");
+        Files.write(torn, Arrays.copyOf(bytes, bytes.length - 3));
+
+        // 只剩半个文件头
+        final Path header = directory.resolve("header.bin");
+        Files.write(header, Arrays.copyOf(bytes, 6));
+
+        // 文件头声明的条目数多于实际写出的条目
+        final byte[] inflated = bytes.clone();
+        ByteBuffer.wrap(inflated).putLong(5, 3L);
+
+        final Path overCounted = directory.resolve("over-counted.bin");
+        Files.write(overCounted, inflated);
+
+        // 魔数不对
+        final Path foreign = directory.resolve("foreign.bin");
+        Files.write(foreign, "not a snapshot at all".getBytes());
+
+        for (Path corrupt : List.of(torn, header, overCounted, foreign))
+        {
+            final HashedSuppressionList target = new HashedSuppressionList(16, true);
+
+            assertThrows(IOException.class, () -> target.loadSnapshot(corrupt), corrupt.toString());
+            assertEquals(0, target.size());
+        }
+    }
+
+    /** 按 home 槽位（最小散列表中散列的下标）挑选 count 个地址。*/
+    private static @NotNull List<String>
+    addressesWithHomes(@NotNull Set<Integer> homes, int count)
+    {
+        final List<String> addresses = new ArrayList<>();
+
+        for (int index = 0; addresses.size() < count; ++index)
+        {
+            final String address = "user" + index + "@example.com";
+            final int    home    = (int) HashedSuppressionList.hash(address) & (MIN_CAPACITY - 1);
+
+            if (homes.contains(home)) {
+                addresses.add(address);
+            }
+        }
+
+        return addresses;
+    }
+
+    private static void
+    assertSameContents(
+        @NotNull Set<String> expected, @NotNull List<String> candidates,
+        @NotNull HashedSuppressionList list)
+    {
+        assertEquals(expected.size(), list.size());
+
+        for (String address : candidates) {
+            assertEquals(expected.contains(address), list.isSuppressed(address), address);
+        }
+    }
+
+    private static long bloomBytes(boolean bloomFilter) {
+        return bloomFilter ? MIN_CAPACITY / 8 * Long.BYTES : 0L;
+    }
+}
@@ -0,0 +1,102 @@
+package io.github.jessez332623.reactive_email_sender.utils;
+
+import io.github.jessez332623.reactive_email_sender.dto.EmailContent;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * <p>{@link EmailContentCodec} 的测试。</p>
+ *
+ * <p>损坏的长度前缀必须以 {@link IOException} 拒绝，而不是按前缀分配数组。</p>
+ */
+class EmailContentCodecTest
+{
+    @Test
+    void roundTrip() throws IOException
+    {
+        final EmailContent content
+            = EmailContent.builder()
+                .to("user@example.com")
+                .subject("主题")
+                .textBody("正文")
+                .attachmentName("a.bin")
+                .attachmentData(new byte[] {1, 2, 3})
+                .build();
+
+        final byte[]       bytes = encode(content);
+        final EmailContent read  = EmailContentCodec.read(input(bytes), bytes.length);
+
+        assertEquals("user@example.com", read.getTo());
+        assertEquals("主题", read.getSubject());
+        assertEquals("正文", read.getTextBody());
+        assertEquals("a.bin", read.getAttachmentName());
+        assertArrayEquals(new byte[] {1, 2, 3}, read.getAttachmentData());
+    }
+
+    @Test
+    void nullFieldsRoundTrip() throws IOException
+    {
+        final byte[] bytes = encode(EmailContent.builder().to("user@example.com").build());
+
+        final EmailContent read = EmailContentCodec.read(input(bytes), bytes.length);
+
+        assertNull(read.getSubject());
+        assertNull(read.getAttachmentData());
+    }
+
+    @Test
+    void rejectsLengthPrefixBeyondLimit()
+    {
+        final byte[] huge = ByteBuffer.allocate(Integer.BYTES).putInt(Integer.MAX_VALUE).array();
+
+        final IOException exception
+            = assertThrows(IOException.class, () -> EmailContentCodec.readBytes(input(huge), huge.length));
+
+        assertEquals("corrupt record", exception.getMessage());
+
+        final byte[] negative = ByteBuffer.allocate(Integer.BYTES).putInt(-2).array();
+
+        assertThrows(IOException.class, () -> EmailContentCodec.readBytes(input(negative), negative.length));
+    }
+
+    @Test
+    void rejectsTruncatedRecord() throws IOException
+    {
+        final byte[] bytes
+            = encode(EmailContent.builder().to("user@example.com").attachmentData(new byte[1024]).build());
+
+        final byte[] torn = Arrays.copyOf(bytes, bytes.length - 10);
+
+        assertThrows(IOException.class, () -> EmailContentCodec.read(input(torn), torn.length));
+    }
+
+    private static byte @NotNull []
+    encode(@NotNull EmailContent content) throws IOException
+    {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            EmailContentCodec.write(output, content);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private static @NotNull DataInputStream
+    input(byte @NotNull [] bytes) {
+        return new DataInputStream(new ByteArrayInputStream(bytes));
+    }
+}
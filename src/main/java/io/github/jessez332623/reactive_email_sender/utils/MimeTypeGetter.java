@@ -1,70 +0,0 @@
-package io.github.jessez332623.reactive_email_sender.utils;
-
-import lombok.AccessLevel;
-import lombok.NoArgsConstructor;
-
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Objects;
-
-/** 附件 Mine Type 获取器。*/
-@NoArgsConstructor(access = AccessLevel.PRIVATE)
-public final class MimeTypeGetter
-{
-    /** 默认的二进制流类型。*/
-    private final static
-    String DEFAULT_MIME_TYPE = "application/octet-stream";
-
-    /** 常用的 Mine Type 映射表。*/
-    private static final
-    Map<String, String> MIME_TYPES = new HashMap<>();
-
-    /* 在这个工具类构建时填入常用的 Mine Type 映射。*/
-    static {
-        MIME_TYPES.put("pdf", "application/pdf");
-        MIME_TYPES.put("doc", "application/msword");
-        MIME_TYPES.put("docx", "application/vnd.openxmlformats-officedocument.wordprocessingml.document");
-        MIME_TYPES.put("xls", "application/vnd.ms-excel");
-        MIME_TYPES.put("xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
-        MIME_TYPES.put("ppt", "application/vnd.ms-powerpoint");
-        MIME_TYPES.put("pptx", "application/vnd.openxmlformats-officedocument.presentationml.presentation");
-
-        MIME_TYPES.put("jpg", "image/jpeg");
-        MIME_TYPES.put("jpeg", "image/jpeg");
-        MIME_TYPES.put("png", "image/png");
-        MIME_TYPES.put("gif", "image/gif");
-        MIME_TYPES.put("bmp", "image/bmp");
-        MIME_TYPES.put("svg", "image/svg+xml");
-        MIME_TYPES.put("webp", "image/webp");
-
-        MIME_TYPES.put("json", "application/json");
-        MIME_TYPES.put("txt", "text/plain");
-        MIME_TYPES.put("html", "text/html");
-        MIME_TYPES.put("xml", "application/xml");
-
-        MIME_TYPES.put("zip", "application/zip");
-        MIME_TYPES.put("7z", "application/x-7z-compressed");
-        MIME_TYPES.put("rar", "application/x-rar-compressed");
-    }
-
-    /** 通过文件名后缀尝试映射对应的 Mine Type。*/
-    public static String
-    getMimeTypeFromExtension(String fileName)
-    {
-        if (Objects.isNull(fileName) || fileName.trim().isEmpty()) {
-            return DEFAULT_MIME_TYPE;
-        }
-
-        int dotIndex = fileName.lastIndexOf(".");
-
-        if (dotIndex < 0 || dotIndex == fileName.length() - 1) {
-            return DEFAULT_MIME_TYPE;
-        }
-
-        return
-        MIME_TYPES.getOrDefault(
-            fileName.substring(dotIndex + 1).toLowerCase(),
-            DEFAULT_MIME_TYPE
-        );
-    }
-}
\ No newline at end of file